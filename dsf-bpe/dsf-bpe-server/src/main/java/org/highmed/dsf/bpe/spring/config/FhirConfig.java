@@ -1,5 +1,8 @@
 package org.highmed.dsf.bpe.spring.config;
 
+import static org.highmed.dsf.bpe.ConstantsBase.CODESYSTEM_HIGHMED_BPMN;
+import static org.highmed.dsf.bpe.ConstantsBase.CODESYSTEM_HIGHMED_BPMN_VALUE_BUSINESS_KEY;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -34,6 +37,7 @@ import org.highmed.dsf.fhir.service.ReferenceCleaner;
 import org.highmed.dsf.fhir.service.ReferenceCleanerImpl;
 import org.highmed.dsf.fhir.service.ReferenceExtractor;
 import org.highmed.dsf.fhir.service.ReferenceExtractorImpl;
+import org.highmed.dsf.fhir.subscription.ConcurrentResourceHandler;
 import org.highmed.dsf.fhir.subscription.SubscriptionHandlerFactory;
 import org.highmed.dsf.fhir.task.TaskHandler;
 import org.highmed.dsf.fhir.task.TaskHelper;
@@ -191,10 +195,20 @@ public class FhirConfig implements InitializingBean
 				clientProvider().getLocalWebserviceClient(), taskHelper());
 	}
 
+	@Bean
+	public ConcurrentResourceHandler<Task> concurrentTaskHandler()
+	{
+		return new ConcurrentResourceHandler<>(taskHandler(),
+				task -> taskHelper().getFirstInputParameterStringValue(task, CODESYSTEM_HIGHMED_BPMN,
+						CODESYSTEM_HIGHMED_BPMN_VALUE_BUSINESS_KEY).orElse(null),
+				daoConfig.lastEventTimeDaoTask(), propertiesConfig.getTaskHandlerThreads(),
+				propertiesConfig.getTaskHandlerQueueSize());
+	}
+
 	@Bean
 	public SubscriptionHandlerFactory<Task> taskSubscriptionHandlerFactory()
 	{
-		return new TaskSubscriptionHandlerFactory(taskHandler(), daoConfig.lastEventTimeDaoTask());
+		return new TaskSubscriptionHandlerFactory(concurrentTaskHandler(), daoConfig.lastEventTimeDaoTask());
 	}
 
 	@Bean
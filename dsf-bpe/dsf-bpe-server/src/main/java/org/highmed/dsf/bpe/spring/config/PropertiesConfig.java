@@ -138,6 +138,14 @@ public class PropertiesConfig
 	@Value("${org.highmed.dsf.bpe.fhir.task.subscription.retry.sleep:5000}")
 	private long websocketRetrySleepMillis;
 
+	@Documentation(description = "Number of threads used to handle Task resources received from the DSF FHIR server, Task resources with the same business-key are handled one after another")
+	@Value("${org.highmed.dsf.bpe.fhir.task.handler.threads:4}")
+	private int taskHandlerThreads;
+
+	@Documentation(description = "Maximum number of received Task resources waiting to be handled, receiving further Task resources blocks until Task resources have been handled")
+	@Value("${org.highmed.dsf.bpe.fhir.task.handler.queue.size:100}")
+	private int taskHandlerQueueSize;
+
 	@Documentation(description = "Factory for client implementations used to connect to a Master Patient Index (MPI) server in order to read patient demographic data", recommendation = "The default value is a factory for a stub implementation, change to a factory for client implementation that matches the API of your MPI")
 	@Value("${org.highmed.dsf.bpe.mpi.webservice.factory.class:org.highmed.mpi.client.stub.MasterPatientIndexClientStubFactory}")
 	private String masterPatientIndexClientFactoryClass;
@@ -416,6 +424,16 @@ public class PropertiesConfig
 		return websocketRetrySleepMillis;
 	}
 
+	public int getTaskHandlerThreads()
+	{
+		return taskHandlerThreads;
+	}
+
+	public int getTaskHandlerQueueSize()
+	{
+		return taskHandlerQueueSize;
+	}
+
 	public int getWebsocketMaxRetries()
 	{
 		return websocketMaxRetries;
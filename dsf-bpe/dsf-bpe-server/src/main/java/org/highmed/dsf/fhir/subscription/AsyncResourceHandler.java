@@ -0,0 +1,18 @@
+package org.highmed.dsf.fhir.subscription;
+
+import org.highmed.dsf.fhir.websocket.ResourceHandler;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * {@link ResourceHandler} handling resources asynchronously. Implementations write the last event time themselves, once
+ * all resources up to the written time have been handled.
+ */
+public interface AsyncResourceHandler<R extends Resource> extends ResourceHandler<R>
+{
+	/**
+	 * Blocks until all resources passed to {@link #onResource(Resource)} have been handled
+	 *
+	 * @throws InterruptedException
+	 */
+	void awaitHandled() throws InterruptedException;
+}
@@ -0,0 +1,247 @@
+package org.highmed.dsf.fhir.subscription;
+
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.highmed.dsf.bpe.dao.LastEventTimeDao;
+import org.highmed.dsf.fhir.websocket.ResourceHandler;
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Handles resources with a bounded number of worker threads. Resources with the same ordering key are handled one after
+ * another in the order received, resources with different or without ordering keys are handled concurrently.
+ * {@link #onResource(Resource)} blocks while the configured number of resources are waiting to be handled.
+ * <p>
+ * The last event time is only advanced to the last updated time of a handled resource if all received resources with an
+ * earlier or equal last updated time have been handled.
+ */
+public class ConcurrentResourceHandler<R extends Resource>
+		implements AsyncResourceHandler<R>, InitializingBean, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ConcurrentResourceHandler.class);
+
+	private final ResourceHandler<R> delegate;
+	private final Function<R, String> orderingKey;
+	private final LastEventTimeDao lastEventTimeDao;
+	private final int threads;
+	private final int maxQueueSize;
+
+	private final ExecutorService executor;
+	private final Semaphore queueCapacity;
+
+	private final Map<String, CompletableFuture<Void>> lastByOrderingKey = new HashMap<>();
+
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final Object lastEventTimeLock = new Object();
+	private final TreeMap<Long, Integer> pendingLastUpdated = new TreeMap<>();
+	private final TreeSet<Long> handledLastUpdated = new TreeSet<>();
+	private long lastEventTime = Long.MIN_VALUE;
+	private int pending;
+
+	/**
+	 * @param delegate
+	 *            not <code>null</code>
+	 * @param orderingKey
+	 *            not <code>null</code>, may return <code>null</code> for resources that can be handled in any order
+	 * @param lastEventTimeDao
+	 *            not <code>null</code>
+	 * @param threads
+	 *            &gt; 0
+	 * @param maxQueueSize
+	 *            &gt; 0
+	 */
+	public ConcurrentResourceHandler(ResourceHandler<R> delegate, Function<R, String> orderingKey,
+			LastEventTimeDao lastEventTimeDao, int threads, int maxQueueSize)
+	{
+		this.delegate = delegate;
+		this.orderingKey = orderingKey;
+		this.lastEventTimeDao = lastEventTimeDao;
+		this.threads = threads;
+		this.maxQueueSize = maxQueueSize;
+
+		executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		queueCapacity = new Semaphore(Math.max(1, maxQueueSize));
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(delegate, "delegate");
+		Objects.requireNonNull(orderingKey, "orderingKey");
+		Objects.requireNonNull(lastEventTimeDao, "lastEventTimeDao");
+		if (threads <= 0)
+			throw new IllegalArgumentException("threads <= 0");
+		if (maxQueueSize <= 0)
+			throw new IllegalArgumentException("maxQueueSize <= 0");
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		executor.shutdown();
+		if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+			executor.shutdownNow();
+	}
+
+	/**
+	 * @return number of received resources waiting for a worker thread or for resources with the same ordering key
+	 */
+	public int getQueueDepth()
+	{
+		return queued.get();
+	}
+
+	/**
+	 * @return number of resources currently handled by worker threads
+	 */
+	public int getInFlight()
+	{
+		return inFlight.get();
+	}
+
+	@Override
+	public void onResource(R resource)
+	{
+		if (!queueCapacity.tryAcquire())
+		{
+			logger.debug("Queue full ({} queued, {} in flight), waiting", getQueueDepth(), getInFlight());
+			queueCapacity.acquireUninterruptibly();
+		}
+
+		Long lastUpdated = resource.getMeta().hasLastUpdated() ? resource.getMeta().getLastUpdated().getTime() : null;
+		addPending(lastUpdated);
+		queued.incrementAndGet();
+
+		String key = orderingKey.apply(resource);
+		Runnable handle = () -> handle(resource, lastUpdated);
+
+		if (key == null)
+			CompletableFuture.runAsync(handle, executor);
+		else
+		{
+			synchronized (lastByOrderingKey)
+			{
+				CompletableFuture<Void> previous = lastByOrderingKey.get(key);
+				CompletableFuture<Void> next = previous == null ? CompletableFuture.runAsync(handle, executor)
+						: previous.thenRunAsync(handle, executor);
+				lastByOrderingKey.put(key, next);
+
+				next.whenComplete((r, e) ->
+				{
+					synchronized (lastByOrderingKey)
+					{
+						lastByOrderingKey.remove(key, next);
+					}
+				});
+			}
+		}
+
+		logger.trace("{} queued, {} in flight", getQueueDepth(), getInFlight());
+	}
+
+	private void handle(R resource, Long lastUpdated)
+	{
+		queued.decrementAndGet();
+		inFlight.incrementAndGet();
+
+		try
+		{
+			delegate.onResource(resource);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error while handling {} with id {}", resource.getResourceType().name(),
+					resource.getIdElement().getIdPart(), e);
+		}
+		finally
+		{
+			inFlight.decrementAndGet();
+			queueCapacity.release();
+
+			handled(lastUpdated);
+		}
+	}
+
+	private void addPending(Long lastUpdated)
+	{
+		synchronized (lastEventTimeLock)
+		{
+			pending++;
+
+			if (lastUpdated != null)
+				pendingLastUpdated.merge(lastUpdated, 1, Integer::sum);
+		}
+	}
+
+	private void handled(Long lastUpdated)
+	{
+		synchronized (lastEventTimeLock)
+		{
+			if (lastUpdated != null)
+			{
+				pendingLastUpdated.computeIfPresent(lastUpdated, (t, count) -> count > 1 ? count - 1 : null);
+				handledLastUpdated.add(lastUpdated);
+			}
+
+			// all resources with last updated time < first pending time handled
+			Long firstPending = pendingLastUpdated.isEmpty() ? null : pendingLastUpdated.firstKey();
+			Long newLastEventTime = firstPending == null
+					? (handledLastUpdated.isEmpty() ? null : handledLastUpdated.last())
+					: handledLastUpdated.lower(firstPending);
+
+			if (newLastEventTime != null)
+			{
+				handledLastUpdated.headSet(newLastEventTime, true).clear();
+
+				if (newLastEventTime > lastEventTime)
+				{
+					writeLastEventTime(new Date(newLastEventTime));
+					lastEventTime = newLastEventTime;
+				}
+			}
+
+			pending--;
+			lastEventTimeLock.notifyAll();
+		}
+	}
+
+	private void writeLastEventTime(Date lastUpdated)
+	{
+		try
+		{
+			lastEventTimeDao.writeLastEventTime(lastUpdated);
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Unable to write last event time to db: {} - {}", e.getClass().getName(), e.getMessage());
+		}
+	}
+
+	@Override
+	public void awaitHandled() throws InterruptedException
+	{
+		synchronized (lastEventTimeLock)
+		{
+			while (pending > 0)
+				lastEventTimeLock.wait();
+		}
+	}
+}
@@ -36,7 +36,10 @@ public class EventResourceHandlerImpl<R extends Resource> implements EventResour
 			@SuppressWarnings("unchecked")
 			R cast = (R) resource;
 			handler.onResource(cast);
-			writeLastEventTime(cast.getMeta().getLastUpdated());
+
+			// async handlers write the last event time after handling the resource
+			if (!(handler instanceof AsyncResourceHandler))
+				writeLastEventTime(cast.getMeta().getLastUpdated());
 		}
 		else
 		{
@@ -89,7 +89,10 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 					@SuppressWarnings("unchecked")
 					R resource = (R) entry.getResource();
 					handler.onResource(resource);
-					writeLastEventTime(resource.getMeta().getLastUpdated());
+
+					// async handlers write the last event time after handling the resource
+					if (!(handler instanceof AsyncResourceHandler))
+						writeLastEventTime(resource.getMeta().getLastUpdated());
 				}
 				else
 				{
@@ -103,9 +106,26 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 			}
 		}
 
+		// next search depends on the last event time of the resources from this page
+		if (handler instanceof AsyncResourceHandler)
+			awaitHandled((AsyncResourceHandler<R>) handler);
+
 		return true;
 	}
 
+	private void awaitHandled(AsyncResourceHandler<R> handler)
+	{
+		try
+		{
+			handler.awaitHandled();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
 	private Optional<LocalDateTime> readLastEventTime()
 	{
 		try
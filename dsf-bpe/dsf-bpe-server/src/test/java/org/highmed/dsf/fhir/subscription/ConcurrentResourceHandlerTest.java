@@ -0,0 +1,126 @@
+package org.highmed.dsf.fhir.subscription;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.highmed.dsf.bpe.dao.LastEventTimeDao;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.After;
+import org.junit.Test;
+
+public class ConcurrentResourceHandlerTest
+{
+	private static final class LastEventTimeDaoMock implements LastEventTimeDao
+	{
+		final List<LocalDateTime> written = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public Optional<LocalDateTime> readLastEventTime()
+		{
+			return written.isEmpty() ? Optional.empty() : Optional.of(written.get(written.size() - 1));
+		}
+
+		@Override
+		public LocalDateTime writeLastEventTime(LocalDateTime lastEvent)
+		{
+			written.add(lastEvent);
+			return lastEvent;
+		}
+	}
+
+	private final LastEventTimeDaoMock lastEventTimeDao = new LastEventTimeDaoMock();
+	private ConcurrentResourceHandler<Task> handler;
+
+	@After
+	public void after() throws Exception
+	{
+		if (handler != null)
+			handler.destroy();
+	}
+
+	private Task task(String id, String businessKey, long lastUpdated)
+	{
+		Task task = new Task();
+		task.setId(id);
+		task.setDescription(businessKey);
+		task.getMeta().setLastUpdated(new Date(lastUpdated));
+		return task;
+	}
+
+	@Test
+	public void testSameOrderingKeyHandledInOrder() throws Exception
+	{
+		List<String> handled = Collections.synchronizedList(new ArrayList<>());
+
+		handler = new ConcurrentResourceHandler<>(t ->
+		{
+			try
+			{
+				Thread.sleep(t.getIdElement().getIdPart().equals("1") ? 100 : 0);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			handled.add(t.getIdElement().getIdPart());
+		}, Task::getDescription, lastEventTimeDao, 4, 10);
+		handler.afterPropertiesSet();
+
+		handler.onResource(task("1", "a", 1000));
+		handler.onResource(task("2", "a", 2000));
+		handler.onResource(task("3", "a", 3000));
+		handler.awaitHandled();
+
+		assertEquals(List.of("1", "2", "3"), handled);
+		assertEquals(0, handler.getQueueDepth());
+		assertEquals(0, handler.getInFlight());
+	}
+
+	@Test
+	public void testLastEventTimeNotAdvancedPastPendingResource() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch secondHandled = new CountDownLatch(1);
+
+		handler = new ConcurrentResourceHandler<>(t ->
+		{
+			try
+			{
+				if (t.getIdElement().getIdPart().equals("1"))
+					release.await();
+				else
+					secondHandled.countDown();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}, Task::getDescription, lastEventTimeDao, 2, 10);
+		handler.afterPropertiesSet();
+
+		handler.onResource(task("1", "a", 1000));
+		handler.onResource(task("2", "b", 2000));
+
+		assertTrue(secondHandled.await(5, TimeUnit.SECONDS));
+		Thread.sleep(50);
+		assertTrue(lastEventTimeDao.written.isEmpty());
+		assertEquals(1, handler.getInFlight());
+
+		release.countDown();
+		handler.awaitHandled();
+
+		assertEquals(List.of(LocalDateTime.ofInstant(Instant.ofEpochMilli(2000), ZoneId.systemDefault())),
+				lastEventTimeDao.written);
+	}
+}
@@ -25,12 +25,24 @@ public abstract class AbstractFhirAdapter<T extends BaseResource> implements Mes
 	public static final String PRETTY = "pretty";
 
 	private final Class<T> resourceType;
-	private final Supplier<IParser> parser;
+
+	/* Parsers are not guaranteed to be thread safe, instances are reused per thread */
+	private final ThreadLocal<IParser> parser;
+	private final ThreadLocal<IParser> prettyParser;
 
 	protected AbstractFhirAdapter(Class<T> resourceType, Supplier<IParser> parser)
 	{
 		this.resourceType = resourceType;
-		this.parser = parser;
+		this.parser = ThreadLocal.withInitial(() -> configureParser(parser.get(), false));
+		this.prettyParser = ThreadLocal.withInitial(() -> configureParser(parser.get(), true));
+	}
+
+	private static IParser configureParser(IParser p, boolean prettyPrint)
+	{
+		p.setStripVersionsFromReferences(false);
+		p.setOverrideResourceIdWithBundleEntryFullUrl(false);
+		p.setPrettyPrint(prettyPrint);
+		return p;
 	}
 
 	public final Class<? extends BaseResource> getResourceType()
@@ -45,15 +57,10 @@ public abstract class AbstractFhirAdapter<T extends BaseResource> implements Mes
 
 	private IParser getParser(MediaType mediaType)
 	{
-		/* Parsers are not guaranteed to be thread safe */
-		IParser p = parser.get();
-		p.setStripVersionsFromReferences(false);
-		p.setOverrideResourceIdWithBundleEntryFullUrl(false);
-
 		if (mediaType != null && "true".equals(mediaType.getParameters().getOrDefault(PRETTY, "false")))
-			p.setPrettyPrint(true);
-
-		return p;
+			return prettyParser.get();
+		else
+			return parser.get();
 	}
 
 	@Override
@@ -0,0 +1,86 @@
+package org.highmed.dsf.fhir.authentication;
+
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.highmed.dsf.fhir.cache.ExpiringCache;
+import org.highmed.dsf.fhir.event.Event;
+import org.highmed.dsf.fhir.event.EventHandler;
+import org.hl7.fhir.r4.model.Organization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Caches users by client certificate thumbprint and the local organization. All entries are removed if
+ * {@link Organization} resources are created, updated or deleted, entries expire after the configured time to live. Not
+ * found results are not cached.
+ */
+public class OrganizationProviderWithCache implements OrganizationProvider, EventHandler, InitializingBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(OrganizationProviderWithCache.class);
+
+	private static final String LOCAL_ORGANIZATION_KEY = "local";
+
+	private final OrganizationProvider delegate;
+	private final Duration timeToLive;
+	private final int maxSize;
+
+	private final ExpiringCache<String, Optional<User>> usersByThumbprint;
+	private final ExpiringCache<String, Optional<Organization>> localOrganization;
+
+	public OrganizationProviderWithCache(OrganizationProvider delegate, Duration timeToLive, int maxSize)
+	{
+		this.delegate = delegate;
+		this.timeToLive = timeToLive;
+		this.maxSize = maxSize;
+
+		usersByThumbprint = new ExpiringCache<>(timeToLive, maxSize);
+		localOrganization = new ExpiringCache<>(timeToLive, 1);
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(delegate, "delegate");
+		Objects.requireNonNull(timeToLive, "timeToLive");
+		if (timeToLive.isNegative() || timeToLive.isZero())
+			throw new IllegalArgumentException("timeToLive <= 0");
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("maxSize <= 0");
+
+		// delegate not a spring bean
+		if (delegate instanceof InitializingBean)
+			((InitializingBean) delegate).afterPropertiesSet();
+	}
+
+	@Override
+	public Optional<User> getOrganization(X509Certificate certificate)
+	{
+		if (certificate == null)
+			return Optional.empty();
+
+		return usersByThumbprint.get(OrganizationProviderWithDbBackend.getThumbprintHex(certificate),
+				() -> delegate.getOrganization(certificate), Optional::isPresent);
+	}
+
+	@Override
+	public Optional<Organization> getLocalOrganization()
+	{
+		return localOrganization.get(LOCAL_ORGANIZATION_KEY, delegate::getLocalOrganization, Optional::isPresent);
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null || !Organization.class.equals(event.getResourceType()))
+			return;
+
+		logger.debug("Organization {} changed, removing all authentication cache entries", event.getId());
+
+		usersByThumbprint.clear();
+		localOrganization.clear();
+	}
+}
@@ -95,7 +95,7 @@ public class OrganizationProviderWithDbBackend implements OrganizationProvider,
 		if (certificate == null)
 			return Optional.empty();
 
-		String loginThumbprintHex = Hex.encodeHexString(getThumbprint(certificate));
+		String loginThumbprintHex = getThumbprintHex(certificate);
 		String subjectDn = certificate.getSubjectX500Principal().getName(X500Principal.RFC1779);
 
 		logger.debug("Reading user-role and deleteAllowed status of '{}', thumbprint '{}' (SHA-512)", subjectDn,
@@ -129,11 +129,11 @@ public class OrganizationProviderWithDbBackend implements OrganizationProvider,
 				() -> dao.readActiveNotDeletedByIdentifier(localIdentifierValue), Optional::empty);
 	}
 
-	private byte[] getThumbprint(X509Certificate certificate)
+	static String getThumbprintHex(X509Certificate certificate)
 	{
 		try
 		{
-			return MessageDigest.getInstance("SHA-512").digest(certificate.getEncoded());
+			return Hex.encodeHexString(MessageDigest.getInstance("SHA-512").digest(certificate.getEncoded()));
 		}
 		catch (CertificateEncodingException | NoSuchAlgorithmException e)
 		{
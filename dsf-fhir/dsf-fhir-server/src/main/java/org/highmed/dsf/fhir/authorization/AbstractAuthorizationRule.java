@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Stream;
 
 import org.highmed.dsf.fhir.authentication.OrganizationProvider;
@@ -114,23 +115,79 @@ public abstract class AbstractAuthorizationRule<R extends Resource, D extends Re
 		}
 	}
 
-	protected List<OrganizationAffiliation> getAffiliations(Connection connection, User user)
+	@Override
+	public boolean isReadAllowedDecidableById()
 	{
-		if (user == null)
-			return Collections.emptyList();
+		return false;
+	}
+
+	@Override
+	public final Optional<String> reasonReadAllowed(User user, UUID resourceId, long resourceVersion)
+	{
+		if (!isReadAllowedDecidableById())
+			throw new UnsupportedOperationException();
+
+		try (Connection connection = daoProvider.newReadOnlyAutoCommitTransaction())
+		{
+			return reasonReadAllowed(connection, user, resourceId, resourceVersion);
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Error while accessing database", e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Only called if {@link #isReadAllowedDecidableById()} returns <code>true</code>. Override this method together
+	 * with {@link #isReadAllowedDecidableById()} for non default behavior. Default: Not supported.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param user
+	 *            not <code>null</code>
+	 * @param resourceId
+	 *            not <code>null</code>
+	 * @param resourceVersion
+	 *            version of the existing resource
+	 * @return Reason as String in {@link Optional#of(Object)} if read allowed
+	 * @throws UnsupportedOperationException
+	 *             if {@link #isReadAllowedDecidableById()} returns <code>false</code>
+	 */
+	protected Optional<String> reasonReadAllowed(Connection connection, User user, UUID resourceId,
+			long resourceVersion)
+	{
+		throw new UnsupportedOperationException();
+	}
 
-		Optional<String> identifierValue = user.getOrganization().getIdentifier().stream().filter(i -> i != null)
-				.filter(Identifier::hasSystem).filter(i -> ORGANIZATION_IDENTIFIER_SYSTEM.equals(i.getSystem()))
-				.filter(Identifier::hasValue).findFirst().map(Identifier::getValue);
+	protected List<OrganizationAffiliation> getAffiliations(Connection connection, User user)
+	{
+		Optional<String> identifierValue = getOrganizationIdentifierValue(user);
 
 		if (identifierValue.isEmpty())
 			return Collections.emptyList();
 
+		return readAffiliations(connection, identifierValue.get());
+	}
+
+	protected Optional<String> getOrganizationIdentifierValue(User user)
+	{
+		if (user == null)
+			return Optional.empty();
+
+		return user.getOrganization().getIdentifier().stream().filter(i -> i != null).filter(Identifier::hasSystem)
+				.filter(i -> ORGANIZATION_IDENTIFIER_SYSTEM.equals(i.getSystem())).filter(Identifier::hasValue)
+				.findFirst().map(Identifier::getValue);
+	}
+
+	protected List<OrganizationAffiliation> readAffiliations(Connection connection,
+			String memberOrganizationIdentifierValue)
+	{
 		try
 		{
 			return daoProvider.getOrganizationAffiliationDao()
 					.readActiveNotDeletedByMemberOrganizationIdentifierIncludingOrganizationIdentifiersWithTransaction(
-							connection, identifierValue.get());
+							connection, memberOrganizationIdentifierValue);
 		}
 		catch (SQLException e)
 		{
@@ -100,9 +100,23 @@ public abstract class AbstractMetaTagAuthorizationRule<R extends Resource, D ext
 	@Override
 	public final Optional<String> reasonReadAllowed(Connection connection, User user, R existingResource)
 	{
-		UserRole userRole = user.getRole();
 		UUID resourceId = parameterConverter.toUuid(resourceTypeName, existingResource.getIdElement().getIdPart());
 		long resourceVersion = existingResource.getIdElement().getVersionIdPartAsLong();
+
+		return reasonReadAllowed(connection, user, resourceId, resourceVersion);
+	}
+
+	@Override
+	public final boolean isReadAllowedDecidableById()
+	{
+		return true;
+	}
+
+	@Override
+	protected final Optional<String> reasonReadAllowed(Connection connection, User user, UUID resourceId,
+			long resourceVersion)
+	{
+		UserRole userRole = user.getRole();
 		UUID organizationId = parameterConverter.toUuid("Organization",
 				user.getOrganization().getIdElement().getIdPart());
 
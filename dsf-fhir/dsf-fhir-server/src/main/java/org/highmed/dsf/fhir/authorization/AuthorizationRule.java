@@ -2,6 +2,7 @@ package org.highmed.dsf.fhir.authorization;
 
 import java.sql.Connection;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.highmed.dsf.fhir.authentication.User;
 import org.hl7.fhir.r4.model.Resource;
@@ -58,6 +59,28 @@ public interface AuthorizationRule<R extends Resource>
 	 */
 	Optional<String> reasonReadAllowed(Connection connection, User user, R existingResource);
 
+	/**
+	 * Override this method if read access can be decided without the resource itself. Default: Not supported.
+	 *
+	 * @return <code>true</code> if {@link #reasonReadAllowed(User, UUID, long)} can be used to decide read access
+	 */
+	boolean isReadAllowedDecidableById();
+
+	/**
+	 * Override this method for non default behavior. Default: Not supported, see {@link #isReadAllowedDecidableById()}.
+	 *
+	 * @param user
+	 *            not <code>null</code>
+	 * @param resourceId
+	 *            not <code>null</code>
+	 * @param resourceVersion
+	 *            version of the existing resource
+	 * @return Reason as String in {@link Optional#of(Object)} if read allowed
+	 * @throws UnsupportedOperationException
+	 *             if {@link #isReadAllowedDecidableById()} returns <code>false</code>
+	 */
+	Optional<String> reasonReadAllowed(User user, UUID resourceId, long resourceVersion);
+
 	/**
 	 * Override this method for non default behavior. Default: Not allowed.
 	 *
@@ -0,0 +1,230 @@
+package org.highmed.dsf.fhir.authorization;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.highmed.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
+import org.highmed.dsf.fhir.authorization.process.Recipient;
+import org.highmed.dsf.fhir.authorization.process.Requester;
+import org.highmed.dsf.fhir.cache.ExpiringCache;
+import org.highmed.dsf.fhir.event.Event;
+import org.highmed.dsf.fhir.event.EventHandler;
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Caches requesters and recipients parsed from the process authorization extensions of {@link ActivityDefinition}
+ * resources and {@link OrganizationAffiliation} resources by member organization identifier. Entries are removed if
+ * resources of the corresponding types are created, updated or deleted and expire after the configured time to live.
+ * Only results read with connections in auto-commit mode are cached.
+ */
+public class ProcessAuthorizationCache implements EventHandler, InitializingBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ProcessAuthorizationCache.class);
+
+	public static final class Authorizations
+	{
+		private final List<Requester> requesters;
+		private final List<Recipient> recipients;
+
+		private Authorizations(List<Requester> requesters, List<Recipient> recipients)
+		{
+			this.requesters = Collections.unmodifiableList(requesters);
+			this.recipients = Collections.unmodifiableList(recipients);
+		}
+
+		public List<Requester> getRequesters()
+		{
+			return requesters;
+		}
+
+		public List<Recipient> getRecipients()
+		{
+			return recipients;
+		}
+	}
+
+	private static final class AuthorizationsKey
+	{
+		private final String activityDefinitionId;
+		private final String activityDefinitionVersion;
+		private final String processUrl;
+		private final String processVersion;
+		private final String messageName;
+		private final List<String> taskProfiles;
+
+		AuthorizationsKey(String activityDefinitionId, String activityDefinitionVersion, String processUrl,
+				String processVersion, String messageName, List<String> taskProfiles)
+		{
+			this.activityDefinitionId = activityDefinitionId;
+			this.activityDefinitionVersion = activityDefinitionVersion;
+			this.processUrl = processUrl;
+			this.processVersion = processVersion;
+			this.messageName = messageName;
+			this.taskProfiles = new ArrayList<>(taskProfiles);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(activityDefinitionId, activityDefinitionVersion, processUrl, processVersion,
+					messageName, taskProfiles);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+
+			AuthorizationsKey other = (AuthorizationsKey) obj;
+			return Objects.equals(activityDefinitionId, other.activityDefinitionId)
+					&& Objects.equals(activityDefinitionVersion, other.activityDefinitionVersion)
+					&& Objects.equals(processUrl, other.processUrl)
+					&& Objects.equals(processVersion, other.processVersion)
+					&& Objects.equals(messageName, other.messageName)
+					&& Objects.equals(taskProfiles, other.taskProfiles);
+		}
+	}
+
+	private final ProcessAuthorizationHelper processAuthorizationHelper;
+	private final Duration timeToLive;
+	private final int maxSize;
+
+	private final ExpiringCache<AuthorizationsKey, Authorizations> authorizations;
+	private final ExpiringCache<String, List<OrganizationAffiliation>> affiliations;
+
+	public ProcessAuthorizationCache(ProcessAuthorizationHelper processAuthorizationHelper, Duration timeToLive,
+			int maxSize)
+	{
+		this.processAuthorizationHelper = processAuthorizationHelper;
+		this.timeToLive = timeToLive;
+		this.maxSize = maxSize;
+
+		authorizations = new ExpiringCache<>(timeToLive, maxSize);
+		affiliations = new ExpiringCache<>(timeToLive, maxSize);
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(processAuthorizationHelper, "processAuthorizationHelper");
+		Objects.requireNonNull(timeToLive, "timeToLive");
+		if (timeToLive.isNegative())
+			throw new IllegalArgumentException("timeToLive < 0");
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("maxSize <= 0");
+	}
+
+	private boolean isEnabled()
+	{
+		return !timeToLive.isZero();
+	}
+
+	/*
+	 * Connections in auto-commit mode only see committed data, connections of batch and transaction bundles might see
+	 * changes not yet committed and later rolled back by the same transaction, results are neither read from nor
+	 * written to the cache.
+	 */
+	private boolean isCacheable(Connection connection)
+	{
+		try
+		{
+			return isEnabled() && connection.getAutoCommit();
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Error while accessing database connection, not using cache: {}", e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * @param connection
+	 *            not <code>null</code>, connection the {@link ActivityDefinition} was read with, cache not used if not
+	 *            in auto-commit mode
+	 * @param activityDefinition
+	 *            not <code>null</code>, read from the database including id and version
+	 * @param processUrl
+	 * @param processVersion
+	 * @param messageName
+	 * @param taskProfiles
+	 *            not <code>null</code>
+	 * @return requesters and recipients for the given message-name and task profiles, parsed once per
+	 *         {@link ActivityDefinition} version
+	 */
+	public Authorizations getAuthorizations(Connection connection, ActivityDefinition activityDefinition,
+			String processUrl, String processVersion, String messageName, List<String> taskProfiles)
+	{
+		Supplier<Authorizations> parse = () -> new Authorizations(
+				processAuthorizationHelper
+						.getRequesters(activityDefinition, processUrl, processVersion, messageName, taskProfiles)
+						.collect(Collectors.toList()),
+				processAuthorizationHelper
+						.getRecipients(activityDefinition, processUrl, processVersion, messageName, taskProfiles)
+						.collect(Collectors.toList()));
+
+		if (!isCacheable(connection) || !activityDefinition.getIdElement().hasIdPart()
+				|| !activityDefinition.getIdElement().hasVersionIdPart())
+			return parse.get();
+
+		AuthorizationsKey key = new AuthorizationsKey(activityDefinition.getIdElement().getIdPart(),
+				activityDefinition.getIdElement().getVersionIdPart(), processUrl, processVersion, messageName,
+				taskProfiles);
+
+		return authorizations.get(key, parse);
+	}
+
+	/**
+	 * @param connection
+	 *            not <code>null</code>, connection used by <b>read</b>, cache not used if not in auto-commit mode
+	 * @param memberOrganizationIdentifier
+	 *            not <code>null</code>
+	 * @param read
+	 *            not <code>null</code>, reads the affiliations from the database if not cached
+	 * @return affiliations of the organization with the given identifier
+	 */
+	public List<OrganizationAffiliation> getAffiliations(Connection connection, String memberOrganizationIdentifier,
+			Supplier<List<OrganizationAffiliation>> read)
+	{
+		if (!isCacheable(connection))
+			return read.get();
+
+		return affiliations.get(memberOrganizationIdentifier, () -> Collections.unmodifiableList(read.get()));
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null)
+			return;
+
+		if (ActivityDefinition.class.equals(event.getResourceType()))
+		{
+			logger.debug("ActivityDefinition {} changed, removing cached process authorizations", event.getId());
+
+			authorizations.clear();
+		}
+		else if (OrganizationAffiliation.class.equals(event.getResourceType())
+				|| Organization.class.equals(event.getResourceType()))
+		{
+			logger.debug("{} {} changed, removing cached organization affiliations",
+					event.getResourceType().getSimpleName(), event.getId());
+
+			affiliations.clear();
+		}
+	}
+}
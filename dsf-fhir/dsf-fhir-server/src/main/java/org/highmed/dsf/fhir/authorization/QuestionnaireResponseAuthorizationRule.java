@@ -8,6 +8,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.highmed.dsf.fhir.authentication.OrganizationProvider;
@@ -164,6 +165,24 @@ public class QuestionnaireResponseAuthorizationRule
 
 	@Override
 	public Optional<String> reasonReadAllowed(Connection connection, User user, QuestionnaireResponse existingResource)
+	{
+		return reasonReadAllowed(user);
+	}
+
+	@Override
+	public boolean isReadAllowedDecidableById()
+	{
+		return true;
+	}
+
+	@Override
+	protected Optional<String> reasonReadAllowed(Connection connection, User user, UUID resourceId,
+			long resourceVersion)
+	{
+		return reasonReadAllowed(user);
+	}
+
+	private Optional<String> reasonReadAllowed(User user)
 	{
 		if (isLocalUser(user))
 		{
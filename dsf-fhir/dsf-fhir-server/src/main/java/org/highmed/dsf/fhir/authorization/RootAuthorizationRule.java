@@ -2,6 +2,7 @@ package org.highmed.dsf.fhir.authorization;
 
 import java.sql.Connection;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.highmed.dsf.fhir.authentication.User;
 import org.hl7.fhir.r4.model.Resource;
@@ -42,6 +43,18 @@ public class RootAuthorizationRule implements AuthorizationRule<Resource>
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public boolean isReadAllowedDecidableById()
+	{
+		return false;
+	}
+
+	@Override
+	public Optional<String> reasonReadAllowed(User user, UUID resourceId, long resourceVersion)
+	{
+		throw new UnsupportedOperationException();
+	}
+
 	@Override
 	public Optional<String> reasonUpdateAllowed(User user, Resource oldResource, Resource newResource)
 	{
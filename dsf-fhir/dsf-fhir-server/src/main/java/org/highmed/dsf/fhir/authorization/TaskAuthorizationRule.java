@@ -3,6 +3,7 @@ package org.highmed.dsf.fhir.authorization;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -14,7 +15,7 @@ import java.util.stream.Stream;
 
 import org.highmed.dsf.fhir.authentication.OrganizationProvider;
 import org.highmed.dsf.fhir.authentication.User;
-import org.highmed.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
+import org.highmed.dsf.fhir.authorization.ProcessAuthorizationCache.Authorizations;
 import org.highmed.dsf.fhir.authorization.read.ReadAccessHelper;
 import org.highmed.dsf.fhir.dao.TaskDao;
 import org.highmed.dsf.fhir.dao.provider.DaoProvider;
@@ -24,6 +25,7 @@ import org.hl7.fhir.r4.model.ActivityDefinition;
 import org.hl7.fhir.r4.model.CanonicalType;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.StringType;
 import org.hl7.fhir.r4.model.Task;
@@ -44,15 +46,15 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 	private static final String INSTANTIATES_URI_PATTERN_STRING = "(?<processUrl>http://(?:(?:[a-zA-Z0-9]|[a-zA-Z0-9][a-zA-Z0-9\\-]*[a-zA-Z0-9])\\.)*(?:[A-Za-z0-9]|[A-Za-z0-9][A-Za-z0-9\\-]*[A-Za-z0-9])/bpe/Process/[-\\w]+)/(?<processVersion>\\d+\\.\\d+\\.\\d+)";
 	private static final Pattern INSTANTIATES_URI_PATTERN = Pattern.compile(INSTANTIATES_URI_PATTERN_STRING);
 
-	private final ProcessAuthorizationHelper processAuthorizationHelper;
+	private final ProcessAuthorizationCache processAuthorizationCache;
 
 	public TaskAuthorizationRule(DaoProvider daoProvider, String serverBase, ReferenceResolver referenceResolver,
 			OrganizationProvider organizationProvider, ReadAccessHelper readAccessHelper,
-			ProcessAuthorizationHelper processAuthorizationHelper)
+			ProcessAuthorizationCache processAuthorizationCache)
 	{
 		super(Task.class, daoProvider, serverBase, referenceResolver, organizationProvider, readAccessHelper);
 
-		this.processAuthorizationHelper = processAuthorizationHelper;
+		this.processAuthorizationCache = processAuthorizationCache;
 	}
 
 	@Override
@@ -60,7 +62,7 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 	{
 		super.afterPropertiesSet();
 
-		Objects.requireNonNull(processAuthorizationHelper, "processAuthorizationHelper");
+		Objects.requireNonNull(processAuthorizationCache, "processAuthorizationCache");
 	}
 
 	@Override
@@ -245,13 +247,24 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 							.collect(Collectors.toList());
 					String messageName = getMessageNames(newResource).findFirst().get();
 
-					boolean okForRecipient = processAuthorizationHelper
-							.getRecipients(activityDefinition, processUrl, processVersion, messageName, taskProfiles)
-							.anyMatch(r -> r.isRecipientAuthorized(recipient, getAffiliations(connection, recipient)));
+					Authorizations authorizations = processAuthorizationCache.getAuthorizations(connection,
+							activityDefinition, processUrl, processVersion, messageName, taskProfiles);
 
-					boolean okForRequester = processAuthorizationHelper
-							.getRequesters(activityDefinition, processUrl, processVersion, messageName, taskProfiles)
-							.anyMatch(r -> r.isRequesterAuthorized(requester, getAffiliations(connection, requester)));
+					boolean okForRecipient = false;
+					if (!authorizations.getRecipients().isEmpty())
+					{
+						List<OrganizationAffiliation> recipientAffiliations = getAffiliations(connection, recipient);
+						okForRecipient = authorizations.getRecipients().stream()
+								.anyMatch(r -> r.isRecipientAuthorized(recipient, recipientAffiliations));
+					}
+
+					boolean okForRequester = false;
+					if (!authorizations.getRequesters().isEmpty())
+					{
+						List<OrganizationAffiliation> requesterAffiliations = getAffiliations(connection, requester);
+						okForRequester = authorizations.getRequesters().stream()
+								.anyMatch(r -> r.isRequesterAuthorized(requester, requesterAffiliations));
+					}
 
 					if (!okForRecipient)
 						logger.warn("Task not allowed for recipient");
@@ -279,6 +292,18 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 		return organizationProvider.getLocalOrganization().map(User.local());
 	}
 
+	@Override
+	protected List<OrganizationAffiliation> getAffiliations(Connection connection, User user)
+	{
+		Optional<String> identifierValue = getOrganizationIdentifierValue(user);
+
+		if (identifierValue.isEmpty())
+			return Collections.emptyList();
+
+		return processAuthorizationCache.getAffiliations(connection, identifierValue.get(),
+				() -> readAffiliations(connection, identifierValue.get()));
+	}
+
 	@Override
 	public Optional<String> reasonReadAllowed(Connection connection, User user, Task existingResource)
 	{
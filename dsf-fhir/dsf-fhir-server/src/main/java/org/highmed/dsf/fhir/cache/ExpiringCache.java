@@ -0,0 +1,148 @@
+package org.highmed.dsf.fhir.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Thread safe cache with a time to live and a maximum number of entries. If the cache is full, expired entries are
+ * removed, all entries are removed if the cache is still full.
+ * <p>
+ * Values read while entries are removed via {@link #remove(Object)} or {@link #clear()} are returned but not cached,
+ * since they might have been read before the change that triggered the removal.
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
+public class ExpiringCache<K, V>
+{
+	private static final class Entry<V>
+	{
+		final V value;
+		final long expires;
+
+		Entry(V value, long expires)
+		{
+			this.value = value;
+			this.expires = expires;
+		}
+
+		boolean isExpired(long now)
+		{
+			return now - expires >= 0;
+		}
+	}
+
+	private final Duration timeToLive;
+	private final int maxSize;
+
+	private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * @param timeToLive
+	 *            not <code>null</code>, not negative, values are not cached if {@link Duration#ZERO}
+	 * @param maxSize
+	 *            &gt; 0
+	 */
+	public ExpiringCache(Duration timeToLive, int maxSize)
+	{
+		this.timeToLive = timeToLive;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param key
+	 *            not <code>null</code>
+	 * @return {@link Optional#empty()} if no value for the given key is cached or the cached value expired
+	 */
+	public Optional<V> get(K key)
+	{
+		Entry<V> entry = entries.get(key);
+		return entry != null && !entry.isExpired(System.nanoTime()) ? Optional.of(entry.value) : Optional.empty();
+	}
+
+	/**
+	 * @param key
+	 *            not <code>null</code>
+	 * @param read
+	 *            not <code>null</code>, called if no value for the given key is cached, result must not be
+	 *            <code>null</code>
+	 * @return the cached or read value
+	 */
+	public V get(K key, Supplier<V> read)
+	{
+		return get(key, read, v -> true);
+	}
+
+	/**
+	 * @param key
+	 *            not <code>null</code>
+	 * @param read
+	 *            not <code>null</code>, called if no value for the given key is cached, result must not be
+	 *            <code>null</code>
+	 * @param cacheable
+	 *            not <code>null</code>, read values not matching are returned but not cached
+	 * @return the cached or read value
+	 */
+	public V get(K key, Supplier<V> read, Predicate<? super V> cacheable)
+	{
+		long now = System.nanoTime();
+		Entry<V> entry = entries.get(key);
+		if (entry != null && !entry.isExpired(now))
+			return entry.value;
+
+		long readGeneration = generation.get();
+		V value = read.get();
+
+		if (!timeToLive.isZero() && cacheable.test(value))
+			put(key, new Entry<>(value, now + timeToLive.toNanos()), readGeneration);
+
+		return value;
+	}
+
+	private void put(K key, Entry<V> entry, long readGeneration)
+	{
+		if (entries.size() >= maxSize)
+		{
+			long now = System.nanoTime();
+			entries.values().removeIf(e -> e.isExpired(now));
+
+			if (entries.size() >= maxSize)
+				entries.clear();
+		}
+
+		entries.put(key, entry);
+
+		// entries removed while reading
+		if (generation.get() != readGeneration)
+			entries.remove(key, entry);
+	}
+
+	/**
+	 * Removes the value for the given key, values of other keys currently being read are not cached.
+	 *
+	 * @param key
+	 *            not <code>null</code>
+	 */
+	public void remove(K key)
+	{
+		generation.incrementAndGet();
+		entries.remove(key);
+	}
+
+	/**
+	 * Removes all values, values currently being read are not cached.
+	 */
+	public void clear()
+	{
+		generation.incrementAndGet();
+		entries.clear();
+	}
+}
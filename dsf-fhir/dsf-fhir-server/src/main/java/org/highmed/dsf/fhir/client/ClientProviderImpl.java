@@ -1,21 +1,38 @@
 package org.highmed.dsf.fhir.client;
 
 import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
+import org.highmed.dsf.fhir.cache.ExpiringCache;
 import org.highmed.dsf.fhir.dao.EndpointDao;
+import org.highmed.dsf.fhir.event.Event;
+import org.highmed.dsf.fhir.event.EventHandler;
 import org.highmed.dsf.fhir.help.ExceptionHandler;
 import org.highmed.dsf.fhir.service.ReferenceCleaner;
 import org.highmed.fhir.client.FhirWebserviceClient;
 import org.highmed.fhir.client.FhirWebserviceClientJersey;
+import org.hl7.fhir.r4.model.Endpoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
 import ca.uhn.fhir.context.FhirContext;
 
-public class ClientProviderImpl implements ClientProvider, InitializingBean
+/**
+ * Clients are created once per server base and reused, in order to reuse pooled connections and TLS sessions. Endpoint
+ * lookups are cached for the configured time to live and removed if {@link Endpoint} resources are created, updated or
+ * deleted. Clients are removed if no active {@link Endpoint} with their server base exists anymore. Removed clients
+ * might still be used by callers that received them earlier, they are closed when this provider is destroyed.
+ */
+public class ClientProviderImpl implements ClientProvider, EventHandler, InitializingBean, DisposableBean
 {
 	private static final Logger logger = LoggerFactory.getLogger(ClientProviderImpl.class);
 
@@ -33,12 +50,18 @@ public class ClientProviderImpl implements ClientProvider, InitializingBean
 	private final ReferenceCleaner referenceCleaner;
 	private final EndpointDao endpointDao;
 	private final ExceptionHandler exceptionHandler;
+	private final Duration endpointCacheTimeToLive;
+	private final int endpointCacheMaxSize;
+
+	private final ConcurrentMap<String, FhirWebserviceClientJersey> clientsByServerBase = new ConcurrentHashMap<>();
+	private final Queue<FhirWebserviceClientJersey> removedClients = new ConcurrentLinkedQueue<>();
+	private final ExpiringCache<String, Boolean> endpointExistsByServerBase;
 
 	public ClientProviderImpl(KeyStore webserviceTrustStore, KeyStore webserviceKeyStore,
 			char[] webserviceKeyStorePassword, int remoteReadTimeout, int remoteConnectTimeout,
 			String remoteProxySchemeHostPort, String remoteProxyUsername, char[] remoteProxyPassword,
 			boolean logRequests, FhirContext fhirContext, ReferenceCleaner referenceCleaner, EndpointDao endpointDao,
-			ExceptionHandler exceptionHandler)
+			ExceptionHandler exceptionHandler, Duration endpointCacheTimeToLive, int endpointCacheMaxSize)
 	{
 		this.webserviceTrustStore = webserviceTrustStore;
 		this.webserviceKeyStore = webserviceKeyStore;
@@ -53,6 +76,10 @@ public class ClientProviderImpl implements ClientProvider, InitializingBean
 		this.referenceCleaner = referenceCleaner;
 		this.endpointDao = endpointDao;
 		this.exceptionHandler = exceptionHandler;
+		this.endpointCacheTimeToLive = endpointCacheTimeToLive;
+		this.endpointCacheMaxSize = endpointCacheMaxSize;
+
+		endpointExistsByServerBase = new ExpiringCache<>(endpointCacheTimeToLive, endpointCacheMaxSize);
 	}
 
 	@Override
@@ -66,33 +93,88 @@ public class ClientProviderImpl implements ClientProvider, InitializingBean
 		Objects.requireNonNull(referenceCleaner, "referenceCleaner");
 		Objects.requireNonNull(endpointDao, "endpointDao");
 		Objects.requireNonNull(exceptionHandler, "exceptionHandler");
+		Objects.requireNonNull(endpointCacheTimeToLive, "endpointCacheTimeToLive");
+		if (endpointCacheTimeToLive.isNegative())
+			throw new IllegalArgumentException("endpointCacheTimeToLive < 0");
+		if (endpointCacheMaxSize <= 0)
+			throw new IllegalArgumentException("endpointCacheMaxSize <= 0");
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		new ArrayList<>(clientsByServerBase.keySet()).forEach(this::removeClient);
+
+		FhirWebserviceClientJersey client;
+		while ((client = removedClients.poll()) != null)
+		{
+			logger.debug("Closing client for {}", client.getBaseUrl());
+			client.close();
+		}
 	}
 
 	@Override
 	public Optional<FhirWebserviceClient> getClient(String serverBase)
 	{
 		if (endpointExists(serverBase))
+			return Optional.of(clientsByServerBase.computeIfAbsent(serverBase, this::createClient));
+		else
+		{
+			removeClient(serverBase);
+			return Optional.empty();
+		}
+	}
+
+	private void removeClient(String serverBase)
+	{
+		FhirWebserviceClientJersey client = clientsByServerBase.remove(serverBase);
+		if (client != null)
 		{
-			FhirWebserviceClient client = new FhirWebserviceClientJersey(serverBase, webserviceTrustStore,
-					webserviceKeyStore, webserviceKeyStorePassword, remoteProxySchemeHostPort, remoteProxyUsername,
-					remoteProxyPassword, remoteConnectTimeout, remoteReadTimeout, logRequests, null, fhirContext,
-					referenceCleaner);
+			logger.debug("Removing client for {}", serverBase);
 
-			return Optional.of(client);
+			// not closed, client might still be in use
+			removedClients.add(client);
 		}
-		else
-			return Optional.empty();
+	}
+
+	private FhirWebserviceClientJersey createClient(String serverBase)
+	{
+		logger.debug("Creating client for {}", serverBase);
+
+		return new FhirWebserviceClientJersey(serverBase, webserviceTrustStore, webserviceKeyStore,
+				webserviceKeyStorePassword, remoteProxySchemeHostPort, remoteProxyUsername, remoteProxyPassword,
+				remoteConnectTimeout, remoteReadTimeout, logRequests, null, fhirContext, referenceCleaner);
 	}
 
 	@Override
 	public boolean endpointExists(String serverBase)
 	{
-		boolean endpointExists = exceptionHandler
-				.handleSqlException(() -> endpointDao.existsActiveNotDeletedByAddress(serverBase));
+		boolean endpointExists = endpointExistsByServerBase.get(serverBase, () -> exceptionHandler
+				.handleSqlException(() -> endpointDao.existsActiveNotDeletedByAddress(serverBase)));
+
+		return logIfNotExists(serverBase, endpointExists);
+	}
 
+	private boolean logIfNotExists(String serverBase, boolean endpointExists)
+	{
 		if (!endpointExists)
 			logger.warn("No active, not deleted Endpoint with address {} found", serverBase);
 
 		return endpointExists;
 	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null || !Endpoint.class.equals(event.getResourceType()))
+			return;
+
+		logger.debug("Endpoint {} changed, removing cached endpoint lookups", event.getId());
+
+		endpointExistsByServerBase.clear();
+
+		// address of updated or deleted endpoints not known, checking all server bases with clients
+		new ArrayList<>(clientsByServerBase.keySet()).stream().filter(serverBase -> !endpointExists(serverBase))
+				.forEach(this::removeClient);
+	}
 }
@@ -1,7 +1,121 @@
 package org.highmed.dsf.fhir.dao;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.highmed.dsf.fhir.dao.exception.ResourceDeletedException;
+import org.highmed.dsf.fhir.dao.exception.ResourceNotFoundException;
+import org.highmed.dsf.fhir.dao.exception.ResourceVersionNoMatchException;
 import org.hl7.fhir.r4.model.Binary;
 
 public interface BinaryDao extends ResourceDao<Binary>
 {
-}
+	/**
+	 * Reads the latest version of a {@link Binary} resource without loading the data.
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the given uuid is <code>null</code> or no resource could be found with the
+	 *         given uuid
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if a resource with the given uuid could be found, but is marked as delete
+	 * @see #readData(UUID, long, long, long, OutputStream)
+	 */
+	Optional<BinaryWithoutData> readWithoutData(UUID uuid) throws SQLException, ResourceDeletedException;
+
+	/**
+	 * Reads a specific version of a {@link Binary} resource without loading the data.
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @param version
+	 *            may be less then {@value #FIRST_VERSION}
+	 * @return {@link Optional#empty()} if the given uuid is <code>null</code>, the given version is less then
+	 *         {@value #FIRST_VERSION} or no resource could be found for the given uuid and version
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if a resource with the given uuid and version could be found, but is the delete history entry
+	 * @see #readData(UUID, long, long, long, OutputStream)
+	 */
+	Optional<BinaryWithoutData> readVersionWithoutData(UUID uuid, long version)
+			throws SQLException, ResourceDeletedException;
+
+	/**
+	 * Writes a range of the data of a specific {@link Binary} resource version to the given {@link OutputStream}. The
+	 * data is read from the database in chunks, the complete data is never kept in memory.
+	 *
+	 * @param uuid
+	 *            not <code>null</code>
+	 * @param version
+	 *            &gt;= {@value #FIRST_VERSION}
+	 * @param offset
+	 *            &gt;= 0, index of the first byte to write
+	 * @param length
+	 *            &gt;= 0, number of bytes to write, less bytes are written if the data ends before
+	 * @param out
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur or no resource could be found for the given uuid and version
+	 * @throws IOException
+	 *             if the data could not be written to the given {@link OutputStream}
+	 */
+	void readData(UUID uuid, long version, long offset, long length, OutputStream out) throws SQLException, IOException;
+
+	/**
+	 * Creates a {@link Binary} resource, the data is read from the given {@link InputStream} and written to the
+	 * database in chunks, the complete data is never kept in memory.
+	 *
+	 * @param connection
+	 *            not <code>null</code>, not {@link Connection#isReadOnly()}
+	 * @param resource
+	 *            not <code>null</code>, without data
+	 * @param uuid
+	 *            not <code>null</code>
+	 * @param data
+	 *            not <code>null</code>, will not be closed
+	 * @return the created resource without data
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IOException
+	 *             if the data could not be read from the given {@link InputStream}
+	 * @see #createWithTransactionAndId(Connection, org.hl7.fhir.r4.model.Resource, UUID)
+	 */
+	Binary createWithTransactionAndId(Connection connection, Binary resource, UUID uuid, InputStream data)
+			throws SQLException, IOException;
+
+	/**
+	 * Updates a {@link Binary} resource, the data is read from the given {@link InputStream} and written to the
+	 * database in chunks, the complete data is never kept in memory.
+	 *
+	 * @param connection
+	 *            not <code>null</code>, not {@link Connection#isReadOnly()}, not {@link Connection#getAutoCommit()},
+	 *            {@link Connection#getTransactionIsolation()} one of {@link Connection#TRANSACTION_REPEATABLE_READ} or
+	 *            {@link Connection#TRANSACTION_SERIALIZABLE}
+	 * @param resource
+	 *            not <code>null</code>, without data
+	 * @param expectedVersion
+	 *            may be <code>null</code>
+	 * @param data
+	 *            not <code>null</code>, will not be closed
+	 * @return the updated resource without data
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IOException
+	 *             if the data could not be read from the given {@link InputStream}
+	 * @throws ResourceNotFoundException
+	 *             if the given resource could not be found
+	 * @throws ResourceVersionNoMatchException
+	 *             if the given expectedVersion does not match the latest version
+	 * @see #updateWithTransaction(Connection, org.hl7.fhir.r4.model.Resource, Long)
+	 */
+	Binary updateWithTransaction(Connection connection, Binary resource, Long expectedVersion, InputStream data)
+			throws SQLException, IOException, ResourceNotFoundException, ResourceVersionNoMatchException;
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package org.highmed.dsf.fhir.dao;
+
+import java.util.Objects;
+
+import org.hl7.fhir.r4.model.Binary;
+
+/**
+ * {@link Binary} resource read without the data element and the length of the stored data in bytes.
+ */
+public class BinaryWithoutData
+{
+	private final Binary binary;
+	private final long dataLength;
+
+	public BinaryWithoutData(Binary binary, long dataLength)
+	{
+		this.binary = Objects.requireNonNull(binary, "binary");
+		this.dataLength = dataLength;
+	}
+
+	/**
+	 * @return {@link Binary} without data
+	 */
+	public Binary getBinary()
+	{
+		return binary;
+	}
+
+	public long getDataLength()
+	{
+		return dataLength;
+	}
+}
@@ -1,9 +1,13 @@
 package org.highmed.dsf.fhir.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.highmed.dsf.fhir.authentication.User;
@@ -14,6 +18,8 @@ import org.highmed.dsf.fhir.dao.exception.ResourceVersionNoMatchException;
 import org.highmed.dsf.fhir.search.DbSearchQuery;
 import org.highmed.dsf.fhir.search.PartialResult;
 import org.highmed.dsf.fhir.search.SearchQuery;
+import org.highmed.dsf.fhir.search.SearchResultHandler;
+import org.highmed.dsf.fhir.search.SearchResultStream;
 import org.hl7.fhir.r4.model.Resource;
 
 public interface ResourceDao<R extends Resource>
@@ -62,6 +68,22 @@ public interface ResourceDao<R extends Resource>
 	 */
 	R createWithTransactionAndId(Connection connection, R resource, UUID uuid) throws SQLException;
 
+	/**
+	 * Creates multiple resources with one JDBC batch, database triggers are executed for every inserted row.
+	 *
+	 * @param connection
+	 *            not <code>null</code>, not {@link Connection#isReadOnly()}
+	 * @param resourcesById
+	 *            not <code>null</code>
+	 * @return the stored resources in iteration order of the given map, not the same objects as the given resources
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IllegalArgumentException
+	 *             if the given connection is {@link Connection#isReadOnly()}
+	 * @see #createWithTransactionAndId(Connection, Resource, UUID)
+	 */
+	List<R> createAllWithTransactionAndIds(Connection connection, Map<UUID, R> resourcesById) throws SQLException;
+
 	/**
 	 * @param uuid
 	 *            may be <code>null</code>
@@ -119,6 +141,37 @@ public interface ResourceDao<R extends Resource>
 	Optional<R> readVersionWithTransaction(Connection connection, UUID uuid, long version)
 			throws SQLException, ResourceDeletedException;
 
+	/**
+	 * Reads the latest version of a resource as stored json without parsing it.
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the given uuid is <code>null</code>, no resource could be found with the
+	 *         given uuid or the stored json does not contain the complete resource
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if a resource with the given uuid could be found, but is marked as delete
+	 */
+	Optional<StoredJson> readJson(UUID uuid) throws SQLException, ResourceDeletedException;
+
+	/**
+	 * Reads a specific version of a resource as stored json without parsing it.
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @param version
+	 *            may be less then {@value #FIRST_VERSION}
+	 * @return {@link Optional#empty()} if the given uuid is <code>null</code>, the given version is less then
+	 *         {@value #FIRST_VERSION}, no resource could be found for the given uuid and version or the stored json
+	 *         does not contain the complete resource
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if a resource with the given uuid and version could be found, but is the delete history entry
+	 */
+	Optional<StoredJson> readVersionJson(UUID uuid, long version) throws SQLException, ResourceDeletedException;
+
 	/**
 	 * @param uuid
 	 *            may be <code>null</code>
@@ -184,6 +237,38 @@ public interface ResourceDao<R extends Resource>
 	 */
 	boolean existsNotDeletedWithTransaction(Connection connection, String id, String version) throws SQLException;
 
+	/**
+	 * Checks the existence of multiple resources with one query.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param ids
+	 *            not <code>null</code>
+	 * @return ids from the given <b>ids</b> of resources that exist and whose latest version is not marked as deleted,
+	 *         ids that are not valid uuids are ignored
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @see #existsNotDeletedWithTransaction(Connection, String, String)
+	 */
+	Set<String> getExistingNotDeletedIdsWithTransaction(Connection connection, Collection<String> ids)
+			throws SQLException;
+
+	/**
+	 * Checks the existence of multiple resources with one query, including resources whose latest version is marked as
+	 * deleted.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param ids
+	 *            not <code>null</code>
+	 * @return ids from the given <b>ids</b> of resources that exist in any version, ids that are not valid uuids are
+	 *         ignored
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @see #getExistingNotDeletedIdsWithTransaction(Connection, Collection)
+	 */
+	Set<String> getExistingIdsWithTransaction(Connection connection, Collection<String> ids) throws SQLException;
+
 	/**
 	 * Sets the version of the stored resource to latest version from DB plus 1.
 	 *
@@ -354,6 +439,34 @@ public interface ResourceDao<R extends Resource>
 	 */
 	PartialResult<R> searchWithTransaction(Connection connection, DbSearchQuery query) throws SQLException;
 
+	/**
+	 * Executes the search query and fetches the first row, resources are read from the database using a fetch size
+	 * while the returned stream is handled. The returned stream holds a database connection and needs to be closed.
+	 * Include and revinclude resources are not supported.
+	 *
+	 * @param query
+	 *            not <code>null</code>
+	 * @return open {@link SearchResultStream}
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	SearchResultStream<R> searchStream(DbSearchQuery query) throws SQLException;
+
+	/**
+	 * Resources are read from the database using a fetch size and passed to the given handler one by one, the complete
+	 * result is not kept in memory. Include and revinclude resources are not supported.
+	 *
+	 * @param query
+	 *            not <code>null</code>
+	 * @param handler
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IOException
+	 *             if the handler is not able to write the result
+	 */
+	void searchStreaming(DbSearchQuery query, SearchResultHandler<R> handler) throws SQLException, IOException;
+
 	SearchQuery<R> createSearchQuery(User user, int page, int count);
 
 	SearchQuery<R> createSearchQueryWithoutUserFilter(int page, int count);
@@ -0,0 +1,43 @@
+package org.highmed.dsf.fhir.dao;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Resource as stored in the json column of the database, not parsed.
+ */
+public class StoredJson
+{
+	private final String resourceTypeName;
+	private final UUID id;
+	private final long version;
+	private final String json;
+
+	public StoredJson(String resourceTypeName, UUID id, long version, String json)
+	{
+		this.resourceTypeName = Objects.requireNonNull(resourceTypeName, "resourceTypeName");
+		this.id = Objects.requireNonNull(id, "id");
+		this.version = version;
+		this.json = Objects.requireNonNull(json, "json");
+	}
+
+	public String getResourceTypeName()
+	{
+		return resourceTypeName;
+	}
+
+	public UUID getId()
+	{
+		return id;
+	}
+
+	public long getVersion()
+	{
+		return version;
+	}
+
+	public String getJson()
+	{
+		return json;
+	}
+}
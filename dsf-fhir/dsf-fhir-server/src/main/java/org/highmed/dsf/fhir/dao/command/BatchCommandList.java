@@ -3,13 +3,24 @@ package org.highmed.dsf.fhir.dao.command;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 import javax.ws.rs.WebApplicationException;
@@ -17,12 +28,16 @@ import javax.ws.rs.core.Response;
 
 import org.highmed.dsf.fhir.event.EventHandler;
 import org.highmed.dsf.fhir.help.ExceptionHandler;
+import org.highmed.dsf.fhir.service.ReferenceExtractor;
+import org.highmed.dsf.fhir.service.ResourceReference;
 import org.highmed.dsf.fhir.validation.SnapshotGenerator;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
 import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Bundle.HTTPVerb;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,28 +45,52 @@ public class BatchCommandList implements CommandList
 {
 	private static final Logger logger = LoggerFactory.getLogger(BatchCommandList.class);
 
+	private static final Set<String> CONFORMANCE_RESOURCE_TYPES = Set.of("CodeSystem", "NamingSystem",
+			"StructureDefinition", "ValueSet");
+	private static final String CONFORMANCE_DEPENDENCY_KEY = "conformance";
+	private static final String TYPE_DEPENDENCY_KEY_PREFIX = "type:";
+	private static final String FULL_URL_DEPENDENCY_KEY_PREFIX = "fullUrl:";
+
 	private final DataSource dataSource;
 	private final ExceptionHandler exceptionHandler;
 	private final ValidationHelper validationHelper;
 	private final SnapshotGenerator snapshotGenerator;
 	private final EventHandler eventHandler;
+	private final ReferenceExtractor referenceExtractor;
+	private final ExecutorService executor;
 
 	private final List<Command> commands = new ArrayList<>();
 
 	public BatchCommandList(DataSource dataSource, ExceptionHandler exceptionHandler, ValidationHelper validationHelper,
 			SnapshotGenerator snapshotGenerator, EventHandler eventHandler, List<Command> commands)
+	{
+		this(dataSource, exceptionHandler, validationHelper, snapshotGenerator, eventHandler, null, null, commands);
+	}
+
+	/**
+	 * @param referenceExtractor
+	 *            not <code>null</code> if executor not <code>null</code>
+	 * @param executor
+	 *            may be <code>null</code>, commands are executed sequentially on a single connection if
+	 *            <code>null</code>
+	 */
+	public BatchCommandList(DataSource dataSource, ExceptionHandler exceptionHandler, ValidationHelper validationHelper,
+			SnapshotGenerator snapshotGenerator, EventHandler eventHandler, ReferenceExtractor referenceExtractor,
+			ExecutorService executor, List<Command> commands)
 	{
 		this.dataSource = dataSource;
 		this.exceptionHandler = exceptionHandler;
 		this.validationHelper = validationHelper;
 		this.snapshotGenerator = snapshotGenerator;
 		this.eventHandler = eventHandler;
+		this.referenceExtractor = referenceExtractor;
+		this.executor = executor;
 
 		if (commands != null)
 			this.commands.addAll(commands);
 	}
 
-	private boolean hasModifyingCommands()
+	private boolean hasModifyingCommands(List<Command> commands)
 	{
 		return commands.stream()
 				.anyMatch(c -> c instanceof CreateCommand || c instanceof UpdateCommand || c instanceof DeleteCommand);
@@ -60,6 +99,161 @@ public class BatchCommandList implements CommandList
 	@Override
 	public Bundle execute() throws WebApplicationException
 	{
+		try
+		{
+			Map<Integer, Exception> caughtExceptions = new ConcurrentHashMap<Integer, Exception>(
+					(int) (commands.size() / 0.75) + 1);
+			Map<String, IdType> idTranslationTable = Collections.synchronizedMap(new HashMap<>());
+			Map<Integer, BundleEntryComponent> results = new ConcurrentHashMap<>((int) ((commands.size() / 0.75) + 1));
+
+			if (executor == null)
+				executeCommands(commands, true, idTranslationTable, caughtExceptions, results);
+			else
+				executeParallel(idTranslationTable, caughtExceptions, results);
+
+			Bundle result = new Bundle();
+			result.setType(BundleType.BATCHRESPONSE);
+
+			caughtExceptions.forEach((k, v) -> results.put(k, toEntry(v)));
+			results.entrySet().stream().sorted(Comparator.comparing(Entry::getKey)).map(Entry::getValue)
+					.forEach(result::addEntry);
+
+			return result;
+		}
+		catch (ExecutionException e)
+		{
+			throw exceptionHandler.internalServerErrorBundleTransaction(
+					e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+		}
+		catch (Exception e)
+		{
+			throw exceptionHandler.internalServerErrorBundleTransaction(e);
+		}
+	}
+
+	/**
+	 * Runs pre-execute of all commands, the id translation table is complete afterwards. Independent groups of commands
+	 * are executed in parallel, each group with its own connection. The group containing conformance resources is
+	 * executed first, other entries may be validated against them.
+	 */
+	private void executeParallel(Map<String, IdType> idTranslationTable, Map<Integer, Exception> caughtExceptions,
+			Map<Integer, BundleEntryComponent> results) throws SQLException, InterruptedException, ExecutionException
+	{
+		try (Connection connection = dataSource.getConnection())
+		{
+			commands.forEach(preExecute(idTranslationTable, connection, caughtExceptions));
+		}
+
+		List<List<Command>> groups = getIndependentGroups();
+		logger.debug("Executing batch with {} commands in {} independent groups", commands.size(), groups.size());
+
+		executeCommands(groups.get(0), false, idTranslationTable, caughtExceptions, results);
+
+		List<Future<Void>> futures = new ArrayList<>(groups.size() - 1);
+		for (List<Command> group : groups.subList(1, groups.size()))
+		{
+			futures.add(executor.submit(() ->
+			{
+				executeCommands(group, false, idTranslationTable, caughtExceptions, results);
+				return null;
+			}));
+		}
+
+		for (Future<Void> future : futures)
+			future.get();
+	}
+
+	/**
+	 * Groups commands of dependent entries, commands of an entry and commands of dependent entries are kept in index
+	 * order. Entries depend on each other if they are conformance resources, if they are not unconditional creates of
+	 * the same resource type, if one references the full url of the other or if one contains a conditional reference to
+	 * the resource type of the other.
+	 *
+	 * @return first group contains conformance resources and may be empty, never <code>null</code>
+	 */
+	private List<List<Command>> getIndependentGroups()
+	{
+		Map<Integer, List<Command>> commandsByIndex = commands.stream()
+				.collect(Collectors.groupingBy(Command::getIndex, TreeMap::new, Collectors.toList()));
+
+		Map<Integer, Integer> parents = new HashMap<>();
+		Map<String, Integer> indexByDependencyKey = new HashMap<>();
+		indexByDependencyKey.put(CONFORMANCE_DEPENDENCY_KEY, -1);
+		parents.put(-1, -1);
+
+		commandsByIndex.forEach((index, indexCommands) ->
+		{
+			parents.put(index, index);
+			getDependencyKeys(indexCommands).forEach(key ->
+			{
+				Integer other = indexByDependencyKey.putIfAbsent(key, index);
+				if (other != null)
+					parents.put(findRoot(parents, index), findRoot(parents, other));
+			});
+		});
+
+		Map<Integer, List<Command>> groupsByRoot = new LinkedHashMap<>();
+		groupsByRoot.put(findRoot(parents, -1), new ArrayList<>());
+		commandsByIndex.forEach((index, indexCommands) -> groupsByRoot
+				.computeIfAbsent(findRoot(parents, index), k -> new ArrayList<>()).addAll(indexCommands));
+
+		return new ArrayList<>(groupsByRoot.values());
+	}
+
+	private int findRoot(Map<Integer, Integer> parents, int index)
+	{
+		int root = index;
+		while (parents.get(root) != root)
+			root = parents.get(root);
+
+		parents.put(index, root);
+		return root;
+	}
+
+	private Stream<String> getDependencyKeys(List<Command> indexCommands)
+	{
+		Optional<BundleEntryComponent> entry = indexCommands.stream().filter(c -> c instanceof AbstractCommand)
+				.map(c -> ((AbstractCommand) c).entry).findFirst();
+		if (entry.isEmpty())
+			return Stream.of(CONFORMANCE_DEPENDENCY_KEY);
+
+		Resource resource = entry.get().getResource();
+		String resourceType = resource != null ? resource.getResourceType().name()
+				: getResourceType(entry.get().getRequest().getUrl());
+
+		Stream<String> typeKey;
+		if (CONFORMANCE_RESOURCE_TYPES.contains(resourceType))
+			typeKey = Stream.of(CONFORMANCE_DEPENDENCY_KEY);
+		else if (HTTPVerb.POST.equals(entry.get().getRequest().getMethod())
+				&& !entry.get().getRequest().hasIfNoneExist())
+			typeKey = Stream.empty();
+		else
+			typeKey = Stream.of(TYPE_DEPENDENCY_KEY_PREFIX + resourceType);
+
+		Stream<String> fullUrlKey = entry.get().hasFullUrl()
+				? Stream.of(FULL_URL_DEPENDENCY_KEY_PREFIX + entry.get().getFullUrl())
+				: Stream.empty();
+
+		Stream<String> referenceKeys = resource == null ? Stream.empty()
+				: referenceExtractor.getReferences(resource).map(ResourceReference::getValue).filter(v -> v != null)
+						.map(v -> v.contains("?") && !v.startsWith("http")
+								? TYPE_DEPENDENCY_KEY_PREFIX + getResourceType(v)
+								: FULL_URL_DEPENDENCY_KEY_PREFIX + v);
+
+		return Stream.of(typeKey, fullUrlKey, referenceKeys).flatMap(Function.identity());
+	}
+
+	private String getResourceType(String url)
+	{
+		return url == null ? "" : url.split("[/?]", 2)[0];
+	}
+
+	private void executeCommands(List<Command> commands, boolean runPreExecute, Map<String, IdType> idTranslationTable,
+			Map<Integer, Exception> caughtExceptions, Map<Integer, BundleEntryComponent> results) throws SQLException
+	{
+		if (commands.isEmpty())
+			return;
+
 		try (Connection connection = dataSource.getConnection())
 		{
 			boolean initialReadOnly = connection.isReadOnly();
@@ -70,11 +264,7 @@ public class BatchCommandList implements CommandList
 					initialReadOnly, initialAutoCommit,
 					getTransactionIsolationLevelString(initialTransactionIsolationLevel));
 
-			Map<Integer, Exception> caughtExceptions = new HashMap<Integer, Exception>(
-					(int) (commands.size() / 0.75) + 1);
-			Map<String, IdType> idTranslationTable = new HashMap<>();
-
-			if (hasModifyingCommands())
+			if (hasModifyingCommands(commands))
 			{
 				logger.debug(
 						"Elevating DB connection setting to: read-only {}, auto-commit {}, transaction-isolation-level {}",
@@ -85,11 +275,12 @@ public class BatchCommandList implements CommandList
 				connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
 			}
 
-			commands.forEach(preExecute(idTranslationTable, connection, caughtExceptions));
+			if (runPreExecute)
+				commands.forEach(preExecute(idTranslationTable, connection, caughtExceptions));
 
 			commands.forEach(execute(idTranslationTable, connection, caughtExceptions));
 
-			if (hasModifyingCommands())
+			if (hasModifyingCommands(commands))
 			{
 				logger.debug(
 						"Reseting DB connection setting to: read-only {}, auto-commit {}, transaction-isolation-level {}",
@@ -101,22 +292,7 @@ public class BatchCommandList implements CommandList
 				connection.setTransactionIsolation(initialTransactionIsolationLevel);
 			}
 
-			Map<Integer, BundleEntryComponent> results = new HashMap<>((int) ((commands.size() / 0.75) + 1));
-
 			commands.forEach(postExecute(connection, caughtExceptions, results));
-
-			Bundle result = new Bundle();
-			result.setType(BundleType.BATCHRESPONSE);
-
-			caughtExceptions.forEach((k, v) -> results.put(k, toEntry(v)));
-			results.entrySet().stream().sorted(Comparator.comparing(Entry::getKey)).map(Entry::getValue)
-					.forEach(result::addEntry);
-
-			return result;
-		}
-		catch (Exception e)
-		{
-			throw exceptionHandler.internalServerErrorBundleTransaction(e);
 		}
 	}
 
@@ -2,8 +2,12 @@ package org.highmed.dsf.fhir.dao.command;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.ws.rs.WebApplicationException;
 
@@ -34,6 +38,10 @@ public class CheckReferencesCommand<R extends Resource, D extends ResourceDao<R>
 	private static final Logger logger = LoggerFactory.getLogger(CheckReferencesCommand.class);
 
 	private final HTTPVerb verb;
+	private final ReferenceExtractor referenceExtractor;
+	private final ReferenceResolver referenceResolver;
+
+	private Set<String> existingLiteralInternalTargets = Collections.emptySet();
 
 	public CheckReferencesCommand(int index, User user, PreferReturnType returnType, Bundle bundle,
 			BundleEntryComponent entry, String serverBase, AuthorizationHelper authorizationHelper, R resource,
@@ -45,6 +53,34 @@ public class CheckReferencesCommand<R extends Resource, D extends ResourceDao<R>
 				exceptionHandler, parameterConverter, responseGenerator, referenceExtractor, referenceResolver);
 
 		this.verb = verb;
+		this.referenceExtractor = referenceExtractor;
+		this.referenceResolver = referenceResolver;
+	}
+
+	/**
+	 * Checks the existence of the literal internal reference targets of all given commands with one query per target
+	 * resource type. Targets not found are checked again by the individual commands. Must only be called after all
+	 * create, update and delete commands of the transaction are executed.
+	 *
+	 * @param commands
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 */
+	static void checkLiteralInternalReferenceTargets(List<CheckReferencesCommand<?, ?>> commands, Connection connection)
+	{
+		if (commands.isEmpty())
+			return;
+
+		List<ResourceReference> references = commands.stream()
+				.flatMap(c -> c.referenceExtractor.getReferences(c.resource)).collect(Collectors.toList());
+		Set<String> existingTargets = commands.get(0).referenceResolver
+				.getExistingLiteralInternalReferenceTargets(references, connection);
+
+		logger.debug("{} literal internal reference targets of {} references found", existingTargets.size(),
+				references.size());
+
+		commands.forEach(c -> c.existingLiteralInternalTargets = existingTargets);
 	}
 
 	@Override
@@ -52,7 +88,8 @@ public class CheckReferencesCommand<R extends Resource, D extends ResourceDao<R>
 			ValidationHelper validationHelper, SnapshotGenerator snapshotGenerator)
 			throws SQLException, WebApplicationException
 	{
-		referencesHelper.checkReferences(idTranslationTable, connection, this::checkReferenceAfterUpdate);
+		referencesHelper.checkReferences(idTranslationTable, connection, this::checkReferenceAfterUpdate,
+				existingLiteralInternalTargets);
 	}
 
 	// See also TaskServiceImpl#checkReferenceAfterUpdate
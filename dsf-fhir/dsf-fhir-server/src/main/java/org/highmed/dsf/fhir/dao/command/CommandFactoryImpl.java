@@ -4,6 +4,8 @@ import java.sql.Connection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -32,9 +34,10 @@ import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
 import org.hl7.fhir.r4.model.Bundle.HTTPVerb;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.StructureDefinition;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
-public class CommandFactoryImpl implements InitializingBean, CommandFactory
+public class CommandFactoryImpl implements InitializingBean, DisposableBean, CommandFactory
 {
 	private final String serverBase;
 	private final int defaultPageCount;
@@ -52,6 +55,7 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 	private final ValidationHelper validationHelper;
 	private final SnapshotGenerator snapshotGenerator;
 	private final Function<Connection, TransactionResources> transactionResourcesFactory;
+	private final ExecutorService batchExecutor;
 
 	public CommandFactoryImpl(String serverBase, int defaultPageCount, DataSource dataSource, DaoProvider daoProvider,
 			ReferenceExtractor referenceExtractor, ReferenceResolver referenceResolver,
@@ -59,6 +63,24 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 			ParameterConverter parameterConverter, EventHandler eventHandler, EventGenerator eventGenerator,
 			AuthorizationHelper authorizationHelper, ValidationHelper validationHelper,
 			SnapshotGenerator snapshotGenerator, Function<Connection, TransactionResources> transactionResourcesFactory)
+	{
+		this(serverBase, defaultPageCount, dataSource, daoProvider, referenceExtractor, referenceResolver,
+				referenceCleaner, responseGenerator, exceptionHandler, parameterConverter, eventHandler, eventGenerator,
+				authorizationHelper, validationHelper, snapshotGenerator, transactionResourcesFactory, 0);
+	}
+
+	/**
+	 * @param batchThreads
+	 *            number of threads executing independent entries of batch bundles in parallel, entries are executed
+	 *            sequentially if &lt;= 0
+	 */
+	public CommandFactoryImpl(String serverBase, int defaultPageCount, DataSource dataSource, DaoProvider daoProvider,
+			ReferenceExtractor referenceExtractor, ReferenceResolver referenceResolver,
+			ReferenceCleaner referenceCleaner, ResponseGenerator responseGenerator, ExceptionHandler exceptionHandler,
+			ParameterConverter parameterConverter, EventHandler eventHandler, EventGenerator eventGenerator,
+			AuthorizationHelper authorizationHelper, ValidationHelper validationHelper,
+			SnapshotGenerator snapshotGenerator, Function<Connection, TransactionResources> transactionResourcesFactory,
+			int batchThreads)
 	{
 		this.serverBase = serverBase;
 		this.defaultPageCount = defaultPageCount;
@@ -76,6 +98,8 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 		this.validationHelper = validationHelper;
 		this.snapshotGenerator = snapshotGenerator;
 		this.transactionResourcesFactory = transactionResourcesFactory;
+
+		batchExecutor = batchThreads > 0 ? Executors.newFixedThreadPool(batchThreads) : null;
 	}
 
 	@Override
@@ -98,6 +122,13 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 		Objects.requireNonNull(transactionResourcesFactory, "transactionResourcesFactory");
 	}
 
+	@Override
+	public void destroy() throws Exception
+	{
+		if (batchExecutor != null)
+			batchExecutor.shutdown();
+	}
+
 	// head
 	private Command head(int index, User user, PreferReturnType returnType, Bundle bundle, BundleEntryComponent entry,
 			PreferHandlingType handlingType)
@@ -208,7 +239,7 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 			{
 				case BATCH:
 					return new BatchCommandList(dataSource, exceptionHandler, validationHelper, snapshotGenerator,
-							eventHandler, commands);
+							eventHandler, referenceExtractor, batchExecutor, commands);
 				case TRANSACTION:
 					return new TransactionCommandList(dataSource, exceptionHandler, transactionResourcesFactory,
 							commands);
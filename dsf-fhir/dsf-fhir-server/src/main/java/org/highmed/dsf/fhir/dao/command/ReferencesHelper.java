@@ -2,6 +2,7 @@ package org.highmed.dsf.fhir.dao.command;
 
 import java.sql.Connection;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import javax.ws.rs.WebApplicationException;
@@ -17,6 +18,19 @@ public interface ReferencesHelper<R extends Resource>
 
 	void resolveLogicalReferences(Connection connection) throws WebApplicationException;
 
+	/**
+	 * @param idTranslationTable
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param checkReference
+	 *            not <code>null</code>
+	 * @param existingLiteralInternalTargets
+	 *            not <code>null</code>, literal internal reference targets known to exist
+	 * @throws WebApplicationException
+	 *             if a reference could not be checked successfully
+	 */
 	void checkReferences(Map<String, IdType> idTranslationTable, Connection connection,
-			Predicate<ResourceReference> checkReference) throws WebApplicationException;
+			Predicate<ResourceReference> checkReference, Set<String> existingLiteralInternalTargets)
+			throws WebApplicationException;
 }
\ No newline at end of file
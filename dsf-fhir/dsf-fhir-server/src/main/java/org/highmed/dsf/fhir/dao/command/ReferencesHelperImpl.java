@@ -3,6 +3,7 @@ package org.highmed.dsf.fhir.dao.command;
 import java.sql.Connection;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -205,12 +206,14 @@ public final class ReferencesHelperImpl<R extends Resource> implements Reference
 
 	@Override
 	public void checkReferences(Map<String, IdType> idTranslationTable, Connection connection,
-			Predicate<ResourceReference> checkReference) throws WebApplicationException
+			Predicate<ResourceReference> checkReference, Set<String> existingLiteralInternalTargets)
+			throws WebApplicationException
 	{
 		referenceExtractor.getReferences(resource).filter(checkReference)
 				.filter(ref -> referenceResolver.referenceCanBeChecked(ref, connection)).forEach(ref ->
 				{
-					Optional<OperationOutcome> outcome = checkReference(idTranslationTable, connection, ref);
+					Optional<OperationOutcome> outcome = checkReference(idTranslationTable, connection, ref,
+							existingLiteralInternalTargets);
 					if (outcome.isPresent())
 					{
 						Response response = Response.status(Status.FORBIDDEN).entity(outcome.get()).build();
@@ -220,7 +223,7 @@ public final class ReferencesHelperImpl<R extends Resource> implements Reference
 	}
 
 	private Optional<OperationOutcome> checkReference(Map<String, IdType> idTranslationTable, Connection connection,
-			ResourceReference reference) throws WebApplicationException
+			ResourceReference reference, Set<String> existingLiteralInternalTargets) throws WebApplicationException
 	{
 		ReferenceType type = reference.getType(serverBase);
 		switch (type)
@@ -228,7 +231,8 @@ public final class ReferencesHelperImpl<R extends Resource> implements Reference
 			case LITERAL_INTERNAL:
 			case RELATED_ARTEFACT_LITERAL_INTERNAL_URL:
 			case ATTACHMENT_LITERAL_INTERNAL_URL:
-				return referenceResolver.checkLiteralInternalReference(resource, reference, connection, index);
+				return referenceResolver.checkLiteralInternalReference(resource, reference, connection, index,
+						existingLiteralInternalTargets);
 			case LITERAL_EXTERNAL:
 			case RELATED_ARTEFACT_LITERAL_EXTERNAL_URL:
 			case ATTACHMENT_LITERAL_EXTERNAL_URL:
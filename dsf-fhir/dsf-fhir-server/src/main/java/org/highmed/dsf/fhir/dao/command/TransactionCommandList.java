@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 import javax.ws.rs.WebApplicationException;
@@ -34,6 +35,7 @@ public class TransactionCommandList implements CommandList
 	private final Function<Connection, TransactionResources> transactionResourceFactory;
 
 	private final List<Command> commands = new ArrayList<>();
+	private final List<CheckReferencesCommand<?, ?>> checkReferencesCommands;
 	private final boolean hasModifyingCommand;
 
 	public TransactionCommandList(DataSource dataSource, ExceptionHandler exceptionHandler,
@@ -47,6 +49,8 @@ public class TransactionCommandList implements CommandList
 			this.commands.addAll(commands);
 		Collections.sort(this.commands,
 				Comparator.comparing(Command::getTransactionPriority).thenComparing(Command::getIndex));
+		checkReferencesCommands = this.commands.stream().filter(c -> c instanceof CheckReferencesCommand)
+				.map(c -> (CheckReferencesCommand<?, ?>) c).collect(Collectors.toList());
 		hasModifyingCommand = commands.stream()
 				.anyMatch(c -> c instanceof CreateCommand || c instanceof UpdateCommand || c instanceof DeleteCommand);
 	}
@@ -90,10 +94,19 @@ public class TransactionCommandList implements CommandList
 					}
 				}
 
+				boolean referenceTargetsChecked = false;
 				for (Command c : commands)
 				{
 					try
 					{
+						// commands sorted by transaction priority, all modifying commands executed at this point
+						if (c instanceof CheckReferencesCommand && !referenceTargetsChecked)
+						{
+							CheckReferencesCommand.checkLiteralInternalReferenceTargets(checkReferencesCommands,
+									connection);
+							referenceTargetsChecked = true;
+						}
+
 						logger.debug("Running execute of command {} for entry at index {}", c.getClass().getName(),
 								c.getIndex());
 						c.execute(idTranslationTable, connection, validationHelper, snapshotGenerator);
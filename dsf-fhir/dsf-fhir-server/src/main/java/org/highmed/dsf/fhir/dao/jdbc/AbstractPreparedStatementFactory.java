@@ -15,8 +15,8 @@ import ca.uhn.fhir.parser.IParser;
 
 abstract class AbstractPreparedStatementFactory<R extends Resource> implements PreparedStatementFactory<R>
 {
-	private final FhirContext fhirContext;
 	private final Class<R> resourceType;
+	private final ThreadLocal<IParser> jsonParser;
 
 	private final String createSql;
 	private final String readByIdSql;
@@ -27,23 +27,30 @@ abstract class AbstractPreparedStatementFactory<R extends Resource> implements P
 	protected AbstractPreparedStatementFactory(FhirContext fhirContext, Class<R> resourceType, String createSql,
 			String readByIdSql, String readByIdAndVersionSql, String updateNewRowSql, String updateSameRowSql)
 	{
-		this.fhirContext = Objects.requireNonNull(fhirContext, "fhirContext");
+		Objects.requireNonNull(fhirContext, "fhirContext");
 		this.resourceType = Objects.requireNonNull(resourceType, "resourceType");
 		this.createSql = Objects.requireNonNull(createSql, "createSql");
 		this.readByIdSql = Objects.requireNonNull(readByIdSql, "readByIdSql");
 		this.readByIdAndVersionSql = Objects.requireNonNull(readByIdAndVersionSql, "readByIdAndVersionSql");
 		this.updateNewRowSql = Objects.requireNonNull(updateNewRowSql, "updateNewRowSql");
 		this.updateSameRowSql = Objects.requireNonNull(updateSameRowSql, "updateSameRowSql");
+
+		jsonParser = ThreadLocal.withInitial(() -> newJsonParser(fhirContext));
 	}
 
-	@Override
-	public IParser getJsonParser()
+	private static IParser newJsonParser(FhirContext fhirContext)
 	{
 		IParser p = fhirContext.newJsonParser();
 		p.setStripVersionsFromReferences(false);
 		return p;
 	}
 
+	@Override
+	public IParser getJsonParser()
+	{
+		return jsonParser.get();
+	}
+
 	protected final R jsonToResource(String json)
 	{
 		R resource = getJsonParser().parseResource(resourceType, json);
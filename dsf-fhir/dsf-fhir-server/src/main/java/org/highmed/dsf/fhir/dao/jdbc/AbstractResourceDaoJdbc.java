@@ -1,5 +1,6 @@
 package org.highmed.dsf.fhir.dao.jdbc;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -9,11 +10,17 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -23,17 +30,22 @@ import javax.sql.DataSource;
 
 import org.highmed.dsf.fhir.authentication.User;
 import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.StoredJson;
 import org.highmed.dsf.fhir.dao.exception.ResourceDeletedException;
 import org.highmed.dsf.fhir.dao.exception.ResourceNotFoundException;
 import org.highmed.dsf.fhir.dao.exception.ResourceNotMarkedDeletedException;
 import org.highmed.dsf.fhir.dao.exception.ResourceVersionNoMatchException;
 import org.highmed.dsf.fhir.search.DbSearchQuery;
+import org.highmed.dsf.fhir.search.PageAndCount;
 import org.highmed.dsf.fhir.search.PartialResult;
 import org.highmed.dsf.fhir.search.SearchQuery;
 import org.highmed.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
 import org.highmed.dsf.fhir.search.SearchQueryParameter;
 import org.highmed.dsf.fhir.search.SearchQueryRevIncludeParameterFactory;
 import org.highmed.dsf.fhir.search.SearchQueryUserFilter;
+import org.highmed.dsf.fhir.search.SearchResultHandler;
+import org.highmed.dsf.fhir.search.SearchResultStream;
+import org.highmed.dsf.fhir.search.TotalMode;
 import org.highmed.dsf.fhir.search.parameters.ResourceId;
 import org.highmed.dsf.fhir.search.parameters.ResourceLastUpdated;
 import org.highmed.dsf.fhir.search.parameters.ResourceProfile;
@@ -56,6 +68,8 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 {
 	private static final Logger logger = LoggerFactory.getLogger(AbstractResourceDaoJdbc.class);
 
+	private static final int STREAMING_FETCH_SIZE = 20;
+
 	private static final class ResourceDistinctById
 	{
 		private final IdType id;
@@ -264,13 +278,52 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		return inserted;
 	}
 
-	private R create(Connection connection, R resource, UUID uuid) throws SQLException
+	@Override
+	public List<R> createAllWithTransactionAndIds(Connection connection, Map<UUID, R> resourcesById) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resourcesById, "resourcesById");
+		if (connection.isReadOnly())
+			throw new IllegalArgumentException("Connection is read-only");
+
+		if (resourcesById.isEmpty())
+			return Collections.emptyList();
+
+		List<R> inserted = new ArrayList<>(resourcesById.size());
+		try (PreparedStatement statement = connection.prepareStatement(preparedStatementFactory.getCreateSql()))
+		{
+			for (Entry<UUID, R> entry : resourcesById.entrySet())
+			{
+				R resource = prepareCreate(entry.getValue(), entry.getKey());
+				preparedStatementFactory.configureCreateStatement(statement, resource, entry.getKey());
+				statement.addBatch();
+
+				inserted.add(resource);
+			}
+
+			logger.trace("Executing batch of {} inserts '{}'", inserted.size(),
+					preparedStatementFactory.getCreateSql());
+			statement.executeBatch();
+		}
+
+		logger.debug("{} {} resources created", inserted.size(), resourceTypeName);
+		return inserted;
+	}
+
+	private R prepareCreate(R resource, UUID uuid)
 	{
 		resource = copy(resource); // XXX defensive copy, might want to remove this call
 		resource.setIdElement(new IdType(resourceTypeName, uuid.toString(), FIRST_VERSION_STRING));
 		resource.getMeta().setVersionId(FIRST_VERSION_STRING);
 		resource.getMeta().setLastUpdated(new Date());
 
+		return resource;
+	}
+
+	private R create(Connection connection, R resource, UUID uuid) throws SQLException
+	{
+		resource = prepareCreate(resource, uuid);
+
 		try (PreparedStatement statement = connection.prepareStatement(preparedStatementFactory.getCreateSql()))
 		{
 			preparedStatementFactory.configureCreateStatement(statement, resource, uuid);
@@ -341,7 +394,7 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		}
 	}
 
-	private ResourceDeletedException newResourceDeletedException(UUID uuid, LocalDateTime deleted, long version)
+	protected final ResourceDeletedException newResourceDeletedException(UUID uuid, LocalDateTime deleted, long version)
 	{
 		return new ResourceDeletedException(new IdType(resourceTypeName, uuid.toString(), String.valueOf(version + 1)),
 				deleted);
@@ -399,6 +452,90 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		}
 	}
 
+	@Override
+	public final Optional<StoredJson> readJson(UUID uuid) throws SQLException, ResourceDeletedException
+	{
+		if (uuid == null)
+			return Optional.empty();
+
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(preparedStatementFactory.getReadByIdSql()))
+		{
+			preparedStatementFactory.configureReadByIdStatement(statement, uuid);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				if (result.next())
+				{
+					LocalDateTime deleted = preparedStatementFactory.getReadByIdDeleted(result);
+					long version = preparedStatementFactory.getReadByIdVersion(result);
+					if (deleted != null)
+					{
+						logger.debug("{} with IdPart {} found, but marked as deleted", resourceTypeName, uuid);
+						throw newResourceDeletedException(uuid, deleted, version);
+					}
+
+					String json = preparedStatementFactory.getReadByIdJson(result);
+					if (json == null)
+						return Optional.empty();
+
+					logger.debug("{} with IdPart {} found", resourceTypeName, uuid);
+					return Optional.of(new StoredJson(resourceTypeName, uuid, version, json));
+				}
+				else
+				{
+					logger.debug("{} with IdPart {} not found", resourceTypeName, uuid);
+					return Optional.empty();
+				}
+			}
+		}
+	}
+
+	@Override
+	public final Optional<StoredJson> readVersionJson(UUID uuid, long version)
+			throws SQLException, ResourceDeletedException
+	{
+		if (uuid == null || version < FIRST_VERSION)
+			return Optional.empty();
+
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection
+						.prepareStatement(preparedStatementFactory.getReadByIdAndVersionSql()))
+		{
+			preparedStatementFactory.configureReadByIdAndVersionStatement(statement, uuid, version);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				if (result.next())
+				{
+					LocalDateTime deleted = preparedStatementFactory.getReadByIdVersionDeleted(result);
+					long lastVersion = preparedStatementFactory.getReadByIdVersionVersion(result);
+					if (lastVersion + 1 == version)
+					{
+						logger.debug(
+								"{} with IdPart {} and Version {} found, but marked as deleted (delete history entry)",
+								resourceTypeName, uuid, version);
+						throw newResourceDeletedException(uuid, deleted, lastVersion);
+					}
+
+					String json = preparedStatementFactory.getReadByIdAndVersionJson(result);
+					if (json == null)
+						return Optional.empty();
+
+					logger.debug("{} with IdPart {} and Version {} found", resourceTypeName, uuid, version);
+					return Optional.of(new StoredJson(resourceTypeName, uuid, version, json));
+				}
+				else
+				{
+					logger.debug("{} with IdPart {} and Version {} not found", resourceTypeName, uuid, version);
+					return Optional.empty();
+				}
+			}
+		}
+	}
+
 	@Override
 	public Optional<R> readIncludingDeleted(UUID uuid) throws SQLException
 	{
@@ -528,6 +665,50 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		}
 	}
 
+	@Override
+	public Set<String> getExistingNotDeletedIdsWithTransaction(Connection connection, Collection<String> ids)
+			throws SQLException
+	{
+		return getExistingIds(connection, ids, false);
+	}
+
+	@Override
+	public Set<String> getExistingIdsWithTransaction(Connection connection, Collection<String> ids) throws SQLException
+	{
+		return getExistingIds(connection, ids, true);
+	}
+
+	private Set<String> getExistingIds(Connection connection, Collection<String> ids, boolean includeDeleted)
+			throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(ids, "ids");
+
+		UUID[] uuids = ids.stream().map(this::toUuid).filter(Objects::nonNull).distinct().toArray(UUID[]::new);
+		if (uuids.length == 0)
+			return Collections.emptySet();
+
+		try (PreparedStatement statement = connection.prepareStatement("SELECT DISTINCT ON (" + resourceIdColumn + ") "
+				+ resourceIdColumn + ", deleted IS NOT NULL FROM " + resourceTable + " WHERE " + resourceIdColumn
+				+ " = ANY (?) ORDER BY " + resourceIdColumn + ", version DESC"))
+		{
+			statement.setArray(1, connection.createArrayOf("uuid", uuids));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				Set<UUID> existing = new HashSet<>();
+				while (result.next())
+				{
+					if (includeDeleted || !result.getBoolean(2))
+						existing.add(result.getObject(1, UUID.class));
+				}
+
+				return ids.stream().filter(id -> existing.contains(toUuid(id))).collect(Collectors.toSet());
+			}
+		}
+	}
+
 	@Override
 	public final R update(R resource, Long expectedVersion)
 			throws SQLException, ResourceNotFoundException, ResourceVersionNoMatchException
@@ -776,27 +957,22 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		Objects.requireNonNull(connection, "connection");
 		Objects.requireNonNull(query, "query");
 
+		TotalMode totalMode = query.getTotalMode();
 		int total = 0;
-		try (PreparedStatement statement = connection.prepareStatement(query.getCountSql()))
-		{
-			query.modifyStatement(statement, connection::createArrayOf);
-
-			logger.trace("Executing query '{}'", statement);
-			try (ResultSet result = statement.executeQuery())
-			{
-				if (result.next())
-					total = result.getInt(1);
-			}
-		}
+		if (TotalMode.ACCURATE.equals(totalMode))
+			total = count(connection, query);
+		else if (TotalMode.ESTIMATE.equals(totalMode))
+			total = estimate(connection, query);
 
 		List<R> partialResult = new ArrayList<>();
 		List<Resource> includes = new ArrayList<>();
 
-		if (!query.getPageAndCount().isCountOnly(total))
+		if (TotalMode.ACCURATE.equals(totalMode) ? !query.getPageAndCount().isCountOnly(total)
+				: !query.getPageAndCount().isCountOnly())
 		{
 			try (PreparedStatement statement = connection.prepareStatement(query.getSearchSql()))
 			{
-				query.modifyStatement(statement, connection::createArrayOf);
+				query.modifySearchStatement(statement, connection::createArrayOf);
 
 				logger.trace("Executing query '{}'", statement);
 				try (ResultSet result = statement.executeQuery())
@@ -805,7 +981,6 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 					while (result.next())
 					{
 						R resource = getResource(result, 1);
-						modifySearchResultResource(resource, connection);
 						partialResult.add(resource);
 
 						for (int columnIndex = 2; columnIndex <= metaData.getColumnCount(); columnIndex++)
@@ -813,29 +988,281 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 					}
 				}
 			}
+
+			if (!partialResult.isEmpty())
+				modifySearchResultResources(partialResult, query.isSummary(), connection);
 		}
 
 		// needs to be filtered by read rules, before returning to user, see rest access layer
 		includes = includes.stream().map(r -> new ResourceDistinctById(r.getIdElement(), r)).distinct()
 				.map(ResourceDistinctById::getResource).collect(Collectors.toList());
 
-		return new PartialResult<>(total, query.getPageAndCount(), partialResult, includes);
+		return new PartialResult<>(total, totalMode, query.getPageAndCount(), partialResult, includes);
+	}
+
+	@Override
+	public final SearchResultStream<R> searchStream(DbSearchQuery query) throws SQLException
+	{
+		Objects.requireNonNull(query, "query");
+
+		Connection connection = dataSource.getConnection();
+		try
+		{
+			return new SearchResultStreamJdbc(connection, query);
+		}
+		catch (SQLException | RuntimeException e)
+		{
+			try (connection)
+			{
+				if (!connection.getAutoCommit())
+					connection.rollback();
+			}
+			catch (SQLException e1)
+			{
+				e.addSuppressed(e1);
+			}
+
+			throw e;
+		}
+	}
+
+	@Override
+	public final void searchStreaming(DbSearchQuery query, SearchResultHandler<R> handler)
+			throws SQLException, IOException
+	{
+		Objects.requireNonNull(query, "query");
+		Objects.requireNonNull(handler, "handler");
+
+		try (SearchResultStream<R> stream = searchStream(query))
+		{
+			stream.handle(handler);
+		}
+	}
+
+	private final class SearchResultStreamJdbc implements SearchResultStream<R>
+	{
+		private final Connection connection;
+		private final DbSearchQuery query;
+		private final int total;
+
+		private final PreparedStatement statement;
+		private final ResultSet result;
+
+		private final List<R> buffer = new ArrayList<>();
+		private final int pageSize;
+
+		private boolean hasNext;
+		private boolean handled;
+
+		SearchResultStreamJdbc(Connection connection, DbSearchQuery query) throws SQLException
+		{
+			this.connection = connection;
+			this.query = query;
+
+			connection.setReadOnly(true);
+
+			// postgres jdbc driver only uses the fetch size if auto commit is disabled
+			connection.setAutoCommit(false);
+
+			TotalMode totalMode = query.getTotalMode();
+			if (TotalMode.ACCURATE.equals(totalMode))
+				total = count(connection, query);
+			else if (TotalMode.ESTIMATE.equals(totalMode))
+				total = estimate(connection, query);
+			else
+				total = 0;
+
+			if (TotalMode.ACCURATE.equals(totalMode) ? query.getPageAndCount().isCountOnly(total)
+					: query.getPageAndCount().isCountOnly())
+			{
+				statement = null;
+				result = null;
+				pageSize = 0;
+			}
+			else
+			{
+				statement = connection.prepareStatement(query.getSearchSql());
+				statement.setFetchSize(STREAMING_FETCH_SIZE);
+				query.modifySearchStatement(statement, connection::createArrayOf);
+
+				logger.trace("Executing query '{}'", statement);
+				result = statement.executeQuery();
+				hasNext = result.next();
+
+				PageAndCount pageAndCount = query.getPageAndCount();
+				if (TotalMode.ACCURATE.equals(totalMode))
+				{
+					int offset = (pageAndCount.getPage() - 1) * pageAndCount.getCount();
+					pageSize = Math.max(0, Math.min(pageAndCount.getCount(), total - offset));
+				}
+				else
+				{
+					// number of resources on the page only known after reading the page, not more than _count rows
+					while (hasNext && buffer.size() < pageAndCount.getCount())
+					{
+						buffer.add(getResource(result, 1));
+						hasNext = result.next();
+					}
+
+					pageSize = buffer.size();
+				}
+			}
+		}
+
+		@Override
+		public int getTotal()
+		{
+			return total;
+		}
+
+		@Override
+		public TotalMode getTotalMode()
+		{
+			return query.getTotalMode();
+		}
+
+		@Override
+		public PageAndCount getPageAndCount()
+		{
+			return query.getPageAndCount();
+		}
+
+		@Override
+		public int getPageSize()
+		{
+			return pageSize;
+		}
+
+		@Override
+		public void handle(SearchResultHandler<R> handler) throws SQLException, IOException
+		{
+			Objects.requireNonNull(handler, "handler");
+
+			if (handled)
+				throw new IllegalStateException("Search result already handled");
+			handled = true;
+
+			handler.handleTotal(total, query.getTotalMode());
+
+			handleResources(buffer, query, handler, connection);
+
+			// resources are modified in chunks of the fetch size
+			List<R> chunk = new ArrayList<>(STREAMING_FETCH_SIZE);
+			while (hasNext)
+			{
+				chunk.add(getResource(result, 1));
+
+				if (chunk.size() >= STREAMING_FETCH_SIZE)
+					handleResources(chunk, query, handler, connection);
+
+				hasNext = result.next();
+			}
+
+			handleResources(chunk, query, handler, connection);
+		}
+
+		@Override
+		public void close() throws SQLException
+		{
+			try (connection)
+			{
+				if (statement != null)
+				{
+					// statements are pooled per connection, fetch size would otherwise be kept for the next search
+					statement.setFetchSize(0);
+					statement.close();
+				}
+
+				connection.rollback();
+			}
+		}
+	}
+
+	private void handleResources(List<R> resources, DbSearchQuery query, SearchResultHandler<R> handler,
+			Connection connection) throws SQLException, IOException
+	{
+		if (resources.isEmpty())
+			return;
+
+		modifySearchResultResources(resources, query.isSummary(), connection);
+
+		for (R resource : resources)
+			handler.handleResource(resource);
+
+		resources.clear();
+	}
+
+	private int count(Connection connection, DbSearchQuery query) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(query.getCountSql()))
+		{
+			query.modifyStatement(statement, connection::createArrayOf);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				if (result.next())
+					return result.getInt(1);
+				else
+					return 0;
+			}
+		}
+	}
+
+	private int estimate(Connection connection, DbSearchQuery query) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(query.getEstimateSql()))
+		{
+			query.modifyStatement(statement, connection::createArrayOf);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				if (result.next())
+				{
+					// [{"Plan": {"Plan Rows": <estimate>, ...}}]
+					JsonElement plan = JsonParser.parseString(result.getString(1)).getAsJsonArray().get(0)
+							.getAsJsonObject().get("Plan");
+					double planRows = plan.getAsJsonObject().get("Plan Rows").getAsDouble();
+
+					return (int) Math.min(Integer.MAX_VALUE, Math.round(planRows));
+				}
+				else
+					return 0;
+			}
+		}
 	}
 
 	/**
 	 * Override this method to modify resources retrieved by search queries before returning to the user. This method
 	 * can be used, if the resource returned by the search is not complete and additional content needs to be retrieved.
-	 * For example the content of a {@link Binary} resource might not be stored in the json column.
+	 * For example the content of a {@link Binary} resource might not be stored in the json column. Resources are handed
+	 * over page by page (or in chunks while streaming), additional content should be retrieved with one query for all
+	 * given resources.
 	 *
-	 * @param resource
-	 *            not <code>null</code>
+	 * @param resources
+	 *            not <code>null</code>, not empty
+	 * @param summary
+	 *            <code>true</code> if only summary elements were requested, see {@link #isSearchSummarySupported()}
 	 * @param connection
 	 *            not <code>null</code>
 	 * @throws SQLException
 	 *             if database access errors occur
 	 */
-	protected void modifySearchResultResource(R resource, Connection connection) throws SQLException
+	protected void modifySearchResultResources(List<R> resources, boolean summary, Connection connection)
+			throws SQLException
+	{
+	}
+
+	/**
+	 * Override this method to support the <code>_summary</code> search parameter, needs to be evaluated by
+	 * {@link #modifySearchResultResources(List, boolean, Connection)}
+	 *
+	 * @return <code>true</code> if search queries created by this dao support the <code>_summary</code> parameter
+	 */
+	protected boolean isSearchSummarySupported()
 	{
+		return false;
 	}
 
 	private void getResources(ResultSet result, int columnIndex, List<? super Resource> includeResources,
@@ -880,11 +1307,15 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private SearchQuery<R> doCreateSearchQuery(User user, int page, int count)
 	{
-		var builder = SearchQueryBuilder.create(resourceType, getResourceTable(), getResourceColumn(), page, count);
+		var builder = SearchQueryBuilder.create(resourceType, getResourceTable(), getResourceColumn(),
+				getResourceIdColumn(), page, count);
 
 		if (user != null)
 			builder = builder.with(userFilter.apply(user));
 
+		if (isSearchSummarySupported())
+			builder = builder.withSummarySupport();
+
 		return builder
 				.with(new ResourceId(getResourceIdColumn()), new ResourceLastUpdated(getResourceColumn()),
 						new ResourceProfile(getResourceColumn()))
@@ -31,7 +31,7 @@ abstract class AbstractStructureDefinitionDaoJdbc extends AbstractResourceDaoJdb
 		super(dataSource, permanentDeleteDataSource, fhirContext, StructureDefinition.class, resourceTable,
 				resourceColumn, resourceIdColumn, userFilter,
 				with(() -> new StructureDefinitionDate(resourceColumn),
-						() -> new StructureDefinitionIdentifier(resourceColumn),
+						() -> new StructureDefinitionIdentifier(resourceTable, resourceIdColumn),
 						() -> new StructureDefinitionStatus(resourceColumn),
 						() -> new StructureDefinitionUrl(resourceColumn),
 						() -> new StructureDefinitionVersion(resourceColumn)),
@@ -1,23 +1,77 @@
 package org.highmed.dsf.fhir.dao.jdbc;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
 import org.highmed.dsf.fhir.dao.BinaryDao;
+import org.highmed.dsf.fhir.dao.BinaryWithoutData;
+import org.highmed.dsf.fhir.dao.exception.ResourceDeletedException;
+import org.highmed.dsf.fhir.dao.exception.ResourceNotFoundException;
+import org.highmed.dsf.fhir.dao.exception.ResourceVersionNoMatchException;
 import org.highmed.dsf.fhir.search.parameters.BinaryContentType;
 import org.highmed.dsf.fhir.search.parameters.user.BinaryUserFilter;
 import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.IdType;
-import org.postgresql.util.PGobject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import ca.uhn.fhir.context.FhirContext;
 
 public class BinaryDaoJdbc extends AbstractResourceDaoJdbc<Binary> implements BinaryDao
 {
+	private static final Logger logger = LoggerFactory.getLogger(BinaryDaoJdbc.class);
+
+	private static final String SUBSETTED_SYSTEM = "http://terminology.hl7.org/CodeSystem/v3-ObservationValue";
+	private static final String SUBSETTED_CODE = "SUBSETTED";
+
+	/**
+	 * Maximum data size of {@link Binary} resources read, searched or read from the history as FHIR resources. The data
+	 * of larger {@link Binary} resources is omitted and the resources are tagged as {@value #SUBSETTED_CODE}, the data
+	 * can be read with {@link #readData(UUID, long, long, long, OutputStream)}.
+	 */
+	public static final int MAX_RESOURCE_DATA_SIZE = 64 * 1024 * 1024;
+
+	private static final String DATA_LENGTH_SQL = "(SELECT sum(octet_length(data)) FROM binary_data_chunks "
+			+ "WHERE binary_data_chunks.binary_id = binaries.binary_id AND binary_data_chunks.version = binaries.version)";
+
+	private static final String READ_WITHOUT_DATA_SQL = "SELECT deleted, version, binary_json, " + DATA_LENGTH_SQL
+			+ " FROM binaries WHERE binary_id = ? ORDER BY version DESC LIMIT 1";
+	private static final String READ_VERSION_WITHOUT_DATA_SQL = "SELECT deleted, version, binary_json, "
+			+ DATA_LENGTH_SQL
+			+ " FROM binaries WHERE binary_id = ? AND (version = ? OR version = ?) ORDER BY version DESC LIMIT 1";
+
+	// chunk containing the given position, chunks might be larger than DATA_CHUNK_SIZE if migrated from bytea column
+	private static final String READ_DATA_SQL = "SELECT substring(data FROM (? - data_offset + 1)::int FOR ?) FROM binary_data_chunks "
+			+ "WHERE binary_id = ? AND version = ? AND data_offset <= ? ORDER BY data_offset DESC LIMIT 1";
+	private static final String WRITE_DATA_SQL = "INSERT INTO binary_data_chunks (binary_id, version, data_offset, data) VALUES (?, ?, ?, ?)";
+
+	private static final String READ_DATA_LENGTHS_SQL = "SELECT binary_id, version, " + DATA_LENGTH_SQL
+			+ " FROM binaries WHERE (binary_id, version) IN (SELECT * FROM unnest(?::uuid[], ?::bigint[]))";
+	private static final String READ_DATA_CHUNKS_SQL = "SELECT binary_id, version, data FROM binary_data_chunks "
+			+ "WHERE (binary_id, version) IN (SELECT * FROM unnest(?::uuid[], ?::bigint[])) "
+			+ "ORDER BY binary_id, version, data_offset";
+
+	private static final int DATA_CHUNK_SIZE = 4 * 1024 * 1024;
+
 	public BinaryDaoJdbc(DataSource dataSource, DataSource permanentDeleteDataSource, FhirContext fhirContext)
 	{
 		super(dataSource, permanentDeleteDataSource, fhirContext, Binary.class, "binaries", "binary_json", "binary_id",
@@ -43,29 +97,407 @@ public class BinaryDaoJdbc extends AbstractResourceDaoJdbc<Binary> implements Bi
 	}
 
 	@Override
-	protected void modifySearchResultResource(Binary resource, Connection connection) throws SQLException
+	public Optional<BinaryWithoutData> readWithoutData(UUID uuid) throws SQLException, ResourceDeletedException
 	{
-		try (PreparedStatement statement = connection
-				.prepareStatement("SELECT binary_data FROM binaries WHERE binary_id = ? AND version = ?"))
+		if (uuid == null)
+			return Optional.empty();
+
+		try (Connection connection = getDataSource().getConnection();
+				PreparedStatement statement = connection.prepareStatement(READ_WITHOUT_DATA_SQL))
 		{
-			PGobject uuidObject = getPreparedStatementFactory()
-					.uuidToPgObject(toUuid(resource.getIdElement().getIdPart()));
-			Long version = resource.getMeta().getVersionIdElement().getIdPartAsLong();
+			statement.setObject(1, getPreparedStatementFactory().uuidToPgObject(uuid));
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				if (result.next())
+				{
+					Timestamp deleted = result.getTimestamp(1);
+					long version = result.getLong(2);
+					if (deleted != null)
+						throw newResourceDeletedException(uuid, deleted.toLocalDateTime(), version);
+
+					return Optional.of(new BinaryWithoutData(getResource(result, 3), result.getLong(4)));
+				}
+				else
+					return Optional.empty();
+			}
+		}
+	}
+
+	@Override
+	public Optional<BinaryWithoutData> readVersionWithoutData(UUID uuid, long version)
+			throws SQLException, ResourceDeletedException
+	{
+		if (uuid == null || version < FIRST_VERSION)
+			return Optional.empty();
 
-			statement.setObject(1, uuidObject);
+		try (Connection connection = getDataSource().getConnection();
+				PreparedStatement statement = connection.prepareStatement(READ_VERSION_WITHOUT_DATA_SQL))
+		{
+			statement.setObject(1, getPreparedStatementFactory().uuidToPgObject(uuid));
 			statement.setLong(2, version);
+			statement.setLong(3, version - 1);
 
 			try (ResultSet result = statement.executeQuery())
 			{
 				if (result.next())
 				{
-					byte[] data = result.getBytes(1);
-					resource.setData(data);
+					Timestamp deleted = result.getTimestamp(1);
+					long lastVersion = result.getLong(2);
+					if (lastVersion + 1 == version)
+						throw newResourceDeletedException(uuid, deleted == null ? null : deleted.toLocalDateTime(),
+								lastVersion);
+
+					return Optional.of(new BinaryWithoutData(getResource(result, 3), result.getLong(4)));
 				}
 				else
-					throw new SQLException(
-							"Binary resource with id " + resource.getIdElement().getIdPart() + " not found");
+					return Optional.empty();
+			}
+		}
+	}
+
+	@Override
+	public Optional<Binary> readWithTransaction(Connection connection, UUID uuid)
+			throws SQLException, ResourceDeletedException
+	{
+		Optional<Binary> read = super.readWithTransaction(connection, uuid);
+		if (read.isPresent())
+			readResourceData(List.of(read.get()), connection);
+
+		return read;
+	}
+
+	@Override
+	public Optional<Binary> readVersionWithTransaction(Connection connection, UUID uuid, long version)
+			throws SQLException, ResourceDeletedException
+	{
+		Optional<Binary> read = super.readVersionWithTransaction(connection, uuid, version);
+		if (read.isPresent())
+			readResourceData(List.of(read.get()), connection);
+
+		return read;
+	}
+
+	@Override
+	public Optional<Binary> readIncludingDeletedWithTransaction(Connection connection, UUID uuid) throws SQLException
+	{
+		Optional<Binary> read = super.readIncludingDeletedWithTransaction(connection, uuid);
+		if (read.isPresent())
+			readResourceData(List.of(read.get()), connection);
+
+		return read;
+	}
+
+	@Override
+	public void readData(UUID uuid, long version, long offset, long length, OutputStream out)
+			throws SQLException, IOException
+	{
+		Objects.requireNonNull(uuid, "uuid");
+		Objects.requireNonNull(out, "out");
+		if (version < FIRST_VERSION)
+			throw new IllegalArgumentException("version < " + FIRST_VERSION);
+		if (offset < 0)
+			throw new IllegalArgumentException("offset < 0");
+		if (length < 0)
+			throw new IllegalArgumentException("length < 0");
+		else if (length == 0)
+			return;
+
+		try (Connection connection = getDataSource().getConnection())
+		{
+			connection.setReadOnly(true);
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement statement = connection.prepareStatement(READ_DATA_SQL))
+			{
+				statement.setObject(3, getPreparedStatementFactory().uuidToPgObject(uuid));
+				statement.setLong(4, version);
+
+				long position = offset;
+				long remaining = length;
+				while (remaining > 0)
+				{
+					int chunkSize = (int) Math.min(DATA_CHUNK_SIZE, remaining);
+
+					statement.setLong(1, position);
+					statement.setInt(2, chunkSize);
+					statement.setLong(5, position);
+
+					try (ResultSet result = statement.executeQuery())
+					{
+						if (!result.next())
+							break;
+
+						byte[] chunk = result.getBytes(1);
+						if (chunk == null || chunk.length == 0)
+							break;
+
+						out.write(chunk);
+
+						position += chunk.length;
+						remaining -= chunk.length;
+					}
+				}
 			}
+			finally
+			{
+				connection.rollback();
+			}
+		}
+	}
+
+	@Override
+	public Binary createWithTransactionAndId(Connection connection, Binary resource, UUID uuid) throws SQLException
+	{
+		Binary created = super.createWithTransactionAndId(connection, resource, uuid);
+
+		if (resource.hasData())
+			writeData(connection, uuid, FIRST_VERSION, resource.getData());
+
+		return created;
+	}
+
+	@Override
+	public List<Binary> createAllWithTransactionAndIds(Connection connection, Map<UUID, Binary> resourcesById)
+			throws SQLException
+	{
+		List<Binary> created = super.createAllWithTransactionAndIds(connection, resourcesById);
+
+		for (Entry<UUID, Binary> entry : resourcesById.entrySet())
+		{
+			if (entry.getValue().hasData())
+				writeData(connection, entry.getKey(), FIRST_VERSION, entry.getValue().getData());
+		}
+
+		return created;
+	}
+
+	@Override
+	public Binary updateWithTransaction(Connection connection, Binary resource, Long expectedVersion)
+			throws SQLException, ResourceNotFoundException, ResourceVersionNoMatchException
+	{
+		Binary updated = super.updateWithTransaction(connection, resource, expectedVersion);
+
+		if (resource.hasData())
+			writeData(connection, toUuid(updated.getIdElement().getIdPart()),
+					updated.getMeta().getVersionIdElement().getIdPartAsLong(), resource.getData());
+
+		return updated;
+	}
+
+	@Override
+	public Binary createWithTransactionAndId(Connection connection, Binary resource, UUID uuid, InputStream data)
+			throws SQLException, IOException
+	{
+		Objects.requireNonNull(data, "data");
+		if (resource != null && resource.hasData())
+			throw new IllegalArgumentException("resource has data");
+
+		Binary created = createWithTransactionAndId(connection, resource, uuid);
+
+		writeData(connection, uuid, FIRST_VERSION, data);
+
+		return created;
+	}
+
+	@Override
+	public Binary updateWithTransaction(Connection connection, Binary resource, Long expectedVersion, InputStream data)
+			throws SQLException, IOException, ResourceNotFoundException, ResourceVersionNoMatchException
+	{
+		Objects.requireNonNull(data, "data");
+		if (resource != null && resource.hasData())
+			throw new IllegalArgumentException("resource has data");
+
+		Binary updated = updateWithTransaction(connection, resource, expectedVersion);
+
+		writeData(connection, toUuid(updated.getIdElement().getIdPart()),
+				updated.getMeta().getVersionIdElement().getIdPartAsLong(), data);
+
+		return updated;
+	}
+
+	private void writeData(Connection connection, UUID uuid, long version, byte[] data) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(WRITE_DATA_SQL))
+		{
+			for (int offset = 0; offset < data.length; offset += DATA_CHUNK_SIZE)
+				writeChunk(statement, uuid, version, offset, data, offset,
+						Math.min(DATA_CHUNK_SIZE, data.length - offset));
+		}
+	}
+
+	/*
+	 * Reads the data in chunks from the given InputStream, only one chunk is kept in memory
+	 */
+	private void writeData(Connection connection, UUID uuid, long version, InputStream data)
+			throws SQLException, IOException
+	{
+		byte[] buffer = new byte[DATA_CHUNK_SIZE];
+
+		try (PreparedStatement statement = connection.prepareStatement(WRITE_DATA_SQL))
+		{
+			long offset = 0;
+			int read;
+			while ((read = data.readNBytes(buffer, 0, buffer.length)) > 0)
+			{
+				writeChunk(statement, uuid, version, offset, buffer, 0, read);
+				offset += read;
+			}
+
+			logger.debug("{} bytes written for Binary with IdPart {} and Version {}", offset, uuid, version);
+		}
+	}
+
+	private void writeChunk(PreparedStatement statement, UUID uuid, long version, long dataOffset, byte[] buffer,
+			int bufferOffset, int length) throws SQLException
+	{
+		statement.setObject(1, getPreparedStatementFactory().uuidToPgObject(uuid));
+		statement.setLong(2, version);
+		statement.setLong(3, dataOffset);
+		statement.setBinaryStream(4, new ByteArrayInputStream(buffer, bufferOffset, length), length);
+
+		statement.execute();
+	}
+
+	@Override
+	protected boolean isSearchSummarySupported()
+	{
+		return true;
+	}
+
+	/**
+	 * Retrieves the data of all given {@link Binary} resources, see {@link #readResourceData(List, Connection)}. If
+	 * only summary elements were requested, the data is not retrieved and the resources are tagged as
+	 * {@value #SUBSETTED_CODE}.
+	 */
+	@Override
+	protected void modifySearchResultResources(List<Binary> resources, boolean summary, Connection connection)
+			throws SQLException
+	{
+		if (summary)
+			resources.forEach(this::markSubsetted);
+		else
+			readResourceData(resources, connection);
+	}
+
+	private void markSubsetted(Binary resource)
+	{
+		resource.getMeta().addTag().setSystem(SUBSETTED_SYSTEM).setCode(SUBSETTED_CODE);
+	}
+
+	/*
+	 * Data lengths are read with one query, data of resources with not more than MAX_RESOURCE_DATA_SIZE bytes is read
+	 * chunk by chunk with a second query and assembled in memory, data of larger resources is omitted
+	 */
+	private void readResourceData(List<Binary> resources, Connection connection) throws SQLException
+	{
+		Map<BinaryIdAndVersion, Binary> resourcesById = new HashMap<>();
+		for (Binary resource : resources)
+			resourcesById.put(new BinaryIdAndVersion(toUuid(resource.getIdElement().getIdPart()),
+					resource.getMeta().getVersionIdElement().getIdPartAsLong()), resource);
+
+		Map<BinaryIdAndVersion, byte[]> dataById = new HashMap<>();
+		Map<BinaryIdAndVersion, Binary> notFound = new HashMap<>(resourcesById);
+
+		try (PreparedStatement statement = connection.prepareStatement(READ_DATA_LENGTHS_SQL))
+		{
+			setIds(statement, connection, resourcesById.keySet());
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+				{
+					BinaryIdAndVersion id = new BinaryIdAndVersion(result.getObject(1, UUID.class), result.getLong(2));
+					long length = result.getLong(3);
+					boolean hasData = !result.wasNull();
+
+					Binary resource = notFound.remove(id);
+					if (resource == null || !hasData)
+						continue;
+
+					if (length > MAX_RESOURCE_DATA_SIZE)
+					{
+						logger.debug("Data of Binary with IdPart {} and Version {} omitted, {} bytes > {} bytes", id.id,
+								id.version, length, MAX_RESOURCE_DATA_SIZE);
+
+						resource.setData(null);
+						markSubsetted(resource);
+					}
+					else
+						dataById.put(id, new byte[(int) length]);
+				}
+			}
+		}
+
+		if (!notFound.isEmpty())
+			throw new SQLException("Binary resources with ids "
+					+ notFound.keySet().stream().map(id -> id.id.toString()).collect(Collectors.joining(", "))
+					+ " not found");
+
+		if (dataById.isEmpty())
+			return;
+
+		try (PreparedStatement statement = connection.prepareStatement(READ_DATA_CHUNKS_SQL))
+		{
+			setIds(statement, connection, dataById.keySet());
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				BinaryIdAndVersion currentId = null;
+				int position = 0;
+				while (result.next())
+				{
+					BinaryIdAndVersion id = new BinaryIdAndVersion(result.getObject(1, UUID.class), result.getLong(2));
+					if (!id.equals(currentId))
+					{
+						currentId = id;
+						position = 0;
+					}
+
+					byte[] chunk = result.getBytes(3);
+					System.arraycopy(chunk, 0, dataById.get(id), position, chunk.length);
+					position += chunk.length;
+				}
+			}
+		}
+
+		dataById.forEach((id, data) -> resourcesById.get(id).setData(data));
+	}
+
+	private void setIds(PreparedStatement statement, Connection connection, Collection<BinaryIdAndVersion> ids)
+			throws SQLException
+	{
+		statement.setArray(1, connection.createArrayOf("uuid", ids.stream().map(id -> id.id).toArray(UUID[]::new)));
+		statement.setArray(2,
+				connection.createArrayOf("bigint", ids.stream().map(id -> id.version).toArray(Long[]::new)));
+	}
+
+	private static final class BinaryIdAndVersion
+	{
+		final UUID id;
+		final long version;
+
+		BinaryIdAndVersion(UUID id, long version)
+		{
+			this.id = id;
+			this.version = version;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(id, version);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			BinaryIdAndVersion other = (BinaryIdAndVersion) obj;
+			return Objects.equals(id, other.id) && version == other.version;
 		}
 	}
 }
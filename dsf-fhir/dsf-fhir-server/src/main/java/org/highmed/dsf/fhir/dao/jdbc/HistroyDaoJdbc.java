@@ -5,9 +5,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -45,6 +50,8 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 	private final FhirContext fhirContext;
 	private final BinaryDaoJdbc binaryDao;
 
+	private final ThreadLocal<IParser> jsonParser = ThreadLocal.withInitial(this::newJsonParser);
+
 	public HistroyDaoJdbc(DataSource dataSource, FhirContext fhirContext, BinaryDaoJdbc binaryDao)
 	{
 		this.dataSource = dataSource;
@@ -122,6 +129,7 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 			List<HistoryEntry> entries = new ArrayList<>();
 			if (!pageAndCount.isCountOnly(total))
 			{
+				List<PageEntry> page = new ArrayList<>();
 				try (PreparedStatement statement = connection.prepareStatement(
 						createReadSql(id != null, resource != null, filter, atParameter, sinceParameter, pageAndCount)))
 				{
@@ -132,31 +140,66 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 					{
 						while (result.next())
 						{
-							UUID entryId = result.getObject(1, UUID.class);
-							long version = result.getLong(2);
-							String resourceType = result.getString(3);
-							String method = result.getString(4);
 							Timestamp lastUpdated = result.getTimestamp(5);
-							Resource entryResource = jsonToResource(result.getString(6), resource);
-							modifyResource(entryResource, connection);
-
-							HistoryEntry entry = new HistoryEntry(entryId, String.valueOf(version), resourceType,
-									method, lastUpdated == null ? null : lastUpdated.toLocalDateTime(), entryResource);
-							entries.add(entry);
+							page.add(new PageEntry(result.getObject(1, UUID.class), result.getLong(2),
+									result.getString(3), result.getString(4),
+									lastUpdated == null ? null : lastUpdated.toLocalDateTime()));
 						}
-
 					}
 				}
+
+				Map<String, Resource> resources = readResources(connection, page, resource);
+
+				List<Binary> binaries = resources.values().stream().filter(r -> r instanceof Binary)
+						.map(r -> (Binary) r).collect(Collectors.toList());
+				if (!binaries.isEmpty())
+					binaryDao.modifySearchResultResources(binaries, false, connection);
+
+				page.stream().map(e -> e.toHistoryEntry(resources.get(e.getKey()))).forEach(entries::add);
 			}
 
 			return new History(total, pageAndCount, entries);
 		}
 	}
 
-	private void modifyResource(Resource resource, Connection connection) throws SQLException
+	/**
+	 * Reads the resources of the given page entries with one query per resource type, the <code>history</code> view
+	 * only scans the resource table of the requested type.
+	 */
+	private Map<String, Resource> readResources(Connection connection, List<PageEntry> page,
+			Class<? extends Resource> resource) throws SQLException
 	{
-		if (resource instanceof Binary)
-			binaryDao.modifySearchResultResource((Binary) resource, connection);
+		Map<String, List<PageEntry>> entriesByType = page.stream().filter(e -> !"DELETE".equals(e.method))
+				.collect(Collectors.groupingBy(e -> e.type, LinkedHashMap::new, Collectors.toList()));
+
+		Map<String, Resource> resources = new HashMap<>();
+		for (Entry<String, List<PageEntry>> entries : entriesByType.entrySet())
+		{
+			try (PreparedStatement statement = connection.prepareStatement(
+					"SELECT id, version, resource FROM history WHERE type = ? AND method <> 'DELETE' AND (id, version) IN "
+							+ entries.getValue().stream().map(e -> "(?, ?)")
+									.collect(Collectors.joining(", ", "(", ")"))))
+			{
+				int parameterIndex = 1;
+				statement.setString(parameterIndex++, entries.getKey());
+				for (PageEntry entry : entries.getValue())
+				{
+					statement.setObject(parameterIndex++, uuidToPgObject(entry.id));
+					statement.setLong(parameterIndex++, entry.version);
+				}
+
+				logger.trace("Executing resources query '{}'", statement);
+				try (ResultSet result = statement.executeQuery())
+				{
+					while (result.next())
+						resources.put(
+								PageEntry.getKey(entries.getKey(), result.getObject(1, UUID.class), result.getLong(2)),
+								jsonToResource(result.getString(3), resource));
+				}
+			}
+		}
+
+		return resources;
 	}
 
 	private PGobject uuidToPgObject(UUID uuid)
@@ -177,13 +220,23 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 		}
 	}
 
-	public IParser getJsonParser()
+	private IParser newJsonParser()
 	{
 		IParser p = fhirContext.newJsonParser();
 		p.setStripVersionsFromReferences(false);
 		return p;
 	}
 
+	/**
+	 * Parsers are not thread safe, the returned instance is reused by the calling thread.
+	 *
+	 * @return json parser for the current thread
+	 */
+	public IParser getJsonParser()
+	{
+		return jsonParser.get();
+	}
+
 	private Resource jsonToResource(String json, Class<? extends Resource> resourceType)
 	{
 		if (json == null)
@@ -209,7 +262,7 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 	private String createCountSql(boolean forId, boolean forResource, List<HistoryUserFilter> filter,
 			AtParameter atParameter, SinceParameter sinceParameter)
 	{
-		String selectSql = "SELECT count(*) FROM history WHERE ";
+		String selectSql = "SELECT count(*) FROM history_entries AS history WHERE ";
 
 		return createSql(forId, forResource, filter, atParameter, sinceParameter, selectSql, "");
 	}
@@ -217,9 +270,10 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 	private String createReadSql(boolean forId, boolean forResource, List<HistoryUserFilter> filter,
 			AtParameter atParameter, SinceParameter sinceParameter, PageAndCount pageAndCount)
 	{
-		String selectSql = "SELECT id, version, type, method, last_updated, resource FROM history WHERE ";
+		String selectSql = "SELECT id, version, type, method, last_updated FROM history_entries AS history WHERE ";
 
-		return createSql(forId, forResource, filter, atParameter, sinceParameter, selectSql, pageAndCount.getSql());
+		return createSql(forId, forResource, filter, atParameter, sinceParameter, selectSql,
+				" ORDER BY last_updated, id, version" + pageAndCount.getSql());
 	}
 
 	private String createSql(boolean forId, boolean forResource, List<HistoryUserFilter> filter,
@@ -268,4 +322,37 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 				sinceParameter.modifyStatement(parameterIndex++, i, statement, null);
 		}
 	}
+
+	private static final class PageEntry
+	{
+		final UUID id;
+		final long version;
+		final String type;
+		final String method;
+		final LocalDateTime lastUpdated;
+
+		PageEntry(UUID id, long version, String type, String method, LocalDateTime lastUpdated)
+		{
+			this.id = id;
+			this.version = version;
+			this.type = type;
+			this.method = method;
+			this.lastUpdated = lastUpdated;
+		}
+
+		static String getKey(String type, UUID id, long version)
+		{
+			return type + "/" + id + "/_history/" + version;
+		}
+
+		String getKey()
+		{
+			return getKey(type, id, version);
+		}
+
+		HistoryEntry toHistoryEntry(Resource resource)
+		{
+			return new HistoryEntry(id, String.valueOf(version), type, method, lastUpdated, resource);
+		}
+	}
 }
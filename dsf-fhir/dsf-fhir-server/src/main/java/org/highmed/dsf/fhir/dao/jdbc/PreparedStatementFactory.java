@@ -13,6 +13,12 @@ import ca.uhn.fhir.parser.IParser;
 
 interface PreparedStatementFactory<R extends Resource>
 {
+	/**
+	 * Parsers are not thread safe, the returned instance is reused by the calling thread and must not be configured
+	 * differently or handed to other threads.
+	 *
+	 * @return json parser for the current thread
+	 */
 	IParser getJsonParser();
 
 	PGobject resourceToPgObject(R resource);
@@ -33,6 +39,15 @@ interface PreparedStatementFactory<R extends Resource>
 
 	R getReadByIdResource(ResultSet result) throws SQLException;
 
+	/**
+	 * @param result
+	 *            not <code>null</code>
+	 * @return <code>null</code> if the json column does not contain the complete resource
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	String getReadByIdJson(ResultSet result) throws SQLException;
+
 	String getReadByIdAndVersionSql();
 
 	void configureReadByIdAndVersionStatement(PreparedStatement statement, UUID uuid, long version) throws SQLException;
@@ -43,6 +58,15 @@ interface PreparedStatementFactory<R extends Resource>
 
 	R getReadByIdAndVersionResource(ResultSet result) throws SQLException;
 
+	/**
+	 * @param result
+	 *            not <code>null</code>
+	 * @return <code>null</code> if the json column does not contain the complete resource
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	String getReadByIdAndVersionJson(ResultSet result) throws SQLException;
+
 	String getUpdateNewRowSql();
 
 	void configureUpdateNewRowSqlStatement(PreparedStatement statement, UUID uuid, long version, R resource)
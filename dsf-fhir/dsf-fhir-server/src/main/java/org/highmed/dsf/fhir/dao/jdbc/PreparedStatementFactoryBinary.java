@@ -1,11 +1,9 @@
 package org.highmed.dsf.fhir.dao.jdbc;
 
-import java.io.ByteArrayInputStream;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -15,11 +13,12 @@ import ca.uhn.fhir.context.FhirContext;
 
 class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Binary>
 {
-	private static final String createSql = "INSERT INTO binaries (binary_id, binary_json, binary_data) VALUES (?, ?, ?)";
-	private static final String readByIdSql = "SELECT deleted, version, binary_json, binary_data FROM binaries WHERE binary_id = ? ORDER BY version DESC LIMIT 1";
-	private static final String readByIdAndVersionSql = "SELECT deleted, version, binary_json, binary_data FROM binaries WHERE binary_id = ? AND (version = ? OR version = ?) ORDER BY version DESC LIMIT 1";
-	private static final String updateNewRowSql = "INSERT INTO binaries (binary_id, version, binary_json, binary_data) VALUES (?, ?, ?, ?)";
-	private static final String updateSameRowSql = "UPDATE binaries SET binary_json = ?, binary_data = ? WHERE binary_id = ? AND version = ?";
+	// data chunks inserted and read by the BinaryDaoJdbc after the binaries row
+	private static final String createSql = "INSERT INTO binaries (binary_id, binary_json) VALUES (?, ?)";
+	private static final String readByIdSql = "SELECT deleted, version, binary_json FROM binaries WHERE binary_id = ? ORDER BY version DESC LIMIT 1";
+	private static final String readByIdAndVersionSql = "SELECT deleted, version, binary_json FROM binaries WHERE binary_id = ? AND (version = ? OR version = ?) ORDER BY version DESC LIMIT 1";
+	private static final String updateNewRowSql = "INSERT INTO binaries (binary_id, version, binary_json) VALUES (?, ?, ?)";
+	private static final String updateSameRowSql = "UPDATE binaries SET binary_json = ? WHERE binary_id = ? AND version = ?";
 
 	PreparedStatementFactoryBinary(FhirContext fhirContext)
 	{
@@ -36,11 +35,6 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 		statement.setObject(1, uuidToPgObject(uuid));
 		statement.setObject(2, resourceToPgObject(resource));
 
-		if (data != null)
-			statement.setBinaryStream(3, new ByteArrayInputStream(data));
-		else
-			statement.setNull(3, Types.VARBINARY);
-
 		resource.setData(data);
 	}
 
@@ -67,9 +61,15 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 	public Binary getReadByIdResource(ResultSet result) throws SQLException
 	{
 		String json = result.getString(3);
-		byte[] data = result.getBytes(4);
 
-		return jsonToResource(json).setData(data);
+		return jsonToResource(json);
+	}
+
+	@Override
+	public String getReadByIdJson(ResultSet result) throws SQLException
+	{
+		// binary data not stored in json column
+		return null;
 	}
 
 	@Override
@@ -98,9 +98,15 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 	public Binary getReadByIdAndVersionResource(ResultSet result) throws SQLException
 	{
 		String json = result.getString(3);
-		byte[] data = result.getBytes(4);
 
-		return jsonToResource(json).setData(data);
+		return jsonToResource(json);
+	}
+
+	@Override
+	public String getReadByIdAndVersionJson(ResultSet result) throws SQLException
+	{
+		// binary data not stored in json column
+		return null;
 	}
 
 	@Override
@@ -114,11 +120,6 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 		statement.setLong(2, version);
 		statement.setObject(3, resourceToPgObject(resource));
 
-		if (data != null)
-			statement.setBinaryStream(4, new ByteArrayInputStream(data));
-		else
-			statement.setNull(4, Types.VARBINARY);
-
 		resource.setData(data);
 	}
 
@@ -130,14 +131,8 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 		resource.setData(null);
 
 		statement.setObject(1, resourceToPgObject(resource));
-
-		if (data != null)
-			statement.setBinaryStream(2, new ByteArrayInputStream(data));
-		else
-			statement.setNull(2, Types.VARBINARY);
-
-		statement.setObject(3, uuidToPgObject(uuid));
-		statement.setLong(4, version);
+		statement.setObject(2, uuidToPgObject(uuid));
+		statement.setLong(3, version);
 
 		resource.setData(data);
 	}
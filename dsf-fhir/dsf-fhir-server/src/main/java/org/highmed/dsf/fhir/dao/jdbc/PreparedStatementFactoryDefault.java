@@ -86,6 +86,12 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 		return jsonToResource(json);
 	}
 
+	@Override
+	public String getReadByIdJson(ResultSet result) throws SQLException
+	{
+		return result.getString(3);
+	}
+
 	@Override
 	public void configureReadByIdAndVersionStatement(PreparedStatement statement, UUID uuid, long version)
 			throws SQLException
@@ -116,6 +122,12 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 		return jsonToResource(json);
 	}
 
+	@Override
+	public String getReadByIdAndVersionJson(ResultSet result) throws SQLException
+	{
+		return result.getString(3);
+	}
+
 	@Override
 	public void configureUpdateNewRowSqlStatement(PreparedStatement statement, UUID uuid, long version, R resource)
 			throws SQLException
@@ -7,6 +7,8 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.UUID;
 
 import javax.sql.DataSource;
@@ -57,10 +59,11 @@ public class ReadAccessDaoJdbc implements ReadAccessDao, InitializingBean
 			logger.trace("Executing query '{}'", statement);
 			try (ResultSet result = statement.executeQuery())
 			{
-				List<String> accessTypes = new ArrayList<>();
+				// no DISTINCT / ORDER BY in sql, the few rows are deduplicated and sorted here
+				SortedSet<String> accessTypes = new TreeSet<>();
 				while (result.next())
 					accessTypes.add(result.getString(1));
-				return accessTypes;
+				return new ArrayList<>(accessTypes);
 			}
 		}
 	}
@@ -70,9 +73,9 @@ public class ReadAccessDaoJdbc implements ReadAccessDao, InitializingBean
 		switch (role)
 		{
 			case LOCAL:
-				return "SELECT DISTINCT access_type FROM read_access WHERE resource_id = ? AND resource_version = ? AND (access_type = 'ALL' OR access_type = 'LOCAL' OR organization_id = ?) ORDER BY access_type";
+				return "SELECT access_type FROM read_access WHERE resource_id = ? AND resource_version = ? AND (access_type IN ('ALL', 'LOCAL') OR organization_id = ?)";
 			case REMOTE:
-				return "SELECT DISTINCT access_type FROM read_access WHERE resource_id = ? AND resource_version = ? AND (access_type = 'ALL' OR organization_id = ?) ORDER BY access_type";
+				return "SELECT access_type FROM read_access WHERE resource_id = ? AND resource_version = ? AND (access_type = 'ALL' OR organization_id = ?)";
 			default:
 				throw new IllegalArgumentException(UserRole.class.getName() + " " + role + " not supported");
 		}
@@ -3,6 +3,7 @@ package org.highmed.dsf.fhir.dao.provider;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Optional;
+import java.util.SortedSet;
 
 import org.highmed.dsf.fhir.dao.ActivityDefinitionDao;
 import org.highmed.dsf.fhir.dao.BinaryDao;
@@ -98,5 +99,10 @@ public interface DaoProvider
 
 	Optional<ResourceDao<?>> getDao(String resourceTypeName);
 
+	/**
+	 * @return names of all resource types with a {@link ResourceDao}, sorted
+	 */
+	SortedSet<String> getResourceTypeNames();
+
 	ReadAccessDao getReadAccessDao();
 }
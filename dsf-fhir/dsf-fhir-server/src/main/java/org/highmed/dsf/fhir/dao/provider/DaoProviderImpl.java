@@ -2,10 +2,13 @@ package org.highmed.dsf.fhir.dao.provider;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import javax.sql.DataSource;
 
@@ -408,6 +411,12 @@ public class DaoProviderImpl implements DaoProvider, InitializingBean
 		return Optional.ofNullable(value);
 	}
 
+	@Override
+	public SortedSet<String> getResourceTypeNames()
+	{
+		return Collections.unmodifiableSortedSet(new TreeSet<>(daosByResourceTypeName.keySet()));
+	}
+
 	@Override
 	public ReadAccessDao getReadAccessDao()
 	{
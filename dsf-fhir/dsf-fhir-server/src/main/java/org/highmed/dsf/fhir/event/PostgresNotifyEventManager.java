@@ -0,0 +1,322 @@
+package org.highmed.dsf.fhir.event;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.exception.ResourceDeletedException;
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.highmed.dsf.fhir.function.SupplierWithSqlException;
+import org.hl7.fhir.r4.model.Resource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import ca.uhn.fhir.model.api.annotation.ResourceDef;
+
+/**
+ * {@link EventManager} for multiple FHIR server instances using the same database. Events are handled by the local
+ * {@link EventManager} and published to the other instances via Postgres <code>NOTIFY</code>. Notifications from other
+ * instances are received on a dedicated <code>LISTEN</code> connection, not taken from the connection pool of the
+ * {@link DataSource} since it is kept open for the lifetime of this instance. The resources are read from the database
+ * and the resulting events handled by the local {@link EventManager}.
+ * <p>
+ * Notifications are not persisted, events published while the listener connection is being reestablished are not
+ * received by this instance.
+ */
+public class PostgresNotifyEventManager implements EventManager, InitializingBean, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(PostgresNotifyEventManager.class);
+
+	public static final String DEFAULT_CHANNEL = "dsf_fhir_events";
+
+	private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+	private static final int NOTIFICATION_POLL_TIMEOUT_MILLIS = 1000;
+	private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+	private static enum EventType
+	{
+		CREATED, UPDATED, DELETED
+	}
+
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private final EventManager delegate;
+	private final DataSource dataSource;
+	private final SupplierWithSqlException<Connection> listenerConnectionSupplier;
+	private final DaoProvider daoProvider;
+	private final String channel;
+
+	private final ExecutorService listenerExecutor = Executors.newSingleThreadExecutor(r ->
+	{
+		Thread t = new Thread(r, "event-listener");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final CountDownLatch listening = new CountDownLatch(1);
+
+	private volatile boolean stopped;
+
+	/**
+	 * @param delegate
+	 *            not <code>null</code>, handles local events and events received from other instances
+	 * @param dataSource
+	 *            not <code>null</code>, used to publish notifications
+	 * @param listenerConnectionSupplier
+	 *            not <code>null</code>, creates a new connection outside of the connection pool, closed by this
+	 *            instance
+	 * @param daoProvider
+	 *            not <code>null</code>
+	 * @param channel
+	 *            not <code>null</code>, lower case letters, digits and <code>_</code>, same for all instances
+	 */
+	public PostgresNotifyEventManager(EventManager delegate, DataSource dataSource,
+			SupplierWithSqlException<Connection> listenerConnectionSupplier, DaoProvider daoProvider, String channel)
+	{
+		this.delegate = delegate;
+		this.dataSource = dataSource;
+		this.listenerConnectionSupplier = listenerConnectionSupplier;
+		this.daoProvider = daoProvider;
+		this.channel = channel;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(delegate, "delegate");
+		Objects.requireNonNull(dataSource, "dataSource");
+		Objects.requireNonNull(listenerConnectionSupplier, "listenerConnectionSupplier");
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(channel, "channel");
+
+		if (!CHANNEL_PATTERN.matcher(channel).matches())
+			throw new IllegalArgumentException("channel does not match " + CHANNEL_PATTERN.pattern());
+
+		listenerExecutor.execute(this::listen);
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		stopped = true;
+		listenerExecutor.shutdown();
+
+		if (!listenerExecutor.awaitTermination(NOTIFICATION_POLL_TIMEOUT_MILLIS * 2, TimeUnit.MILLISECONDS))
+			listenerExecutor.shutdownNow();
+	}
+
+	/**
+	 * @param timeout
+	 *            maximum time to wait
+	 * @param unit
+	 *            not <code>null</code>
+	 * @return <code>true</code> if the listener connection executed <code>LISTEN</code> within the given timeout
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	boolean awaitListening(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return listening.await(timeout, unit);
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null)
+			return;
+
+		delegate.handleEvent(event);
+		publish(List.of(event));
+	}
+
+	@Override
+	public void handleEvents(List<Event> events)
+	{
+		if (events == null)
+			return;
+
+		delegate.handleEvents(events);
+		publish(events);
+	}
+
+	@Override
+	public Runnable addHandler(EventHandler eventHandler)
+	{
+		return delegate.addHandler(eventHandler);
+	}
+
+	@Override
+	public void removeHandler(EventHandler eventHandler)
+	{
+		delegate.removeHandler(eventHandler);
+	}
+
+	private void publish(List<Event> events)
+	{
+		if (events.isEmpty())
+			return;
+
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)"))
+		{
+			for (Event event : events)
+			{
+				String payload = toPayload(event);
+				if (payload == null)
+					continue;
+
+				statement.setString(1, channel);
+				statement.setString(2, payload);
+
+				logger.trace("Executing query '{}'", statement);
+				statement.execute();
+			}
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Error while publishing {} event{}: {} - {}", events.size(), events.size() != 1 ? "s" : "",
+					e.getClass().getName(), e.getMessage());
+		}
+	}
+
+	/*
+	 * payload: <node-id> <event-type> <resource-type> <id> [<version>]
+	 */
+	private String toPayload(Event event)
+	{
+		String resourceTypeName = event.getResourceType().getAnnotation(ResourceDef.class).name();
+
+		if (event instanceof ResourceCreatedEvent || event instanceof ResourceUpdatedEvent)
+		{
+			EventType type = event instanceof ResourceCreatedEvent ? EventType.CREATED : EventType.UPDATED;
+			String version = event.getResource().getIdElement().getVersionIdPart();
+			if (version == null)
+				version = event.getResource().getMeta().getVersionId();
+
+			return String.join(" ", nodeId, type.name(), resourceTypeName, event.getId(), version);
+		}
+		else if (event instanceof ResourceDeletedEvent)
+			return String.join(" ", nodeId, EventType.DELETED.name(), resourceTypeName, event.getId());
+		else
+		{
+			logger.warn("Event of type {} not supported, not publishing", event.getClass().getName());
+			return null;
+		}
+	}
+
+	private void listen()
+	{
+		while (!stopped)
+		{
+			try (Connection connection = listenerConnectionSupplier.get())
+			{
+				try (Statement statement = connection.createStatement())
+				{
+					statement.execute("LISTEN " + channel);
+				}
+
+				listening.countDown();
+				logger.info("Listening for events from other FHIR server instances on channel {}", channel);
+
+				PGConnection pgConnection = connection.unwrap(PGConnection.class);
+				while (!stopped)
+				{
+					PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_POLL_TIMEOUT_MILLIS);
+					if (notifications != null)
+						for (PGNotification notification : notifications)
+							onNotification(notification.getParameter());
+				}
+			}
+			catch (SQLException e)
+			{
+				logger.warn("Error while listening for events, reconnecting in {} ms: {} - {}", RECONNECT_DELAY_MILLIS,
+						e.getClass().getName(), e.getMessage());
+
+				try
+				{
+					Thread.sleep(RECONNECT_DELAY_MILLIS);
+				}
+				catch (InterruptedException ie)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	private void onNotification(String payload)
+	{
+		String[] values = payload == null ? new String[0] : payload.split(" ");
+		if (values.length < 4)
+		{
+			logger.warn("Ignoring notification with unexpected payload '{}'", payload);
+			return;
+		}
+
+		if (nodeId.equals(values[0]))
+			return;
+
+		try
+		{
+			toEvent(values).ifPresent(delegate::handleEvent);
+		}
+		catch (Exception e)
+		{
+			logger.warn("Error while handling notification '{}': {} - {}", payload, e.getClass().getName(),
+					e.getMessage());
+		}
+	}
+
+	private Optional<Event> toEvent(String[] values) throws SQLException
+	{
+		EventType type = EventType.valueOf(values[1]);
+		Optional<ResourceDao<?>> dao = daoProvider.getDao(values[2]);
+		if (dao.isEmpty())
+		{
+			logger.warn("Ignoring notification for unsupported resource type {}", values[2]);
+			return Optional.empty();
+		}
+
+		if (EventType.DELETED.equals(type))
+			return Optional.of(new ResourceDeletedEvent(dao.get().getResourceType(), values[3]));
+
+		if (values.length < 5)
+		{
+			logger.warn("Ignoring {} notification without version", type);
+			return Optional.empty();
+		}
+
+		try
+		{
+			Optional<? extends Resource> resource = dao.get().readVersion(UUID.fromString(values[3]),
+					Long.parseLong(values[4]));
+
+			return resource.map(r -> EventType.CREATED.equals(type) ? new ResourceCreatedEvent(r.getClass(), r)
+					: new ResourceUpdatedEvent(r.getClass(), r));
+		}
+		catch (ResourceDeletedException e)
+		{
+			logger.debug("Ignoring {} notification, {}/{} deleted", type, values[2], values[3]);
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package org.highmed.dsf.fhir.export;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.highmed.dsf.fhir.authentication.User;
+
+/**
+ * State of an asynchronous bulk data export, one NDJSON file per exported resource type.
+ */
+public class ExportJob
+{
+	public static enum Status
+	{
+		IN_PROGRESS, COMPLETED, FAILED, CANCELLED
+	}
+
+	public static final class OutputFile
+	{
+		private final String resourceType;
+		private final String fileName;
+		private final long count;
+
+		public OutputFile(String resourceType, String fileName, long count)
+		{
+			this.resourceType = resourceType;
+			this.fileName = fileName;
+			this.count = count;
+		}
+
+		public String getResourceType()
+		{
+			return resourceType;
+		}
+
+		public String getFileName()
+		{
+			return fileName;
+		}
+
+		public long getCount()
+		{
+			return count;
+		}
+	}
+
+	private final String id;
+	private final User user;
+	private final String requestUrl;
+	private final Date transactionTime;
+	private final List<String> resourceTypes;
+	private final Date since;
+
+	private final List<OutputFile> output = new CopyOnWriteArrayList<>();
+
+	private volatile Status status = Status.IN_PROGRESS;
+	private volatile int exportedResourceTypes;
+	private volatile String error;
+	private volatile Date finished;
+
+	/**
+	 * @param id
+	 *            not <code>null</code>
+	 * @param user
+	 *            not <code>null</code>
+	 * @param requestUrl
+	 *            not <code>null</code>
+	 * @param transactionTime
+	 *            not <code>null</code>
+	 * @param resourceTypes
+	 *            not <code>null</code>
+	 * @param since
+	 *            may be <code>null</code>
+	 */
+	public ExportJob(String id, User user, String requestUrl, Date transactionTime, List<String> resourceTypes,
+			Date since)
+	{
+		this.id = Objects.requireNonNull(id, "id");
+		this.user = Objects.requireNonNull(user, "user");
+		this.requestUrl = Objects.requireNonNull(requestUrl, "requestUrl");
+		this.transactionTime = Objects.requireNonNull(transactionTime, "transactionTime");
+		this.resourceTypes = Collections.unmodifiableList(Objects.requireNonNull(resourceTypes, "resourceTypes"));
+		this.since = since;
+	}
+
+	public String getId()
+	{
+		return id;
+	}
+
+	public User getUser()
+	{
+		return user;
+	}
+
+	public String getRequestUrl()
+	{
+		return requestUrl;
+	}
+
+	public Date getTransactionTime()
+	{
+		return transactionTime;
+	}
+
+	public List<String> getResourceTypes()
+	{
+		return resourceTypes;
+	}
+
+	public Date getSince()
+	{
+		return since;
+	}
+
+	public Status getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * @return <code>true</code> if the user of this job is the given user
+	 */
+	public boolean isOwnedBy(User user)
+	{
+		return user != null && this.user.getRole().equals(user.getRole()) && this.user.getName().equals(user.getName());
+	}
+
+	/**
+	 * @return files of exported resource types, resource types without resources have no file
+	 */
+	public List<OutputFile> getOutput()
+	{
+		return Collections.unmodifiableList(output);
+	}
+
+	public int getExportedResourceTypes()
+	{
+		return exportedResourceTypes;
+	}
+
+	/**
+	 * @return error message if status is {@link Status#FAILED}, otherwise <code>null</code>
+	 */
+	public String getError()
+	{
+		return error;
+	}
+
+	/**
+	 * @return time the job completed, failed or was cancelled, <code>null</code> while in progress
+	 */
+	public Date getFinished()
+	{
+		return finished;
+	}
+
+	void addOutput(OutputFile file)
+	{
+		if (file != null)
+			output.add(file);
+
+		exportedResourceTypes++;
+	}
+
+	synchronized void completed()
+	{
+		if (Status.IN_PROGRESS.equals(status))
+			finish(Status.COMPLETED);
+	}
+
+	synchronized void failed(String error)
+	{
+		if (Status.IN_PROGRESS.equals(status))
+		{
+			this.error = error;
+			finish(Status.FAILED);
+		}
+	}
+
+	synchronized void cancelled()
+	{
+		if (Status.IN_PROGRESS.equals(status))
+			finish(Status.CANCELLED);
+	}
+
+	private void finish(Status status)
+	{
+		this.finished = new Date();
+		this.status = status;
+	}
+}
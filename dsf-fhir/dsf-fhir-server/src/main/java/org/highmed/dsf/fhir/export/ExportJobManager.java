@@ -0,0 +1,52 @@
+package org.highmed.dsf.fhir.export;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.highmed.dsf.fhir.authentication.User;
+
+public interface ExportJobManager
+{
+	/**
+	 * Starts an asynchronous export of all current resources of the given types readable by the given user.
+	 *
+	 * @param user
+	 *            not <code>null</code>, resources are filtered by the read access rules of this user
+	 * @param resourceTypes
+	 *            not <code>null</code>, not empty, only types supported by the DAO layer
+	 * @param since
+	 *            may be <code>null</code>, only resources last updated after this time are exported if not
+	 *            <code>null</code>
+	 * @param requestUrl
+	 *            not <code>null</code>
+	 * @return the started job
+	 */
+	ExportJob start(User user, List<String> resourceTypes, Date since, String requestUrl);
+
+	/**
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if no job with the given id exists or the job expired
+	 */
+	Optional<ExportJob> getJob(String jobId);
+
+	/**
+	 * Cancels the job if in progress and deletes its files.
+	 *
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if the job existed
+	 */
+	boolean delete(String jobId);
+
+	/**
+	 * @param job
+	 *            not <code>null</code>
+	 * @param fileName
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the job has no output file with the given name
+	 */
+	Optional<Path> getFile(ExportJob job, String fileName);
+}
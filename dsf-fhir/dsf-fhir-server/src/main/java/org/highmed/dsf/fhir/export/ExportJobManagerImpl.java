@@ -0,0 +1,292 @@
+package org.highmed.dsf.fhir.export;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.highmed.dsf.fhir.authentication.User;
+import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.highmed.dsf.fhir.export.ExportJob.OutputFile;
+import org.highmed.dsf.fhir.search.SearchQuery;
+import org.highmed.dsf.fhir.search.SearchResultHandler;
+import org.highmed.dsf.fhir.search.TotalMode;
+import org.highmed.dsf.fhir.search.parameters.ResourceLastUpdated;
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+
+/**
+ * Exports are executed by a bounded pool, resources are read with {@link ResourceDao#searchStreaming} and written to
+ * one NDJSON file per resource type in a job specific sub directory. Jobs are kept in memory, jobs and files are
+ * deleted after the retention time.
+ */
+public class ExportJobManagerImpl implements ExportJobManager, InitializingBean, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ExportJobManagerImpl.class);
+
+	public static final String FILE_EXTENSION = ".ndjson";
+
+	private final DaoProvider daoProvider;
+	private final FhirContext fhirContext;
+	private final Path directory;
+	private final Duration retention;
+
+	private final ExecutorService executor;
+	private final Map<String, ExportJob> jobsById = new ConcurrentHashMap<>();
+
+	/**
+	 * @param daoProvider
+	 *            not <code>null</code>
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param directory
+	 *            not <code>null</code>, created if not existing
+	 * @param threads
+	 *            &gt; 0, number of jobs executed in parallel
+	 * @param retention
+	 *            not <code>null</code>, jobs and files are deleted after this time
+	 */
+	public ExportJobManagerImpl(DaoProvider daoProvider, FhirContext fhirContext, Path directory, int threads,
+			Duration retention)
+	{
+		this.daoProvider = daoProvider;
+		this.fhirContext = fhirContext;
+		this.directory = directory;
+		this.retention = retention;
+
+		if (threads <= 0)
+			throw new IllegalArgumentException("threads <= 0");
+		executor = Executors.newFixedThreadPool(threads);
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(fhirContext, "fhirContext");
+		Objects.requireNonNull(directory, "directory");
+		Objects.requireNonNull(retention, "retention");
+
+		Files.createDirectories(directory);
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		jobsById.values().forEach(ExportJob::cancelled);
+
+		executor.shutdown();
+		if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+			executor.shutdownNow();
+	}
+
+	@Override
+	public ExportJob start(User user, List<String> resourceTypes, Date since, String requestUrl)
+	{
+		deleteExpiredJobs();
+
+		ExportJob job = new ExportJob(UUID.randomUUID().toString(), user, requestUrl, new Date(), resourceTypes, since);
+		jobsById.put(job.getId(), job);
+
+		logger.info("Starting export {} of {} for user '{}'", job.getId(), resourceTypes, user.getName());
+		executor.execute(() -> run(job));
+
+		return job;
+	}
+
+	@Override
+	public Optional<ExportJob> getJob(String jobId)
+	{
+		deleteExpiredJobs();
+
+		return jobId == null ? Optional.empty() : Optional.ofNullable(jobsById.get(jobId));
+	}
+
+	@Override
+	public boolean delete(String jobId)
+	{
+		ExportJob job = jobId == null ? null : jobsById.remove(jobId);
+		if (job == null)
+			return false;
+
+		job.cancelled();
+		deleteFiles(job);
+
+		logger.info("Export {} deleted", job.getId());
+		return true;
+	}
+
+	@Override
+	public Optional<Path> getFile(ExportJob job, String fileName)
+	{
+		Objects.requireNonNull(job, "job");
+
+		return job.getOutput().stream().filter(f -> f.getFileName().equals(fileName)).findFirst()
+				.map(f -> getJobDirectory(job).resolve(f.getFileName())).filter(Files::isReadable);
+	}
+
+	private Path getJobDirectory(ExportJob job)
+	{
+		return directory.resolve(job.getId());
+	}
+
+	private void deleteExpiredJobs()
+	{
+		Date expired = new Date(System.currentTimeMillis() - retention.toMillis());
+
+		jobsById.values().stream().filter(j -> j.getFinished() != null && j.getFinished().before(expired))
+				.map(ExportJob::getId).forEach(this::delete);
+	}
+
+	private void deleteFiles(ExportJob job)
+	{
+		Path jobDirectory = getJobDirectory(job);
+		if (!Files.exists(jobDirectory))
+			return;
+
+		try (Stream<Path> files = Files.walk(jobDirectory))
+		{
+			files.sorted(Comparator.reverseOrder()).forEach(file ->
+			{
+				try
+				{
+					Files.deleteIfExists(file);
+				}
+				catch (IOException e)
+				{
+					logger.warn("Error while deleting export file {}: {}", file, e.getMessage());
+				}
+			});
+		}
+		catch (IOException e)
+		{
+			logger.warn("Error while deleting export directory {}: {}", jobDirectory, e.getMessage());
+		}
+	}
+
+	private void run(ExportJob job)
+	{
+		try
+		{
+			Files.createDirectories(getJobDirectory(job));
+
+			for (String resourceType : job.getResourceTypes())
+			{
+				if (!ExportJob.Status.IN_PROGRESS.equals(job.getStatus()))
+					break;
+
+				job.addOutput(export(job, resourceType));
+			}
+
+			job.completed();
+
+			logger.info("Export {} {}, {} files", job.getId(), job.getStatus().name().toLowerCase(),
+					job.getOutput().size());
+		}
+		catch (Exception e)
+		{
+			logger.warn("Error while executing export {}: {} - {}", job.getId(), e.getClass().getName(),
+					e.getMessage());
+			job.failed("Error while exporting resources");
+		}
+
+		if (ExportJob.Status.CANCELLED.equals(job.getStatus()))
+			deleteFiles(job);
+	}
+
+	/**
+	 * @return <code>null</code> if no resource was exported
+	 */
+	private OutputFile export(ExportJob job, String resourceType) throws IOException, SQLException
+	{
+		ResourceDao<?> dao = daoProvider.getDao(resourceType)
+				.orElseThrow(() -> new IllegalArgumentException("Resource type " + resourceType + " not supported"));
+
+		String fileName = resourceType + FILE_EXTENSION;
+		Path file = getJobDirectory(job).resolve(fileName);
+
+		long count = export(job, dao, file);
+
+		logger.debug("Export {}: {} {} resources exported", job.getId(), count, resourceType);
+
+		if (count > 0)
+			return new OutputFile(resourceType, fileName, count);
+		else
+		{
+			Files.deleteIfExists(file);
+			return null;
+		}
+	}
+
+	private <R extends Resource> long export(ExportJob job, ResourceDao<R> dao, Path file)
+			throws IOException, SQLException
+	{
+		SearchQuery<R> query = dao.createSearchQuery(job.getUser(), 1, Integer.MAX_VALUE);
+		query.configureParameters(getQueryParameters(job));
+
+		IParser parser = fhirContext.newJsonParser().setPrettyPrint(false);
+
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			long[] count = { 0 };
+			dao.searchStreaming(query, new SearchResultHandler<R>()
+			{
+				@Override
+				public void handleTotal(int total, TotalMode totalMode) throws IOException
+				{
+				}
+
+				@Override
+				public void handleResource(R resource) throws IOException
+				{
+					if (!ExportJob.Status.IN_PROGRESS.equals(job.getStatus()))
+						throw new InterruptedIOException("Export " + job.getId() + " cancelled");
+
+					parser.encodeResourceToWriter(resource, writer);
+					writer.write('\n');
+					count[0]++;
+				}
+			});
+
+			return count[0];
+		}
+	}
+
+	private Map<String, List<String>> getQueryParameters(ExportJob job)
+	{
+		Map<String, List<String>> parameters = new HashMap<>();
+		parameters.put(SearchQuery.PARAMETER_TOTAL, List.of(TotalMode.NONE.getParameterValue()));
+
+		if (job.getSince() != null)
+			parameters.put(ResourceLastUpdated.PARAMETER_NAME, List.of("gt" + job.getSince().toInstant()
+					.atZone(ZoneId.systemDefault()).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+
+		return parameters;
+	}
+}
@@ -0,0 +1,12 @@
+package org.highmed.dsf.fhir.function;
+
+import java.sql.SQLException;
+
+import org.highmed.dsf.fhir.dao.exception.ResourceNotFoundException;
+import org.highmed.dsf.fhir.dao.exception.ResourceVersionNoMatchException;
+
+@FunctionalInterface
+public interface TriFunctionWithSqlAndResourceNotFoundAndResouceVersionNoMatchException<T, U, V, R>
+{
+	R apply(T t, U u, V v) throws SQLException, ResourceNotFoundException, ResourceVersionNoMatchException;
+}
@@ -0,0 +1,73 @@
+package org.highmed.dsf.fhir.help;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.highmed.dsf.fhir.dao.BinaryDao;
+import org.hl7.fhir.r4.model.Binary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a range of the data of a {@link Binary} resource while it is read from the database.
+ */
+public class BinaryDataStreamingOutput implements StreamingOutput
+{
+	private static final Logger logger = LoggerFactory.getLogger(BinaryDataStreamingOutput.class);
+
+	private final BinaryDao dao;
+	private final Binary binary;
+	private final long offset;
+	private final long length;
+
+	/**
+	 * @param dao
+	 *            not <code>null</code>
+	 * @param binary
+	 *            not <code>null</code>, without data, used for authorization and response headers
+	 * @param offset
+	 *            &gt;= 0
+	 * @param length
+	 *            &gt;= 0
+	 */
+	public BinaryDataStreamingOutput(BinaryDao dao, Binary binary, long offset, long length)
+	{
+		this.dao = Objects.requireNonNull(dao, "dao");
+		this.binary = Objects.requireNonNull(binary, "binary");
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * @return {@link Binary} without data
+	 */
+	public Binary getBinary()
+	{
+		return binary;
+	}
+
+	@Override
+	public void write(OutputStream output) throws IOException, WebApplicationException
+	{
+		UUID id = UUID.fromString(binary.getIdElement().getIdPart());
+		long version = Long.parseLong(binary.getMeta().getVersionId());
+
+		try
+		{
+			dao.readData(id, version, offset, length, output);
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Error while streaming binary data: {}", e.getMessage());
+			throw new IOException(e);
+		}
+
+		output.flush();
+	}
+}
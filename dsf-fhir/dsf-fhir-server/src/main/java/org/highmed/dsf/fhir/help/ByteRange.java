@@ -0,0 +1,105 @@
+package org.highmed.dsf.fhir.help;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single byte range of a HTTP Range header (RFC 7233), multiple ranges are not supported.
+ */
+public final class ByteRange
+{
+	private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+	private final long first;
+	private final long last;
+	private final long dataLength;
+
+	private ByteRange(long first, long last, long dataLength)
+	{
+		this.first = first;
+		this.last = last;
+		this.dataLength = dataLength;
+	}
+
+	/**
+	 * @param rangeHeaderValue
+	 *            may be <code>null</code>
+	 * @param dataLength
+	 *            &gt;= 0
+	 * @return {@link Optional#empty()} if the given header value is <code>null</code>, can not be parsed or specifies
+	 *         multiple ranges, the complete data should be returned in this case
+	 */
+	public static Optional<ByteRange> parse(String rangeHeaderValue, long dataLength)
+	{
+		if (rangeHeaderValue == null)
+			return Optional.empty();
+
+		Matcher matcher = RANGE_PATTERN.matcher(rangeHeaderValue.trim());
+		if (!matcher.matches())
+			return Optional.empty();
+
+		String firstValue = matcher.group(1);
+		String lastValue = matcher.group(2);
+
+		try
+		{
+			if (firstValue.isEmpty() && lastValue.isEmpty())
+				return Optional.empty();
+
+			// suffix range, last n bytes
+			else if (firstValue.isEmpty())
+			{
+				long suffixLength = Long.parseLong(lastValue);
+				if (suffixLength == 0 || dataLength == 0)
+					return Optional.of(unsatisfiable(dataLength));
+
+				return Optional.of(new ByteRange(Math.max(0, dataLength - suffixLength), dataLength - 1, dataLength));
+			}
+			else
+			{
+				long first = Long.parseLong(firstValue);
+				long last = lastValue.isEmpty() ? dataLength - 1 : Long.parseLong(lastValue);
+
+				if (!lastValue.isEmpty() && last < first)
+					return Optional.empty();
+				else if (first >= dataLength)
+					return Optional.of(unsatisfiable(dataLength));
+				else
+					return Optional.of(new ByteRange(first, Math.min(last, dataLength - 1), dataLength));
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			return Optional.empty();
+		}
+	}
+
+	private static ByteRange unsatisfiable(long dataLength)
+	{
+		return new ByteRange(-1, -1, dataLength);
+	}
+
+	public boolean isSatisfiable()
+	{
+		return first >= 0;
+	}
+
+	public long getFirst()
+	{
+		return first;
+	}
+
+	public long getLength()
+	{
+		return isSatisfiable() ? last - first + 1 : 0;
+	}
+
+	/**
+	 * @return value for the HTTP Content-Range header
+	 */
+	public String getContentRange()
+	{
+		return isSatisfiable() ? "bytes " + first + "-" + last + "/" + dataLength : "bytes */" + dataLength;
+	}
+}
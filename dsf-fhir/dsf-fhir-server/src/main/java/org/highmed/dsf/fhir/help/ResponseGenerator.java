@@ -6,6 +6,8 @@ import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -14,15 +16,20 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 
+import org.highmed.dsf.fhir.adapter.AbstractFhirAdapter;
 import org.highmed.dsf.fhir.authentication.User;
 import org.highmed.dsf.fhir.history.History;
 import org.highmed.dsf.fhir.history.HistoryEntry;
 import org.highmed.dsf.fhir.prefer.PreferReturnType;
 import org.highmed.dsf.fhir.search.PageAndCount;
+import org.highmed.dsf.fhir.search.PageCursor;
 import org.highmed.dsf.fhir.search.PartialResult;
 import org.highmed.dsf.fhir.search.SearchQueryParameterError;
+import org.highmed.dsf.fhir.search.SearchResultStream;
+import org.highmed.dsf.fhir.search.TotalMode;
 import org.highmed.dsf.fhir.service.ResourceReference;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
@@ -41,6 +48,8 @@ import org.hl7.fhir.utilities.validation.ValidationMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.validation.ValidationResult;
 
@@ -49,10 +58,12 @@ public class ResponseGenerator
 	private static final Logger logger = LoggerFactory.getLogger(ResponseGenerator.class);
 
 	private final String serverBase;
+	private final FhirContext fhirContext;
 
-	public ResponseGenerator(String serverBase)
+	public ResponseGenerator(String serverBase, FhirContext fhirContext)
 	{
 		this.serverBase = serverBase;
+		this.fhirContext = fhirContext;
 	}
 
 	public OperationOutcome createOutcome(IssueSeverity severity, IssueType type, String diagnostics)
@@ -165,14 +176,117 @@ public class ResponseGenerator
 		if (!errors.isEmpty())
 			bundle.addEntry(toBundleEntryComponent(toOperationOutcomeWarning(errors), SearchEntryMode.OUTCOME));
 
-		bundle.setTotal(result.getTotal());
+		if (!TotalMode.NONE.equals(result.getTotalMode()))
+			bundle.setTotal(result.getTotal());
 
-		setLinks(result.getPageAndCount(), bundleUri, format, pretty, bundle, result.getPartialResult().isEmpty(),
-				result.getTotal());
+		// last page and number of pages only known if total calculated via count query
+		Integer total = TotalMode.ACCURATE.equals(result.getTotalMode()) ? result.getTotal() : null;
+		setLinks(result.getPageAndCount(), getNextCursor(result), bundleUri, format, pretty, bundle,
+				result.getPartialResult().isEmpty(), result.getPartialResult().size(), total);
 
 		return bundle;
 	}
 
+	/**
+	 * @param mediaType
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if search results can be written to the response using
+	 *         {@link #createSearchSetStream(SearchResultStream, List, UriBuilder, String, String, MediaType, Consumer)}
+	 *         for the given media type, pretty printing is not supported
+	 */
+	public boolean isSearchSetStreamSupported(MediaType mediaType)
+	{
+		return (isJson(mediaType) || isXml(mediaType))
+				&& !"true".equals(mediaType.getParameters().getOrDefault(AbstractFhirAdapter.PRETTY, "false"));
+	}
+
+	private boolean isJson(MediaType mediaType)
+	{
+		return mediaType != null && mediaType.getSubtype().contains("json");
+	}
+
+	private boolean isXml(MediaType mediaType)
+	{
+		return mediaType != null && mediaType.getSubtype().contains("xml");
+	}
+
+	/**
+	 * Creates a searchset {@link Bundle} writer, resources are encoded while they are read from the given stream. The
+	 * {@link Bundle} envelope including total and links is created before the writer is returned. Include and
+	 * revinclude parameters and cursor paging are not supported. The given stream is closed by the returned writer.
+	 *
+	 * @param stream
+	 *            not <code>null</code>, open search result stream
+	 * @param errors
+	 *            not <code>null</code>
+	 * @param bundleUri
+	 *            not <code>null</code>
+	 * @param format
+	 *            may be <code>null</code>
+	 * @param pretty
+	 *            may be <code>null</code>
+	 * @param mediaType
+	 *            not <code>null</code>, json or xml media type, see {@link #isSearchSetStreamSupported(MediaType)}
+	 * @param resourceModifier
+	 *            not <code>null</code>, called for every resource before it is encoded
+	 * @return searchset {@link Bundle} writer
+	 */
+	public <R extends Resource> StreamingOutput createSearchSetStream(SearchResultStream<R> stream,
+			List<SearchQueryParameterError> errors, UriBuilder bundleUri, String format, String pretty,
+			MediaType mediaType, Consumer<Resource> resourceModifier)
+	{
+		Bundle envelope = createSearchSetEnvelope(stream.getTotal(), stream.getTotalMode(), stream.getPageAndCount(),
+				stream.getPageSize(), bundleUri, format, pretty);
+		Function<Resource, BundleEntryComponent> entryFactory = r ->
+		{
+			resourceModifier.accept(r);
+			return toBundleEntryComponent(r, SearchEntryMode.MATCH);
+		};
+		BundleEntryComponent outcomeEntry = errors.isEmpty() ? null
+				: toBundleEntryComponent(toOperationOutcomeWarning(errors), SearchEntryMode.OUTCOME);
+
+		boolean json = isJson(mediaType);
+		Supplier<IParser> parserFactory = () ->
+		{
+			IParser p = json ? fhirContext.newJsonParser() : fhirContext.newXmlParser();
+			p.setStripVersionsFromReferences(false);
+			p.setOverrideResourceIdWithBundleEntryFullUrl(false);
+			return p;
+		};
+
+		return new SearchSetStreamingOutput<R>(stream, envelope, entryFactory, outcomeEntry, parserFactory, json);
+	}
+
+	private Bundle createSearchSetEnvelope(int total, TotalMode totalMode, PageAndCount pageAndCount, int pageSize,
+			UriBuilder bundleUri, String format, String pretty)
+	{
+		Bundle bundle = new Bundle();
+		bundle.setTimestamp(new Date());
+		bundle.setType(BundleType.SEARCHSET);
+
+		if (!TotalMode.NONE.equals(totalMode))
+			bundle.setTotal(total);
+
+		// last page and number of pages only known if total calculated via count query
+		setLinks(pageAndCount, null, bundleUri, format, pretty, bundle, pageSize == 0, pageSize,
+				TotalMode.ACCURATE.equals(totalMode) ? total : null);
+
+		return bundle;
+	}
+
+	private PageCursor getNextCursor(PartialResult<? extends Resource> result)
+	{
+		PageAndCount pageAndCount = result.getPageAndCount();
+		List<? extends Resource> partialResult = result.getPartialResult();
+
+		if (!pageAndCount.isCursorPaging() || partialResult.size() < pageAndCount.getCount()
+				|| (pageAndCount.getCursor().isEmpty() && TotalMode.ACCURATE.equals(result.getTotalMode())
+						&& pageAndCount.isLastPage(result.getTotal())))
+			return null;
+
+		return PageCursor.fromResource(partialResult.get(partialResult.size() - 1)).orElse(null);
+	}
+
 	public BundleEntryComponent toBundleEntryComponent(Resource resource, SearchEntryMode mode)
 	{
 		BundleEntryComponent entry = new BundleEntryComponent();
@@ -196,8 +310,8 @@ public class ResponseGenerator
 
 		bundle.setTotal(history.getTotal());
 
-		setLinks(history.getPageAndCount(), bundleUri, format, pretty, bundle, history.getEntries().isEmpty(),
-				history.getTotal());
+		setLinks(history.getPageAndCount(), null, bundleUri, format, pretty, bundle, history.getEntries().isEmpty(),
+				history.getEntries().size(), history.getTotal());
 
 		return bundle;
 	}
@@ -243,8 +357,15 @@ public class ResponseGenerator
 		return new IdType(serverBase, resourceType, id, version).getValue();
 	}
 
-	private void setLinks(PageAndCount pageAndCount, UriBuilder bundleUri, String format, String pretty, Bundle bundle,
-			boolean isEmpty, int total)
+	/**
+	 * @param nextCursor
+	 *            may be <code>null</code>, only used if {@link PageAndCount#isCursorPaging()}
+	 * @param total
+	 *            may be <code>null</code> if not known, no <code>last</code> link will be added and a <code>next</code>
+	 *            link will be added if the current page is full
+	 */
+	private void setLinks(PageAndCount pageAndCount, PageCursor nextCursor, UriBuilder bundleUri, String format,
+			String pretty, Bundle bundle, boolean isEmpty, int pageSize, Integer total)
 	{
 		if (format != null)
 			bundleUri = bundleUri.replaceQueryParam("_format", format);
@@ -254,7 +375,11 @@ public class ResponseGenerator
 		if (pageAndCount.getCount() > 0)
 		{
 			bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
-			bundleUri = bundleUri.replaceQueryParam("_page", isEmpty ? 1 : pageAndCount.getPage());
+
+			if (pageAndCount.getCursor().isPresent())
+				bundleUri = bundleUri.replaceQueryParam("_cursor", pageAndCount.getCursor().get().encode());
+			else
+				bundleUri = bundleUri.replaceQueryParam("_page", isEmpty ? 1 : pageAndCount.getPage());
 		}
 		else
 			bundleUri = bundleUri.replaceQueryParam("_count", "0");
@@ -263,26 +388,41 @@ public class ResponseGenerator
 
 		if (pageAndCount.getCount() > 0 && !isEmpty)
 		{
+			bundleUri = bundleUri.replaceQueryParam("_cursor");
 			bundleUri = bundleUri.replaceQueryParam("_page", 1);
 			bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
 			bundle.addLink().setRelation("first").setUrlElement(new UriType(bundleUri.build()));
 
-			if (pageAndCount.getPage() > 1)
+			if (pageAndCount.getCursor().isEmpty() && pageAndCount.getPage() > 1)
 			{
 				bundleUri = bundleUri.replaceQueryParam("_page", pageAndCount.getPage() - 1);
 				bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
 				bundle.addLink().setRelation("previous").setUrlElement(new UriType(bundleUri.build()));
 			}
-			if (!pageAndCount.isLastPage(total))
+			if (pageAndCount.isCursorPaging())
+			{
+				if (nextCursor != null)
+				{
+					bundleUri = bundleUri.replaceQueryParam("_page");
+					bundleUri = bundleUri.replaceQueryParam("_cursor", nextCursor.encode());
+					bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
+					bundle.addLink().setRelation("next").setUrlElement(new UriType(bundleUri.build()));
+					bundleUri = bundleUri.replaceQueryParam("_cursor");
+				}
+			}
+			else if (total != null ? !pageAndCount.isLastPage(total) : pageSize >= pageAndCount.getCount())
 			{
 				bundleUri = bundleUri.replaceQueryParam("_page", pageAndCount.getPage() + 1);
 				bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
 				bundle.addLink().setRelation("next").setUrlElement(new UriType(bundleUri.build()));
 			}
 
-			bundleUri = bundleUri.replaceQueryParam("_page", pageAndCount.getLastPage(total));
-			bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
-			bundle.addLink().setRelation("last").setUrlElement(new UriType(bundleUri.build()));
+			if (total != null)
+			{
+				bundleUri = bundleUri.replaceQueryParam("_page", pageAndCount.getLastPage(total));
+				bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
+				bundle.addLink().setRelation("last").setUrlElement(new UriType(bundleUri.build()));
+			}
 		}
 	}
 
@@ -0,0 +1,182 @@
+package org.highmed.dsf.fhir.help;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.highmed.dsf.fhir.search.SearchResultHandler;
+import org.highmed.dsf.fhir.search.SearchResultStream;
+import org.highmed.dsf.fhir.search.TotalMode;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.uhn.fhir.parser.IParser;
+
+/**
+ * Writes a searchset {@link Bundle} while the search result is read from the database. The {@link Bundle} envelope
+ * (type, total, links) is encoded by the given parser, entries are encoded one by one and inserted into the envelope.
+ * Only one entry is kept in memory at a time. The search result stream is closed after the result is written.
+ * <p>
+ * The database connection of the search result stream is held while entries are written, the response is aborted if
+ * writing takes longer than {@value #MAX_WRITE_DURATION_MILLIS} ms, e.g. because of a slow client. Single blocked
+ * writes are bounded by the idle timeout of the server connector.
+ *
+ * @param <R>
+ *            the resource type
+ */
+public class SearchSetStreamingOutput<R extends Resource> implements StreamingOutput
+{
+	private static final Logger logger = LoggerFactory.getLogger(SearchSetStreamingOutput.class);
+
+	private static final String JSON_ENTRY_START = "\"entry\":[";
+	private static final String JSON_ENTRY_END = "]}";
+	private static final String XML_ENTRY_START = "<entry>";
+	private static final String XML_BUNDLE_END = "</Bundle>";
+
+	private static final long MAX_WRITE_DURATION_MILLIS = 60_000;
+
+	private final SearchResultStream<R> stream;
+	private final Bundle envelope;
+	private final Function<Resource, BundleEntryComponent> entryFactory;
+	private final BundleEntryComponent outcomeEntry;
+	private final Supplier<IParser> parserFactory;
+	private final boolean json;
+
+	/**
+	 * @param stream
+	 *            not <code>null</code>, open search result stream
+	 * @param envelope
+	 *            not <code>null</code>, {@link Bundle} envelope without entries
+	 * @param entryFactory
+	 *            not <code>null</code>, creates {@link Bundle} entries for search result resources
+	 * @param outcomeEntry
+	 *            may be <code>null</code>
+	 * @param parserFactory
+	 *            not <code>null</code>, needs to supply new non pretty printing parser instances
+	 * @param json
+	 *            <code>true</code> if the parser encodes json, <code>false</code> if the parser encodes xml
+	 */
+	public SearchSetStreamingOutput(SearchResultStream<R> stream, Bundle envelope,
+			Function<Resource, BundleEntryComponent> entryFactory, BundleEntryComponent outcomeEntry,
+			Supplier<IParser> parserFactory, boolean json)
+	{
+		this.stream = Objects.requireNonNull(stream, "stream");
+		this.envelope = Objects.requireNonNull(envelope, "envelope");
+		this.entryFactory = Objects.requireNonNull(entryFactory, "entryFactory");
+		this.outcomeEntry = outcomeEntry;
+		this.parserFactory = Objects.requireNonNull(parserFactory, "parserFactory");
+		this.json = json;
+	}
+
+	/*
+	 * The response status has already been sent if this method is called, errors while reading from the database can
+	 * only be signaled to the client by aborting the response
+	 */
+	@Override
+	public void write(OutputStream output) throws IOException, WebApplicationException
+	{
+		try (stream)
+		{
+			Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+			EntryWriter entryWriter = new EntryWriter(writer, parserFactory.get());
+
+			stream.handle(entryWriter);
+
+			entryWriter.writeEnvelopeEnd();
+			writer.flush();
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Error while streaming search result, aborting response: {}", e.getMessage());
+			throw new IOException(e);
+		}
+	}
+
+	private final class EntryWriter implements SearchResultHandler<R>
+	{
+		private final Writer writer;
+		private final IParser parser;
+		private final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_WRITE_DURATION_MILLIS);
+
+		private boolean hasEntries;
+
+		EntryWriter(Writer writer, IParser parser)
+		{
+			this.writer = writer;
+			this.parser = parser;
+		}
+
+		@Override
+		public void handleTotal(int total, TotalMode totalMode) throws IOException
+		{
+			String envelope = parser.encodeResourceToString(SearchSetStreamingOutput.this.envelope);
+
+			// envelope written without the closing bracket of the json object or the closing xml tag
+			if (json)
+				writer.write(envelope, 0, envelope.lastIndexOf('}'));
+			else
+				writer.write(envelope, 0, envelope.lastIndexOf(XML_BUNDLE_END));
+		}
+
+		@Override
+		public void handleResource(R resource) throws IOException
+		{
+			writeEntry(entryFactory.apply(resource));
+		}
+
+		private void writeEntry(BundleEntryComponent entry) throws IOException
+		{
+			if (System.nanoTime() - deadline > 0)
+				throw new IOException("Writing search result took longer than " + MAX_WRITE_DURATION_MILLIS + " ms");
+
+			if (json)
+				writer.write(hasEntries ? "," : ("," + JSON_ENTRY_START));
+
+			writer.write(encodeEntry(parser, entry));
+			hasEntries = true;
+		}
+
+		void writeEnvelopeEnd() throws IOException
+		{
+			// outcome entry after the match entries, as in non streamed searchset bundles
+			if (outcomeEntry != null)
+				writeEntry(outcomeEntry);
+
+			if (json)
+				writer.write(hasEntries ? JSON_ENTRY_END : "}");
+			else
+				writer.write(XML_BUNDLE_END);
+		}
+	}
+
+	/*
+	 * Encodes a bundle containing only the given entry and extracts the encoded entry, this way entries are encoded
+	 * exactly as they would be encoded within a complete bundle
+	 */
+	private String encodeEntry(IParser parser, BundleEntryComponent entry)
+	{
+		Bundle bundle = new Bundle();
+		bundle.addEntry(entry);
+
+		String encoded = parser.encodeResourceToString(bundle);
+
+		if (json)
+			return encoded.substring(encoded.indexOf(JSON_ENTRY_START) + JSON_ENTRY_START.length(),
+					encoded.lastIndexOf(JSON_ENTRY_END));
+		else
+			return encoded.substring(encoded.indexOf(XML_ENTRY_START), encoded.lastIndexOf(XML_BUNDLE_END));
+	}
+}
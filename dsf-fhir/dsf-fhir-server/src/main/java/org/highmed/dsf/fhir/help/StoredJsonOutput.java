@@ -0,0 +1,236 @@
+package org.highmed.dsf.fhir.help;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.highmed.dsf.fhir.dao.StoredJson;
+import org.hl7.fhir.r4.model.InstantType;
+import org.hl7.fhir.r4.model.Reference;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a resource as stored in the database without parsing it into a HAPI model object or json tree. The stored json
+ * is copied token by token. Literal references of {@link Reference} elements that also contain a logical reference
+ * (identifier) are removed, like it is done for parsed resources by the
+ * {@link org.highmed.dsf.fhir.service.ReferenceCleaner}.
+ */
+public class StoredJsonOutput implements StreamingOutput
+{
+	private static final String RESOURCE_TYPE = "resourceType";
+	private static final String META = "meta";
+	private static final String LAST_UPDATED = "lastUpdated";
+	private static final String REFERENCE = "reference";
+	private static final String IDENTIFIER = "identifier";
+
+	// properties with resources as values, references of nested resources are not cleaned by the ReferenceCleaner
+	private static final String CONTAINED = "contained";
+	private static final String RESOURCE = "resource";
+
+	private final StoredJson storedJson;
+	private final Date lastUpdated;
+
+	/**
+	 * @param storedJson
+	 *            not <code>null</code>
+	 */
+	public StoredJsonOutput(StoredJson storedJson)
+	{
+		this.storedJson = Objects.requireNonNull(storedJson, "storedJson");
+
+		lastUpdated = readLastUpdated(storedJson.getJson());
+	}
+
+	/*
+	 * jsonb stores shorter property names first, meta is read after the id property and the remaining properties are
+	 * not read
+	 */
+	private static Date readLastUpdated(String json)
+	{
+		try (JsonReader reader = new JsonReader(new StringReader(json)))
+		{
+			reader.beginObject();
+			while (reader.hasNext())
+			{
+				if (META.equals(reader.nextName()) && JsonToken.BEGIN_OBJECT.equals(reader.peek()))
+				{
+					reader.beginObject();
+					while (reader.hasNext())
+					{
+						if (LAST_UPDATED.equals(reader.nextName()) && JsonToken.STRING.equals(reader.peek()))
+							return new InstantType(reader.nextString()).getValue();
+						else
+							reader.skipValue();
+					}
+
+					return null;
+				}
+				else
+					reader.skipValue();
+			}
+
+			return null;
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	public String getResourceTypeName()
+	{
+		return storedJson.getResourceTypeName();
+	}
+
+	public UUID getId()
+	{
+		return storedJson.getId();
+	}
+
+	public long getVersion()
+	{
+		return storedJson.getVersion();
+	}
+
+	public String getVersionId()
+	{
+		return String.valueOf(storedJson.getVersion());
+	}
+
+	/**
+	 * @return <code>null</code> if the stored resource has no meta.lastUpdated value
+	 */
+	public Date getLastUpdated()
+	{
+		return lastUpdated;
+	}
+
+	/**
+	 * @return resource type, id and version, e.g. <code>Task/{id}/_history/{version}</code>
+	 */
+	public String getIdValue()
+	{
+		return getResourceTypeName() + "/" + getId().toString() + "/_history/" + getVersionId();
+	}
+
+	@Override
+	public void write(OutputStream output) throws IOException, WebApplicationException
+	{
+		JsonWriter writer = new JsonWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+		try (JsonReader reader = new JsonReader(new StringReader(storedJson.getJson())))
+		{
+			reader.beginObject();
+			writer.beginObject();
+
+			// jsonb does not keep the order of properties, resourceType is expected to be the first property by some
+			// parsers
+			writer.name(RESOURCE_TYPE).value(storedJson.getResourceTypeName());
+
+			while (reader.hasNext())
+			{
+				String name = reader.nextName();
+				if (RESOURCE_TYPE.equals(name))
+					reader.skipValue();
+				else
+				{
+					writer.name(name);
+					copy(reader, writer, isCleaned(name));
+				}
+			}
+
+			reader.endObject();
+			writer.endObject();
+		}
+
+		writer.flush();
+	}
+
+	private static boolean isCleaned(String name)
+	{
+		return !CONTAINED.equals(name) && !RESOURCE.equals(name);
+	}
+
+	private static void copy(JsonReader reader, JsonWriter writer, boolean clean) throws IOException
+	{
+		switch (reader.peek())
+		{
+			case BEGIN_OBJECT:
+				copyObject(reader, writer, clean);
+				break;
+
+			case BEGIN_ARRAY:
+				reader.beginArray();
+				writer.beginArray();
+				while (reader.hasNext())
+					copy(reader, writer, clean);
+				reader.endArray();
+				writer.endArray();
+				break;
+
+			case STRING:
+				writer.value(reader.nextString());
+				break;
+
+			case NUMBER:
+				// number literal written as stored
+				writer.jsonValue(reader.nextString());
+				break;
+
+			case BOOLEAN:
+				writer.value(reader.nextBoolean());
+				break;
+
+			case NULL:
+				reader.nextNull();
+				writer.nullValue();
+				break;
+
+			default:
+				throw new IOException("Unexpected json token " + reader.peek());
+		}
+	}
+
+	private static void copyObject(JsonReader reader, JsonWriter writer, boolean clean) throws IOException
+	{
+		reader.beginObject();
+		writer.beginObject();
+
+		// jsonb stores reference before identifier, the literal reference is written at the end of the object if
+		// there is no logical reference
+		String reference = null;
+		boolean hasIdentifier = false;
+
+		while (reader.hasNext())
+		{
+			String name = reader.nextName();
+			if (clean && REFERENCE.equals(name) && JsonToken.STRING.equals(reader.peek()))
+				reference = reader.nextString();
+			else
+			{
+				if (clean && IDENTIFIER.equals(name) && JsonToken.BEGIN_OBJECT.equals(reader.peek()))
+					hasIdentifier = true;
+
+				writer.name(name);
+				copy(reader, writer, clean && isCleaned(name));
+			}
+		}
+
+		if (reference != null && !hasIdentifier)
+			writer.name(REFERENCE).value(reference);
+
+		reader.endObject();
+		writer.endObject();
+	}
+}
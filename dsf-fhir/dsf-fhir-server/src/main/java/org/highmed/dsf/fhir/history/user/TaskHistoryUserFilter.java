@@ -12,12 +12,15 @@ public class TaskHistoryUserFilter extends TaskUserFilter implements HistoryUser
 
 	public TaskHistoryUserFilter(User user)
 	{
-		super(user, HistoryUserFilter.RESOURCE_COLUMN);
+		super(user);
 	}
 
 	@Override
 	public String getFilterQuery()
 	{
-		return HistoryUserFilter.getFilterQuery(RESOURCE_TYPE, super.getFilterQuery());
+		return HistoryUserFilter.getFilterQuery(RESOURCE_TYPE,
+				"EXISTS (SELECT 1 FROM tasks WHERE tasks.task_id = " + HistoryUserFilter.RESOURCE_TABLE + "."
+						+ HistoryUserFilter.RESOURCE_ID_COLUMN + " AND tasks.version = "
+						+ HistoryUserFilter.RESOURCE_TABLE + ".version AND " + super.getFilterQuery() + ")");
 	}
 }
@@ -0,0 +1,205 @@
+package org.highmed.dsf.fhir.importer;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.highmed.dsf.fhir.authentication.User;
+
+/**
+ * State of an asynchronous bulk data import of one NDJSON stream.
+ */
+public class ImportJob
+{
+	public static enum Status
+	{
+		IN_PROGRESS, COMPLETED, FAILED, CANCELLED
+	}
+
+	public static final class Issue
+	{
+		private final long line;
+		private final String message;
+
+		public Issue(long line, String message)
+		{
+			this.line = line;
+			this.message = message;
+		}
+
+		public long getLine()
+		{
+			return line;
+		}
+
+		public String getMessage()
+		{
+			return message;
+		}
+	}
+
+	public static final int MAX_ISSUES = 100;
+
+	private final String id;
+	private final User user;
+	private final String requestUrl;
+	private final Date transactionTime;
+
+	private final AtomicLong processed = new AtomicLong();
+	private final AtomicLong imported = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong invalid = new AtomicLong();
+	private final List<Issue> issues = new CopyOnWriteArrayList<>();
+
+	private volatile Status status = Status.IN_PROGRESS;
+	private volatile String error;
+	private volatile Date finished;
+
+	/**
+	 * @param id
+	 *            not <code>null</code>
+	 * @param user
+	 *            not <code>null</code>
+	 * @param requestUrl
+	 *            not <code>null</code>
+	 * @param transactionTime
+	 *            not <code>null</code>
+	 */
+	public ImportJob(String id, User user, String requestUrl, Date transactionTime)
+	{
+		this.id = Objects.requireNonNull(id, "id");
+		this.user = Objects.requireNonNull(user, "user");
+		this.requestUrl = Objects.requireNonNull(requestUrl, "requestUrl");
+		this.transactionTime = Objects.requireNonNull(transactionTime, "transactionTime");
+	}
+
+	public String getId()
+	{
+		return id;
+	}
+
+	public User getUser()
+	{
+		return user;
+	}
+
+	public String getRequestUrl()
+	{
+		return requestUrl;
+	}
+
+	public Date getTransactionTime()
+	{
+		return transactionTime;
+	}
+
+	public Status getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * @return <code>true</code> if the user of this job is the given user
+	 */
+	public boolean isOwnedBy(User user)
+	{
+		return user != null && Objects.equals(this.user.getRole(), user.getRole())
+				&& Objects.equals(this.user.getSubjectDn(), user.getSubjectDn())
+				&& Objects.equals(this.user.getName(), user.getName());
+	}
+
+	/**
+	 * @return number of committed NDJSON lines
+	 */
+	public long getProcessed()
+	{
+		return processed.get();
+	}
+
+	public long getImported()
+	{
+		return imported.get();
+	}
+
+	/**
+	 * @return number of resources not imported because a resource with the same id already exists
+	 */
+	public long getSkipped()
+	{
+		return skipped.get();
+	}
+
+	public long getInvalid()
+	{
+		return invalid.get();
+	}
+
+	/**
+	 * @return issues of invalid lines, at most {@value #MAX_ISSUES}
+	 */
+	public List<Issue> getIssues()
+	{
+		return Collections.unmodifiableList(issues);
+	}
+
+	/**
+	 * @return error message if status is {@link Status#FAILED}, otherwise <code>null</code>
+	 */
+	public String getError()
+	{
+		return error;
+	}
+
+	/**
+	 * @return time the job completed, failed or was cancelled, <code>null</code> while in progress
+	 */
+	public Date getFinished()
+	{
+		return finished;
+	}
+
+	void addProcessed(long lines, long imported, long skipped)
+	{
+		this.processed.addAndGet(lines);
+		this.imported.addAndGet(imported);
+		this.skipped.addAndGet(skipped);
+	}
+
+	void addInvalid(long line, String message)
+	{
+		invalid.incrementAndGet();
+
+		if (issues.size() < MAX_ISSUES)
+			issues.add(new Issue(line, message));
+	}
+
+	synchronized void completed()
+	{
+		if (Status.IN_PROGRESS.equals(status))
+			finish(Status.COMPLETED);
+	}
+
+	synchronized void failed(String error)
+	{
+		if (Status.IN_PROGRESS.equals(status))
+		{
+			this.error = error;
+			finish(Status.FAILED);
+		}
+	}
+
+	synchronized void cancelled()
+	{
+		if (Status.IN_PROGRESS.equals(status))
+			finish(Status.CANCELLED);
+	}
+
+	private void finish(Status status)
+	{
+		this.finished = new Date();
+		this.status = status;
+	}
+}
@@ -0,0 +1,43 @@
+package org.highmed.dsf.fhir.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.highmed.dsf.fhir.authentication.User;
+
+public interface ImportJobManager
+{
+	/**
+	 * Stores the given NDJSON stream and starts an asynchronous import of the contained resources. Resources are
+	 * imported with their ids if set, resources with an id that already exists are skipped. An interrupted import can
+	 * be resumed by importing the same stream again.
+	 *
+	 * @param user
+	 *            not <code>null</code>
+	 * @param ndjson
+	 *            not <code>null</code>, one resource as JSON per line
+	 * @param requestUrl
+	 *            not <code>null</code>
+	 * @return the started job
+	 * @throws IOException
+	 *             if the stream could not be stored
+	 */
+	ImportJob start(User user, InputStream ndjson, String requestUrl) throws IOException;
+
+	/**
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if no job with the given id exists or the job expired
+	 */
+	Optional<ImportJob> getJob(String jobId);
+
+	/**
+	 * Cancels the job if in progress, already committed resources are not removed.
+	 *
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if the job existed
+	 */
+	boolean delete(String jobId);
+}
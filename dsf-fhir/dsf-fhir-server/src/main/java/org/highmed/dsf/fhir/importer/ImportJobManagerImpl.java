@@ -0,0 +1,411 @@
+package org.highmed.dsf.fhir.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.highmed.dsf.fhir.authentication.User;
+import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.highmed.dsf.fhir.event.Event;
+import org.highmed.dsf.fhir.event.EventGenerator;
+import org.highmed.dsf.fhir.event.EventHandler;
+import org.highmed.dsf.fhir.validation.ResourceValidator;
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.CodeSystem;
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.Subscription;
+import org.hl7.fhir.r4.model.ValueSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.validation.ResultSeverityEnum;
+import ca.uhn.fhir.validation.SingleValidationMessage;
+import ca.uhn.fhir.validation.ValidationResult;
+
+/**
+ * Imports are executed one at a time. The uploaded NDJSON stream is stored in the import directory and processed in
+ * chunks: lines are parsed sequentially, validated in parallel and inserted with one JDBC batch per resource type and
+ * one transaction per chunk. Resources with ids that already exist are skipped, so an interrupted import can be resumed
+ * by uploading the same stream again. Resources without id get a name based UUID derived from the content of their
+ * line, so they are skipped as well when uploaded again.
+ * <p>
+ * Imports bypass authorization rules and reference checks, they are intended for initial data loads and site migrations
+ * by administrators. {@link StructureDefinition} resources are not supported, since snapshots are not generated.
+ * <p>
+ * Created events are only fired for resource types cached in memory ({@link Subscription}, {@link Endpoint},
+ * {@link Organization}, {@link OrganizationAffiliation}, {@link ActivityDefinition}, {@link CodeSystem} and
+ * {@link ValueSet}), after the chunk containing the resources is committed. Websocket subscribers are therefore not
+ * notified about imported resources of other types.
+ */
+public class ImportJobManagerImpl implements ImportJobManager, InitializingBean, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ImportJobManagerImpl.class);
+
+	private static final Duration JOB_RETENTION = Duration.ofHours(24);
+
+	private static final Set<Class<? extends Resource>> EVENT_RESOURCE_TYPES = Set.of(Subscription.class,
+			Endpoint.class, Organization.class, OrganizationAffiliation.class, ActivityDefinition.class,
+			CodeSystem.class, ValueSet.class);
+
+	private static final class ImportEntry
+	{
+		final long line;
+		final Resource resource;
+		final ResourceDao<?> dao;
+		final UUID id;
+
+		ImportEntry(long line, Resource resource, ResourceDao<?> dao, UUID id)
+		{
+			this.line = line;
+			this.resource = resource;
+			this.dao = dao;
+			this.id = id;
+		}
+	}
+
+	private final DaoProvider daoProvider;
+	private final FhirContext fhirContext;
+	private final ResourceValidator resourceValidator;
+	private final EventHandler eventHandler;
+	private final EventGenerator eventGenerator;
+	private final Path directory;
+	private final int batchSize;
+
+	private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor();
+	private final ExecutorService validationExecutor;
+	private final Map<String, ImportJob> jobsById = new ConcurrentHashMap<>();
+
+	/**
+	 * @param daoProvider
+	 *            not <code>null</code>
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param resourceValidator
+	 *            not <code>null</code>
+	 * @param eventHandler
+	 *            not <code>null</code>
+	 * @param eventGenerator
+	 *            not <code>null</code>
+	 * @param directory
+	 *            not <code>null</code>, created if not existing
+	 * @param validationThreads
+	 *            &gt; 0
+	 * @param batchSize
+	 *            &gt; 0, number of lines committed per transaction
+	 */
+	public ImportJobManagerImpl(DaoProvider daoProvider, FhirContext fhirContext, ResourceValidator resourceValidator,
+			EventHandler eventHandler, EventGenerator eventGenerator, Path directory, int validationThreads,
+			int batchSize)
+	{
+		this.daoProvider = daoProvider;
+		this.fhirContext = fhirContext;
+		this.resourceValidator = resourceValidator;
+		this.eventHandler = eventHandler;
+		this.eventGenerator = eventGenerator;
+		this.directory = directory;
+		this.batchSize = batchSize;
+
+		if (validationThreads <= 0)
+			throw new IllegalArgumentException("validationThreads <= 0");
+		validationExecutor = Executors.newFixedThreadPool(validationThreads);
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(fhirContext, "fhirContext");
+		Objects.requireNonNull(resourceValidator, "resourceValidator");
+		Objects.requireNonNull(eventHandler, "eventHandler");
+		Objects.requireNonNull(eventGenerator, "eventGenerator");
+		Objects.requireNonNull(directory, "directory");
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("batchSize <= 0");
+
+		Files.createDirectories(directory);
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		jobsById.values().forEach(ImportJob::cancelled);
+
+		jobExecutor.shutdown();
+		validationExecutor.shutdown();
+		if (!jobExecutor.awaitTermination(10, TimeUnit.SECONDS))
+			jobExecutor.shutdownNow();
+		if (!validationExecutor.awaitTermination(10, TimeUnit.SECONDS))
+			validationExecutor.shutdownNow();
+	}
+
+	@Override
+	public ImportJob start(User user, InputStream ndjson, String requestUrl) throws IOException
+	{
+		Objects.requireNonNull(ndjson, "ndjson");
+
+		deleteExpiredJobs();
+
+		ImportJob job = new ImportJob(UUID.randomUUID().toString(), user, requestUrl, new Date());
+		Path file = getFile(job);
+
+		Files.copy(ndjson, file);
+		logger.info("Starting import {} of {} bytes for user '{}'", job.getId(), Files.size(file), user.getName());
+
+		jobsById.put(job.getId(), job);
+		jobExecutor.execute(() -> run(job, file));
+
+		return job;
+	}
+
+	@Override
+	public Optional<ImportJob> getJob(String jobId)
+	{
+		deleteExpiredJobs();
+
+		return jobId == null ? Optional.empty() : Optional.ofNullable(jobsById.get(jobId));
+	}
+
+	@Override
+	public boolean delete(String jobId)
+	{
+		ImportJob job = jobId == null ? null : jobsById.remove(jobId);
+		if (job == null)
+			return false;
+
+		job.cancelled();
+
+		logger.info("Import {} deleted", job.getId());
+		return true;
+	}
+
+	private Path getFile(ImportJob job)
+	{
+		return directory.resolve(job.getId() + ".ndjson");
+	}
+
+	private void deleteExpiredJobs()
+	{
+		Date expired = new Date(System.currentTimeMillis() - JOB_RETENTION.toMillis());
+
+		jobsById.values().stream().filter(j -> j.getFinished() != null && j.getFinished().before(expired))
+				.map(ImportJob::getId).forEach(jobsById::remove);
+	}
+
+	private void run(ImportJob job, Path file)
+	{
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+		{
+			IParser parser = fhirContext.newJsonParser();
+
+			long lineNumber = 0;
+			String line;
+			List<ImportEntry> chunk = new ArrayList<>(batchSize);
+			long chunkLines = 0;
+
+			while (ImportJob.Status.IN_PROGRESS.equals(job.getStatus()) && (line = reader.readLine()) != null)
+			{
+				lineNumber++;
+				chunkLines++;
+
+				if (!line.isBlank())
+					toEntry(job, parser, lineNumber, line).ifPresent(chunk::add);
+
+				if (chunkLines >= batchSize)
+				{
+					importChunk(job, chunk, chunkLines);
+					chunk.clear();
+					chunkLines = 0;
+				}
+			}
+
+			if (ImportJob.Status.IN_PROGRESS.equals(job.getStatus()) && chunkLines > 0)
+				importChunk(job, chunk, chunkLines);
+
+			job.completed();
+
+			logger.info("Import {} {}: {} lines processed, {} imported, {} skipped, {} invalid", job.getId(),
+					job.getStatus().name().toLowerCase(), job.getProcessed(), job.getImported(), job.getSkipped(),
+					job.getInvalid());
+		}
+		catch (Exception e)
+		{
+			logger.warn("Error while executing import {}: {} - {}", job.getId(), e.getClass().getName(),
+					e.getMessage());
+			job.failed("Error while importing resources after line " + job.getProcessed());
+		}
+		finally
+		{
+			try
+			{
+				Files.deleteIfExists(file);
+			}
+			catch (IOException e)
+			{
+				logger.warn("Error while deleting import file {}: {}", file, e.getMessage());
+			}
+		}
+	}
+
+	private Optional<ImportEntry> toEntry(ImportJob job, IParser parser, long lineNumber, String line)
+	{
+		Resource resource;
+		try
+		{
+			resource = (Resource) parser.parseResource(line);
+		}
+		catch (DataFormatException | ClassCastException e)
+		{
+			job.addInvalid(lineNumber, "Not a FHIR resource: " + e.getMessage());
+			return Optional.empty();
+		}
+
+		if (resource instanceof StructureDefinition)
+		{
+			job.addInvalid(lineNumber, "Resource type StructureDefinition not supported, use a transaction bundle");
+			return Optional.empty();
+		}
+
+		Optional<ResourceDao<?>> dao = daoProvider.getDao(resource.fhirType());
+		if (dao.isEmpty())
+		{
+			job.addInvalid(lineNumber, "Resource type " + resource.fhirType() + " not supported");
+			return Optional.empty();
+		}
+
+		UUID id;
+		if (resource.hasIdElement() && resource.getIdElement().getIdPart() != null)
+		{
+			try
+			{
+				id = UUID.fromString(resource.getIdElement().getIdPart());
+			}
+			catch (IllegalArgumentException e)
+			{
+				job.addInvalid(lineNumber, "Resource id " + resource.getIdElement().getIdPart() + " not a UUID");
+				return Optional.empty();
+			}
+		}
+		else
+			id = UUID.nameUUIDFromBytes(line.trim().getBytes(StandardCharsets.UTF_8));
+
+		return Optional.of(new ImportEntry(lineNumber, resource, dao.get(), id));
+	}
+
+	private void importChunk(ImportJob job, List<ImportEntry> chunk, long chunkLines)
+			throws SQLException, InterruptedException, ExecutionException
+	{
+		List<ImportEntry> valid = validate(job, chunk);
+
+		Map<ResourceDao<?>, List<ImportEntry>> entriesByDao = valid.stream()
+				.collect(Collectors.groupingBy(e -> e.dao, LinkedHashMap::new, Collectors.toList()));
+
+		long imported = 0, skipped = 0;
+		List<Event> events = new ArrayList<>();
+		try (Connection connection = daoProvider.newReadWriteTransaction())
+		{
+			try
+			{
+				for (Map.Entry<ResourceDao<?>, List<ImportEntry>> e : entriesByDao.entrySet())
+				{
+					List<? extends Resource> created = createAll(connection, e.getKey(), e.getValue());
+					imported += created.size();
+					skipped += e.getValue().size() - created.size();
+
+					if (EVENT_RESOURCE_TYPES.contains(e.getKey().getResourceType()))
+						created.stream().map(eventGenerator::newResourceCreatedEvent).forEach(events::add);
+				}
+
+				connection.commit();
+			}
+			catch (SQLException e)
+			{
+				connection.rollback();
+				throw e;
+			}
+		}
+
+		// cached resources of the affected types reloaded by the event handlers
+		if (!events.isEmpty())
+			eventHandler.handleEvents(events);
+
+		job.addProcessed(chunkLines, imported, skipped);
+		logger.debug("Import {}: {} lines processed", job.getId(), job.getProcessed());
+	}
+
+	private List<ImportEntry> validate(ImportJob job, List<ImportEntry> chunk)
+			throws InterruptedException, ExecutionException
+	{
+		List<Future<ValidationResult>> results = new ArrayList<>(chunk.size());
+		for (ImportEntry entry : chunk)
+			results.add(validationExecutor.submit(() -> resourceValidator.validate(entry.resource)));
+
+		List<ImportEntry> valid = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++)
+		{
+			Optional<SingleValidationMessage> error = results.get(i).get().getMessages().stream()
+					.filter(m -> ResultSeverityEnum.ERROR.equals(m.getSeverity())
+							|| ResultSeverityEnum.FATAL.equals(m.getSeverity()))
+					.findFirst();
+
+			if (error.isPresent())
+				job.addInvalid(chunk.get(i).line,
+						"Resource not valid: " + error.get().getLocationString() + " - " + error.get().getMessage());
+			else
+				valid.add(chunk.get(i));
+		}
+
+		return valid;
+	}
+
+	/**
+	 * @return created resources, entries with ids that already exist are skipped
+	 */
+	private <R extends Resource> List<R> createAll(Connection connection, ResourceDao<R> dao, List<ImportEntry> entries)
+			throws SQLException
+	{
+		Set<String> existing = new HashSet<>(dao.getExistingIdsWithTransaction(connection,
+				entries.stream().map(e -> e.id.toString()).collect(Collectors.toList())));
+
+		Map<UUID, R> resourcesById = new LinkedHashMap<>();
+		for (ImportEntry entry : entries)
+		{
+			if (!existing.contains(entry.id.toString()))
+				resourcesById.putIfAbsent(entry.id, dao.getResourceType().cast(entry.resource));
+		}
+
+		return dao.createAllWithTransactionAndIds(connection, resourcesById);
+	}
+}
@@ -12,12 +12,29 @@ public interface DbSearchQuery
 {
 	String getCountSql();
 
+	/**
+	 * @return sql statement returning the query planners row estimate for the search as a json formated
+	 *         <code>EXPLAIN</code> result, uses the same parameters as {@link #getCountSql()}
+	 */
+	String getEstimateSql();
+
 	String getSearchSql();
 
 	void modifyStatement(PreparedStatement statement, BiFunctionWithSqlException<String, Object[], Array> arrayCreator)
 			throws SQLException;
 
+	void modifySearchStatement(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException;
+
 	PageAndCount getPageAndCount();
 
+	TotalMode getTotalMode();
+
+	/**
+	 * @return <code>true</code> if the search result should only contain summary elements, see
+	 *         {@link SearchQuery.SearchQueryBuilder#withSummarySupport()}
+	 */
+	boolean isSummary();
+
 	void modifyIncludeResource(Resource resource, int columnIndex, Connection connection) throws SQLException;
 }
@@ -9,6 +9,12 @@ public interface Matcher
 {
 	void resloveReferencesForMatching(Resource resource, DaoProvider daoProvider) throws SQLException;
 
+	/**
+	 * @return <code>true</code> if {@link #resloveReferencesForMatching(Resource, DaoProvider)} needs to be called
+	 *         before {@link #matches(Resource)}
+	 */
+	boolean isReferenceResolutionRequired();
+
 	boolean matches(Resource resource);
 
 	Class<? extends Resource> getResourceType();
@@ -11,5 +11,14 @@ public interface MatcherParameter
 	{
 	}
 
+	/**
+	 * @return <code>true</code> if {@link #resolveReferencesForMatching(Resource, DaoProvider)} needs to be called
+	 *         before {@link #matches(Resource)}
+	 */
+	default boolean isReferenceResolutionRequired()
+	{
+		return false;
+	}
+
 	boolean matches(Resource resource);
 }
@@ -1,26 +1,68 @@
 package org.highmed.dsf.fhir.search;
 
+import java.util.Optional;
+
 public class PageAndCount
 {
 	private final int page;
 	private final int count;
 
+	private final boolean cursorPaging;
+	private final PageCursor cursor;
+
 	public PageAndCount(int page, int count)
+	{
+		this(page, count, false, null);
+	}
+
+	private PageAndCount(int page, int count, boolean cursorPaging, PageCursor cursor)
 	{
 		this.page = page;
 		this.count = count;
+
+		this.cursorPaging = cursorPaging;
+		this.cursor = cursor;
+	}
+
+	/**
+	 * @param cursor
+	 *            may be <code>null</code>, if <code>null</code> the page is selected via offset, otherwise the page
+	 *            starts after the given cursor position
+	 * @return new {@link PageAndCount} with the same page and count values, next pages are to be requested using a
+	 *         {@link PageCursor}
+	 */
+	public PageAndCount withCursorPaging(PageCursor cursor)
+	{
+		return new PageAndCount(page, count, true, cursor);
 	}
 
 	public String getSql()
 	{
+		if (cursor != null)
+			return " LIMIT " + count;
+
 		return " LIMIT " + count + (page > 1 ? (" OFFSET " + ((page - 1) * count)) : "");
 	}
 
 	public boolean isCountOnly(int total)
 	{
+		if (cursor != null)
+			return count < 1;
+
 		return page < 1 || count < 1 || getPageStart() > total;
 	}
 
+	/**
+	 * @return <code>true</code> if no resources are to be returned, independent of the total number of matches
+	 */
+	public boolean isCountOnly()
+	{
+		if (cursor != null)
+			return count < 1;
+
+		return page < 1 || count < 1;
+	}
+
 	public int getPage()
 	{
 		return page;
@@ -31,6 +73,19 @@ public class PageAndCount
 		return count;
 	}
 
+	/**
+	 * @return <code>true</code> if next pages are to be requested using a {@link PageCursor}
+	 */
+	public boolean isCursorPaging()
+	{
+		return cursorPaging;
+	}
+
+	public Optional<PageCursor> getCursor()
+	{
+		return Optional.ofNullable(cursor);
+	}
+
 	public int getPageStart()
 	{
 		if (page < 1 || count < 1)
@@ -56,4 +111,4 @@ public class PageAndCount
 	{
 		return (int) Math.ceil((double) total / count);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package org.highmed.dsf.fhir.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Continuation token for keyset pagination of searches sorted by <code>_lastUpdated</code>. Identifies the last
+ * resource of a page by its <code>meta.lastUpdated</code> value and id, the next page starts after this position.
+ */
+public class PageCursor
+{
+	private static final String SEPARATOR = "|";
+
+	private final String lastUpdated;
+	private final UUID id;
+
+	public PageCursor(String lastUpdated, UUID id)
+	{
+		this.lastUpdated = Objects.requireNonNull(lastUpdated, "lastUpdated");
+		this.id = Objects.requireNonNull(id, "id");
+	}
+
+	/**
+	 * @param resource
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the given resource is <code>null</code>, has no <code>meta.lastUpdated</code>
+	 *         value or no UUID id
+	 */
+	public static Optional<PageCursor> fromResource(Resource resource)
+	{
+		if (resource == null || !resource.hasMeta() || !resource.getMeta().hasLastUpdatedElement()
+				|| !resource.hasIdElement())
+			return Optional.empty();
+
+		try
+		{
+			return Optional.of(new PageCursor(resource.getMeta().getLastUpdatedElement().getValueAsString(),
+					UUID.fromString(resource.getIdElement().getIdPart())));
+		}
+		catch (IllegalArgumentException e)
+		{
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @param token
+	 *            not <code>null</code>
+	 * @return decoded cursor
+	 * @throws IllegalArgumentException
+	 *             if the given token is not a valid cursor
+	 */
+	public static PageCursor decode(String token)
+	{
+		Objects.requireNonNull(token, "token");
+
+		String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		int separatorIndex = value.lastIndexOf(SEPARATOR);
+		if (separatorIndex < 0)
+			throw new IllegalArgumentException("Cursor value not valid");
+
+		String lastUpdated = value.substring(0, separatorIndex);
+		try
+		{
+			new DateTimeType(lastUpdated);
+		}
+		catch (RuntimeException e)
+		{
+			throw new IllegalArgumentException("Cursor lastUpdated value not valid", e);
+		}
+
+		return new PageCursor(lastUpdated, UUID.fromString(value.substring(separatorIndex + 1)));
+	}
+
+	public String encode()
+	{
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((lastUpdated + SEPARATOR + id.toString()).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public String getLastUpdated()
+	{
+		return lastUpdated;
+	}
+
+	public UUID getId()
+	{
+		return id;
+	}
+
+	@Override
+	public String toString()
+	{
+		return encode();
+	}
+}
@@ -8,23 +8,40 @@ import org.hl7.fhir.r4.model.Resource;
 public class PartialResult<R extends Resource>
 {
 	private final int total;
+	private final TotalMode totalMode;
 	private final PageAndCount pageAndCount;
 	private final List<R> partialResult;
 	private final List<Resource> includes;
 
 	public PartialResult(int total, PageAndCount pageAndCount, List<R> partialResult, List<Resource> includes)
+	{
+		this(total, TotalMode.ACCURATE, pageAndCount, partialResult, includes);
+	}
+
+	public PartialResult(int total, TotalMode totalMode, PageAndCount pageAndCount, List<R> partialResult,
+			List<Resource> includes)
 	{
 		this.total = total;
+		this.totalMode = totalMode;
 		this.pageAndCount = pageAndCount;
 		this.partialResult = partialResult;
 		this.includes = includes;
 	}
 
+	/**
+	 * @return total number of matching resources, an estimate if {@link #getTotalMode()} is {@link TotalMode#ESTIMATE},
+	 *         undefined if {@link TotalMode#NONE}
+	 */
 	public int getTotal()
 	{
 		return total;
 	}
 
+	public TotalMode getTotalMode()
+	{
+		return totalMode;
+	}
+
 	public PageAndCount getPageAndCount()
 	{
 		return pageAndCount;
@@ -20,6 +20,8 @@ import javax.ws.rs.core.UriBuilder;
 import org.highmed.dsf.fhir.dao.provider.DaoProvider;
 import org.highmed.dsf.fhir.function.BiFunctionWithSqlException;
 import org.highmed.dsf.fhir.search.SearchQueryParameterError.SearchQueryParameterErrorType;
+import org.highmed.dsf.fhir.search.SearchQuerySortParameter.SortDirection;
+import org.highmed.dsf.fhir.search.parameters.ResourceLastUpdated;
 import org.hl7.fhir.r4.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,24 +32,30 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	public static final String PARAMETER_INCLUDE = "_include";
 	public static final String PARAMETER_REVINCLUDE = "_revinclude";
 	public static final String PARAMETER_PAGE = "_page";
+	public static final String PARAMETER_CURSOR = "_cursor";
 	public static final String PARAMETER_COUNT = "_count";
+	public static final String PARAMETER_TOTAL = "_total";
+	public static final String PARAMETER_SUMMARY = "_summary";
 	public static final String PARAMETER_FORMAT = "_format";
 	public static final String PARAMETER_PRETTY = "_pretty";
 
 	public static final String[] STANDARD_PARAMETERS = { PARAMETER_SORT, PARAMETER_INCLUDE, PARAMETER_REVINCLUDE,
-			PARAMETER_PAGE, PARAMETER_COUNT, PARAMETER_FORMAT, PARAMETER_PRETTY };
+			PARAMETER_PAGE, PARAMETER_CURSOR, PARAMETER_COUNT, PARAMETER_TOTAL, PARAMETER_SUMMARY, PARAMETER_FORMAT,
+			PARAMETER_PRETTY };
 
 	public static class SearchQueryBuilder<R extends Resource>
 	{
 		public static <R extends Resource> SearchQueryBuilder<R> create(Class<R> resourceType, String resourceTable,
-				String resourceColumn, int page, int count)
+				String resourceColumn, String resourceIdColumn, int page, int count)
 		{
-			return new SearchQueryBuilder<R>(resourceType, resourceTable, resourceColumn, page, count);
+			return new SearchQueryBuilder<R>(resourceType, resourceTable, resourceColumn, resourceIdColumn, page,
+					count);
 		}
 
 		private final Class<R> resourceType;
 		private final String resourceTable;
 		private final String resourceColumn;
+		private final String resourceIdColumn;
 
 		private final int page;
 		private final int count;
@@ -56,13 +64,15 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		private final List<SearchQueryRevIncludeParameterFactory> revIncludeParameters = new ArrayList<>();
 
 		private SearchQueryUserFilter userFilter; // may be null
+		private boolean summarySupported;
 
-		private SearchQueryBuilder(Class<R> resourceType, String resourceTable, String resourceColumn, int page,
-				int count)
+		private SearchQueryBuilder(Class<R> resourceType, String resourceTable, String resourceColumn,
+				String resourceIdColumn, int page, int count)
 		{
 			this.resourceType = resourceType;
 			this.resourceTable = resourceTable;
 			this.resourceColumn = resourceColumn;
+			this.resourceIdColumn = resourceIdColumn;
 
 			this.page = page;
 			this.count = count;
@@ -91,6 +101,18 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			return this;
 		}
 
+		/**
+		 * Enables the <code>_summary</code> parameter with values <code>true</code> and <code>false</code>, the
+		 * {@link DbSearchQuery#isSummary()} value needs to be evaluated by the dao creating the search query.
+		 *
+		 * @return this builder
+		 */
+		public SearchQueryBuilder<R> withSummarySupport()
+		{
+			this.summarySupported = true;
+			return this;
+		}
+
 		public SearchQueryBuilder<R> withRevInclude(SearchQueryRevIncludeParameterFactory searchParameters)
 		{
 			this.revIncludeParameters.add(searchParameters);
@@ -110,20 +132,23 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 
 		public SearchQuery<R> build()
 		{
-			return new SearchQuery<R>(resourceType, resourceTable, resourceColumn, userFilter, page, count,
-					searchParameters, revIncludeParameters);
+			return new SearchQuery<R>(resourceType, resourceTable, resourceColumn, resourceIdColumn, userFilter, page,
+					count, searchParameters, revIncludeParameters, summarySupported);
 		}
 	}
 
 	private static final Logger logger = LoggerFactory.getLogger(SearchQuery.class);
 
+	private static final String LAST_UPDATED_COLUMN = "last_updated";
+
 	private final Class<R> resourceType;
 	private final String resourceColumn;
 	private final String resourceTable;
+	private final String resourceIdColumn;
 
 	private final SearchQueryUserFilter userFilter;
 
-	private final PageAndCount pageAndCount;
+	private PageAndCount pageAndCount;
 
 	private final List<SearchQueryParameter<R>> searchParameters = new ArrayList<>();
 	private final List<SearchQueryRevIncludeParameterFactory> revIncludeParameterFactories = new ArrayList<>();
@@ -135,14 +160,24 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	private List<SearchQueryParameter<R>> sortParameters = Collections.emptyList();
 	private List<SearchQueryIncludeParameter> includeParameters = Collections.emptyList();
 	private List<SearchQueryIncludeParameter> revIncludeParameters = Collections.emptyList();
-
-	SearchQuery(Class<R> resourceType, String resourceTable, String resourceColumn, SearchQueryUserFilter userFilter,
-			int page, int count, List<? extends SearchQueryParameter<R>> searchParameters,
-			List<? extends SearchQueryRevIncludeParameterFactory> revIncludeParameters)
+	private SortDirection cursorSortDirection;
+	private String cursorSql = "";
+	private final List<SearchQueryParameterError> cursorErrors = new ArrayList<>();
+	private TotalMode totalMode = TotalMode.ACCURATE;
+	private final List<SearchQueryParameterError> totalErrors = new ArrayList<>();
+	private final boolean summarySupported;
+	private boolean summary;
+	private final List<SearchQueryParameterError> summaryErrors = new ArrayList<>();
+
+	SearchQuery(Class<R> resourceType, String resourceTable, String resourceColumn, String resourceIdColumn,
+			SearchQueryUserFilter userFilter, int page, int count,
+			List<? extends SearchQueryParameter<R>> searchParameters,
+			List<? extends SearchQueryRevIncludeParameterFactory> revIncludeParameters, boolean summarySupported)
 	{
 		this.resourceType = resourceType;
 		this.resourceTable = resourceTable;
 		this.resourceColumn = resourceColumn;
+		this.resourceIdColumn = resourceIdColumn;
 
 		this.userFilter = userFilter;
 
@@ -150,6 +185,8 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 
 		this.searchParameters.addAll(searchParameters);
 		this.revIncludeParameterFactories.addAll(revIncludeParameters);
+
+		this.summarySupported = summarySupported;
 	}
 
 	public SearchQuery<R> configureParameters(Map<String, List<String>> queryParameters)
@@ -167,9 +204,93 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 
 		sortSql = createSortSql(getFirst(queryParameters, PARAMETER_SORT));
 
+		configureCursorPaging(getFirst(queryParameters, PARAMETER_CURSOR));
+
+		configureTotalMode(getFirst(queryParameters, PARAMETER_TOTAL));
+
+		configureSummary(getFirst(queryParameters, PARAMETER_SUMMARY));
+
 		return this;
 	}
 
+	private void configureSummary(String summaryParameterValue)
+	{
+		if (summaryParameterValue == null || "false".equals(summaryParameterValue))
+			return;
+
+		if (!"true".equals(summaryParameterValue))
+			summaryErrors.add(
+					new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE, PARAMETER_SUMMARY,
+							Collections.singletonList(summaryParameterValue), "Value not one of true, false"));
+		else if (!summarySupported)
+			summaryErrors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNSUPPORTED_PARAMETER,
+					PARAMETER_SUMMARY, Collections.singletonList(summaryParameterValue),
+					"Parameter not supported for " + resourceType.getSimpleName()));
+		else
+			summary = true;
+	}
+
+	private void configureTotalMode(String totalParameterValue)
+	{
+		if (totalParameterValue == null)
+			return;
+
+		TotalMode.fromParameterValue(totalParameterValue).ifPresentOrElse(m -> totalMode = m,
+				() -> totalErrors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE,
+						PARAMETER_TOTAL, Collections.singletonList(totalParameterValue),
+						"Value not one of " + Stream.of(TotalMode.values()).map(TotalMode::getParameterValue)
+								.collect(Collectors.joining(", ")))));
+	}
+
+	/*
+	 * Keyset pagination is used if results are sorted by _lastUpdated only, the resource id is used as tie-breaker to
+	 * get a stable order. Sort order and seek predicate use the last_updated column of the current_* views, indexed
+	 * together with the resource id in the current_versions table.
+	 */
+	private void configureCursorPaging(String cursorParameterValue)
+	{
+		if (sortParameters.size() == 1 && ResourceLastUpdated.PARAMETER_NAME
+				.equals(sortParameters.get(0).getSortParameter().get().getParameterName()))
+		{
+			cursorSortDirection = sortParameters.get(0).getSortParameter().get().getDirection();
+			sortSql = " ORDER BY " + LAST_UPDATED_COLUMN + cursorSortDirection.getSqlModifierWithSpacePrefix() + ", "
+					+ resourceIdColumn + cursorSortDirection.getSqlModifierWithSpacePrefix();
+		}
+
+		if (cursorSortDirection == null && cursorParameterValue != null)
+		{
+			cursorErrors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNSUPPORTED_PARAMETER,
+					PARAMETER_CURSOR, Collections.singletonList(cursorParameterValue),
+					"Parameter only supported if sorted by " + ResourceLastUpdated.PARAMETER_NAME + " or -"
+							+ ResourceLastUpdated.PARAMETER_NAME));
+			return;
+		}
+		else if (cursorSortDirection == null || pageAndCount.getCount() < 1)
+			return;
+
+		PageCursor cursor = null;
+		if (cursorParameterValue != null)
+		{
+			try
+			{
+				cursor = PageCursor.decode(cursorParameterValue);
+				boolean descending = SortDirection.DESC.equals(cursorSortDirection);
+
+				// range condition on last_updated alone usable as index condition, row comparison not
+				cursorSql = LAST_UPDATED_COLUMN + (descending ? " <= " : " >= ") + "?::timestamp AND ("
+						+ LAST_UPDATED_COLUMN + ", " + resourceIdColumn + ") " + (descending ? "<" : ">")
+						+ " (?::timestamp, ?::uuid)";
+			}
+			catch (IllegalArgumentException e)
+			{
+				cursorErrors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE,
+						PARAMETER_CURSOR, Collections.singletonList(cursorParameterValue), e));
+			}
+		}
+
+		pageAndCount = pageAndCount.withCursorPaging(cursor);
+	}
+
 	private String createFilterQuery()
 	{
 		Stream<String> elements = searchParameters.stream().filter(SearchQueryParameter::isDefined)
@@ -188,6 +309,9 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		Arrays.asList(STANDARD_PARAMETERS).forEach(parameters::remove);
 
 		List<SearchQueryParameterError> errors = new ArrayList<>(getDuplicateStandardParameters(queryParameters));
+		errors.addAll(cursorErrors);
+		errors.addAll(totalErrors);
+		errors.addAll(summaryErrors);
 
 		parameters.keySet().stream().map(
 				name -> new SearchQueryParameterError(SearchQueryParameterErrorType.UNSUPPORTED_PARAMETER, name, null))
@@ -300,19 +424,51 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		return countQueryMain + (!filterQuery.isEmpty() ? (" WHERE " + filterQuery) : "");
 	}
 
+	@Override
+	public String getEstimateSql()
+	{
+		String estimateQueryMain = "EXPLAIN (FORMAT JSON) SELECT 1 FROM current_" + resourceTable;
+
+		return estimateQueryMain + (!filterQuery.isEmpty() ? (" WHERE " + filterQuery) : "");
+	}
+
 	@Override
 	public String getSearchSql()
 	{
 		String searchQueryMain = "SELECT " + resourceColumn + includeSql + revIncludeSql + " FROM current_"
 				+ resourceTable;
 
-		return searchQueryMain + (!filterQuery.isEmpty() ? (" WHERE " + filterQuery) : "") + sortSql
+		String searchFilterQuery = Stream.of(filterQuery, cursorSql).filter(s -> !s.isEmpty())
+				.collect(Collectors.joining(" AND "));
+
+		return searchQueryMain + (!searchFilterQuery.isEmpty() ? (" WHERE " + searchFilterQuery) : "") + sortSql
 				+ pageAndCount.getSql();
 	}
 
 	@Override
 	public void modifyStatement(PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
+	{
+		doModifyStatement(statement, arrayCreator);
+	}
+
+	@Override
+	public void modifySearchStatement(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
+	{
+		int index = doModifyStatement(statement, arrayCreator);
+
+		if (!cursorSql.isEmpty())
+		{
+			PageCursor cursor = pageAndCount.getCursor().get();
+			statement.setString(++index, cursor.getLastUpdated());
+			statement.setString(++index, cursor.getLastUpdated());
+			statement.setString(++index, cursor.getId().toString());
+		}
+	}
+
+	private int doModifyStatement(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
 		try
 		{
@@ -332,6 +488,8 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			for (SearchQueryParameter<?> q : filtered)
 				for (int i = 0; i < q.getSqlParameterCount(); i++)
 					q.modifyStatement(++index, i + 1, statement, arrayCreator);
+
+			return index;
 		}
 		catch (SQLException e)
 		{
@@ -346,6 +504,18 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		return pageAndCount;
 	}
 
+	@Override
+	public TotalMode getTotalMode()
+	{
+		return totalMode;
+	}
+
+	@Override
+	public boolean isSummary()
+	{
+		return summary;
+	}
+
 	public UriBuilder configureBundleUri(UriBuilder bundleUri)
 	{
 		Objects.requireNonNull(bundleUri, "bundleUri");
@@ -358,6 +528,10 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			bundleUri.replaceQueryParam(PARAMETER_INCLUDE, includeParameters());
 		if (!revIncludeParameterFactories.isEmpty())
 			bundleUri.replaceQueryParam(PARAMETER_REVINCLUDE, revIncludeParameters());
+		if (!TotalMode.ACCURATE.equals(totalMode))
+			bundleUri.replaceQueryParam(PARAMETER_TOTAL, totalMode.getParameterValue());
+		if (summary)
+			bundleUri.replaceQueryParam(PARAMETER_SUMMARY, "true");
 
 		return bundleUri;
 	}
@@ -379,6 +553,14 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 				.toArray();
 	}
 
+	/**
+	 * @return <code>true</code> if include or revinclude resources are selected by this query
+	 */
+	public boolean hasIncludeParameters()
+	{
+		return !includeParameters.isEmpty() || !revIncludeParameters.isEmpty();
+	}
+
 	public Class<R> getResourceType()
 	{
 		return resourceType;
@@ -414,6 +596,13 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		}
 	}
 
+	@Override
+	public boolean isReferenceResolutionRequired()
+	{
+		return searchParameters.stream().filter(SearchQueryParameter::isDefined)
+				.anyMatch(SearchQueryParameter::isReferenceResolutionRequired);
+	}
+
 	@Override
 	public boolean matches(Resource resource)
 	{
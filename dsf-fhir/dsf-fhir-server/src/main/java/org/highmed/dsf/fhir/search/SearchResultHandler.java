@@ -0,0 +1,36 @@
+package org.highmed.dsf.fhir.search;
+
+import java.io.IOException;
+
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Receives search results while they are read from the database, used to write search results without keeping the
+ * complete result in memory.
+ *
+ * @param <R>
+ *            the resource type
+ */
+public interface SearchResultHandler<R extends Resource>
+{
+	/**
+	 * Called once before the first resource is handled
+	 *
+	 * @param total
+	 *            total number of matching resources, an estimate if the given total mode is {@link TotalMode#ESTIMATE},
+	 *            undefined if {@link TotalMode#NONE}
+	 * @param totalMode
+	 *            not <code>null</code>
+	 * @throws IOException
+	 *             if the result can not be written
+	 */
+	void handleTotal(int total, TotalMode totalMode) throws IOException;
+
+	/**
+	 * @param resource
+	 *            not <code>null</code>
+	 * @throws IOException
+	 *             if the result can not be written
+	 */
+	void handleResource(R resource) throws IOException;
+}
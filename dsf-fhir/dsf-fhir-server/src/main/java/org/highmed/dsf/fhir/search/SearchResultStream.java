@@ -0,0 +1,50 @@
+package org.highmed.dsf.fhir.search;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Search result read from the database while it is handled. The search query has been executed and the first row
+ * fetched when a stream is returned, a database connection is held until {@link #close()} is called.
+ *
+ * @param <R>
+ *            the resource type
+ */
+public interface SearchResultStream<R extends Resource> extends AutoCloseable
+{
+	/**
+	 * @return total number of matching resources, an estimate if {@link #getTotalMode()} is {@link TotalMode#ESTIMATE},
+	 *         undefined if {@link TotalMode#NONE}
+	 */
+	int getTotal();
+
+	TotalMode getTotalMode();
+
+	PageAndCount getPageAndCount();
+
+	/**
+	 * @return number of matching resources on the current page, calculated from the total if {@link #getTotalMode()} is
+	 *         {@link TotalMode#ACCURATE}, otherwise the resources of the current page are read before the stream is
+	 *         returned
+	 */
+	int getPageSize();
+
+	/**
+	 * Calls {@link SearchResultHandler#handleTotal(int, TotalMode)} and
+	 * {@link SearchResultHandler#handleResource(Resource)} for every resource on the current page, can only be called
+	 * once
+	 *
+	 * @param handler
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IOException
+	 *             if the handler is not able to write the result
+	 */
+	void handle(SearchResultHandler<R> handler) throws SQLException, IOException;
+
+	@Override
+	void close() throws SQLException;
+}
@@ -0,0 +1,49 @@
+package org.highmed.dsf.fhir.search;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Values of the <code>_total</code> search parameter, specifies how {@link PartialResult#getTotal()} and
+ * <code>Bundle.total</code> are calculated
+ */
+public enum TotalMode
+{
+	/**
+	 * No total calculated, the separate count query is not executed
+	 */
+	NONE("none"),
+
+	/**
+	 * Total estimated from the query planners row estimate, the separate count query is not executed
+	 */
+	ESTIMATE("estimate"),
+
+	/**
+	 * Total calculated via a separate count query
+	 */
+	ACCURATE("accurate");
+
+	private final String parameterValue;
+
+	private TotalMode(String parameterValue)
+	{
+		this.parameterValue = parameterValue;
+	}
+
+	public String getParameterValue()
+	{
+		return parameterValue;
+	}
+
+	/**
+	 * @param parameterValue
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the given value is <code>null</code> or not a valid <code>_total</code>
+	 *         parameter value
+	 */
+	public static Optional<TotalMode> fromParameterValue(String parameterValue)
+	{
+		return Stream.of(values()).filter(m -> m.getParameterValue().equals(parameterValue)).findFirst();
+	}
+}
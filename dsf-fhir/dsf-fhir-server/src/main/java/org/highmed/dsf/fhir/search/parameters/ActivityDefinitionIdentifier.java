@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/ActivityDefinition-identifier", type = SearchParamType.TOKEN, documentation = "External identifier for the activity definition")
 public class ActivityDefinitionIdentifier extends AbstractIdentifierParameter<ActivityDefinition>
 {
-	public static final String RESOURCE_COLUMN = "activity_definition";
+	public static final String RESOURCE_TABLE = "activity_definitions";
+	public static final String RESOURCE_ID_COLUMN = "activity_definition_id";
 
 	public ActivityDefinitionIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
@@ -17,6 +17,8 @@ import org.hl7.fhir.r4.model.Resource;
 public class BundleIdentifier extends AbstractTokenParameter<Bundle>
 {
 	public static final String PARAMETER_NAME = "identifier";
+	public static final String RESOURCE_TABLE = "bundles";
+	public static final String RESOURCE_ID_COLUMN = "bundle_id";
 
 	public BundleIdentifier()
 	{
@@ -26,48 +28,20 @@ public class BundleIdentifier extends AbstractTokenParameter<Bundle>
 	@Override
 	public String getFilterQuery()
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-			case CODE_AND_SYSTEM:
-			case SYSTEM:
-				return "bundle->'identifier' " + (valueAndType.negated ? "<>" : "=") + " ?::jsonb";
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				if (valueAndType.negated)
-					return "bundle->'identifier'->>'value' <> ? OR (bundle->'identifier' ?? 'system')";
-				else
-					return "bundle->'identifier'->>'value' = ? AND NOT (bundle->'identifier' ?? 'system')";
-			default:
-				return "";
-		}
+		return getSearchValuesFilterQuery(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
 	public int getSqlParameterCount()
 	{
-		return 1;
+		return getSearchValuesSqlParameterCount();
 	}
 
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				statement.setString(parameterIndex, "{\"value\": \"" + valueAndType.codeValue + "\"}");
-				return;
-			case CODE_AND_SYSTEM:
-				statement.setString(parameterIndex, "{\"value\": \"" + valueAndType.codeValue + "\", \"system\": \""
-						+ valueAndType.systemValue + "\"}");
-				return;
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-			case SYSTEM:
-				statement.setString(parameterIndex, "{\"system\": \"" + valueAndType.systemValue + "\"}");
-				return;
-		}
+		modifySearchValuesStatement(parameterIndex, subqueryParameterIndex, statement);
 	}
 
 	private boolean identifierMatches(Identifier identifier)
@@ -81,8 +55,7 @@ public class BundleIdentifier extends AbstractTokenParameter<Bundle>
 	@Override
 	protected String getSortSql(String sortDirectionWithSpacePrefix)
 	{
-		return "(bundle->'identifier'->>'system')::text || (bundle->'identifier'->>'value')::text"
-				+ sortDirectionWithSpacePrefix;
+		return getSearchValuesSortSql(RESOURCE_TABLE, RESOURCE_ID_COLUMN, sortDirectionWithSpacePrefix);
 	}
 
 	@Override
@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/conformance-identifier", type = SearchParamType.TOKEN, documentation = "External identifier for the code system")
 public class CodeSystemIdentifier extends AbstractIdentifierParameter<CodeSystem>
 {
-	public static final String RESOURCE_COLUMN = "code_system";
+	public static final String RESOURCE_TABLE = "code_systems";
+	public static final String RESOURCE_ID_COLUMN = "code_system_id";
 
 	public CodeSystemIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
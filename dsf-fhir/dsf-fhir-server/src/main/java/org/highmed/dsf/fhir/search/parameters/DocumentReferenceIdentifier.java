@@ -19,7 +19,8 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/clinical-identifier", type = SearchParamType.TOKEN, documentation = "Identifies this document reference across multiple systems")
 public class DocumentReferenceIdentifier extends AbstractTokenParameter<DocumentReference>
 {
-	public static final String RESOURCE_COLUMN = "document_reference";
+	public static final String RESOURCE_TABLE = "document_references";
+	public static final String RESOURCE_ID_COLUMN = "document_reference_id";
 	public static final String PARAMETER_NAME = "identifier";
 
 	public DocumentReferenceIdentifier()
@@ -30,86 +31,20 @@ public class DocumentReferenceIdentifier extends AbstractTokenParameter<Document
 	@Override
 	public String getFilterQuery()
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				if (valueAndType.negated)
-					return "NOT (document_reference->'identifier' @> ?::jsonb OR document_reference->'masterIdentifier'->>'value' = ?)";
-				else
-					return "(document_reference->'identifier' @> ?::jsonb OR document_reference->'masterIdentifier'->>'value' = ?)";
-			case CODE_AND_SYSTEM:
-				if (valueAndType.negated)
-					return "NOT (document_reference->'identifier' @> ?::jsonb OR (document_reference->'masterIdentifier'->>'value' = ? AND document_reference->'masterIdentifier'->>'system' = ?))";
-				else
-					return "(document_reference->'identifier' @> ?::jsonb OR (document_reference->'masterIdentifier'->>'value' = ? AND document_reference->'masterIdentifier'->>'system' = ?))";
-			case SYSTEM:
-				if (valueAndType.negated)
-					return "NOT (document_reference->'identifier' @> ?::jsonb OR document_reference->'masterIdentifier'->>'system' = ?)";
-				else
-					return "(document_reference->'identifier' @> ?::jsonb OR document_reference->'masterIdentifier'->>'system' = ?)";
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				if (valueAndType.negated)
-					return "(SELECT count(*) FROM ("
-							+ "SELECT identifier FROM jsonb_array_elements(document_reference->'identifier') AS identifier UNION SELECT document_reference->'masterIdentifier') AS document_reference_identifiers "
-							+ "WHERE identifier->>'value' <> ? OR (identifier ?? 'system')" + ") > 0";
-				else
-					return "(SELECT count(*) FROM ("
-							+ "SELECT identifier FROM jsonb_array_elements(document_reference->'identifier') AS identifier UNION SELECT document_reference->'masterIdentifier') AS document_reference_identifiers "
-							+ "WHERE identifier->>'value' = ? AND NOT (identifier ?? 'system')" + ") > 0";
-			default:
-				return "";
-		}
+		return getSearchValuesFilterQuery(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
 	public int getSqlParameterCount()
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				return 2;
-			case CODE_AND_SYSTEM:
-				return 3;
-			case SYSTEM:
-				return 2;
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				return 1;
-			default:
-				throw notDefined();
-		}
+		return getSearchValuesSqlParameterCount();
 	}
 
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				if (subqueryParameterIndex == 1)
-					statement.setString(parameterIndex, "[{\"value\": \"" + valueAndType.codeValue + "\"}]");
-				else if (subqueryParameterIndex == 2)
-					statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-			case CODE_AND_SYSTEM:
-				if (subqueryParameterIndex == 1)
-					statement.setString(parameterIndex, "[{\"value\": \"" + valueAndType.codeValue
-							+ "\", \"system\": \"" + valueAndType.systemValue + "\"}]");
-				else if (subqueryParameterIndex == 2)
-					statement.setString(parameterIndex, valueAndType.codeValue);
-				else if (subqueryParameterIndex == 3)
-					statement.setString(parameterIndex, valueAndType.systemValue);
-				return;
-			case SYSTEM:
-				if (subqueryParameterIndex == 1)
-					statement.setString(parameterIndex, "[{\"system\": \"" + valueAndType.systemValue + "\"}]");
-				else if (subqueryParameterIndex == 2)
-					statement.setString(parameterIndex, valueAndType.systemValue);
-				return;
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-		}
+		modifySearchValuesStatement(parameterIndex, subqueryParameterIndex, statement);
 	}
 
 	@Override
@@ -156,8 +91,6 @@ public class DocumentReferenceIdentifier extends AbstractTokenParameter<Document
 	@Override
 	protected String getSortSql(String sortDirectionWithSpacePrefix)
 	{
-		return "(SELECT string_agg((identifier->>'system')::text || (identifier->>'value')::text, ' ') FROM (SELECT identifier FROM jsonb_array_elements(document_reference->'identifier') identifier "
-				+ "UNION SELECT document_reference->'masterIdentifier') AS document_reference_identifier)"
-				+ sortDirectionWithSpacePrefix;
+		return getSearchValuesSortSql(RESOURCE_TABLE, RESOURCE_ID_COLUMN, sortDirectionWithSpacePrefix);
 	}
 }
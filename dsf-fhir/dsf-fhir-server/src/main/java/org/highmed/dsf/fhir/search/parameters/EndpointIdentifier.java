@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/Endpoint-identifier", type = SearchParamType.TOKEN, documentation = "Identifies this endpoint across multiple systems")
 public class EndpointIdentifier extends AbstractIdentifierParameter<Endpoint>
 {
-	public static final String RESOURCE_COLUMN = "endpoint";
+	public static final String RESOURCE_TABLE = "endpoints";
+	public static final String RESOURCE_ID_COLUMN = "endpoint_id";
 
 	public EndpointIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
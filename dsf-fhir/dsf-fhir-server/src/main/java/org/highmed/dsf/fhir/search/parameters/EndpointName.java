@@ -16,6 +16,8 @@ import org.hl7.fhir.r4.model.Resource;
 public class EndpointName extends AbstractStringParameter<Endpoint>
 {
 	public static final String PARAMETER_NAME = "name";
+	public static final String RESOURCE_TABLE = "endpoints";
+	public static final String RESOURCE_ID_COLUMN = "endpoint_id";
 
 	public EndpointName()
 	{
@@ -25,16 +27,7 @@ public class EndpointName extends AbstractStringParameter<Endpoint>
 	@Override
 	public String getFilterQuery()
 	{
-		switch (valueAndType.type)
-		{
-			case STARTS_WITH:
-			case CONTAINS:
-				return "lower(endpoint->>'name') LIKE ?";
-			case EXACT:
-				return "endpoint->>'name' = ?";
-			default:
-				return "";
-		}
+		return getSearchValuesFilterQuery(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
@@ -47,18 +40,7 @@ public class EndpointName extends AbstractStringParameter<Endpoint>
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case STARTS_WITH:
-				statement.setString(parameterIndex, valueAndType.value.toLowerCase() + "%");
-				return;
-			case CONTAINS:
-				statement.setString(parameterIndex, "%" + valueAndType.value.toLowerCase() + "%");
-				return;
-			case EXACT:
-				statement.setString(parameterIndex, valueAndType.value);
-				return;
-		}
+		modifySearchValuesStatement(parameterIndex, statement);
 	}
 
 	@Override
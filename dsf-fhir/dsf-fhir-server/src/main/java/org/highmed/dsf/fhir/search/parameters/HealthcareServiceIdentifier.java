@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/HealthcareService-identifier", type = SearchParamType.TOKEN, documentation = "External identifiers for this item")
 public class HealthcareServiceIdentifier extends AbstractIdentifierParameter<HealthcareService>
 {
-	public static final String RESOURCE_COLUMN = "healthcare_service";
+	public static final String RESOURCE_TABLE = "healthcare_services";
+	public static final String RESOURCE_ID_COLUMN = "healthcare_service_id";
 
 	public HealthcareServiceIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/Library-identifier", type = SearchParamType.TOKEN, documentation = "External identifier for the library")
 public class LibraryIdentifier extends AbstractIdentifierParameter<Library>
 {
-	public static final String RESOURCE_COLUMN = "library";
+	public static final String RESOURCE_TABLE = "libraries";
+	public static final String RESOURCE_ID_COLUMN = "library_id";
 
 	public LibraryIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/Location-identifier", type = SearchParamType.TOKEN, documentation = "An identifier for the location")
 public class LocationIdentifier extends AbstractIdentifierParameter<Location>
 {
-	public static final String RESOURCE_COLUMN = "location";
+	public static final String RESOURCE_TABLE = "locations";
+	public static final String RESOURCE_ID_COLUMN = "location_id";
 
 	public LocationIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/Measure-identifier", type = SearchParamType.TOKEN, documentation = "External identifier for the measure")
 public class MeasureIdentifier extends AbstractIdentifierParameter<Measure>
 {
-	public static final String RESOURCE_COLUMN = "measure";
+	public static final String RESOURCE_TABLE = "measures";
+	public static final String RESOURCE_ID_COLUMN = "measure_id";
 
 	public MeasureIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
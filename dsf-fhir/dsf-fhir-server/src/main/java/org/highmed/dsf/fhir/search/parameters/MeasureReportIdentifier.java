@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/MeasureReport-identifier", type = SearchParamType.TOKEN, documentation = "External identifier of the measure report to be returned")
 public class MeasureReportIdentifier extends AbstractIdentifierParameter<MeasureReport>
 {
-	public static final String RESOURCE_COLUMN = "measure_report";
+	public static final String RESOURCE_TABLE = "measure_reports";
+	public static final String RESOURCE_ID_COLUMN = "measure_report_id";
 
 	public MeasureReportIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
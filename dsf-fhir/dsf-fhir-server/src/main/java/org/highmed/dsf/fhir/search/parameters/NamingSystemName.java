@@ -17,6 +17,8 @@ import org.hl7.fhir.r4.model.Resource;
 public class NamingSystemName extends AbstractStringParameter<NamingSystem>
 {
 	public static final String PARAMETER_NAME = "name";
+	public static final String RESOURCE_TABLE = "naming_systems";
+	public static final String RESOURCE_ID_COLUMN = "naming_system_id";
 
 	public NamingSystemName()
 	{
@@ -26,16 +28,7 @@ public class NamingSystemName extends AbstractStringParameter<NamingSystem>
 	@Override
 	public String getFilterQuery()
 	{
-		switch (valueAndType.type)
-		{
-			case STARTS_WITH:
-			case CONTAINS:
-				return "lower(naming_system->>'name') LIKE ?";
-			case EXACT:
-				return "naming_system->>'name' = ?";
-			default:
-				return "";
-		}
+		return getSearchValuesFilterQuery(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
@@ -48,18 +41,7 @@ public class NamingSystemName extends AbstractStringParameter<NamingSystem>
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case STARTS_WITH:
-				statement.setString(parameterIndex, valueAndType.value.toLowerCase() + "%");
-				return;
-			case CONTAINS:
-				statement.setString(parameterIndex, "%" + valueAndType.value.toLowerCase() + "%");
-				return;
-			case EXACT:
-				statement.setString(parameterIndex, valueAndType.value);
-				return;
-		}
+		modifySearchValuesStatement(parameterIndex, statement);
 	}
 
 	@Override
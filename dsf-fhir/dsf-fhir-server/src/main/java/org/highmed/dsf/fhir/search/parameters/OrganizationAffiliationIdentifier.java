@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/OrganizationAffiliation-identifier", type = SearchParamType.TOKEN, documentation = "An organization affiliation's Identifier")
 public class OrganizationAffiliationIdentifier extends AbstractIdentifierParameter<OrganizationAffiliation>
 {
-	public static final String RESOURCE_COLUMN = "organization_affiliation";
+	public static final String RESOURCE_TABLE = "organization_affiliations";
+	public static final String RESOURCE_ID_COLUMN = "organization_affiliation_id";
 
 	public OrganizationAffiliationIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
@@ -11,60 +11,39 @@ import org.highmed.dsf.fhir.search.parameters.basic.AbstractStringParameter;
 import org.hl7.fhir.r4.model.Enumerations.SearchParamType;
 import org.hl7.fhir.r4.model.Organization;
 import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StringType;
 
 @SearchParameterDefinition(name = OrganizationName.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/Organization-name", type = SearchParamType.STRING, documentation = "A portion of the organization's name or alias")
 public class OrganizationName extends AbstractStringParameter<Organization>
 {
 	public static final String PARAMETER_NAME = "name";
+	public static final String RESOURCE_TABLE = "organizations";
+	public static final String RESOURCE_ID_COLUMN = "organization_id";
 
 	public OrganizationName()
 	{
 		super(PARAMETER_NAME);
 	}
 
-	// FIXME property alias is a list
 	@Override
 	public String getFilterQuery()
 	{
-		switch (valueAndType.type)
-		{
-			case STARTS_WITH:
-			case CONTAINS:
-				return "(lower(organization->>'name') LIKE ? OR lower(organization->>'alias') LIKE ?)";
-			case EXACT:
-				return "(organization->>'name' = ? OR organization->>'alias' = ?)";
-			default:
-				return "";
-		}
+		return getSearchValuesFilterQuery(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
 	public int getSqlParameterCount()
 	{
-		return 2;
+		return 1;
 	}
 
-	// FIXME property alias is a list
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		// will be called twice, once with subqueryParameterIndex = 1 and once with subqueryParameterIndex = 2
-		switch (valueAndType.type)
-		{
-			case STARTS_WITH:
-				statement.setString(parameterIndex, valueAndType.value.toLowerCase() + "%");
-				return;
-			case CONTAINS:
-				statement.setString(parameterIndex, "%" + valueAndType.value.toLowerCase() + "%");
-				return;
-			case EXACT:
-				statement.setString(parameterIndex, valueAndType.value);
-				return;
-		}
+		modifySearchValuesStatement(parameterIndex, statement);
 	}
 
-	// FIXME match against aliases
 	@Override
 	public boolean matches(Resource resource)
 	{
@@ -76,20 +55,28 @@ public class OrganizationName extends AbstractStringParameter<Organization>
 
 		Organization o = (Organization) resource;
 
+		// same as the filter query, aliases stored as name values in the search_values table
+		return matches(o.getName()) || o.getAlias().stream().map(StringType::getValue).anyMatch(this::matches);
+	}
+
+	private boolean matches(String name)
+	{
+		if (name == null)
+			return false;
+
 		switch (valueAndType.type)
 		{
 			case STARTS_WITH:
-				return o.getName() != null && o.getName().toLowerCase().startsWith(valueAndType.value.toLowerCase());
+				return name.toLowerCase().startsWith(valueAndType.value.toLowerCase());
 			case CONTAINS:
-				return o.getName() != null && o.getName().toLowerCase().contains(valueAndType.value.toLowerCase());
+				return name.toLowerCase().contains(valueAndType.value.toLowerCase());
 			case EXACT:
-				return Objects.equals(o.getName(), valueAndType.value);
+				return Objects.equals(name, valueAndType.value);
 			default:
 				throw notDefined();
 		}
 	}
 
-	// FIXME property alias is a list
 	@Override
 	protected String getSortSql(String sortDirectionWithSpacePrefix)
 	{
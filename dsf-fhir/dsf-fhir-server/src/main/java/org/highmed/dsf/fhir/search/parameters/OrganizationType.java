@@ -17,7 +17,8 @@ import org.hl7.fhir.r4.model.Resource;
 public class OrganizationType extends AbstractTokenParameter<Organization>
 {
 	public static final String PARAMETER_NAME = "type";
-	public static final String RESOURCE_COLUMN = "organization";
+	public static final String RESOURCE_TABLE = "organizations";
+	public static final String RESOURCE_ID_COLUMN = "organization_id";
 
 	public OrganizationType()
 	{
@@ -27,64 +28,26 @@ public class OrganizationType extends AbstractTokenParameter<Organization>
 	@Override
 	public String getFilterQuery()
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-			case CODE_AND_SYSTEM:
-			case SYSTEM:
-				if (valueAndType.negated)
-					return "NOT ((SELECT jsonb_agg(coding) FROM jsonb_array_elements(" + RESOURCE_COLUMN
-							+ "->'type') AS type, jsonb_array_elements(type->'coding') AS coding) @> ?::jsonb)";
-				else
-					return "(SELECT jsonb_agg(coding) FROM jsonb_array_elements(" + RESOURCE_COLUMN
-							+ "->'type') AS type, jsonb_array_elements(type->'coding') AS coding) @> ?::jsonb";
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				if (valueAndType.negated)
-					return "(SELECT COUNT(*) FROM jsonb_array_elements(" + RESOURCE_COLUMN
-							+ "->'type') AS type, jsonb_array_elements(type->'coding') AS coding "
-							+ "WHERE coding->>'code' <> ? OR (coding ?? 'system')) > 0";
-				else
-					return "(SELECT COUNT(*) FROM jsonb_array_elements(" + RESOURCE_COLUMN
-							+ "->'type') AS type, jsonb_array_elements(type->'coding') AS coding "
-							+ "WHERE coding->>'code' = ? AND NOT (coding ?? 'system')) > 0";
-			default:
-				return "";
-		}
+		return getSearchValuesFilterQuery(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
 	public int getSqlParameterCount()
 	{
-		return 1;
+		return getSearchValuesSqlParameterCount();
 	}
 
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				statement.setString(parameterIndex, "[{\"code\": \"" + valueAndType.codeValue + "\"}]");
-				return;
-			case CODE_AND_SYSTEM:
-				statement.setString(parameterIndex, "[{\"code\": \"" + valueAndType.codeValue + "\", \"system\": \""
-						+ valueAndType.systemValue + "\"}]");
-				return;
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-			case SYSTEM:
-				statement.setString(parameterIndex, "[{\"system\": \"" + valueAndType.systemValue + "\"}]");
-				return;
-		}
+		modifySearchValuesStatement(parameterIndex, subqueryParameterIndex, statement);
 	}
 
 	@Override
 	protected String getSortSql(String sortDirectionWithSpacePrefix)
 	{
-		return "(SELECT string_agg((coding->>'system')::text || (coding->>'code')::text, ' ') FROM jsonb_array_elements("
-				+ RESOURCE_COLUMN + "->'type'->'coding') coding)" + sortDirectionWithSpacePrefix;
+		return getSearchValuesSortSql(RESOURCE_TABLE, RESOURCE_ID_COLUMN, sortDirectionWithSpacePrefix);
 	}
 
 	@Override
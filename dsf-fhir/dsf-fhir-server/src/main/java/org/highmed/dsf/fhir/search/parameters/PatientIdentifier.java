@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/Patient-identifier", type = SearchParamType.TOKEN, documentation = "A patient identifier")
 public class PatientIdentifier extends AbstractIdentifierParameter<Patient>
 {
-	public static final String RESOURCE_COLUMN = "patient";
+	public static final String RESOURCE_TABLE = "patients";
+	public static final String RESOURCE_ID_COLUMN = "patient_id";
 
 	public PatientIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
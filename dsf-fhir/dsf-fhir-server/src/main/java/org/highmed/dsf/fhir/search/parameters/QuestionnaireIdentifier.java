@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/Questionnaire-identifier", type = SearchParamType.TOKEN, documentation = "External identifier for the questionnaire")
 public class QuestionnaireIdentifier extends AbstractIdentifierParameter<Questionnaire>
 {
-	public static final String RESOURCE_COLUMN = "questionnaire";
+	public static final String RESOURCE_TABLE = "questionnaires";
+	public static final String RESOURCE_ID_COLUMN = "questionnaire_id";
 
 	public QuestionnaireIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
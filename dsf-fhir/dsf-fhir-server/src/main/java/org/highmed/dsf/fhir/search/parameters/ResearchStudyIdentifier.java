@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Resource;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/ResearchStudy-identifier", type = SearchParamType.TOKEN, documentation = "Business Identifier for study")
 public class ResearchStudyIdentifier extends AbstractIdentifierParameter<ResearchStudy>
 {
-	public static final String RESOURCE_COLUMN = "research_study";
+	public static final String RESOURCE_TABLE = "research_studies";
+	public static final String RESOURCE_ID_COLUMN = "research_study_id";
 
 	public ResearchStudyIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
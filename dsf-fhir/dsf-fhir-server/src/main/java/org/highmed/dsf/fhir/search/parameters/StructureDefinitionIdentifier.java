@@ -9,16 +9,17 @@ import org.hl7.fhir.r4.model.StructureDefinition;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/conformance-identifier", type = SearchParamType.TOKEN, documentation = "External identifier for the structure definition")
 public class StructureDefinitionIdentifier extends AbstractIdentifierParameter<StructureDefinition>
 {
-	public static final String RESOURCE_COLUMN = "structure_definition";
+	public static final String RESOURCE_TABLE = "structure_definitions";
+	public static final String RESOURCE_ID_COLUMN = "structure_definition_id";
 
 	public StructureDefinitionIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
-	public StructureDefinitionIdentifier(String resourceColumn)
+	public StructureDefinitionIdentifier(String resourceTable, String resourceIdColumn)
 	{
-		super(resourceColumn);
+		super(resourceTable, resourceIdColumn);
 	}
 
 	@Override
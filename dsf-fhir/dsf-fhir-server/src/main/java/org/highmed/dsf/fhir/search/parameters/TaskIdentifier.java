@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.Task;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/Task-identifier", type = SearchParamType.TOKEN, documentation = "Search for a task instance by its business identifier")
 public class TaskIdentifier extends AbstractIdentifierParameter<Task>
 {
-	public static final String RESOURCE_COLUMN = "task";
+	public static final String RESOURCE_TABLE = "tasks";
+	public static final String RESOURCE_ID_COLUMN = "task_id";
 
 	public TaskIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
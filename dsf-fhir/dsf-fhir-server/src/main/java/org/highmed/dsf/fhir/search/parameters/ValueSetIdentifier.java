@@ -9,11 +9,12 @@ import org.hl7.fhir.r4.model.ValueSet;
 @SearchParameterDefinition(name = AbstractIdentifierParameter.PARAMETER_NAME, definition = "http://hl7.org/fhir/SearchParameter/conformance-identifier", type = SearchParamType.TOKEN, documentation = "External identifier for the value set")
 public class ValueSetIdentifier extends AbstractIdentifierParameter<ValueSet>
 {
-	public static final String RESOURCE_COLUMN = "value_set";
+	public static final String RESOURCE_TABLE = "value_sets";
+	public static final String RESOURCE_ID_COLUMN = "value_set_id";
 
 	public ValueSetIdentifier()
 	{
-		super(RESOURCE_COLUMN);
+		super(RESOURCE_TABLE, RESOURCE_ID_COLUMN);
 	}
 
 	@Override
@@ -14,65 +14,34 @@ public abstract class AbstractIdentifierParameter<R extends Resource> extends Ab
 {
 	public static final String PARAMETER_NAME = "identifier";
 
-	private final String resourceColumn;
+	private final String resourceTable;
+	private final String resourceIdColumn;
 
-	public AbstractIdentifierParameter(String resourceColumn)
+	public AbstractIdentifierParameter(String resourceTable, String resourceIdColumn)
 	{
 		super(PARAMETER_NAME);
 
-		this.resourceColumn = resourceColumn;
+		this.resourceTable = resourceTable;
+		this.resourceIdColumn = resourceIdColumn;
 	}
 
 	@Override
 	public String getFilterQuery()
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-			case CODE_AND_SYSTEM:
-			case SYSTEM:
-				if (valueAndType.negated)
-					return "NOT (" + resourceColumn + "->'identifier' @> ?::jsonb)";
-				else
-					return resourceColumn + "->'identifier' @> ?::jsonb";
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				if (valueAndType.negated)
-					return "(SELECT count(*) FROM jsonb_array_elements(" + resourceColumn
-							+ "->'identifier') identifier WHERE identifier->>'value' <> ? OR (identifier ?? 'system')) > 0";
-				else
-					return "(SELECT count(*) FROM jsonb_array_elements(" + resourceColumn
-							+ "->'identifier') identifier WHERE identifier->>'value' = ? AND NOT (identifier ?? 'system')) > 0";
-			default:
-				return "";
-		}
+		return getSearchValuesFilterQuery(resourceTable, resourceIdColumn);
 	}
 
 	@Override
 	public int getSqlParameterCount()
 	{
-		return 1;
+		return getSearchValuesSqlParameterCount();
 	}
 
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				statement.setString(parameterIndex, "[{\"value\": \"" + valueAndType.codeValue + "\"}]");
-				return;
-			case CODE_AND_SYSTEM:
-				statement.setString(parameterIndex, "[{\"value\": \"" + valueAndType.codeValue + "\", \"system\": \""
-						+ valueAndType.systemValue + "\"}]");
-				return;
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-			case SYSTEM:
-				statement.setString(parameterIndex, "[{\"system\": \"" + valueAndType.systemValue + "\"}]");
-				return;
-		}
+		modifySearchValuesStatement(parameterIndex, subqueryParameterIndex, statement);
 	}
 
 	protected final boolean identifierMatches(List<Identifier> identifiers)
@@ -103,7 +72,6 @@ public abstract class AbstractIdentifierParameter<R extends Resource> extends Ab
 	@Override
 	protected String getSortSql(String sortDirectionWithSpacePrefix)
 	{
-		return "(SELECT string_agg((identifier->>'system')::text || (identifier->>'value')::text, ' ') FROM jsonb_array_elements("
-				+ resourceColumn + "->'identifier') identifier)" + sortDirectionWithSpacePrefix;
+		return getSearchValuesSortSql(resourceTable, resourceIdColumn, sortDirectionWithSpacePrefix);
 	}
 }
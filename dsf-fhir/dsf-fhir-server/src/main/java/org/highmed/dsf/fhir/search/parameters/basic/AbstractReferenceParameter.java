@@ -304,6 +304,12 @@ public abstract class AbstractReferenceParameter<R extends DomainResource> exten
 
 	protected abstract void doResolveReferencesForMatching(R resource, DaoProvider daoProvider) throws SQLException;
 
+	@Override
+	public boolean isReferenceResolutionRequired()
+	{
+		return true;
+	}
+
 	/**
 	 * Use this method to modify the include resources. This method can be used if the resources returned by the include
 	 * SQL are not complete and additional content needs to be retrieved from a not included column. For example the
@@ -1,5 +1,7 @@
 package org.highmed.dsf.fhir.search.parameters.basic;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -94,6 +96,47 @@ public abstract class AbstractStringParameter<R extends DomainResource> extends
 		return valueAndType != null;
 	}
 
+	/**
+	 * Filter using the <code>search_values</code> table, maintained by database triggers for the latest version of
+	 * every resource. Values are stored with the FHIR search parameter name, see
+	 * <code>db.search_values.changelog</code>. Requires one sql parameter.
+	 * <p>
+	 * Exact and starts with (default) searches use the btree indexes on <code>value</code> and
+	 * <code>lower(value) text_pattern_ops</code>. Contains searches (<code>lower(value) LIKE '%x%'</code>) can not use
+	 * these indexes and scan all values of the search parameter for the resource table. A trigram index would need the
+	 * pg_trgm extension, which is not available to the database users of the server.
+	 *
+	 * @param resourceTable
+	 *            not <code>null</code>, e.g. <code>organizations</code>
+	 * @param resourceIdColumn
+	 *            not <code>null</code>, e.g. <code>organization_id</code>
+	 * @return filter query
+	 * @see #modifySearchValuesStatement(int, PreparedStatement)
+	 */
+	protected final String getSearchValuesFilterQuery(String resourceTable, String resourceIdColumn)
+	{
+		return "(" + resourceIdColumn + ", version) IN (SELECT resource_id, version FROM search_values"
+				+ " WHERE resource_table = '" + resourceTable + "' AND parameter = '" + parameterName + "' AND "
+				+ (StringSearchType.EXACT.equals(valueAndType.type) ? "value = ?" : "lower(value) LIKE ?") + ")";
+	}
+
+	protected final void modifySearchValuesStatement(int parameterIndex, PreparedStatement statement)
+			throws SQLException
+	{
+		switch (valueAndType.type)
+		{
+			case STARTS_WITH:
+				statement.setString(parameterIndex, valueAndType.value.toLowerCase() + "%");
+				return;
+			case CONTAINS:
+				statement.setString(parameterIndex, "%" + valueAndType.value.toLowerCase() + "%");
+				return;
+			case EXACT:
+				statement.setString(parameterIndex, valueAndType.value);
+				return;
+		}
+	}
+
 	@Override
 	public void modifyBundleUri(UriBuilder bundleUri)
 	{
@@ -1,5 +1,7 @@
 package org.highmed.dsf.fhir.search.parameters.basic;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -81,10 +83,100 @@ public abstract class AbstractTokenParameter<R extends Resource> extends Abstrac
 		}
 	}
 
+	/**
+	 * Filter using the <code>search_values</code> table, maintained by database triggers for the latest version of
+	 * every resource. Values are stored with the FHIR search parameter name, see
+	 * <code>db.search_values.changelog</code>.
+	 *
+	 * @param resourceTable
+	 *            not <code>null</code>, e.g. <code>organizations</code>
+	 * @param resourceIdColumn
+	 *            not <code>null</code>, e.g. <code>organization_id</code>
+	 * @return filter query
+	 * @see #getSearchValuesSqlParameterCount()
+	 * @see #modifySearchValuesStatement(int, int, PreparedStatement)
+	 */
+	protected final String getSearchValuesFilterQuery(String resourceTable, String resourceIdColumn)
+	{
+		return "(" + resourceIdColumn + ", version) " + (valueAndType.negated ? "NOT IN" : "IN")
+				+ " (SELECT resource_id, version FROM search_values WHERE resource_table = '" + resourceTable
+				+ "' AND parameter = '" + parameterName + "' AND " + getSearchValuesCondition() + ")";
+	}
+
+	private String getSearchValuesCondition()
+	{
+		switch (valueAndType.type)
+		{
+			case CODE:
+				return "value = ?";
+			case CODE_AND_SYSTEM:
+				return "system = ? AND value = ?";
+			case CODE_AND_NO_SYSTEM_PROPERTY:
+				return "system IS NULL AND value = ?";
+			case SYSTEM:
+				return "system = ?";
+			default:
+				return "";
+		}
+	}
+
+	protected final int getSearchValuesSqlParameterCount()
+	{
+		return TokenSearchType.CODE_AND_SYSTEM.equals(valueAndType.type) ? 2 : 1;
+	}
+
+	protected final void modifySearchValuesStatement(int parameterIndex, int subqueryParameterIndex,
+			PreparedStatement statement) throws SQLException
+	{
+		switch (valueAndType.type)
+		{
+			case CODE:
+			case CODE_AND_NO_SYSTEM_PROPERTY:
+				statement.setString(parameterIndex, valueAndType.codeValue);
+				return;
+			case CODE_AND_SYSTEM:
+				// will be called twice, once with subqueryParameterIndex = 1 and once with subqueryParameterIndex = 2
+				statement.setString(parameterIndex,
+						subqueryParameterIndex == 1 ? valueAndType.systemValue : valueAndType.codeValue);
+				return;
+			case SYSTEM:
+				statement.setString(parameterIndex, valueAndType.systemValue);
+				return;
+		}
+	}
+
+	/**
+	 * @param resourceTable
+	 *            not <code>null</code>, e.g. <code>organizations</code>
+	 * @param resourceIdColumn
+	 *            not <code>null</code>, e.g. <code>organization_id</code>
+	 * @param sortDirectionWithSpacePrefix
+	 *            not <code>null</code>
+	 * @return sort sql using the <code>search_values</code> table, values concatenated in the order of the resource
+	 */
+	protected final String getSearchValuesSortSql(String resourceTable, String resourceIdColumn,
+			String sortDirectionWithSpacePrefix)
+	{
+		return "(SELECT string_agg(coalesce(system, '') || coalesce(value, ''), ' ' ORDER BY ordinal) FROM search_values"
+				+ " WHERE resource_table = '" + resourceTable + "' AND parameter = '" + parameterName
+				+ "' AND resource_id = current_" + resourceTable + "." + resourceIdColumn
+				+ " AND search_values.version = current_" + resourceTable + ".version)" + sortDirectionWithSpacePrefix;
+	}
+
+	/**
+	 * Negated searches match if no coding matches, same as the <code>NOT IN</code> filter query, resources without
+	 * codings match
+	 *
+	 * @param codes
+	 *            not <code>null</code>
+	 * @return <code>true</code> if the given codes match the search parameter
+	 */
 	protected boolean codingMatches(List<CodeableConcept> codes)
 	{
-		return codes.stream().flatMap(c -> c.getCoding().stream())
-				.anyMatch(c -> valueAndType.negated ? !codingMatches(valueAndType, c) : codingMatches(valueAndType, c));
+		if (valueAndType.negated)
+			return codes.stream().flatMap(c -> c.getCoding().stream()).noneMatch(c -> codingMatches(valueAndType, c));
+		else
+			return codes.stream().flatMap(c -> c.getCoding().stream()).anyMatch(c -> codingMatches(valueAndType, c));
 	}
 
 	public static boolean codingMatches(TokenValueAndSearchType valueAndType, Coding coding)
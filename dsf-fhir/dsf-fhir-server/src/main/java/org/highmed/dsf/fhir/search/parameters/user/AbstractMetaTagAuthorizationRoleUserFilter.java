@@ -17,14 +17,11 @@ abstract class AbstractMetaTagAuthorizationRoleUserFilter extends AbstractUserFi
 	@Override
 	public String getFilterQuery()
 	{
-		if (UserRole.LOCAL.equals(user.getRole()))
-			return "(SELECT count(*) FROM read_access WHERE read_access.resource_id = " + resourceTable + "."
-					+ resourceIdColumn + " AND read_access.resource_version = " + resourceTable + ".version"
-					+ " AND (read_access.organization_id = ? OR read_access.access_type = 'ALL' OR read_access.access_type = 'LOCAL')) > 0";
-		else
-			return "(SELECT count(*) FROM read_access WHERE read_access.resource_id = " + resourceTable + "."
-					+ resourceIdColumn + " AND read_access.resource_version = " + resourceTable + ".version"
-					+ " AND (read_access.organization_id = ? OR read_access.access_type = 'ALL')) > 0";
+		return "EXISTS (SELECT 1 FROM read_access WHERE read_access.resource_id = " + resourceTable + "."
+				+ resourceIdColumn + " AND read_access.resource_version = " + resourceTable + ".version AND ("
+				+ (UserRole.LOCAL.equals(user.getRole()) ? "read_access.access_type IN ('ALL', 'LOCAL')"
+						: "read_access.access_type = 'ALL'")
+				+ " OR read_access.organization_id = ?))";
 	}
 
 	@Override
@@ -1,7 +1,9 @@
 package org.highmed.dsf.fhir.service;
 
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 import org.highmed.dsf.fhir.authentication.User;
 import org.hl7.fhir.r4.model.OperationOutcome;
@@ -75,6 +77,41 @@ public interface ReferenceResolver
 	Optional<OperationOutcome> checkLiteralInternalReference(Resource resource, ResourceReference resourceReference,
 			Connection connection, Integer bundleIndex) throws IllegalArgumentException;
 
+	/**
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param resourceReference
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param bundleIndex
+	 *            may be <code>null</code>
+	 * @param existingTargets
+	 *            not <code>null</code>, reference targets known to exist, the database is only queried for targets not
+	 *            in this set
+	 * @return {@link Optional#empty()} if the reference could be resolved
+	 * @throws IllegalArgumentException
+	 *             if the reference is not of type {@link ResourceReference.ReferenceType#LITERAL_INTERNAL}
+	 * @see ResourceReference#getType(String)
+	 * @see #getExistingLiteralInternalReferenceTargets(Collection, Connection)
+	 */
+	Optional<OperationOutcome> checkLiteralInternalReference(Resource resource, ResourceReference resourceReference,
+			Connection connection, Integer bundleIndex, Set<String> existingTargets) throws IllegalArgumentException;
+
+	/**
+	 * Checks the existence of the targets of multiple literal internal references with one query per target resource
+	 * type. References with version and references of other types are ignored.
+	 *
+	 * @param references
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @return targets as unqualified, versionless ids (e.g. <code>Task/&lt;uuid&gt;</code>) that exist and are not
+	 *         marked as deleted
+	 */
+	Set<String> getExistingLiteralInternalReferenceTargets(Collection<ResourceReference> references,
+			Connection connection);
+
 	/**
 	 * @param resource
 	 *            not <code>null</code>
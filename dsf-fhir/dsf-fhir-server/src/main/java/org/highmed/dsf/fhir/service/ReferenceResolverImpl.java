@@ -2,13 +2,16 @@ package org.highmed.dsf.fhir.service;
 
 import java.sql.Connection;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -408,6 +411,14 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 	public Optional<OperationOutcome> checkLiteralInternalReference(Resource resource, ResourceReference reference,
 			Connection connection, Integer bundleIndex) throws IllegalArgumentException
 	{
+		return checkLiteralInternalReference(resource, reference, connection, bundleIndex, Collections.emptySet());
+	}
+
+	@Override
+	public Optional<OperationOutcome> checkLiteralInternalReference(Resource resource, ResourceReference reference,
+			Connection connection, Integer bundleIndex, Set<String> existingTargets) throws IllegalArgumentException
+	{
+		Objects.requireNonNull(existingTargets, "existingTargets");
 		Objects.requireNonNull(resource, "resource");
 		Objects.requireNonNull(reference, "reference");
 		Objects.requireNonNull(connection, "connection");
@@ -427,8 +438,10 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 				return Optional.of(
 						responseGenerator.referenceTargetTypeNotSupportedByResource(bundleIndex, resource, reference));
 
-			boolean exists = exceptionHandler.handleSqlException(
-					() -> d.existsNotDeletedWithTransaction(connection, id.getIdPart(), id.getVersionIdPart()));
+			boolean exists = (!id.hasVersionIdPart()
+					&& existingTargets.contains(id.toUnqualifiedVersionless().getValue()))
+					|| exceptionHandler.handleSqlException(
+							() -> d.existsNotDeletedWithTransaction(connection, id.getIdPart(), id.getVersionIdPart()));
 			if (!exists)
 				return Optional.of(responseGenerator.referenceTargetNotFoundLocally(bundleIndex, resource, reference));
 		}
@@ -436,6 +449,38 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 		return Optional.empty();
 	}
 
+	@Override
+	public Set<String> getExistingLiteralInternalReferenceTargets(Collection<ResourceReference> references,
+			Connection connection)
+	{
+		Objects.requireNonNull(references, "references");
+		Objects.requireNonNull(connection, "connection");
+
+		Map<String, Set<String>> idsByResourceType = references
+				.stream().filter(
+						ref -> EnumSet
+								.of(ReferenceType.LITERAL_INTERNAL, ReferenceType.RELATED_ARTEFACT_LITERAL_INTERNAL_URL,
+										ReferenceType.ATTACHMENT_LITERAL_INTERNAL_URL)
+								.contains(ref.getType(serverBase)))
+				.map(ref -> new IdType(ref.getValue())).filter(id -> !id.hasVersionIdPart() && id.hasIdPart())
+				.collect(Collectors.groupingBy(IdType::getResourceType,
+						Collectors.mapping(IdType::getIdPart, Collectors.toSet())));
+
+		Set<String> existingTargets = new HashSet<>();
+		idsByResourceType.forEach((resourceType, ids) ->
+		{
+			Optional<ResourceDao<?>> referenceDao = daoProvider.getDao(resourceType);
+			if (referenceDao.isPresent())
+			{
+				Set<String> existingIds = exceptionHandler.handleSqlException(
+						() -> referenceDao.get().getExistingNotDeletedIdsWithTransaction(connection, ids));
+				existingIds.forEach(id -> existingTargets.add(resourceType + "/" + id));
+			}
+		});
+
+		return existingTargets;
+	}
+
 	@Override
 	public Optional<OperationOutcome> checkLiteralExternalReference(Resource resource,
 			ResourceReference resourceReference) throws IllegalArgumentException
@@ -1,6 +1,9 @@
 package org.highmed.dsf.fhir.spring.config;
 
+import java.time.Duration;
+
 import org.highmed.dsf.fhir.authentication.OrganizationProvider;
+import org.highmed.dsf.fhir.authentication.OrganizationProviderWithCache;
 import org.highmed.dsf.fhir.authentication.OrganizationProviderWithDbBackend;
 import org.highmed.dsf.fhir.authorization.ActivityDefinitionAuthorizationRule;
 import org.highmed.dsf.fhir.authorization.AuthorizationRule;
@@ -20,6 +23,7 @@ import org.highmed.dsf.fhir.authorization.MeasureReportAuthorizationRule;
 import org.highmed.dsf.fhir.authorization.NamingSystemAuthorizationRule;
 import org.highmed.dsf.fhir.authorization.OrganizationAffiliationAuthorizationRule;
 import org.highmed.dsf.fhir.authorization.OrganizationAuthorizationRule;
+import org.highmed.dsf.fhir.authorization.ProcessAuthorizationCache;
 import org.highmed.dsf.fhir.authorization.PatientAuthorizationRule;
 import org.highmed.dsf.fhir.authorization.PractitionerAuthorizationRule;
 import org.highmed.dsf.fhir.authorization.PractitionerRoleAuthorizationRule;
@@ -96,8 +100,26 @@ public class AuthorizationConfig
 		return new ProcessAuthorizationHelperImpl();
 	}
 
+	@Bean
+	public ProcessAuthorizationCache processAuthorizationCache()
+	{
+		return new ProcessAuthorizationCache(processAuthorizationHelper(),
+				Duration.ofSeconds(propertiesConfig.getAuthorizationCacheSeconds()),
+				propertiesConfig.getAuthorizationCacheSize());
+	}
+
 	@Bean
 	public OrganizationProvider organizationProvider()
+	{
+		if (propertiesConfig.getAuthenticationCacheSeconds() > 0)
+			return new OrganizationProviderWithCache(organizationProviderWithDbBackend(),
+					Duration.ofSeconds(propertiesConfig.getAuthenticationCacheSeconds()),
+					propertiesConfig.getAuthenticationCacheSize());
+		else
+			return organizationProviderWithDbBackend();
+	}
+
+	private OrganizationProviderWithDbBackend organizationProviderWithDbBackend()
 	{
 		return new OrganizationProviderWithDbBackend(daoConfig.organizationDao(), helperConfig.exceptionHandler(),
 				propertiesConfig.getUserThumbprints(), propertiesConfig.getUserPermanentDeleteThumbprints(),
@@ -312,7 +334,7 @@ public class AuthorizationConfig
 	{
 		return new TaskAuthorizationRule(daoConfig.daoProvider(), propertiesConfig.getServerBaseUrl(),
 				referenceConfig.referenceResolver(), organizationProvider(), readAccessHelper(),
-				processAuthorizationHelper());
+				processAuthorizationCache());
 	}
 
 	@Bean
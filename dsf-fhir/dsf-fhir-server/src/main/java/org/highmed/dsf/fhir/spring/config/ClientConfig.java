@@ -11,6 +11,7 @@ import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.UUID;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
@@ -69,7 +70,9 @@ public class ClientConfig implements InitializingBean
 					propertiesConfig.getWebserviceClientProxyUrl(), propertiesConfig.getWebserviceClientProxyUsername(),
 					propertiesConfig.getWebserviceClientProxyPassword(), propertiesConfig.getWebserviceClientVerbose(),
 					fhirConfig.fhirContext(), referenceConfig.referenceCleaner(), daoConfig.endpointDao(),
-					helperConfig.exceptionHandler());
+					helperConfig.exceptionHandler(),
+					Duration.ofSeconds(propertiesConfig.getWebserviceClientEndpointCacheSeconds()),
+					propertiesConfig.getWebserviceClientEndpointCacheSize());
 		}
 		catch (KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException | PKCSException e)
 		{
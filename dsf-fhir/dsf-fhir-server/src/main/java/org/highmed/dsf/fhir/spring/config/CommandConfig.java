@@ -59,7 +59,7 @@ public class CommandConfig
 				helperConfig.responseGenerator(), helperConfig.exceptionHandler(), helperConfig.parameterConverter(),
 				eventConfig.eventManager(), eventConfig.eventGenerator(), authorizationConfig.authorizationHelper(),
 				validationConfig.validationHelper(), snapshotConfig.snapshotGenerator(),
-				this::transactionResourceFactory);
+				this::transactionResourceFactory, propertiesConfig.getBatchThreads());
 	}
 
 	@Bean
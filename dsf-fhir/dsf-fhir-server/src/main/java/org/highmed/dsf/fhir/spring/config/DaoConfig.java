@@ -86,6 +86,8 @@ public class DaoConfig
 
 		dataSource.setTestOnBorrow(true);
 		dataSource.setValidationQuery("SELECT 1");
+
+		configureStatementCache(dataSource);
 		return dataSource;
 	}
 
@@ -101,9 +103,23 @@ public class DaoConfig
 
 		dataSource.setTestOnBorrow(true);
 		dataSource.setValidationQuery("SELECT 1");
+
+		configureStatementCache(dataSource);
 		return dataSource;
 	}
 
+	private void configureStatementCache(BasicDataSource dataSource)
+	{
+		int statementCacheSize = propertiesConfig.getDbStatementCacheSize();
+		if (statementCacheSize != 0)
+		{
+			dataSource.setPoolPreparedStatements(true);
+			dataSource.setMaxOpenPreparedStatements(statementCacheSize);
+		}
+
+		dataSource.addConnectionProperty("prepareThreshold", String.valueOf(propertiesConfig.getDbPrepareThreshold()));
+	}
+
 	private String toString(char[] password)
 	{
 		return password == null ? null : String.valueOf(password);
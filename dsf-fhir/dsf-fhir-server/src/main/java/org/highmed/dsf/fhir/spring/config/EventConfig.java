@@ -1,5 +1,8 @@
 package org.highmed.dsf.fhir.spring.config;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,6 +14,7 @@ import org.highmed.dsf.fhir.event.EventGenerator;
 import org.highmed.dsf.fhir.event.EventHandler;
 import org.highmed.dsf.fhir.event.EventManager;
 import org.highmed.dsf.fhir.event.EventManagerImpl;
+import org.highmed.dsf.fhir.event.PostgresNotifyEventManager;
 import org.highmed.dsf.fhir.subscription.MatcherFactory;
 import org.highmed.dsf.fhir.subscription.WebSocketSubscriptionManager;
 import org.highmed.dsf.fhir.subscription.WebSocketSubscriptionManagerImpl;
@@ -22,6 +26,9 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class EventConfig
 {
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
 	@Autowired
 	private DaoConfig daoConfig;
 
@@ -37,6 +44,9 @@ public class EventConfig
 	@Autowired
 	private ValidationConfig validationConfig;
 
+	@Autowired
+	private ClientConfig clientConfig;
+
 	@Bean
 	public MatcherFactory matcherFactory()
 	{
@@ -81,17 +91,34 @@ public class EventConfig
 	public EventManager eventManager()
 	{
 		List<EventHandler> eventHandlers = Stream
-				.of(validationConfig.validationSupport(), webSocketSubscriptionManager())
+				.of(validationConfig.validationSupport(), webSocketSubscriptionManager(),
+						authorizationConfig.organizationProvider(), authorizationConfig.processAuthorizationCache(),
+						clientConfig.clientProvider())
 				.filter(o -> o instanceof EventHandler).map(o -> (EventHandler) o).collect(Collectors.toList());
 
-		return new EventManagerImpl(eventHandlers);
+		EventManagerImpl localEventManager = new EventManagerImpl(eventHandlers);
+
+		if (propertiesConfig.getEventsCluster())
+			return new PostgresNotifyEventManager(localEventManager, daoConfig.dataSource(),
+					this::createEventListenerConnection, daoConfig.daoProvider(),
+					propertiesConfig.getEventsClusterChannel());
+		else
+			return localEventManager;
+	}
+
+	private Connection createEventListenerConnection() throws SQLException
+	{
+		char[] password = propertiesConfig.getDbPassword();
+		return DriverManager.getConnection(propertiesConfig.getDbUrl(), propertiesConfig.getDbUsername(),
+				password == null ? null : String.valueOf(password));
 	}
 
 	@Bean
 	public WebSocketSubscriptionManager webSocketSubscriptionManager()
 	{
 		return new WebSocketSubscriptionManagerImpl(daoConfig.daoProvider(), helperConfig.exceptionHandler(),
-				matcherFactory(), fhirConfig.fhirContext(), authorizationConfig.authorizationRuleProvider());
+				matcherFactory(), fhirConfig.fhirContext(), authorizationConfig.authorizationRuleProvider(),
+				propertiesConfig.getWebsocketSendQueueSize(), propertiesConfig.getWebsocketSendQueueOverflowPolicy());
 	}
 
 	@Bean
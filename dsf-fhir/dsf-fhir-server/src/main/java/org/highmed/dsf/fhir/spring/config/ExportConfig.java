@@ -0,0 +1,31 @@
+package org.highmed.dsf.fhir.spring.config;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.highmed.dsf.fhir.export.ExportJobManager;
+import org.highmed.dsf.fhir.export.ExportJobManagerImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExportConfig
+{
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
+	@Autowired
+	private DaoConfig daoConfig;
+
+	@Autowired
+	private FhirConfig fhirConfig;
+
+	@Bean
+	public ExportJobManager exportJobManager()
+	{
+		return new ExportJobManagerImpl(daoConfig.daoProvider(), fhirConfig.fhirContext(),
+				Paths.get(propertiesConfig.getExportDirectory()), propertiesConfig.getExportThreads(),
+				Duration.ofHours(propertiesConfig.getExportRetentionHours()));
+	}
+}
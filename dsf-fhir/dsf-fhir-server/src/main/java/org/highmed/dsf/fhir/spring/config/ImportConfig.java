@@ -0,0 +1,37 @@
+package org.highmed.dsf.fhir.spring.config;
+
+import java.nio.file.Paths;
+
+import org.highmed.dsf.fhir.importer.ImportJobManager;
+import org.highmed.dsf.fhir.importer.ImportJobManagerImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ImportConfig
+{
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
+	@Autowired
+	private DaoConfig daoConfig;
+
+	@Autowired
+	private FhirConfig fhirConfig;
+
+	@Autowired
+	private ValidationConfig validationConfig;
+
+	@Autowired
+	private EventConfig eventConfig;
+
+	@Bean
+	public ImportJobManager importJobManager()
+	{
+		return new ImportJobManagerImpl(daoConfig.daoProvider(), fhirConfig.fhirContext(),
+				validationConfig.resourceValidator(), eventConfig.eventManager(), eventConfig.eventGenerator(),
+				Paths.get(propertiesConfig.getImportDirectory()), propertiesConfig.getImportValidationThreads(),
+				propertiesConfig.getImportBatchSize());
+	}
+}
@@ -3,6 +3,7 @@ package org.highmed.dsf.fhir.spring.config;
 import java.util.Collections;
 import java.util.List;
 
+import org.highmed.dsf.fhir.subscription.SessionSendQueue.OverflowPolicy;
 import org.highmed.dsf.tools.docker.secrets.DockerSecretsPropertySourceFactory;
 import org.highmed.dsf.tools.generator.Documentation;
 import org.springframework.beans.factory.annotation.Value;
@@ -36,10 +37,62 @@ public class PropertiesConfig
 	@Value("${org.highmed.dsf.fhir.db.user.permanent.delete.password}")
 	private char[] dbPermanentDeletePassword;
 
+	@Documentation(description = "Maximum number of prepared statements cached per database connection, statements are reused when the same SQL is executed again on a pooled connection", recommendation = "Set to *-1* for an unlimited cache or *0* to disable caching")
+	@Value("${org.highmed.dsf.fhir.db.statement.cache.size:256}")
+	private int dbStatementCacheSize;
+
+	@Documentation(description = "Number of executions of a prepared statement before the PostgreSQL driver switches to a server-side prepared statement", recommendation = "Set to *0* to disable server-side prepared statements, e.g. when using a transaction pooling proxy in front of the database")
+	@Value("${org.highmed.dsf.fhir.db.prepare.threshold:2}")
+	private int dbPrepareThreshold;
+
+	@Documentation(description = "Set to *true* if multiple DSF FHIR server instances use the same database, events for subscriptions are exchanged between the instances via PostgreSQL LISTEN/NOTIFY")
+	@Value("${org.highmed.dsf.fhir.server.events.cluster:false}")
+	private boolean eventsCluster;
+
+	@Documentation(description = "PostgreSQL notification channel used to exchange events between DSF FHIR server instances; lower case letters, digits and underscores, same value for all instances")
+	@Value("${org.highmed.dsf.fhir.server.events.cluster.channel:dsf_fhir_events}")
+	private String eventsClusterChannel;
+
+	@Documentation(description = "Maximum number of messages queued for sending per websocket session")
+	@Value("${org.highmed.dsf.fhir.server.websocket.send.queue.size:1000}")
+	private int websocketSendQueueSize;
+
+	@Documentation(description = "Policy applied if the send queue of a websocket session is full; *CLOSE*: close the session, clients reconnect and load existing resources, *PING*: send ping messages until the queue is drained, needs clients handling ping messages", recommendation = "Use *PING* only if all subscriptions use ping payloads")
+	@Value("${org.highmed.dsf.fhir.server.websocket.send.queue.overflow:CLOSE}")
+	private OverflowPolicy websocketSendQueueOverflowPolicy;
+
 	@Documentation(required = true, description = "The base address of this DSF FHIR server to read/store fhir resources", example = "https://foo.bar/fhir")
 	@Value("${org.highmed.dsf.fhir.server.base.url}")
 	private String serverBaseUrl;
 
+	@Documentation(description = "Number of threads executing independent entries of batch bundles in parallel, each thread uses its own database connection; entries are executed sequentially if *0*", recommendation = "Use a value smaller than the maximum number of database connections, e.g. *4*, to speed up large batch bundles like process plugin resources posted at BPE startup")
+	@Value("${org.highmed.dsf.fhir.server.batch.threads:0}")
+	private int batchThreads;
+
+	@Documentation(description = "Directory for NDJSON files of bulk data exports, relative to the DSF FHIR server working directory or absolute", recommendation = "Use a docker volume with enough space for the largest expected export")
+	@Value("${org.highmed.dsf.fhir.server.export.directory:export}")
+	private String exportDirectory;
+
+	@Documentation(description = "Number of bulk data exports executed in parallel, each export uses one database connection while running")
+	@Value("${org.highmed.dsf.fhir.server.export.threads:1}")
+	private int exportThreads;
+
+	@Documentation(description = "Number of hours completed bulk data exports and their files are kept before being deleted")
+	@Value("${org.highmed.dsf.fhir.server.export.retention.hours:24}")
+	private int exportRetentionHours;
+
+	@Documentation(description = "Directory for NDJSON streams uploaded for bulk data imports, files are deleted after the import finished; relative to the DSF FHIR server working directory or absolute")
+	@Value("${org.highmed.dsf.fhir.server.import.directory:import}")
+	private String importDirectory;
+
+	@Documentation(description = "Number of threads validating resources of bulk data imports in parallel")
+	@Value("${org.highmed.dsf.fhir.server.import.validation.threads:4}")
+	private int importValidationThreads;
+
+	@Documentation(description = "Number of NDJSON lines of bulk data imports committed with one database transaction")
+	@Value("${org.highmed.dsf.fhir.server.import.batch.size:500}")
+	private int importBatchSize;
+
 	@Documentation(description = "The page size returned by the DSF FHIR server when reading/searching fhir resources")
 	@Value("${org.highmed.dsf.fhir.server.page.count:20}")
 	private int defaultPageCount;
@@ -56,6 +109,22 @@ public class PropertiesConfig
 	@Value("${org.highmed.dsf.fhir.server.organization.identifier.value}")
 	private String organizationIdentifierValue;
 
+	@Documentation(description = "Number of seconds client certificate to organization lookups of authenticated users are cached, cache entries are also removed if Organization resources are created, updated or deleted; lookups are not cached if *0*")
+	@Value("${org.highmed.dsf.fhir.server.authentication.cache.seconds:300}")
+	private int authenticationCacheSeconds;
+
+	@Documentation(description = "Maximum number of client certificates cached for authenticated users")
+	@Value("${org.highmed.dsf.fhir.server.authentication.cache.size:1000}")
+	private int authenticationCacheSize;
+
+	@Documentation(description = "Number of seconds parsed ActivityDefinition process authorizations and OrganizationAffiliation lookups used to authorize Task resources are cached, cache entries are also removed if ActivityDefinition, Organization or OrganizationAffiliation resources are created, updated or deleted; lookups are not cached if *0*")
+	@Value("${org.highmed.dsf.fhir.server.authorization.cache.seconds:60}")
+	private int authorizationCacheSeconds;
+
+	@Documentation(description = "Maximum number of cached process authorizations and organization affiliation lookups used to authorize Task resources")
+	@Value("${org.highmed.dsf.fhir.server.authorization.cache.size:1000}")
+	private int authorizationCacheSize;
+
 	@Documentation(description = "The fhir bundle containing the initial Allow-List, loaded on startup of the DSF FHIR server", recommendation = "Change only if you don't use the provided files from the installation guide, have local changes in the Allow-List or received an Allow-List from another source")
 	@Value("${org.highmed.dsf.fhir.server.init.bundle:conf/bundle.xml}")
 	private String initBundleFile;
@@ -100,6 +169,14 @@ public class PropertiesConfig
 	@Value("${org.highmed.dsf.fhir.client.verbose:false}")
 	private boolean webserviceClientVerbose;
 
+	@Documentation(description = "Number of seconds lookups of active Endpoint resources by remote DSF FHIR server address are cached, cache entries are also removed if Endpoint resources are created, updated or deleted; lookups are not cached if *0*")
+	@Value("${org.highmed.dsf.fhir.client.endpoint.cache.seconds:60}")
+	private int webserviceClientEndpointCacheSeconds;
+
+	@Documentation(description = "Maximum number of cached Endpoint lookups by remote DSF FHIR server address")
+	@Value("${org.highmed.dsf.fhir.client.endpoint.cache.size:1000}")
+	private int webserviceClientEndpointCacheSize;
+
 	@Documentation(description = "List of allowed CORS origins, used to set the *Access-Control-Allow-Origin* HTTP response header, which indicates whether the response can be shared with requesting code from the given origin; comma or space separated list, YAML block scalars supported")
 	@Value("#{'${org.highmed.dsf.fhir.server.cors.origins:}'.trim().split('(,[ ]?)|(\\n)')}")
 	private List<String> allowedOrigins;
@@ -138,11 +215,76 @@ public class PropertiesConfig
 		return dbPermanentDeletePassword;
 	}
 
+	public int getDbStatementCacheSize()
+	{
+		return dbStatementCacheSize;
+	}
+
+	public int getDbPrepareThreshold()
+	{
+		return dbPrepareThreshold;
+	}
+
+	public boolean getEventsCluster()
+	{
+		return eventsCluster;
+	}
+
+	public String getEventsClusterChannel()
+	{
+		return eventsClusterChannel;
+	}
+
+	public int getWebsocketSendQueueSize()
+	{
+		return websocketSendQueueSize;
+	}
+
+	public OverflowPolicy getWebsocketSendQueueOverflowPolicy()
+	{
+		return websocketSendQueueOverflowPolicy;
+	}
+
 	public String getServerBaseUrl()
 	{
 		return serverBaseUrl;
 	}
 
+	public int getBatchThreads()
+	{
+		return batchThreads;
+	}
+
+	public String getExportDirectory()
+	{
+		return exportDirectory;
+	}
+
+	public int getExportThreads()
+	{
+		return exportThreads;
+	}
+
+	public int getExportRetentionHours()
+	{
+		return exportRetentionHours;
+	}
+
+	public String getImportDirectory()
+	{
+		return importDirectory;
+	}
+
+	public int getImportValidationThreads()
+	{
+		return importValidationThreads;
+	}
+
+	public int getImportBatchSize()
+	{
+		return importBatchSize;
+	}
+
 	public int getDefaultPageCount()
 	{
 		return defaultPageCount;
@@ -163,6 +305,26 @@ public class PropertiesConfig
 		return organizationIdentifierValue;
 	}
 
+	public int getAuthenticationCacheSeconds()
+	{
+		return authenticationCacheSeconds;
+	}
+
+	public int getAuthenticationCacheSize()
+	{
+		return authenticationCacheSize;
+	}
+
+	public int getAuthorizationCacheSeconds()
+	{
+		return authorizationCacheSeconds;
+	}
+
+	public int getAuthorizationCacheSize()
+	{
+		return authorizationCacheSize;
+	}
+
 	public String getInitBundleFile()
 	{
 		return initBundleFile;
@@ -218,6 +380,16 @@ public class PropertiesConfig
 		return webserviceClientVerbose;
 	}
 
+	public int getWebserviceClientEndpointCacheSeconds()
+	{
+		return webserviceClientEndpointCacheSeconds;
+	}
+
+	public int getWebserviceClientEndpointCacheSize()
+	{
+		return webserviceClientEndpointCacheSize;
+	}
+
 	public List<String> getAllowedOrigins()
 	{
 		return Collections.unmodifiableList(allowedOrigins);
@@ -9,8 +9,10 @@ import org.highmed.dsf.fhir.webservice.impl.CodeSystemServiceImpl;
 import org.highmed.dsf.fhir.webservice.impl.ConformanceServiceImpl;
 import org.highmed.dsf.fhir.webservice.impl.DocumentReferenceServiceImpl;
 import org.highmed.dsf.fhir.webservice.impl.EndpointServiceImpl;
+import org.highmed.dsf.fhir.webservice.impl.ExportServiceImpl;
 import org.highmed.dsf.fhir.webservice.impl.GroupServiceImpl;
 import org.highmed.dsf.fhir.webservice.impl.HealthcareServiceServiceImpl;
+import org.highmed.dsf.fhir.webservice.impl.ImportServiceImpl;
 import org.highmed.dsf.fhir.webservice.impl.LibraryServiceImpl;
 import org.highmed.dsf.fhir.webservice.impl.LocationServiceImpl;
 import org.highmed.dsf.fhir.webservice.impl.MeasureReportServiceImpl;
@@ -39,8 +41,10 @@ import org.highmed.dsf.fhir.webservice.jaxrs.CodeSystemServiceJaxrs;
 import org.highmed.dsf.fhir.webservice.jaxrs.ConformanceServiceJaxrs;
 import org.highmed.dsf.fhir.webservice.jaxrs.DocumentReferenceServiceJaxrs;
 import org.highmed.dsf.fhir.webservice.jaxrs.EndpointServiceJaxrs;
+import org.highmed.dsf.fhir.webservice.jaxrs.ExportServiceJaxrs;
 import org.highmed.dsf.fhir.webservice.jaxrs.GroupServiceJaxrs;
 import org.highmed.dsf.fhir.webservice.jaxrs.HealthcareServiceServiceJaxrs;
+import org.highmed.dsf.fhir.webservice.jaxrs.ImportServiceJaxrs;
 import org.highmed.dsf.fhir.webservice.jaxrs.LibraryServiceJaxrs;
 import org.highmed.dsf.fhir.webservice.jaxrs.LocationServiceJaxrs;
 import org.highmed.dsf.fhir.webservice.jaxrs.MeasureReportServiceJaxrs;
@@ -69,8 +73,10 @@ import org.highmed.dsf.fhir.webservice.secure.CodeSystemServiceSecure;
 import org.highmed.dsf.fhir.webservice.secure.ConformanceServiceSecure;
 import org.highmed.dsf.fhir.webservice.secure.DocumentReferenceServiceSecure;
 import org.highmed.dsf.fhir.webservice.secure.EndpointServiceSecure;
+import org.highmed.dsf.fhir.webservice.secure.ExportServiceSecure;
 import org.highmed.dsf.fhir.webservice.secure.GroupServiceSecure;
 import org.highmed.dsf.fhir.webservice.secure.HealthcareServiceServiceSecure;
+import org.highmed.dsf.fhir.webservice.secure.ImportServiceSecure;
 import org.highmed.dsf.fhir.webservice.secure.LibraryServiceSecure;
 import org.highmed.dsf.fhir.webservice.secure.LocationServiceSecure;
 import org.highmed.dsf.fhir.webservice.secure.MeasureReportServiceSecure;
@@ -99,8 +105,10 @@ import org.highmed.dsf.fhir.webservice.specification.CodeSystemService;
 import org.highmed.dsf.fhir.webservice.specification.ConformanceService;
 import org.highmed.dsf.fhir.webservice.specification.DocumentReferenceService;
 import org.highmed.dsf.fhir.webservice.specification.EndpointService;
+import org.highmed.dsf.fhir.webservice.specification.ExportService;
 import org.highmed.dsf.fhir.webservice.specification.GroupService;
 import org.highmed.dsf.fhir.webservice.specification.HealthcareServiceService;
+import org.highmed.dsf.fhir.webservice.specification.ImportService;
 import org.highmed.dsf.fhir.webservice.specification.LibraryService;
 import org.highmed.dsf.fhir.webservice.specification.LocationService;
 import org.highmed.dsf.fhir.webservice.specification.MeasureReportService;
@@ -162,6 +170,15 @@ public class WebserviceConfig
 	@Autowired
 	private HistoryConfig historyConfig;
 
+	@Autowired
+	private ExportConfig exportConfig;
+
+	@Autowired
+	private ImportConfig importConfig;
+
+	@Autowired
+	private JsonConfig jsonConfig;
+
 	@Bean
 	public ServerBaseProvider serverBaseProvider()
 	{
@@ -203,7 +220,7 @@ public class WebserviceConfig
 	@Bean
 	public BinaryService binaryService()
 	{
-		return new BinaryServiceJaxrs(binaryServiceSecure(), helperConfig.parameterConverter());
+		return new BinaryServiceJaxrs(binaryServiceSecure());
 	}
 
 	private BinaryServiceSecure binaryServiceSecure()
@@ -911,6 +928,43 @@ public class WebserviceConfig
 		return new StaticResourcesServiceImpl();
 	}
 
+	@Bean
+	public ExportService exportService()
+	{
+		return new ExportServiceJaxrs(exportServiceSecure());
+	}
+
+	private ExportServiceSecure exportServiceSecure()
+	{
+		return new ExportServiceSecure(exportServiceImpl(), propertiesConfig.getServerBaseUrl(),
+				helperConfig.responseGenerator(), referenceConfig.referenceResolver());
+	}
+
+	private ExportServiceImpl exportServiceImpl()
+	{
+		return new ExportServiceImpl(ExportServiceJaxrs.PATH, propertiesConfig.getServerBaseUrl(),
+				helperConfig.responseGenerator(), helperConfig.parameterConverter(), daoConfig.daoProvider(),
+				exportConfig.exportJobManager(), jsonConfig.objectMapper());
+	}
+
+	@Bean
+	public ImportService importService()
+	{
+		return new ImportServiceJaxrs(importServiceSecure());
+	}
+
+	private ImportServiceSecure importServiceSecure()
+	{
+		return new ImportServiceSecure(importServiceImpl(), propertiesConfig.getServerBaseUrl(),
+				helperConfig.responseGenerator(), referenceConfig.referenceResolver());
+	}
+
+	private ImportServiceImpl importServiceImpl()
+	{
+		return new ImportServiceImpl(ImportServiceJaxrs.PATH, propertiesConfig.getServerBaseUrl(),
+				helperConfig.responseGenerator(), helperConfig.parameterConverter(), importConfig.importJobManager());
+	}
+
 	@Bean
 	public StatusService statusService()
 	{
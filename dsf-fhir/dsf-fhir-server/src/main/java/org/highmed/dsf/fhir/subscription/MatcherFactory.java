@@ -1,19 +1,27 @@
 package org.highmed.dsf.fhir.subscription;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.highmed.dsf.fhir.dao.ResourceDao;
 import org.highmed.dsf.fhir.search.Matcher;
 import org.highmed.dsf.fhir.search.SearchQuery;
 import org.hl7.fhir.r4.model.Resource;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
 public class MatcherFactory
 {
+	/**
+	 * Criteria parameters used to group matchers in a {@link MatcherIndex}, most selective first
+	 */
+	private static final List<String> DISCRIMINATOR_PARAMETERS = List.of("_profile", "identifier", "status");
+
 	private final Map<String, ResourceDao<? extends Resource>> daosByResourceName = new HashMap<>();
 
 	public MatcherFactory(Map<String, ResourceDao<? extends Resource>> daosByResourceName)
@@ -25,10 +33,11 @@ public class MatcherFactory
 	public Optional<Matcher> createMatcher(String uri)
 	{
 		UriComponents componentes = UriComponentsBuilder.fromUriString(uri).build();
-		String path = componentes.getPath();
-
-		MultiValueMap<String, String> queryParameters = componentes.getQueryParams();
+		return createMatcher(componentes.getPath(), componentes.getQueryParams());
+	}
 
+	private Optional<Matcher> createMatcher(String path, MultiValueMap<String, String> queryParameters)
+	{
 		if (daosByResourceName.containsKey(path))
 		{
 			ResourceDao<? extends Resource> dao = daosByResourceName.get(path);
@@ -39,4 +48,72 @@ public class MatcherFactory
 		else
 			return Optional.empty();
 	}
+
+	/**
+	 * Values with criteria not supported by this factory are not part of the index. Values with equal discriminator
+	 * parameter, see {@link MatcherIndex}, share one discriminator matcher.
+	 *
+	 * @param <T>
+	 *            value type
+	 * @param values
+	 *            not <code>null</code>
+	 * @param criteria
+	 *            not <code>null</code>, criteria uri of a value, e.g. <code>Task?status=requested</code>
+	 * @return never <code>null</code>
+	 */
+	public <T> MatcherIndex<T> createMatcherIndex(List<T> values, Function<T, String> criteria)
+	{
+		MatcherIndex<T> index = MatcherIndex.empty();
+		for (T value : values)
+			index = addToMatcherIndex(index, value, criteria);
+
+		return index;
+	}
+
+	/**
+	 * Copy on write, the given index is not modified. Only the matcher for the given value is created, discriminators
+	 * of existing groups are reused.
+	 *
+	 * @param <T>
+	 *            value type
+	 * @param index
+	 *            not <code>null</code>
+	 * @param value
+	 *            not <code>null</code>
+	 * @param criteria
+	 *            not <code>null</code>, criteria uri of a value, e.g. <code>Task?status=requested</code>
+	 * @return new index with the given value, the given index if the criteria of the value is not supported
+	 */
+	public <T> MatcherIndex<T> addToMatcherIndex(MatcherIndex<T> index, T value, Function<T, String> criteria)
+	{
+		UriComponents componentes = UriComponentsBuilder.fromUriString(criteria.apply(value)).build();
+		String path = componentes.getPath();
+		MultiValueMap<String, String> queryParameters = componentes.getQueryParams();
+
+		Optional<Matcher> matcher = createMatcher(path, queryParameters);
+		if (matcher.isEmpty())
+			return index;
+
+		String discriminatorKey = DISCRIMINATOR_PARAMETERS.stream().filter(queryParameters::containsKey).findFirst()
+				.map(p -> p + "=" + String.join("&" + p + "=", queryParameters.get(p))).orElse("");
+
+		return index.with(matcher.get().getResourceType(), discriminatorKey,
+				() -> createDiscriminator(path, discriminatorKey), value, matcher.get());
+	}
+
+	private Matcher createDiscriminator(String path, String discriminatorKey)
+	{
+		if (discriminatorKey.isEmpty())
+			return null;
+
+		MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<>();
+		for (String parameter : discriminatorKey.split("&"))
+		{
+			String[] nameAndValue = parameter.split("=", 2);
+			queryParameters.add(nameAndValue[0], nameAndValue[1]);
+		}
+
+		// discriminators are evaluated without resolving references
+		return createMatcher(path, queryParameters).filter(m -> !m.isReferenceResolutionRequired()).orElse(null);
+	}
 }
@@ -0,0 +1,211 @@
+package org.highmed.dsf.fhir.subscription;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.highmed.dsf.fhir.search.Matcher;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Immutable, matchers grouped by resource type and discriminator. The discriminator of a group is a matcher for one
+ * parameter of the group's criteria, e.g. <code>Task?status=requested</code>. It is evaluated once per resource, the
+ * full matchers of a group are only evaluated if the discriminator matches. References are only resolved for candidates
+ * that need them.
+ *
+ * @param <T>
+ *            value type associated with a matcher
+ * @see MatcherFactory#createMatcherIndex(List, java.util.function.Function)
+ * @see MatcherFactory#addToMatcherIndex(MatcherIndex, Object, java.util.function.Function)
+ */
+public class MatcherIndex<T>
+{
+	static final class Entry<T>
+	{
+		final T value;
+		final Matcher matcher;
+
+		Entry(T value, Matcher matcher)
+		{
+			this.value = value;
+			this.matcher = matcher;
+		}
+	}
+
+	static final class Group<T>
+	{
+		final String discriminatorKey;
+		final Matcher discriminator;
+		final List<Entry<T>> entries;
+
+		/**
+		 * @param discriminatorKey
+		 *            not <code>null</code>, empty if no discriminator
+		 * @param discriminator
+		 *            may be <code>null</code>, all entries are candidates
+		 * @param entries
+		 *            not <code>null</code>
+		 */
+		Group(String discriminatorKey, Matcher discriminator, List<Entry<T>> entries)
+		{
+			this.discriminatorKey = discriminatorKey;
+			this.discriminator = discriminator;
+			this.entries = entries;
+		}
+
+		boolean isCandidate(Resource resource)
+		{
+			return discriminator == null || discriminator.matches(resource);
+		}
+	}
+
+	private final Map<Class<? extends Resource>, List<Group<T>>> groupsByResourceType;
+
+	private MatcherIndex(Map<Class<? extends Resource>, List<Group<T>>> groupsByResourceType)
+	{
+		this.groupsByResourceType = Objects.requireNonNull(groupsByResourceType, "groupsByResourceType");
+	}
+
+	public static <T> MatcherIndex<T> empty()
+	{
+		return new MatcherIndex<>(Collections.emptyMap());
+	}
+
+	/**
+	 * Copy on write, this index is not modified.
+	 *
+	 * @param resourceType
+	 *            not <code>null</code>
+	 * @param discriminatorKey
+	 *            not <code>null</code>
+	 * @param discriminator
+	 *            not <code>null</code>, called if no group with the given key exists, may return <code>null</code>
+	 * @param value
+	 *            not <code>null</code>
+	 * @param matcher
+	 *            not <code>null</code>
+	 * @return new index with the given value
+	 */
+	MatcherIndex<T> with(Class<? extends Resource> resourceType, String discriminatorKey,
+			Supplier<Matcher> discriminator, T value, Matcher matcher)
+	{
+		List<Group<T>> groups = new ArrayList<>(groupsByResourceType.getOrDefault(resourceType, List.of()));
+
+		Optional<Group<T>> group = groups.stream().filter(g -> g.discriminatorKey.equals(discriminatorKey)).findFirst();
+		if (group.isPresent())
+		{
+			List<Entry<T>> entries = new ArrayList<>(group.get().entries);
+			entries.add(new Entry<>(value, matcher));
+			groups.set(groups.indexOf(group.get()),
+					new Group<>(discriminatorKey, group.get().discriminator, Collections.unmodifiableList(entries)));
+		}
+		else
+			groups.add(new Group<>(discriminatorKey, discriminator.get(), List.of(new Entry<>(value, matcher))));
+
+		Map<Class<? extends Resource>, List<Group<T>>> groupsByResourceType = new HashMap<>(this.groupsByResourceType);
+		groupsByResourceType.put(resourceType, Collections.unmodifiableList(groups));
+
+		return new MatcherIndex<>(Collections.unmodifiableMap(groupsByResourceType));
+	}
+
+	/**
+	 * Copy on write, this index is not modified.
+	 *
+	 * @param filter
+	 *            not <code>null</code>, values matching the filter are removed
+	 * @return new index without the removed values, <code>this</code> if no value was removed
+	 */
+	public MatcherIndex<T> without(Predicate<T> filter)
+	{
+		boolean found = groupsByResourceType.values().stream().flatMap(List::stream).flatMap(g -> g.entries.stream())
+				.anyMatch(e -> filter.test(e.value));
+		if (!found)
+			return this;
+
+		Map<Class<? extends Resource>, List<Group<T>>> groupsByResourceType = new HashMap<>();
+		this.groupsByResourceType.forEach((type, groups) ->
+		{
+			List<Group<T>> newGroups = new ArrayList<>();
+			for (Group<T> group : groups)
+			{
+				List<Entry<T>> entries = group.entries.stream().filter(e -> !filter.test(e.value))
+						.collect(Collectors.toList());
+				if (entries.size() == group.entries.size())
+					newGroups.add(group);
+				else if (!entries.isEmpty())
+					newGroups.add(new Group<>(group.discriminatorKey, group.discriminator,
+							Collections.unmodifiableList(entries)));
+			}
+
+			if (!newGroups.isEmpty())
+				groupsByResourceType.put(type, Collections.unmodifiableList(newGroups));
+		});
+
+		return new MatcherIndex<>(Collections.unmodifiableMap(groupsByResourceType));
+	}
+
+	/**
+	 * @return all values of this index, never <code>null</code>
+	 */
+	public List<T> getValues()
+	{
+		return groupsByResourceType.values().stream().flatMap(List::stream).flatMap(g -> g.entries.stream())
+				.map(e -> e.value).collect(Collectors.toList());
+	}
+
+	/**
+	 * @param resourceType
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if the index contains matchers for the given resource type
+	 */
+	public boolean hasMatchers(Class<? extends Resource> resourceType)
+	{
+		return groupsByResourceType.containsKey(resourceType);
+	}
+
+	/**
+	 * @param resource
+	 *            may be <code>null</code>
+	 * @param daoProvider
+	 *            not <code>null</code>
+	 * @return values of all matchers matching the given resource, never <code>null</code>
+	 * @throws SQLException
+	 *             if references could not be resolved
+	 */
+	public List<T> getMatching(Resource resource, DaoProvider daoProvider) throws SQLException
+	{
+		if (resource == null)
+			return Collections.emptyList();
+
+		List<Group<T>> groups = groupsByResourceType.get(resource.getClass());
+		if (groups == null)
+			return Collections.emptyList();
+
+		List<T> matching = new ArrayList<>();
+		for (Group<T> group : groups)
+		{
+			if (!group.isCandidate(resource))
+				continue;
+
+			for (Entry<T> entry : group.entries)
+			{
+				if (entry.matcher.isReferenceResolutionRequired())
+					entry.matcher.resloveReferencesForMatching(resource, daoProvider);
+
+				if (entry.matcher.matches(resource))
+					matching.add(entry.value);
+			}
+		}
+
+		return matching;
+	}
+}
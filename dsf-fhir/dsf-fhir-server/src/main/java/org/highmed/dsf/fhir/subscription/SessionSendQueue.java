@@ -0,0 +1,257 @@
+package org.highmed.dsf.fhir.subscription;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded outbound queue of a websocket session. Only one text message is in flight per session, the next message is
+ * sent when the previous send completed. If the queue is full, the {@link OverflowPolicy} is applied.
+ */
+public class SessionSendQueue
+{
+	private static final Logger logger = LoggerFactory.getLogger(SessionSendQueue.class);
+
+	public static enum OverflowPolicy
+	{
+		/**
+		 * Queued messages are replaced by one <code>ping {subscription-id}</code> message per subscription, further
+		 * messages are sent as ping messages until the queue is drained. Clients need to handle ping messages by
+		 * searching for new resources.
+		 */
+		PING,
+
+		/**
+		 * Queued messages are dropped and the session is closed with {@link CloseCodes#CANNOT_ACCEPT}, clients
+		 * reconnect and load existing resources.
+		 */
+		CLOSE
+	}
+
+	private static final class Message
+	{
+		final String subscriptionIdPart;
+		final String text;
+		final boolean ping;
+		final long enqueuedNanos = System.nanoTime();
+
+		Message(String subscriptionIdPart, String text, boolean ping)
+		{
+			this.subscriptionIdPart = subscriptionIdPart;
+			this.text = text;
+			this.ping = ping;
+		}
+	}
+
+	private final Session session;
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+
+	private final Deque<Message> queue = new ArrayDeque<>();
+	private boolean sending;
+	private boolean pingMode;
+	private boolean closed;
+
+	private long sentCount;
+	private long overflowCount;
+	private long totalSendLatencyNanos;
+	private long maxSendLatencyNanos;
+
+	/**
+	 * @param session
+	 *            not <code>null</code>
+	 * @param capacity
+	 *            &gt; 0
+	 * @param overflowPolicy
+	 *            not <code>null</code>
+	 */
+	public SessionSendQueue(Session session, int capacity, OverflowPolicy overflowPolicy)
+	{
+		this.session = Objects.requireNonNull(session, "session");
+		if (capacity <= 0)
+			throw new IllegalArgumentException("capacity <= 0");
+		this.capacity = capacity;
+		this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+	}
+
+	public String getSessionId()
+	{
+		return session.getId();
+	}
+
+	/**
+	 * @param subscriptionIdPart
+	 *            not <code>null</code>
+	 * @param text
+	 *            not <code>null</code>
+	 */
+	public void send(String subscriptionIdPart, String text)
+	{
+		Message next;
+		synchronized (this)
+		{
+			if (closed)
+				return;
+
+			if (pingMode)
+				enqueuePing(subscriptionIdPart);
+			else if (queue.size() < capacity)
+				queue.addLast(new Message(subscriptionIdPart, text, isPing(subscriptionIdPart, text)));
+			else if (!overflow(subscriptionIdPart))
+				return;
+
+			next = pollIfIdle();
+		}
+
+		if (next != null)
+			doSend(next);
+	}
+
+	private boolean isPing(String subscriptionIdPart, String text)
+	{
+		return ("ping " + subscriptionIdPart).equals(text);
+	}
+
+	private void enqueuePing(String subscriptionIdPart)
+	{
+		boolean pingQueued = queue.stream().anyMatch(m -> m.ping && m.subscriptionIdPart.equals(subscriptionIdPart));
+		if (!pingQueued)
+			queue.addLast(new Message(subscriptionIdPart, "ping " + subscriptionIdPart, true));
+	}
+
+	/**
+	 * @return <code>false</code> if the session was closed
+	 */
+	private boolean overflow(String subscriptionIdPart)
+	{
+		overflowCount++;
+
+		switch (overflowPolicy)
+		{
+			case PING:
+				logger.warn("Send queue of websocket session {} full ({} messages), switching to ping mode",
+						session.getId(), queue.size());
+
+				Deque<Message> pings = new ArrayDeque<>();
+				queue.stream().map(m -> m.subscriptionIdPart).distinct()
+						.forEach(id -> pings.addLast(new Message(id, "ping " + id, true)));
+				queue.clear();
+				queue.addAll(pings);
+				pingMode = true;
+				enqueuePing(subscriptionIdPart);
+				return true;
+
+			case CLOSE:
+			default:
+				logger.warn("Send queue of websocket session {} full ({} messages), closing session", session.getId(),
+						queue.size());
+
+				closed = true;
+				queue.clear();
+				try
+				{
+					session.close(new CloseReason(CloseCodes.CANNOT_ACCEPT, "Send queue overflow"));
+				}
+				catch (IOException e)
+				{
+					logger.warn("Error while closing websocket session {}: {}", session.getId(), e.getMessage());
+				}
+				return false;
+		}
+	}
+
+	private Message pollIfIdle()
+	{
+		if (sending || queue.isEmpty())
+			return null;
+
+		sending = true;
+		return queue.pollFirst();
+	}
+
+	private void doSend(Message message)
+	{
+		try
+		{
+			session.getAsyncRemote().sendText(message.text, result -> onSent(message, result));
+		}
+		catch (Exception e)
+		{
+			onSent(message, new SendResult(e));
+		}
+	}
+
+	private void onSent(Message message, SendResult result)
+	{
+		if (!result.isOK())
+			logger.warn("Error while sending event to remote with session id {}: {}", session.getId(),
+					result.getException() != null ? result.getException().getMessage() : "");
+
+		Message next;
+		synchronized (this)
+		{
+			long latency = System.nanoTime() - message.enqueuedNanos;
+			sentCount++;
+			totalSendLatencyNanos += latency;
+			maxSendLatencyNanos = Math.max(maxSendLatencyNanos, latency);
+
+			sending = false;
+			if (queue.isEmpty() && pingMode)
+			{
+				logger.info("Send queue of websocket session {} drained, leaving ping mode", session.getId());
+				pingMode = false;
+			}
+
+			next = closed ? null : pollIfIdle();
+		}
+
+		if (next != null)
+			doSend(next);
+	}
+
+	public synchronized void close()
+	{
+		closed = true;
+		queue.clear();
+	}
+
+	public synchronized int getQueueDepth()
+	{
+		return queue.size();
+	}
+
+	public synchronized long getSentCount()
+	{
+		return sentCount;
+	}
+
+	public synchronized long getOverflowCount()
+	{
+		return overflowCount;
+	}
+
+	/**
+	 * @return average time between enqueueing and send completion in milliseconds
+	 */
+	public synchronized double getAverageSendLatencyMillis()
+	{
+		return sentCount == 0 ? 0d : totalSendLatencyNanos / (double) sentCount / 1_000_000d;
+	}
+
+	/**
+	 * @return maximum time between enqueueing and send completion in milliseconds
+	 */
+	public synchronized double getMaxSendLatencyMillis()
+	{
+		return maxSendLatencyNanos / 1_000_000d;
+	}
+}
@@ -9,16 +9,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.websocket.CloseReason;
 import javax.websocket.CloseReason.CloseCodes;
-import javax.websocket.RemoteEndpoint.Async;
 import javax.websocket.Session;
 
 import org.highmed.dsf.fhir.authentication.User;
@@ -29,7 +29,7 @@ import org.highmed.dsf.fhir.dao.provider.DaoProvider;
 import org.highmed.dsf.fhir.event.Event;
 import org.highmed.dsf.fhir.event.EventHandler;
 import org.highmed.dsf.fhir.help.ExceptionHandler;
-import org.highmed.dsf.fhir.search.Matcher;
+import org.highmed.dsf.fhir.subscription.SessionSendQueue.OverflowPolicy;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.Subscription;
 import org.hl7.fhir.r4.model.Subscription.SubscriptionStatus;
@@ -48,43 +48,17 @@ public class WebSocketSubscriptionManagerImpl
 {
 	private static final Logger logger = LoggerFactory.getLogger(WebSocketSubscriptionManagerImpl.class);
 
-	private static class SubscriptionAndMatcher
-	{
-		final Subscription subscription;
-		final Matcher matcher;
-
-		SubscriptionAndMatcher(Subscription subscription, Matcher matcher)
-		{
-			this.subscription = subscription;
-			this.matcher = matcher;
-		}
-
-		boolean matches(Resource resource, DaoProvider daoProvider)
-		{
-			try
-			{
-				matcher.resloveReferencesForMatching(resource, daoProvider);
-			}
-			catch (SQLException e)
-			{
-				throw new RuntimeException(e);
-			}
-
-			return matcher.matches(resource);
-		}
-	}
-
-	private static class SessionIdAndRemoteAsync
+	private static class SessionIdAndSendQueue
 	{
 		final User user;
 		final String sessionId;
-		final Async remoteAsync;
+		final SessionSendQueue sendQueue;
 
-		SessionIdAndRemoteAsync(User user, String sessionId, Async remoteAsync)
+		SessionIdAndSendQueue(User user, String sessionId, SessionSendQueue sendQueue)
 		{
 			this.user = user;
 			this.sessionId = sessionId;
-			this.remoteAsync = remoteAsync;
+			this.sendQueue = sendQueue;
 		}
 
 		@Override
@@ -105,7 +79,7 @@ public class WebSocketSubscriptionManagerImpl
 				return false;
 			if (getClass() != obj.getClass())
 				return false;
-			SessionIdAndRemoteAsync other = (SessionIdAndRemoteAsync) obj;
+			SessionIdAndSendQueue other = (SessionIdAndSendQueue) obj;
 			if (sessionId == null)
 			{
 				if (other.sessionId != null)
@@ -117,7 +91,8 @@ public class WebSocketSubscriptionManagerImpl
 		}
 	}
 
-	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+	private final ScheduledExecutorService statisticsLogger = Executors.newSingleThreadScheduledExecutor();
 
 	private final DaoProvider daoProvider;
 	private final SubscriptionDao subscriptionDao;
@@ -126,13 +101,22 @@ public class WebSocketSubscriptionManagerImpl
 	private final FhirContext fhirContext;
 	private final AuthorizationRuleProvider authorizationRuleProvider;
 
-	private final AtomicBoolean firstCall = new AtomicBoolean(true);
-	private final ReadWriteMap<String, Subscription> subscriptionsByIdPart = new ReadWriteMap<>();
-	private final ReadWriteMap<Class<? extends Resource>, List<SubscriptionAndMatcher>> matchersByResource = new ReadWriteMap<>();
-	private final ReadWriteMap<String, List<SessionIdAndRemoteAsync>> asyncRemotesBySubscriptionIdPart = new ReadWriteMap<>();
+	private final ThreadLocal<IParser> jsonParser = ThreadLocal.withInitial(this::newJsonParser);
+	private final ThreadLocal<IParser> xmlParser = ThreadLocal.withInitial(this::newXmlParser);
+
+	// copy on write snapshots, modified while holding subscriptionsLock, read without locking
+	private final Object subscriptionsLock = new Object();
+	private volatile Map<String, Subscription> subscriptionsByIdPart = Collections.emptyMap();
+	private volatile MatcherIndex<Subscription> matcherIndex = MatcherIndex.empty();
+	private final ReadWriteMap<String, List<SessionIdAndSendQueue>> sendQueuesBySubscriptionIdPart = new ReadWriteMap<>();
+	private final Map<String, SessionSendQueue> sendQueuesBySessionId = new ConcurrentHashMap<>();
+
+	private final int sendQueueCapacity;
+	private final OverflowPolicy sendQueueOverflowPolicy;
 
 	public WebSocketSubscriptionManagerImpl(DaoProvider daoProvider, ExceptionHandler exceptionHandler,
-			MatcherFactory matcherFactory, FhirContext fhirContext, AuthorizationRuleProvider authorizationRuleProvider)
+			MatcherFactory matcherFactory, FhirContext fhirContext, AuthorizationRuleProvider authorizationRuleProvider,
+			int sendQueueCapacity, OverflowPolicy sendQueueOverflowPolicy)
 	{
 		this.daoProvider = daoProvider;
 		this.subscriptionDao = daoProvider.getSubscriptionDao();
@@ -140,6 +124,8 @@ public class WebSocketSubscriptionManagerImpl
 		this.matcherFactory = matcherFactory;
 		this.fhirContext = fhirContext;
 		this.authorizationRuleProvider = authorizationRuleProvider;
+		this.sendQueueCapacity = sendQueueCapacity;
+		this.sendQueueOverflowPolicy = sendQueueOverflowPolicy;
 	}
 
 	@Override
@@ -151,39 +137,43 @@ public class WebSocketSubscriptionManagerImpl
 		Objects.requireNonNull(matcherFactory, "matcherFactory");
 		Objects.requireNonNull(fhirContext, "fhirContext");
 		Objects.requireNonNull(authorizationRuleProvider, "authorizationRuleProvider");
+		if (sendQueueCapacity <= 0)
+			throw new IllegalArgumentException("sendQueueCapacity <= 0");
+		Objects.requireNonNull(sendQueueOverflowPolicy, "sendQueueOverflowPolicy");
+
+		statisticsLogger.scheduleWithFixedDelay(this::logSendQueueStatistics, 1, 1, TimeUnit.MINUTES);
+
+		loadSubscriptions();
 	}
 
-	private void refreshMatchers()
+	private void logSendQueueStatistics()
 	{
-		logger.info("Refreshing subscriptions");
-		firstCall.set(false);
+		if (!logger.isDebugEnabled() || sendQueuesBySessionId.isEmpty())
+			return;
+
+		sendQueuesBySessionId.values().forEach(q -> logger.debug(
+				"Websocket session {}: queue depth {}, sent {}, overflows {}, send latency avg {} ms, max {} ms",
+				q.getSessionId(), q.getQueueDepth(), q.getSentCount(), q.getOverflowCount(),
+				String.format("%.1f", q.getAverageSendLatencyMillis()),
+				String.format("%.1f", q.getMaxSendLatencyMillis())));
+	}
+
+	private void loadSubscriptions()
+	{
+		logger.info("Loading subscriptions");
 
 		try
 		{
 			List<Subscription> subscriptions = subscriptionDao.readByStatus(SubscriptionStatus.ACTIVE);
-			Map<Class<? extends Resource>, List<SubscriptionAndMatcher>> matchers = new HashMap<>();
-			for (Subscription subscription : subscriptions)
+
+			synchronized (subscriptionsLock)
 			{
-				Optional<Matcher> matcher = matcherFactory.createMatcher(subscription.getCriteria());
-				if (matcher.isPresent())
-				{
-					if (matchers.containsKey(matcher.get().getResourceType()))
-					{
-						matchers.get(matcher.get().getResourceType())
-								.add(new SubscriptionAndMatcher(subscription, matcher.get()));
-					}
-					else
-					{
-						matchers.put(matcher.get().getResourceType(), new ArrayList<>(
-								Collections.singletonList(new SubscriptionAndMatcher(subscription, matcher.get()))));
-					}
-				}
+				matcherIndex = matcherFactory.createMatcherIndex(subscriptions, Subscription::getCriteria);
+				subscriptionsByIdPart = Collections.unmodifiableMap(subscriptions.stream()
+						.collect(Collectors.toMap(s -> s.getIdElement().getIdPart(), Function.identity())));
 			}
-			matchersByResource.replaceAll(matchers);
-			subscriptionsByIdPart.replaceAll(subscriptions.stream()
-					.collect(Collectors.toMap(s -> s.getIdElement().getIdPart(), Function.identity())));
 
-			logger.debug("Current active subscription-ids (after refreshing): {}", subscriptionsByIdPart.getAllKeys());
+			logger.debug("Current active subscription-ids (after loading): {}", subscriptionsByIdPart.keySet());
 		}
 		catch (SQLException e)
 		{
@@ -191,9 +181,60 @@ public class WebSocketSubscriptionManagerImpl
 		}
 	}
 
+	private void updateSubscriptions(Event event)
+	{
+		if (!Subscription.class.equals(event.getResourceType()))
+			return;
+
+		synchronized (subscriptionsLock)
+		{
+			String idPart = event.getId();
+			Subscription current = subscriptionsByIdPart.get(idPart);
+			Subscription updated = (Subscription) event.getResource();
+
+			if (current != null && updated != null && getVersion(current) > getVersion(updated))
+			{
+				logger.debug("Ignoring outdated subscription {} version {}", idPart, getVersion(updated));
+				return;
+			}
+
+			Map<String, Subscription> subscriptions = new HashMap<>(subscriptionsByIdPart);
+			MatcherIndex<Subscription> index = matcherIndex.without(s -> idPart.equals(s.getIdElement().getIdPart()));
+			subscriptions.remove(idPart);
+
+			if (updated != null && SubscriptionStatus.ACTIVE.equals(updated.getStatus()))
+			{
+				index = matcherFactory.addToMatcherIndex(index, updated, Subscription::getCriteria);
+				subscriptions.put(idPart, updated);
+			}
+
+			matcherIndex = index;
+			subscriptionsByIdPart = Collections.unmodifiableMap(subscriptions);
+		}
+
+		logger.debug("Current active subscription-ids (after {}): {}", event.getClass().getSimpleName(),
+				subscriptionsByIdPart.keySet());
+	}
+
+	private long getVersion(Subscription subscription)
+	{
+		String version = subscription.getIdElement().hasVersionIdPart() ? subscription.getIdElement().getVersionIdPart()
+				: subscription.getMeta().getVersionId();
+
+		try
+		{
+			return version == null ? 0 : Long.parseLong(version);
+		}
+		catch (NumberFormatException e)
+		{
+			return 0;
+		}
+	}
+
 	@Override
 	public void destroy() throws Exception
 	{
+		statisticsLogger.shutdownNow();
 		executor.shutdown();
 		try
 		{
@@ -214,29 +255,17 @@ public class WebSocketSubscriptionManagerImpl
 	@Override
 	public void handleEvents(List<Event> events)
 	{
-		executor.execute(() -> doHandleEventsAndRefreshMatchers(events));
-	}
-
-	private void doHandleEventsAndRefreshMatchers(List<Event> events)
-	{
-		if (events.stream().anyMatch(e -> e.getResource() instanceof Subscription || firstCall.get()))
-			refreshMatchers();
-
-		events.stream().forEach(this::doHandleEvent);
+		// subscription changes applied in caller thread to keep their order
+		events.forEach(this::updateSubscriptions);
+		executor.execute(() -> events.forEach(this::doHandleEvent));
 	}
 
 	@Override
 	public void handleEvent(Event event)
 	{
-		executor.execute(() -> doHandleEventAndRefreshMatchers(event));
-	}
-
-	private void doHandleEventAndRefreshMatchers(Event event)
-	{
-		if (event.getResource() instanceof Subscription || firstCall.get())
-			refreshMatchers();
-
-		doHandleEvent(event);
+		// subscription changes applied in caller thread to keep their order
+		updateSubscriptions(event);
+		executor.execute(() -> doHandleEvent(event));
 	}
 
 	private void doHandleEvent(Event event)
@@ -244,8 +273,8 @@ public class WebSocketSubscriptionManagerImpl
 		logger.debug("handling event {} for resource of type {} with id {}", event.getClass().getSimpleName(),
 				event.getResourceType().getAnnotation(ResourceDef.class).name(), event.getId());
 
-		Optional<List<SubscriptionAndMatcher>> optMatchers = matchersByResource.get(event.getResourceType());
-		if (optMatchers.isEmpty())
+		MatcherIndex<Subscription> matcherIndex = this.matcherIndex;
+		if (!matcherIndex.hasMatchers(event.getResourceType()))
 		{
 			logger.debug("No subscriptions for event {} for resource of type {} with id {}",
 					event.getClass().getSimpleName(), event.getResourceType().getAnnotation(ResourceDef.class).name(),
@@ -253,8 +282,15 @@ public class WebSocketSubscriptionManagerImpl
 			return;
 		}
 
-		List<SubscriptionAndMatcher> matchingSubscriptions = optMatchers.get().stream()
-				.filter(sAndM -> sAndM.matches(event.getResource(), daoProvider)).collect(Collectors.toList());
+		List<Subscription> matchingSubscriptions;
+		try
+		{
+			matchingSubscriptions = matcherIndex.getMatching(event.getResource(), daoProvider);
+		}
+		catch (SQLException e)
+		{
+			throw new RuntimeException(e);
+		}
 
 		if (matchingSubscriptions.isEmpty())
 		{
@@ -264,12 +300,18 @@ public class WebSocketSubscriptionManagerImpl
 			return;
 		}
 
-		matchingSubscriptions.forEach(sAndM -> doHandleEventWithSubscription(sAndM.subscription, event));
+		// payloads and read access decisions are the same for all subscriptions and sessions of one event
+		Map<String, String> payloadsByMimeType = new HashMap<>();
+		Map<String, Optional<String>> readAllowedReasonsByRoleAndOrganization = new HashMap<>();
+
+		matchingSubscriptions.forEach(subscription -> doHandleEventWithSubscription(subscription, event,
+				payloadsByMimeType, readAllowedReasonsByRoleAndOrganization));
 	}
 
-	private void doHandleEventWithSubscription(Subscription s, Event event)
+	private void doHandleEventWithSubscription(Subscription s, Event event, Map<String, String> payloadsByMimeType,
+			Map<String, Optional<String>> readAllowedReasonsByRoleAndOrganization)
 	{
-		Optional<List<SessionIdAndRemoteAsync>> optRemotes = asyncRemotesBySubscriptionIdPart
+		Optional<List<SessionIdAndSendQueue>> optRemotes = sendQueuesBySubscriptionIdPart
 				.get(s.getIdElement().getIdPart());
 
 		if (optRemotes.isEmpty())
@@ -280,9 +322,11 @@ public class WebSocketSubscriptionManagerImpl
 
 		final String text;
 		if (Constants.CT_FHIR_JSON_NEW.equals(s.getChannel().getPayload()))
-			text = newJsonParser().encodeResourceToString(event.getResource());
+			text = payloadsByMimeType.computeIfAbsent(Constants.CT_FHIR_JSON_NEW,
+					mimeType -> jsonParser.get().encodeResourceToString(event.getResource()));
 		else if (Constants.CT_FHIR_XML_NEW.contentEquals(s.getChannel().getPayload()))
-			text = newXmlParser().encodeResourceToString(event.getResource());
+			text = payloadsByMimeType.computeIfAbsent(Constants.CT_FHIR_XML_NEW,
+					mimeType -> xmlParser.get().encodeResourceToString(event.getResource()));
 		else
 			text = "ping " + s.getIdElement().getIdPart();
 
@@ -290,8 +334,9 @@ public class WebSocketSubscriptionManagerImpl
 				optRemotes.get().size() != 1 ? "s" : "", s.getIdElement().getIdPart());
 
 		// defensive copy because list could be changed by other threads while we are reading
-		List<SessionIdAndRemoteAsync> remotes = new ArrayList<>(optRemotes.get());
-		remotes.stream().filter(r -> userHasReadAccess(r, event)).forEach(r -> send(r, text));
+		List<SessionIdAndSendQueue> remotes = new ArrayList<>(optRemotes.get());
+		remotes.stream().filter(r -> userHasReadAccess(r, event, readAllowedReasonsByRoleAndOrganization))
+				.forEach(r -> r.sendQueue.send(s.getIdElement().getIdPart(), text));
 	}
 
 	private IParser newXmlParser()
@@ -311,7 +356,8 @@ public class WebSocketSubscriptionManagerImpl
 		return p;
 	}
 
-	private boolean userHasReadAccess(SessionIdAndRemoteAsync sessionAndRemote, Event event)
+	private boolean userHasReadAccess(SessionIdAndSendQueue sessionAndRemote, Event event,
+			Map<String, Optional<String>> readAllowedReasonsByRoleAndOrganization)
 	{
 		Optional<AuthorizationRule<?>> optRule = authorizationRuleProvider
 				.getAuthorizationRule(event.getResourceType());
@@ -319,7 +365,10 @@ public class WebSocketSubscriptionManagerImpl
 		{
 			@SuppressWarnings("unchecked")
 			AuthorizationRule<Resource> rule = (AuthorizationRule<Resource>) optRule.get();
-			Optional<String> optReason = rule.reasonReadAllowed(sessionAndRemote.user, event.getResource());
+			String roleAndOrganization = sessionAndRemote.user.getRole().name() + "/"
+					+ sessionAndRemote.user.getOrganization().getIdElement().getIdPart();
+			Optional<String> optReason = readAllowedReasonsByRoleAndOrganization.computeIfAbsent(roleAndOrganization,
+					key -> rule.reasonReadAllowed(sessionAndRemote.user, event.getResource()));
 
 			if (optReason.isPresent())
 			{
@@ -343,48 +392,35 @@ public class WebSocketSubscriptionManagerImpl
 		}
 	}
 
-	private void send(SessionIdAndRemoteAsync sessionAndRemote, String text)
-	{
-		try
-		{
-			sessionAndRemote.remoteAsync.sendText(text);
-		}
-		catch (Exception e)
-		{
-			logger.warn("Error while sending event to remote with session id {}", sessionAndRemote.sessionId);
-		}
-	}
-
 	@Override
 	public void bind(User user, Session session, String subscriptionIdPart)
 	{
-		if (firstCall.get())
-			refreshMatchers();
-
 		if (subscriptionsByIdPart.containsKey(subscriptionIdPart))
 		{
 			logger.debug("Binding websocket session {} to subscription {}", session.getId(), subscriptionIdPart);
-			asyncRemotesBySubscriptionIdPart.replace(subscriptionIdPart, list ->
+			SessionSendQueue sendQueue = sendQueuesBySessionId.computeIfAbsent(session.getId(),
+					id -> new SessionSendQueue(session, sendQueueCapacity, sendQueueOverflowPolicy));
+			sendQueuesBySubscriptionIdPart.replace(subscriptionIdPart, list ->
 			{
 				if (list == null)
 				{
-					List<SessionIdAndRemoteAsync> newList = new ArrayList<>();
-					newList.add(new SessionIdAndRemoteAsync(user, session.getId(), session.getAsyncRemote()));
+					List<SessionIdAndSendQueue> newList = new ArrayList<>();
+					newList.add(new SessionIdAndSendQueue(user, session.getId(), sendQueue));
 					return newList;
 				}
 				else
 				{
-					list.add(new SessionIdAndRemoteAsync(user, session.getId(), session.getAsyncRemote()));
+					list.add(new SessionIdAndSendQueue(user, session.getId(), sendQueue));
 					return list;
 				}
 			});
-			session.getAsyncRemote().sendText("bound " + subscriptionIdPart);
+			sendQueue.send(subscriptionIdPart, "bound " + subscriptionIdPart);
 		}
 		else
 		{
 			logger.warn("Could not bind websocket session {} to subscription {}, subscription not found",
 					session.getId(), subscriptionIdPart);
-			logger.debug("Current active subscription-ids: {}", subscriptionsByIdPart.getAllKeys());
+			logger.debug("Current active subscription-ids: {}", subscriptionsByIdPart.keySet());
 			closeNotFound(user, session, subscriptionIdPart);
 		}
 	}
@@ -408,7 +444,12 @@ public class WebSocketSubscriptionManagerImpl
 	public void close(String sessionId)
 	{
 		logger.debug("Removing websocket session {}", sessionId);
-		asyncRemotesBySubscriptionIdPart.removeWhereValueMatches(list -> list.isEmpty(),
-				list -> list.remove(new SessionIdAndRemoteAsync(null, sessionId, null)));
+
+		SessionSendQueue sendQueue = sendQueuesBySessionId.remove(sessionId);
+		if (sendQueue != null)
+			sendQueue.close();
+
+		sendQueuesBySubscriptionIdPart.removeWhereValueMatches(list -> list.isEmpty(),
+				list -> list.remove(new SessionIdAndSendQueue(null, sessionId, null)));
 	}
 }
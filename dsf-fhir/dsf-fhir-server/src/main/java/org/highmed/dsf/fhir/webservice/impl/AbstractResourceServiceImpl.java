@@ -1,6 +1,7 @@
 package org.highmed.dsf.fhir.webservice.impl;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
@@ -30,23 +31,31 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
+import org.highmed.dsf.fhir.adapter.AbstractFhirAdapter;
 import org.highmed.dsf.fhir.authorization.AuthorizationRule;
 import org.highmed.dsf.fhir.authorization.AuthorizationRuleProvider;
 import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.StoredJson;
 import org.highmed.dsf.fhir.dao.command.CheckReferencesCommand;
 import org.highmed.dsf.fhir.event.EventGenerator;
 import org.highmed.dsf.fhir.event.EventHandler;
+import org.highmed.dsf.fhir.function.BiFunctionWithSqlException;
+import org.highmed.dsf.fhir.function.TriFunctionWithSqlAndResourceNotFoundAndResouceVersionNoMatchException;
 import org.highmed.dsf.fhir.help.ExceptionHandler;
 import org.highmed.dsf.fhir.help.ParameterConverter;
 import org.highmed.dsf.fhir.help.ResponseGenerator;
+import org.highmed.dsf.fhir.help.StoredJsonOutput;
 import org.highmed.dsf.fhir.history.HistoryService;
 import org.highmed.dsf.fhir.prefer.PreferHandlingType;
+import org.highmed.dsf.fhir.prefer.PreferReturnType;
 import org.highmed.dsf.fhir.search.PartialResult;
 import org.highmed.dsf.fhir.search.SearchQuery;
 import org.highmed.dsf.fhir.search.SearchQueryParameterError;
+import org.highmed.dsf.fhir.search.SearchResultStream;
 import org.highmed.dsf.fhir.service.ReferenceCleaner;
 import org.highmed.dsf.fhir.service.ReferenceExtractor;
 import org.highmed.dsf.fhir.service.ReferenceResolver;
@@ -155,6 +164,25 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 
 	@Override
 	public Response create(R resource, UriInfo uri, HttpHeaders headers)
+	{
+		return create(resource, uri, headers,
+				(connection, r) -> dao.createWithTransactionAndId(connection, r, UUID.randomUUID()));
+	}
+
+	/**
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @param create
+	 *            not <code>null</code>, called with the read-write transaction and the given resource, needs to insert
+	 *            the resource into the database and return the created resource
+	 * @return create response
+	 */
+	protected final Response create(R resource, UriInfo uri, HttpHeaders headers,
+			BiFunctionWithSqlException<Connection, R, R> create)
 	{
 		checkAlreadyExists(headers); // might throw errors
 
@@ -168,7 +196,7 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 				{
 					resolveLogicalReferences(resource, connection);
 
-					R created = dao.createWithTransactionAndId(connection, resource, UUID.randomUUID());
+					R created = create.apply(connection, resource);
 
 					checkReferences(resource, connection, ref -> checkReferenceAfterCreate(resource, ref));
 
@@ -192,14 +220,31 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 			afterCreate.accept(createdResource);
 
 		URI location = toLocation(createdResource);
+		PreferReturnType preferReturn = parameterConverter.getPreferReturn(headers);
 
-		return responseGenerator.response(Status.CREATED, createdResource,
-				parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers),
-				parameterConverter.getPreferReturn(headers), () -> responseGenerator.created(location, createdResource))
+		return responseGenerator
+				.response(Status.CREATED,
+						PreferReturnType.REPRESENTATION.equals(preferReturn) ? toRepresentation(createdResource)
+								: createdResource,
+						parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers), preferReturn,
+						() -> responseGenerator.created(location, createdResource))
 				.location(location).lastModified(createdResource.getMeta().getLastUpdated())
 				.tag(new EntityTag(createdResource.getMeta().getVersionId(), true)).build();
 	}
 
+	/**
+	 * Override to modify the resource returned to the client after a create or update if the client requested the
+	 * resource representation, e.g. to load data not kept in memory while creating or updating
+	 *
+	 * @param resource
+	 *            not <code>null</code>, the created or updated resource
+	 * @return the resource to return to the client, not <code>null</code>
+	 */
+	protected R toRepresentation(R resource)
+	{
+		return resource;
+	}
+
 	/**
 	 * <i>Override this method to exclude references from being checked after a create, add similar rule to
 	 * {@link CheckReferencesCommand}</i>
@@ -372,6 +417,17 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 	@Override
 	public Response read(String id, UriInfo uri, HttpHeaders headers)
 	{
+		Optional<MediaType> storedJsonMediaType = parameterConverter.getMediaTypeIfSupported(uri, headers)
+				.filter(this::isStoredJsonReadSupported);
+		if (storedJsonMediaType.isPresent())
+		{
+			Optional<StoredJson> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase,
+					resourceTypeName, () -> dao.readJson(parameterConverter.toUuid(resourceTypeName, id)));
+
+			return read.map(json -> storedJsonResponse(new StoredJsonOutput(json), storedJsonMediaType.get(), headers))
+					.orElseGet(() -> Response.status(Status.NOT_FOUND).build()); // TODO return OperationOutcome
+		}
+
 		Optional<R> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, resourceTypeName,
 				() -> dao.read(parameterConverter.toUuid(resourceTypeName, id)));
 
@@ -397,6 +453,59 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 		}).orElseGet(() -> Response.status(Status.NOT_FOUND).build()); // TODO return OperationOutcome
 	}
 
+	/**
+	 * Stored json is returned without parsing, if the client requested non pretty printed json and the authorization
+	 * rule for this resource type can decide read access without the parsed resource
+	 *
+	 * @param mediaType
+	 *            not <code>null</code>
+	 * @return <code>true</code> if the resource can be returned as stored in the database
+	 */
+	protected boolean isStoredJsonReadSupported(MediaType mediaType)
+	{
+		return mediaType.getSubtype().contains("json")
+				&& !"true".equals(mediaType.getParameters().getOrDefault(AbstractFhirAdapter.PRETTY, "false"))
+				&& authorizationRuleProvider.getAuthorizationRule(resourceType)
+						.map(AuthorizationRule::isReadAllowedDecidableById).orElse(false);
+	}
+
+	private Response storedJsonResponse(StoredJsonOutput output, MediaType mediaType, HttpHeaders headers)
+	{
+		return getNotModifiedResponse(headers, output.getVersionId(), output.getLastUpdated()).orElseGet(() -> Response
+				.status(Status.OK).entity(output).type(mediaType.withCharset(StandardCharsets.UTF_8.displayName()))
+				.lastModified(output.getLastUpdated()).tag(new EntityTag(output.getVersionId(), true)).build());
+	}
+
+	/**
+	 * Evaluates the If-None-Match and If-Modified-Since headers.
+	 *
+	 * @param headers
+	 *            not <code>null</code>
+	 * @param versionId
+	 *            not <code>null</code>
+	 * @param lastUpdated
+	 *            may be <code>null</code>
+	 * @return 304 - Not Modified response, if the client has the given version, {@link Optional#empty()} otherwise
+	 */
+	protected final Optional<Response> getNotModifiedResponse(HttpHeaders headers, String versionId, Date lastUpdated)
+	{
+		Optional<EntityTag> ifNoneMatch = getHeaderString(headers, Constants.HEADER_IF_NONE_MATCH,
+				Constants.HEADER_IF_NONE_MATCH_LC).flatMap(parameterConverter::toEntityTag);
+		Optional<Date> ifModifiedSince = getHeaderString(headers, Constants.HEADER_IF_MODIFIED_SINCE,
+				Constants.HEADER_IF_MODIFIED_SINCE_LC).flatMap(this::toDate);
+
+		EntityTag resourceTag = new EntityTag(versionId, true);
+		if (ifNoneMatch.map(t -> t.equals(resourceTag)).orElse(false))
+			return Optional.of(Response.notModified(resourceTag).lastModified(lastUpdated).build());
+
+		// If-Modified-Since is ignored, when used in combination with If-None-Match
+		else if (ifNoneMatch.isEmpty() && lastUpdated != null
+				&& ifModifiedSince.map(d -> !afterWithSecondsPrecision(lastUpdated, d)).orElse(false))
+			return Optional.of(Response.notModified(resourceTag).lastModified(lastUpdated).build());
+		else
+			return Optional.empty();
+	}
+
 	private boolean afterWithSecondsPrecision(Date a, Date b)
 	{
 		LocalDateTime aLdt = a.toInstant().atZone(ZoneOffset.UTC.normalized()).toLocalDateTime()
@@ -439,6 +548,17 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 	@Override
 	public Response vread(String id, long version, UriInfo uri, HttpHeaders headers)
 	{
+		Optional<MediaType> storedJsonMediaType = parameterConverter.getMediaTypeIfSupported(uri, headers)
+				.filter(this::isStoredJsonReadSupported);
+		if (storedJsonMediaType.isPresent())
+		{
+			Optional<StoredJson> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, id,
+					() -> dao.readVersionJson(parameterConverter.toUuid(resourceTypeName, id), version));
+
+			return read.map(json -> storedJsonResponse(new StoredJsonOutput(json), storedJsonMediaType.get(), headers))
+					.orElseGet(() -> Response.status(Status.NOT_FOUND).build()); // TODO return OperationOutcome
+		}
+
 		Optional<R> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, id,
 				() -> dao.readVersion(parameterConverter.toUuid(resourceTypeName, id), version));
 
@@ -489,6 +609,27 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 
 	@Override
 	public Response update(String id, R resource, UriInfo uri, HttpHeaders headers)
+	{
+		return update(id, resource, uri, headers, (connection, r, expectedVersion) -> dao.update(r, expectedVersion));
+	}
+
+	/**
+	 * @param id
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @param update
+	 *            not <code>null</code>, called with the read-write transaction, the given resource and the expected
+	 *            version (may be <code>null</code>), needs to update the resource in the database and return the
+	 *            updated resource
+	 * @return update response
+	 */
+	protected final Response update(String id, R resource, UriInfo uri, HttpHeaders headers,
+			TriFunctionWithSqlAndResourceNotFoundAndResouceVersionNoMatchException<Connection, R, Long, R> update)
 	{
 		IdType resourceId = resource.getIdElement();
 
@@ -511,7 +652,7 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 						{
 							resolveLogicalReferences(resource, connection);
 
-							R updated = dao.update(resource, ifMatch.orElse(null));
+							R updated = update.apply(connection, resource, ifMatch.orElse(null));
 
 							checkReferences(resource, connection, ref -> checkReferenceAfterUpdate(updated, ref));
 
@@ -535,10 +676,13 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 			afterUpdate.accept(updatedResource);
 
 		URI location = toLocation(updatedResource);
+		PreferReturnType preferReturn = parameterConverter.getPreferReturn(headers);
 
 		return responseGenerator
-				.response(Status.OK, updatedResource, parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers),
-						parameterConverter.getPreferReturn(headers),
+				.response(Status.OK,
+						PreferReturnType.REPRESENTATION.equals(preferReturn) ? toRepresentation(updatedResource)
+								: updatedResource,
+						parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers), preferReturn,
 						() -> responseGenerator.updated(location, updatedResource))
 				.location(location).lastModified(updatedResource.getMeta().getLastUpdated())
 				.tag(new EntityTag(updatedResource.getMeta().getVersionId(), true)).build();
@@ -644,29 +788,59 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 			return responseGenerator.response(Status.BAD_REQUEST, responseGenerator.toOperationOutcomeError(errors),
 					parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
 
-		PartialResult<R> result = exceptionHandler.handleSqlException(() -> dao.search(query));
-
-		result = filterIncludeResources(result);
-
+		MediaType mediaType = parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
 		UriBuilder bundleUri = query.configureBundleUri(UriBuilder.fromPath(serverBase).path(path));
 
 		String format = queryParameters.getFirst(SearchQuery.PARAMETER_FORMAT);
 		String pretty = queryParameters.getFirst(SearchQuery.PARAMETER_PRETTY);
+
+		// results without include resources are written while read from the db, includes need to be filtered first
+		if (!query.hasIncludeParameters() && !query.getPageAndCount().isCursorPaging()
+				&& responseGenerator.isSearchSetStreamSupported(mediaType))
+			return searchStream(query, errors, bundleUri, format, pretty, mediaType);
+
+		PartialResult<R> result = exceptionHandler.handleSqlException(() -> dao.search(query));
+
+		result = filterIncludeResources(result);
+
 		Bundle searchSet = responseGenerator.createSearchSet(result, errors, bundleUri, format, pretty);
 
 		// clean literal references from bundle entries
 		searchSet.getEntry().stream().filter(BundleEntryComponent::hasResource).map(BundleEntryComponent::getResource)
 				.forEach(referenceCleaner::cleanLiteralReferences);
 
-		return responseGenerator
-				.response(Status.OK, searchSet, parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers))
-				.build();
+		return responseGenerator.response(Status.OK, searchSet, mediaType).build();
+	}
+
+	/*
+	 * Query executed and first row fetched before the response is returned, database errors up to this point result in
+	 * an OperationOutcome response
+	 */
+	private Response searchStream(SearchQuery<R> query, List<SearchQueryParameterError> errors, UriBuilder bundleUri,
+			String format, String pretty, MediaType mediaType)
+	{
+		SearchResultStream<R> stream = exceptionHandler.handleSqlException(() -> dao.searchStream(query));
+
+		try
+		{
+			StreamingOutput output = responseGenerator.createSearchSetStream(stream, errors, bundleUri, format, pretty,
+					mediaType, referenceCleaner::cleanLiteralReferences);
+
+			return Response.status(Status.OK).entity(output)
+					.type(mediaType.withCharset(StandardCharsets.UTF_8.displayName())).build();
+		}
+		catch (RuntimeException e)
+		{
+			exceptionHandler.catchAndLogSqlException(stream::close);
+			throw e;
+		}
 	}
 
 	private PartialResult<R> filterIncludeResources(PartialResult<R> result)
 	{
 		List<Resource> includes = filterIncludeResources(result.getIncludes());
-		return new PartialResult<R>(result.getTotal(), result.getPageAndCount(), result.getPartialResult(), includes);
+		return new PartialResult<R>(result.getTotal(), result.getTotalMode(), result.getPageAndCount(),
+				result.getPartialResult(), includes);
 	}
 
 	private List<Resource> filterIncludeResources(List<Resource> includes)
@@ -1,17 +1,28 @@
 package org.highmed.dsf.fhir.webservice.impl;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
 import org.highmed.dsf.fhir.authorization.AuthorizationRuleProvider;
 import org.highmed.dsf.fhir.dao.BinaryDao;
+import org.highmed.dsf.fhir.dao.BinaryWithoutData;
 import org.highmed.dsf.fhir.event.EventGenerator;
 import org.highmed.dsf.fhir.event.EventHandler;
+import org.highmed.dsf.fhir.help.BinaryDataStreamingOutput;
+import org.highmed.dsf.fhir.help.ByteRange;
 import org.highmed.dsf.fhir.help.ExceptionHandler;
 import org.highmed.dsf.fhir.help.ParameterConverter;
 import org.highmed.dsf.fhir.help.ResponseGenerator;
@@ -27,6 +38,15 @@ import ca.uhn.fhir.rest.api.Constants;
 
 public class BinaryServiceImpl extends AbstractResourceServiceImpl<BinaryDao, Binary> implements BinaryService
 {
+	private static final String[] FHIR_MEDIA_TYPES = { Constants.CT_FHIR_XML_NEW, Constants.CT_FHIR_JSON_NEW,
+			Constants.CT_FHIR_XML, Constants.CT_FHIR_JSON };
+
+	private static final String HEADER_RANGE = "Range";
+	private static final String HEADER_IF_RANGE = "If-Range";
+	private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+	private static final String HEADER_CONTENT_RANGE = "Content-Range";
+	private static final int STATUS_RANGE_NOT_SATISFIABLE = 416;
+
 	public BinaryServiceImpl(String path, String serverBase, int defaultPageCount, BinaryDao dao,
 			ResourceValidator validator, EventHandler eventHandler, ExceptionHandler exceptionHandler,
 			EventGenerator eventGenerator, ResponseGenerator responseGenerator, ParameterConverter parameterConverter,
@@ -51,6 +71,152 @@ public class BinaryServiceImpl extends AbstractResourceServiceImpl<BinaryDao, Bi
 		throw new UnsupportedOperationException("Implemented and delegated by jaxrs layer");
 	}
 
+	@Override
+	public Response create(Binary resource, InputStream data, UriInfo uri, HttpHeaders headers)
+	{
+		return create(resource, uri, headers, (connection, r) ->
+		{
+			try
+			{
+				return dao.createWithTransactionAndId(connection, r, UUID.randomUUID(), data);
+			}
+			catch (IOException e)
+			{
+				throw new WebApplicationException(e);
+			}
+		});
+	}
+
+	@Override
+	public Response update(String id, Binary resource, InputStream data, UriInfo uri, HttpHeaders headers)
+	{
+		return update(id, resource, uri, headers, (connection, r, expectedVersion) ->
+		{
+			try
+			{
+				return dao.updateWithTransaction(connection, r, expectedVersion, data);
+			}
+			catch (IOException e)
+			{
+				throw new WebApplicationException(e);
+			}
+		});
+	}
+
+	/**
+	 * Binary resources created or updated from a data stream are returned without data by the dao, data is read from
+	 * the database only if the client requested the resource representation.
+	 */
+	@Override
+	protected Binary toRepresentation(Binary resource)
+	{
+		if (resource.hasData())
+			return resource;
+
+		return exceptionHandler.handleSqlAndResourceDeletedException(serverBase, resourceTypeName,
+				() -> dao.readVersion(parameterConverter.toUuid(resourceTypeName, resource.getIdElement().getIdPart()),
+						resource.getMeta().getVersionIdElement().getIdPartAsLong()))
+				.orElse(resource);
+	}
+
+	@Override
+	public Response read(String id, UriInfo uri, HttpHeaders headers)
+	{
+		if (isValidFhirRequest(uri, headers))
+			return super.read(id, uri, headers);
+
+		Optional<BinaryWithoutData> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase,
+				resourceTypeName, () -> dao.readWithoutData(parameterConverter.toUuid(resourceTypeName, id)));
+
+		return read.map(binary -> dataResponse(binary, headers))
+				.orElseGet(() -> Response.status(Status.NOT_FOUND).build()); // TODO return OperationOutcome
+	}
+
+	@Override
+	public Response vread(String id, long version, UriInfo uri, HttpHeaders headers)
+	{
+		if (isValidFhirRequest(uri, headers))
+			return super.vread(id, version, uri, headers);
+
+		Optional<BinaryWithoutData> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, id,
+				() -> dao.readVersionWithoutData(parameterConverter.toUuid(resourceTypeName, id), version));
+
+		return read.map(binary -> dataResponse(binary, headers))
+				.orElseGet(() -> Response.status(Status.NOT_FOUND).build()); // TODO return OperationOutcome
+	}
+
+	private boolean isValidFhirRequest(UriInfo uri, HttpHeaders headers)
+	{
+		// _format parameter override present and valid
+		if (uri.getQueryParameters().containsKey(Constants.PARAM_FORMAT))
+		{
+			parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
+			return true;
+		}
+		else
+		{
+			MediaType accept = getMediaType(uri, headers);
+
+			// accept header is FHIR mime-type
+			return accept != null && Arrays.stream(FHIR_MEDIA_TYPES).anyMatch(f -> f.equals(accept.toString()));
+		}
+	}
+
+	/*
+	 * The data is streamed from the database after the read was authorized by the secure layer, the Accept header is
+	 * checked against the content type by the jaxrs layer.
+	 */
+	private Response dataResponse(BinaryWithoutData read, HttpHeaders headers)
+	{
+		Binary binary = read.getBinary();
+		String versionId = binary.getMeta().getVersionId();
+		EntityTag tag = new EntityTag(versionId, true);
+
+		Optional<Response> notModified = getNotModifiedResponse(headers, versionId, binary.getMeta().getLastUpdated());
+		if (notModified.isPresent())
+			return notModified.get();
+
+		Optional<ByteRange> range = ByteRange.parse(headers.getHeaderString(HEADER_RANGE), read.getDataLength());
+
+		// range ignored if the client has a different version
+		String ifRange = headers.getHeaderString(HEADER_IF_RANGE);
+		if (ifRange != null && !ifRange.trim().equals(tag.toString()))
+			range = Optional.empty();
+
+		ResponseBuilder b;
+		if (range.isPresent() && !range.get().isSatisfiable())
+		{
+			b = Response.status(STATUS_RANGE_NOT_SATISFIABLE).entity(new BinaryDataStreamingOutput(dao, binary, 0, 0));
+			b = b.header(HEADER_CONTENT_RANGE, range.get().getContentRange());
+			b = b.header(HttpHeaders.CONTENT_LENGTH, 0);
+		}
+		else if (range.isPresent())
+		{
+			b = Response.status(Status.PARTIAL_CONTENT).entity(
+					new BinaryDataStreamingOutput(dao, binary, range.get().getFirst(), range.get().getLength()));
+			b = b.header(HEADER_CONTENT_RANGE, range.get().getContentRange());
+			b = b.header(HttpHeaders.CONTENT_LENGTH, range.get().getLength());
+		}
+		else
+		{
+			b = Response.status(Status.OK).entity(new BinaryDataStreamingOutput(dao, binary, 0, read.getDataLength()));
+			b = b.header(HttpHeaders.CONTENT_LENGTH, read.getDataLength());
+		}
+
+		b = b.type(binary.getContentType());
+		b = b.header(HEADER_ACCEPT_RANGES, "bytes");
+		b = b.lastModified(binary.getMeta().getLastUpdated());
+		b = b.tag(tag);
+
+		if (binary.hasSecurityContext() && binary.getSecurityContext().hasReference())
+		{
+			// Not setting header for logical references
+			b.header(Constants.HEADER_X_SECURITY_CONTEXT, binary.getSecurityContext().getReference());
+		}
+
+		return b.build();
+	}
+
 	@Override
 	protected MediaType getMediaTypeForRead(UriInfo uri, HttpHeaders headers)
 	{
@@ -60,6 +226,13 @@ public class BinaryServiceImpl extends AbstractResourceServiceImpl<BinaryDao, Bi
 			return getMediaType(uri, headers);
 	}
 
+	@Override
+	protected boolean isStoredJsonReadSupported(MediaType mediaType)
+	{
+		// binary data not stored in json column
+		return false;
+	}
+
 	@Override
 	protected MediaType getMediaTypeForVRead(UriInfo uri, HttpHeaders headers)
 	{
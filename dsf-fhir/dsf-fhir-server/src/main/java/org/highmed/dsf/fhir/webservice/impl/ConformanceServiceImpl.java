@@ -302,6 +302,7 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 		Extension websocketExtension = rest.addExtension();
 		websocketExtension.setUrl("http://hl7.org/fhir/StructureDefinition/capabilitystatement-websocket");
 		websocketExtension.setValue(new UrlType(serverBase.replace("http", "ws") + ServerEndpoint.PATH));
+		rest.addOperation(createExportOperation());
 
 		var resources = Arrays.asList(ActivityDefinition.class, Binary.class, Bundle.class, CodeSystem.class,
 				DocumentReference.class, Endpoint.class, Group.class, HealthcareService.class, Library.class,
@@ -402,7 +403,7 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 
 		var standardSortableSearchParameters = Arrays.asList(ResourceId.class, ResourceLastUpdated.class,
 				ResourceProfile.class);
-		var standardOperations = Arrays.asList(createValidateOperation());
+		var standardOperations = Arrays.asList(createValidateOperation(), createExportOperation());
 
 		Map<String, List<CanonicalType>> profileUrlsByResource = validationSupport.fetchAllStructureDefinitions()
 				.stream().filter(r -> r instanceof StructureDefinition).map(r -> (StructureDefinition) r)
@@ -442,6 +443,7 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 					.forEach(r::addSearchParam);
 
 			r.addSearchParam(createCountParameter(defaultPageCount));
+			r.addSearchParam(createCursorParameter());
 			r.addSearchParam(createFormatParameter());
 			r.addSearchParam(createIdParameter());
 
@@ -472,6 +474,9 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 
 			r.addSearchParam(createSortParameter(
 					Stream.concat(standardSortableSearchParameters.stream(), resourceSearchParameters.stream())));
+			if (Binary.class.equals(resource))
+				r.addSearchParam(createSummaryParameter());
+			r.addSearchParam(createTotalParameter());
 
 			operations.getOrDefault(resource, Collections.emptyList()).forEach(r::addOperation);
 			standardOperations.forEach(r::addOperation);
@@ -517,6 +522,12 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 				"The validate operation checks whether the attached content would be acceptable either generally, as a create, an update or as a delete to an existing resource. The action the server takes depends on the mode parameter");
 	}
 
+	private CapabilityStatementRestResourceOperationComponent createExportOperation()
+	{
+		return createOperation("export", "http://hl7.org/fhir/uv/bulkdata/OperationDefinition/export",
+				"Asynchronous bulk data export of current resources as NDJSON files, supports the _type and _since parameters, allowed for local users");
+	}
+
 	private CapabilityStatementRestResourceSearchParamComponent createSortParameter(
 			@SuppressWarnings("rawtypes") Stream<Class<? extends AbstractSearchParameter>> parameters)
 	{
@@ -539,6 +550,24 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 				"Specify the page number, 1 if not specified");
 	}
 
+	private CapabilityStatementRestResourceSearchParamComponent createCursorParameter()
+	{
+		return createSearchParameter("_cursor", "", SearchParamType.SPECIAL,
+				"Continuation token for the next page, only supported if sorted by _lastUpdated or -_lastUpdated, use the next link of the searchset Bundle");
+	}
+
+	private CapabilityStatementRestResourceSearchParamComponent createSummaryParameter()
+	{
+		return createSearchParameter("_summary", "", SearchParamType.SPECIAL,
+				"Return only summary elements, Binary resources without data, allowed values: [true, false], false if not specified");
+	}
+
+	private CapabilityStatementRestResourceSearchParamComponent createTotalParameter()
+	{
+		return createSearchParameter("_total", "", SearchParamType.SPECIAL,
+				"Specify how the total number of matches is calculated, allowed values: [none, estimate, accurate], accurate if not specified");
+	}
+
 	private CapabilityStatementRestResourceSearchParamComponent createCountParameter(int defaultPageCount)
 	{
 		return createSearchParameter("_count", "", SearchParamType.NUMBER,
@@ -0,0 +1,228 @@
+package org.highmed.dsf.fhir.webservice.impl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.highmed.dsf.fhir.export.ExportJob;
+import org.highmed.dsf.fhir.export.ExportJob.OutputFile;
+import org.highmed.dsf.fhir.export.ExportJobManager;
+import org.highmed.dsf.fhir.help.ParameterConverter;
+import org.highmed.dsf.fhir.help.ResponseGenerator;
+import org.highmed.dsf.fhir.webservice.base.AbstractBasicService;
+import org.highmed.dsf.fhir.webservice.specification.ExportService;
+import org.hl7.fhir.r4.model.InstantType;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.OperationOutcome.IssueSeverity;
+import org.hl7.fhir.r4.model.OperationOutcome.IssueType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import ca.uhn.fhir.rest.api.Constants;
+
+public class ExportServiceImpl extends AbstractBasicService implements ExportService, InitializingBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+	private static final String HEADER_PROGRESS = "X-Progress";
+	private static final String HEADER_RETRY_AFTER = "Retry-After";
+	private static final String RETRY_AFTER_SECONDS = "10";
+	private static final String RESOURCE_TYPE_NAME = "Export";
+
+	private final String path;
+	private final String serverBase;
+	private final ResponseGenerator responseGenerator;
+	private final ParameterConverter parameterConverter;
+	private final DaoProvider daoProvider;
+	private final ExportJobManager exportJobManager;
+	private final ObjectMapper objectMapper;
+
+	public ExportServiceImpl(String path, String serverBase, ResponseGenerator responseGenerator,
+			ParameterConverter parameterConverter, DaoProvider daoProvider, ExportJobManager exportJobManager,
+			ObjectMapper objectMapper)
+	{
+		this.path = path;
+		this.serverBase = serverBase;
+		this.responseGenerator = responseGenerator;
+		this.parameterConverter = parameterConverter;
+		this.daoProvider = daoProvider;
+		this.exportJobManager = exportJobManager;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(path, "path");
+		Objects.requireNonNull(serverBase, "serverBase");
+		Objects.requireNonNull(responseGenerator, "responseGenerator");
+		Objects.requireNonNull(parameterConverter, "parameterConverter");
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(exportJobManager, "exportJobManager");
+		Objects.requireNonNull(objectMapper, "objectMapper");
+	}
+
+	@Override
+	public Response export(UriInfo uri, HttpHeaders headers)
+	{
+		MultivaluedMap<String, String> queryParameters = uri.getQueryParameters();
+
+		List<String> outputFormats = queryParameters.getOrDefault(PARAMETER_OUTPUT_FORMAT, List.of());
+		if (outputFormats.stream().anyMatch(f -> !Constants.CTS_NDJSON.contains(f)))
+			return badRequest(uri, headers, "Unsupported " + PARAMETER_OUTPUT_FORMAT + " " + outputFormats + ", only "
+					+ Constants.CT_FHIR_NDJSON + " supported");
+
+		List<String> resourceTypes = queryParameters.getOrDefault(PARAMETER_TYPE, List.of()).stream()
+				.flatMap(t -> Stream.of(t.split(","))).map(String::trim).filter(t -> !t.isEmpty()).distinct()
+				.collect(Collectors.toList());
+		List<String> unsupportedResourceTypes = resourceTypes.stream()
+				.filter(t -> !daoProvider.getResourceTypeNames().contains(t)).collect(Collectors.toList());
+		if (!unsupportedResourceTypes.isEmpty())
+			return badRequest(uri, headers,
+					"Unsupported resource type" + (unsupportedResourceTypes.size() != 1 ? "s " : " ")
+							+ unsupportedResourceTypes.stream().collect(Collectors.joining(", ")) + " in "
+							+ PARAMETER_TYPE);
+		if (resourceTypes.isEmpty())
+			resourceTypes = new ArrayList<>(daoProvider.getResourceTypeNames());
+
+		List<String> sinceValues = queryParameters.getOrDefault(PARAMETER_SINCE, List.of());
+		if (sinceValues.size() > 1)
+			return badRequest(uri, headers, "More than one " + PARAMETER_SINCE + " parameter");
+		Date since = null;
+		if (sinceValues.size() == 1)
+		{
+			try
+			{
+				since = new InstantType(sinceValues.get(0)).getValue();
+			}
+			catch (Exception e)
+			{
+				return badRequest(uri, headers, "Unsupported " + PARAMETER_SINCE + " value '" + sinceValues.get(0)
+						+ "', FHIR instant expected");
+			}
+		}
+
+		ExportJob job = exportJobManager.start(getCurrentUser(), resourceTypes, since, uri.getRequestUri().toString());
+
+		return Response.status(Status.ACCEPTED).header(HttpHeaders.CONTENT_LOCATION, getJobUrl(job)).build();
+	}
+
+	private Response badRequest(UriInfo uri, HttpHeaders headers, String diagnostics)
+	{
+		logger.warn("Bad export request '{}': {}", uri.getRequestUri().toString(), diagnostics);
+
+		OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.PROCESSING,
+				diagnostics);
+		return responseGenerator
+				.response(Status.BAD_REQUEST, outcome, parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers))
+				.build();
+	}
+
+	private String getJobUrl(ExportJob job)
+	{
+		return serverBase + "/" + path + "/" + job.getId();
+	}
+
+	private Optional<ExportJob> getJob(String jobId)
+	{
+		return exportJobManager.getJob(jobId).filter(j -> j.isOwnedBy(getCurrentUser()));
+	}
+
+	@Override
+	public Response status(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		Optional<ExportJob> job = getJob(jobId);
+		if (job.isEmpty())
+			return responseGenerator.notFound(jobId, RESOURCE_TYPE_NAME);
+
+		switch (job.get().getStatus())
+		{
+			case IN_PROGRESS:
+				return Response.status(Status.ACCEPTED)
+						.header(HEADER_PROGRESS,
+								job.get().getExportedResourceTypes() + " of " + job.get().getResourceTypes().size()
+										+ " resource types exported")
+						.header(HEADER_RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+
+			case COMPLETED:
+				return manifest(job.get());
+
+			case FAILED:
+				OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.EXCEPTION,
+						job.get().getError());
+				return responseGenerator.response(Status.INTERNAL_SERVER_ERROR, outcome,
+						parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
+
+			default:
+				return responseGenerator.notFound(jobId, RESOURCE_TYPE_NAME);
+		}
+	}
+
+	private Response manifest(ExportJob job)
+	{
+		ObjectNode manifest = objectMapper.createObjectNode();
+		manifest.put("transactionTime", new InstantType(job.getTransactionTime()).getValueAsString());
+		manifest.put("request", job.getRequestUrl());
+		manifest.put("requiresAccessToken", true);
+
+		ArrayNode output = manifest.putArray("output");
+		for (OutputFile file : job.getOutput())
+		{
+			output.addObject().put("type", file.getResourceType()).put("url", getJobUrl(job) + "/" + file.getFileName())
+					.put("count", file.getCount());
+		}
+
+		manifest.putArray("error");
+
+		try
+		{
+			return Response.ok(objectMapper.writeValueAsString(manifest), MediaType.APPLICATION_JSON_TYPE).build();
+		}
+		catch (JsonProcessingException e)
+		{
+			logger.error("Error while writing export manifest", e);
+			return Response.serverError().build();
+		}
+	}
+
+	@Override
+	public Response delete(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		if (getJob(jobId).isPresent() && exportJobManager.delete(jobId))
+			return Response.status(Status.ACCEPTED).build();
+		else
+			return responseGenerator.notFound(jobId, RESOURCE_TYPE_NAME);
+	}
+
+	@Override
+	public Response file(String jobId, String fileName, UriInfo uri, HttpHeaders headers)
+	{
+		Optional<Path> file = getJob(jobId).flatMap(job -> exportJobManager.getFile(job, fileName));
+		if (file.isEmpty())
+			return responseGenerator.notFound(jobId + "/" + fileName, RESOURCE_TYPE_NAME + " file");
+
+		StreamingOutput stream = output -> Files.copy(file.get(), output);
+		return Response.ok(stream, Constants.CT_FHIR_NDJSON).build();
+	}
+}
@@ -0,0 +1,135 @@
+package org.highmed.dsf.fhir.webservice.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
+
+import org.highmed.dsf.fhir.help.ParameterConverter;
+import org.highmed.dsf.fhir.help.ResponseGenerator;
+import org.highmed.dsf.fhir.importer.ImportJob;
+import org.highmed.dsf.fhir.importer.ImportJobManager;
+import org.highmed.dsf.fhir.webservice.base.AbstractBasicService;
+import org.highmed.dsf.fhir.webservice.specification.ImportService;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.OperationOutcome.IssueSeverity;
+import org.hl7.fhir.r4.model.OperationOutcome.IssueType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+public class ImportServiceImpl extends AbstractBasicService implements ImportService, InitializingBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ImportServiceImpl.class);
+
+	private static final String HEADER_PROGRESS = "X-Progress";
+	private static final String HEADER_RETRY_AFTER = "Retry-After";
+	private static final String RETRY_AFTER_SECONDS = "10";
+	private static final String RESOURCE_TYPE_NAME = "Import";
+
+	private final String path;
+	private final String serverBase;
+	private final ResponseGenerator responseGenerator;
+	private final ParameterConverter parameterConverter;
+	private final ImportJobManager importJobManager;
+
+	public ImportServiceImpl(String path, String serverBase, ResponseGenerator responseGenerator,
+			ParameterConverter parameterConverter, ImportJobManager importJobManager)
+	{
+		this.path = path;
+		this.serverBase = serverBase;
+		this.responseGenerator = responseGenerator;
+		this.parameterConverter = parameterConverter;
+		this.importJobManager = importJobManager;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(path, "path");
+		Objects.requireNonNull(serverBase, "serverBase");
+		Objects.requireNonNull(responseGenerator, "responseGenerator");
+		Objects.requireNonNull(parameterConverter, "parameterConverter");
+		Objects.requireNonNull(importJobManager, "importJobManager");
+	}
+
+	@Override
+	public Response importResources(InputStream ndjson, UriInfo uri, HttpHeaders headers)
+	{
+		try
+		{
+			ImportJob job = importJobManager.start(getCurrentUser(), ndjson, uri.getRequestUri().toString());
+
+			return Response.status(Status.ACCEPTED)
+					.header(HttpHeaders.CONTENT_LOCATION, serverBase + "/" + path + "/" + job.getId()).build();
+		}
+		catch (IOException e)
+		{
+			logger.warn("Error while storing import stream: {} - {}", e.getClass().getName(), e.getMessage());
+
+			OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.EXCEPTION,
+					"Error while storing import stream");
+			return responseGenerator.response(Status.INTERNAL_SERVER_ERROR, outcome,
+					parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
+		}
+	}
+
+	private Optional<ImportJob> getJob(String jobId)
+	{
+		return importJobManager.getJob(jobId).filter(j -> j.isOwnedBy(getCurrentUser()));
+	}
+
+	@Override
+	public Response status(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		Optional<ImportJob> job = getJob(jobId);
+		if (job.isEmpty())
+			return responseGenerator.notFound(jobId, RESOURCE_TYPE_NAME);
+
+		switch (job.get().getStatus())
+		{
+			case IN_PROGRESS:
+				return Response.status(Status.ACCEPTED).header(HEADER_PROGRESS, toProgress(job.get()))
+						.header(HEADER_RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+
+			case COMPLETED:
+				OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.INFORMATION,
+						IssueType.INFORMATIONAL, toProgress(job.get()));
+				job.get().getIssues().forEach(i -> outcome.addIssue().setSeverity(IssueSeverity.ERROR)
+						.setCode(IssueType.INVALID).setDiagnostics("Line " + i.getLine() + ": " + i.getMessage()));
+
+				return responseGenerator
+						.response(Status.OK, outcome, parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers))
+						.build();
+
+			case FAILED:
+				OperationOutcome failed = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.EXCEPTION,
+						job.get().getError() + ", import the same stream again to resume");
+				return responseGenerator.response(Status.INTERNAL_SERVER_ERROR, failed,
+						parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
+
+			default:
+				return responseGenerator.notFound(jobId, RESOURCE_TYPE_NAME);
+		}
+	}
+
+	private String toProgress(ImportJob job)
+	{
+		return job.getProcessed() + " lines processed, " + job.getImported() + " resources imported, "
+				+ job.getSkipped() + " skipped (already existing), " + job.getInvalid() + " invalid";
+	}
+
+	@Override
+	public Response delete(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		if (getJob(jobId).isPresent() && importJobManager.delete(jobId))
+			return Response.status(Status.ACCEPTED).build();
+		else
+			return responseGenerator.notFound(jobId, RESOURCE_TYPE_NAME);
+	}
+}
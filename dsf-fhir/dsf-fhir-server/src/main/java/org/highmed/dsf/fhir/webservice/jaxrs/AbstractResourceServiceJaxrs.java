@@ -1,5 +1,7 @@
 package org.highmed.dsf.fhir.webservice.jaxrs;
 
+import java.net.URI;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -15,6 +17,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import org.highmed.dsf.fhir.webservice.specification.BasicResourceService;
+import org.highmed.dsf.fhir.webservice.specification.ExportService;
 import org.hl7.fhir.r4.model.Parameters;
 import org.hl7.fhir.r4.model.Resource;
 import org.slf4j.Logger;
@@ -220,6 +223,26 @@ public abstract class AbstractResourceServiceJaxrs<R extends Resource, S extends
 		return delegate.getValidateExisting(validatePath, id, uri, headers);
 	}
 
+	/**
+	 * Type level bulk data export, redirects to the system level export restricted to the resource type of this service
+	 * via the <code>_type</code> parameter.
+	 */
+	@GET
+	@Path("/{export : [$]export(/)?}")
+	@Produces({ MediaType.TEXT_HTML, Constants.CT_FHIR_JSON, Constants.CT_FHIR_JSON_NEW, MediaType.APPLICATION_JSON,
+			Constants.CT_FHIR_XML, Constants.CT_FHIR_XML_NEW, MediaType.APPLICATION_XML })
+	public Response export(@Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		String resourceTypeName = getClass().getAnnotation(Path.class).value();
+		URI location = uri.getBaseUriBuilder().path(ExportServiceJaxrs.PATH)
+				.replaceQuery(uri.getRequestUri().getRawQuery())
+				.replaceQueryParam(ExportService.PARAMETER_TYPE, resourceTypeName).build();
+
+		return Response.temporaryRedirect(location).build();
+	}
+
 	@POST
 	@Path("/{id}/{delete : [$]permanent-delete(/)?}")
 	@Consumes({ Constants.CT_FHIR_JSON, Constants.CT_FHIR_JSON_NEW, MediaType.APPLICATION_JSON, Constants.CT_FHIR_XML,
@@ -1,11 +1,8 @@
 package org.highmed.dsf.fhir.webservice.jaxrs;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
@@ -16,15 +13,13 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
-import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
-import org.highmed.dsf.fhir.help.ParameterConverter;
+import org.highmed.dsf.fhir.help.BinaryDataStreamingOutput;
 import org.highmed.dsf.fhir.webservice.specification.BinaryService;
 import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.Reference;
@@ -40,23 +35,9 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 
 	private static final Logger logger = LoggerFactory.getLogger(BinaryServiceJaxrs.class);
 
-	private final String[] FHIR_MEDIA_TYPES = { Constants.CT_FHIR_XML_NEW, Constants.CT_FHIR_JSON_NEW,
-			Constants.CT_FHIR_XML, Constants.CT_FHIR_JSON };
-	private final ParameterConverter parameterConverter;
-
-	public BinaryServiceJaxrs(BinaryService delegate, ParameterConverter parameterConverter)
+	public BinaryServiceJaxrs(BinaryService delegate)
 	{
 		super(delegate);
-
-		this.parameterConverter = parameterConverter;
-	}
-
-	@Override
-	public void afterPropertiesSet() throws Exception
-	{
-		super.afterPropertiesSet();
-
-		Objects.requireNonNull(parameterConverter, "parameterConverter");
 	}
 
 	@POST
@@ -72,10 +53,10 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 		{
 			String securityContext = getSecurityContext(headers);
 			String contentType = getContentType(headers);
-			byte[] content = in.readAllBytes();
 
-			Binary resource = createBinary(contentType, content, securityContext);
-			return delegate.create(resource, uri, headers);
+			// data read from the request while written to the database
+			Binary resource = createBinary(contentType, securityContext);
+			return delegate.create(resource, in, uri, headers);
 		}
 		catch (IOException e)
 		{
@@ -83,11 +64,16 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 		}
 	}
 
-	private Binary createBinary(String contentType, byte[] content, String securityContextReference)
+	@Override
+	public Response create(Binary resource, InputStream data, UriInfo uri, HttpHeaders headers)
+	{
+		return delegate.create(resource, data, uri, headers);
+	}
+
+	private Binary createBinary(String contentType, String securityContextReference)
 	{
 		Binary resource = new Binary();
 		resource.setContentType(contentType);
-		resource.setContent(content);
 		resource.setSecurityContext(new Reference(securityContextReference));
 		return resource;
 	}
@@ -150,16 +136,14 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 	@Override
 	public Response read(@PathParam("id") String id, @Context UriInfo uri, @Context HttpHeaders headers)
 	{
-		Response read = super.read(id, uri, headers);
+		return notAcceptableIfMediaTypeNotMatching(super.read(id, uri, headers), headers);
+	}
 
-		if (read.getEntity() instanceof Binary && !isValidFhirRequest(uri, headers))
-		{
-			Binary binary = (Binary) read.getEntity();
-			if (mediaTypeMatches(headers, binary))
-				return toStream(binary);
-			else
-				return Response.status(Status.NOT_ACCEPTABLE).build();
-		}
+	private Response notAcceptableIfMediaTypeNotMatching(Response read, HttpHeaders headers)
+	{
+		if (read.getEntity() instanceof BinaryDataStreamingOutput
+				&& !mediaTypeMatches(headers, ((BinaryDataStreamingOutput) read.getEntity()).getBinary()))
+			return Response.status(Status.NOT_ACCEPTABLE).build();
 		else
 			return read;
 	}
@@ -171,30 +155,6 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 				.anyMatch(acceptType -> acceptType.isCompatible(binaryMediaType));
 	}
 
-	private Response toStream(Binary binary)
-	{
-		String contentType = binary.getContentType();
-		byte[] content = binary.getContent();
-
-		ResponseBuilder b = Response.status(Status.OK).entity(new ByteArrayInputStream(content));
-		b = b.type(contentType);
-
-		if (binary.getMeta() != null && binary.getMeta().getLastUpdated() != null
-				&& binary.getMeta().getVersionId() != null)
-		{
-			b = b.lastModified(binary.getMeta().getLastUpdated());
-			b = b.tag(new EntityTag(binary.getMeta().getVersionId(), true));
-		}
-
-		if (binary.hasSecurityContext() && binary.getSecurityContext().hasReference())
-		{
-			// Not setting header for logical references
-			b.header(Constants.HEADER_X_SECURITY_CONTEXT, binary.getSecurityContext().getReference());
-		}
-
-		return b.build();
-	}
-
 	@GET
 	@Path("/{id}/_history/{version}")
 	@Produces
@@ -202,36 +162,7 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 	public Response vread(@PathParam("id") String id, @PathParam("version") long version, @Context UriInfo uri,
 			@Context HttpHeaders headers)
 	{
-		Response read = super.vread(id, version, uri, headers);
-
-		if (read.getEntity() instanceof Binary && !isValidFhirRequest(uri, headers))
-		{
-			Binary binary = (Binary) read.getEntity();
-			if (mediaTypeMatches(headers, binary))
-				return toStream(binary);
-			else
-				return Response.status(Status.NOT_ACCEPTABLE).build();
-		}
-		else
-			return read;
-	}
-
-	private boolean isValidFhirRequest(UriInfo uri, HttpHeaders headers)
-	{
-		// _format parameter override present and valid
-		if (uri.getQueryParameters().containsKey(Constants.PARAM_FORMAT))
-		{
-			parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
-			return true;
-		}
-		else
-		{
-			List<MediaType> types = headers.getAcceptableMediaTypes();
-			MediaType accept = types == null ? null : types.get(0);
-
-			// accept header is FHIR mime-type
-			return Arrays.stream(FHIR_MEDIA_TYPES).anyMatch(f -> f.equals(accept.toString()));
-		}
+		return notAcceptableIfMediaTypeNotMatching(super.vread(id, version, uri, headers), headers);
 	}
 
 	@PUT
@@ -249,14 +180,20 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 		{
 			String securityContext = getSecurityContext(headers);
 			String contentType = getContentType(headers);
-			byte[] content = in.readAllBytes();
 
-			Binary resource = createBinary(contentType, content, securityContext);
-			return delegate.update(id, resource, uri, headers);
+			// data read from the request while written to the database
+			Binary resource = createBinary(contentType, securityContext);
+			return delegate.update(id, resource, in, uri, headers);
 		}
 		catch (IOException e)
 		{
 			throw new WebApplicationException(e);
 		}
 	}
+
+	@Override
+	public Response update(String id, Binary resource, InputStream data, UriInfo uri, HttpHeaders headers)
+	{
+		return delegate.update(id, resource, data, uri, headers);
+	}
 }
@@ -0,0 +1,67 @@
+package org.highmed.dsf.fhir.webservice.jaxrs;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.highmed.dsf.fhir.webservice.specification.ExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Path(ExportServiceJaxrs.PATH)
+public class ExportServiceJaxrs extends AbstractServiceJaxrs<ExportService> implements ExportService
+{
+	public static final String PATH = "$export";
+
+	private static final Logger logger = LoggerFactory.getLogger(ExportServiceJaxrs.class);
+
+	public ExportServiceJaxrs(ExportService delegate)
+	{
+		super(delegate);
+	}
+
+	@GET
+	@Override
+	public Response export(@Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.export(uri, headers);
+	}
+
+	@GET
+	@Path("/{jobId}")
+	@Override
+	public Response status(@PathParam("jobId") String jobId, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.status(jobId, uri, headers);
+	}
+
+	@DELETE
+	@Path("/{jobId}")
+	@Override
+	public Response delete(@PathParam("jobId") String jobId, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("DELETE {}", uri.getRequestUri().toString());
+
+		return delegate.delete(jobId, uri, headers);
+	}
+
+	@GET
+	@Path("/{jobId}/{fileName}")
+	@Override
+	public Response file(@PathParam("jobId") String jobId, @PathParam("fileName") String fileName, @Context UriInfo uri,
+			@Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.file(jobId, fileName, uri, headers);
+	}
+}
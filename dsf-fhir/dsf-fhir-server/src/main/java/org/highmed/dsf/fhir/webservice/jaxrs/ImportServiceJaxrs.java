@@ -0,0 +1,67 @@
+package org.highmed.dsf.fhir.webservice.jaxrs;
+
+import java.io.InputStream;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.highmed.dsf.fhir.webservice.specification.ImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.uhn.fhir.rest.api.Constants;
+
+@Path(ImportServiceJaxrs.PATH)
+@Produces({ MediaType.TEXT_HTML, Constants.CT_FHIR_JSON, Constants.CT_FHIR_JSON_NEW, MediaType.APPLICATION_JSON,
+		Constants.CT_FHIR_XML, Constants.CT_FHIR_XML_NEW, MediaType.APPLICATION_XML })
+public class ImportServiceJaxrs extends AbstractServiceJaxrs<ImportService> implements ImportService
+{
+	public static final String PATH = "$import";
+
+	private static final Logger logger = LoggerFactory.getLogger(ImportServiceJaxrs.class);
+
+	public ImportServiceJaxrs(ImportService delegate)
+	{
+		super(delegate);
+	}
+
+	@POST
+	@Consumes({ Constants.CT_FHIR_NDJSON, Constants.CT_APP_NDJSON })
+	@Override
+	public Response importResources(InputStream ndjson, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("POST {}", uri.getRequestUri().toString());
+
+		return delegate.importResources(ndjson, uri, headers);
+	}
+
+	@GET
+	@Path("/{jobId}")
+	@Override
+	public Response status(@PathParam("jobId") String jobId, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.status(jobId, uri, headers);
+	}
+
+	@DELETE
+	@Path("/{jobId}")
+	@Override
+	public Response delete(@PathParam("jobId") String jobId, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("DELETE {}", uri.getRequestUri().toString());
+
+		return delegate.delete(jobId, uri, headers);
+	}
+}
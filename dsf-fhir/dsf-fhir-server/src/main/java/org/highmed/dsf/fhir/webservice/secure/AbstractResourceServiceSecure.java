@@ -1,11 +1,14 @@
 package org.highmed.dsf.fhir.webservice.secure;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -18,9 +21,11 @@ import javax.ws.rs.core.UriInfo;
 import org.highmed.dsf.fhir.authentication.User;
 import org.highmed.dsf.fhir.authorization.AuthorizationRule;
 import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.exception.ResourceDeletedException;
 import org.highmed.dsf.fhir.help.ExceptionHandler;
 import org.highmed.dsf.fhir.help.ParameterConverter;
 import org.highmed.dsf.fhir.help.ResponseGenerator;
+import org.highmed.dsf.fhir.help.StoredJsonOutput;
 import org.highmed.dsf.fhir.prefer.PreferReturnType;
 import org.highmed.dsf.fhir.search.PartialResult;
 import org.highmed.dsf.fhir.search.SearchQuery;
@@ -138,6 +143,22 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 
 	@Override
 	public Response create(R resource, UriInfo uri, HttpHeaders headers)
+	{
+		return create(resource, uri, headers, () -> delegate.create(resource, uri, headers));
+	}
+
+	/**
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @param delegateCreate
+	 *            not <code>null</code>, called if the create is allowed and the given resource is valid
+	 * @return create response
+	 */
+	protected final Response create(R resource, UriInfo uri, HttpHeaders headers, Supplier<Response> delegateCreate)
 	{
 		logCurrentUser();
 
@@ -158,7 +179,7 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 				audit.info("Create of resource {} allowed for user '{}' ({}): {}", resourceTypeName,
 						getCurrentUser().getName(), getCurrentUser().getSubjectDn(), reasonCreateAllowed.get());
 
-				Response created = delegate.create(resource, uri, headers);
+				Response created = delegateCreate.get();
 
 				if (created.hasEntity() && !resourceType.isInstance(created.getEntity())
 						&& !(created.getEntity() instanceof OperationOutcome))
@@ -203,24 +224,20 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 		logCurrentUser();
 
 		Response read = delegate.read(id, uri, headers);
+		Optional<R> readEntity = read.hasEntity() ? getReadAuthorizationResource(read.getEntity()) : Optional.empty();
 
-		if (read.hasEntity() && resourceType.isInstance(read.getEntity()))
+		if (readEntity.isPresent())
 		{
-			R entity = resourceType.cast(read.getEntity());
+			R entity = readEntity.get();
 			Optional<String> reasonReadAllowed = authorizationRule.reasonReadAllowed(getCurrentUser(), entity);
-
-			if (reasonReadAllowed.isEmpty())
-			{
-				audit.info("Read of resource {} denied for user '{}' ({})", entity.getIdElement().getValue(),
-						getCurrentUser().getName(), getCurrentUser().getSubjectDn());
-				return forbidden("read");
-			}
-			else
-			{
-				audit.info("Read of resource {} allowed for user '{}' ({}): {}", entity.getIdElement().getValue(),
-						getCurrentUser().getName(), getCurrentUser().getSubjectDn(), reasonReadAllowed.get());
-				return read;
-			}
+			return readAllowedOrForbidden(read, entity.getIdElement().getValue(), reasonReadAllowed);
+		}
+		else if (read.hasEntity() && read.getEntity() instanceof StoredJsonOutput)
+		{
+			StoredJsonOutput entity = (StoredJsonOutput) read.getEntity();
+			Optional<String> reasonReadAllowed = authorizationRule.reasonReadAllowed(getCurrentUser(), entity.getId(),
+					entity.getVersion());
+			return readAllowedOrForbidden(read, entity.getIdValue(), reasonReadAllowed);
 		}
 		else if (read.hasEntity() && read.getEntity() instanceof OperationOutcome)
 		{
@@ -240,23 +257,10 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 		else if (!read.hasEntity() && Status.NOT_MODIFIED.getStatusCode() == read.getStatus())
 		{
 			Optional<R> dbResource = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, resourceTypeName,
-					() -> dao.read(parameterConverter.toUuid(resourceTypeName, id)));
+					() -> readForAuthorization(parameterConverter.toUuid(resourceTypeName, id)));
 			Optional<String> reasonReadAllowed = authorizationRule.reasonReadAllowed(getCurrentUser(),
 					dbResource.get());
-
-			if (reasonReadAllowed.isEmpty())
-			{
-				audit.info("Read of resource {} denied for user '{}' ({})", dbResource.get().getIdElement().getValue(),
-						getCurrentUser().getName(), getCurrentUser().getSubjectDn());
-				return forbidden("read");
-			}
-			else
-			{
-				audit.info("Read of resource {} allowed for user '{}' ({}): {}",
-						dbResource.get().getIdElement().getValue(), getCurrentUser().getName(),
-						getCurrentUser().getSubjectDn(), reasonReadAllowed.get());
-				return read;
-			}
+			return readAllowedOrForbidden(read, dbResource.get().getIdElement().getValue(), reasonReadAllowed);
 		}
 		else
 		{
@@ -269,30 +273,53 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 		}
 	}
 
+	private Response readAllowedOrForbidden(Response read, String idValue, Optional<String> reasonReadAllowed)
+	{
+		if (reasonReadAllowed.isEmpty())
+		{
+			audit.info("Read of resource {} denied for user '{}' ({})", idValue, getCurrentUser().getName(),
+					getCurrentUser().getSubjectDn());
+			return forbidden("read");
+		}
+		else
+		{
+			audit.info("Read of resource {} allowed for user '{}' ({}): {}", idValue, getCurrentUser().getName(),
+					getCurrentUser().getSubjectDn(), reasonReadAllowed.get());
+			return read;
+		}
+	}
+
+	/**
+	 * @param entity
+	 *            not <code>null</code>
+	 * @return the resource used to authorize the read of the given response entity, {@link Optional#empty()} if the
+	 *         entity is not a resource of this service's type
+	 */
+	protected Optional<R> getReadAuthorizationResource(Object entity)
+	{
+		return resourceType.isInstance(entity) ? Optional.of(resourceType.cast(entity)) : Optional.empty();
+	}
+
 	@Override
 	public Response vread(String id, long version, UriInfo uri, HttpHeaders headers)
 	{
 		logCurrentUser();
 
 		Response read = delegate.vread(id, version, uri, headers);
+		Optional<R> readEntity = read.hasEntity() ? getReadAuthorizationResource(read.getEntity()) : Optional.empty();
 
-		if (read.hasEntity() && resourceType.isInstance(read.getEntity()))
+		if (readEntity.isPresent())
 		{
-			R entity = resourceType.cast(read.getEntity());
+			R entity = readEntity.get();
 			Optional<String> reasonReadAllowed = authorizationRule.reasonReadAllowed(getCurrentUser(), entity);
-
-			if (reasonReadAllowed.isEmpty())
-			{
-				audit.info("Read of resource {} denied for user '{}' ({})", entity.getIdElement().getValue(),
-						getCurrentUser().getName(), getCurrentUser().getSubjectDn());
-				return forbidden("read");
-			}
-			else
-			{
-				audit.info("Read of resource {} allowed for user '{}' ({}): {}", entity.getIdElement().getValue(),
-						getCurrentUser().getName(), getCurrentUser().getSubjectDn(), reasonReadAllowed.get());
-				return read;
-			}
+			return readAllowedOrForbidden(read, entity.getIdElement().getValue(), reasonReadAllowed);
+		}
+		else if (read.hasEntity() && read.getEntity() instanceof StoredJsonOutput)
+		{
+			StoredJsonOutput entity = (StoredJsonOutput) read.getEntity();
+			Optional<String> reasonReadAllowed = authorizationRule.reasonReadAllowed(getCurrentUser(), entity.getId(),
+					entity.getVersion());
+			return readAllowedOrForbidden(read, entity.getIdValue(), reasonReadAllowed);
 		}
 		else if (read.hasEntity() && read.getEntity() instanceof OperationOutcome)
 		{
@@ -316,20 +343,7 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 					() -> dao.readVersion(parameterConverter.toUuid(resourceTypeName, id), version));
 			Optional<String> reasonReadAllowed = authorizationRule.reasonReadAllowed(getCurrentUser(),
 					dbResource.get());
-
-			if (reasonReadAllowed.isEmpty())
-			{
-				audit.info("Read of resource {} denied for user '{}' ({})", dbResource.get().getIdElement().getValue(),
-						getCurrentUser().getName(), getCurrentUser().getSubjectDn());
-				return forbidden("read");
-			}
-			else
-			{
-				audit.info("Read of resource {} allowed for user '{}' ({}): {}",
-						dbResource.get().getIdElement().getValue(), getCurrentUser().getName(),
-						getCurrentUser().getSubjectDn(), reasonReadAllowed.get());
-				return read;
-			}
+			return readAllowedOrForbidden(read, dbResource.get().getIdElement().getValue(), reasonReadAllowed);
 		}
 		else
 		{
@@ -384,11 +398,30 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 
 	@Override
 	public Response update(String id, R resource, UriInfo uri, HttpHeaders headers)
+	{
+		return update(id, resource, uri, headers, () -> delegate.update(id, resource, uri, headers));
+	}
+
+	/**
+	 * @param id
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @param delegateUpdate
+	 *            not <code>null</code>, called if the update is allowed and the given resource is valid
+	 * @return update response
+	 */
+	protected final Response update(String id, R resource, UriInfo uri, HttpHeaders headers,
+			Supplier<Response> delegateUpdate)
 	{
 		logCurrentUser();
 
 		Optional<R> dbResource = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, resourceTypeName,
-				() -> dao.read(parameterConverter.toUuid(resourceTypeName, id)));
+				() -> readForAuthorization(parameterConverter.toUuid(resourceTypeName, id)));
 
 		if (dbResource.isEmpty())
 		{
@@ -399,11 +432,28 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 		else
 		{
 			R cleanedResource = referenceCleaner.cleanLiteralReferences(dbResource.get());
-			return update(id, resource, uri, headers, cleanedResource);
+			return update(newResource -> delegateUpdate.get(), id, resource, uri, headers, cleanedResource);
 		}
 	}
 
-	private Response update(String id, R newResource, UriInfo uri, HttpHeaders headers, R oldResource)
+	/**
+	 * Override to read the stored resource used for authorization checks without loading data not needed for the checks
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the given uuid is <code>null</code> or no resource could be found
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if the resource is marked as deleted
+	 */
+	protected Optional<R> readForAuthorization(UUID uuid) throws SQLException, ResourceDeletedException
+	{
+		return dao.read(uuid);
+	}
+
+	private Response update(Function<R, Response> delegateUpdate, String id, R newResource, UriInfo uri,
+			HttpHeaders headers, R oldResource)
 	{
 		resolveLiteralInternalRelatedArtifactOrAttachmentUrls(newResource);
 
@@ -424,7 +474,7 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 						oldResource.getIdElement().getValue(), getCurrentUser().getName(),
 						getCurrentUser().getSubjectDn(), reasonUpdateAllowed.get());
 
-				Response updated = delegate.update(id, newResource, uri, headers);
+				Response updated = delegateUpdate.apply(newResource);
 
 				if (updated.hasEntity() && !resourceType.isInstance(updated.getEntity())
 						&& !(updated.getEntity() instanceof OperationOutcome))
@@ -474,7 +524,8 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 			{
 				resource.setIdElement(dbResourceId);
 				// more security checks and audit log in update method
-				return update(resource.getIdElement().getIdPart(), resource, uri, headers, resource);
+				return update(r -> delegate.update(r.getIdElement().getIdPart(), r, uri, headers),
+						resource.getIdElement().getIdPart(), resource, uri, headers, resource);
 			}
 
 			// update: resource has same id
@@ -486,7 +537,8 @@ public abstract class AbstractResourceServiceSecure<D extends ResourceDao<R>, R
 					&& (dbResourceId.getIdPart().equals(resource.getIdElement().getIdPart())))
 			{
 				// more security checks and audit log in update method
-				return update(resource.getIdElement().getIdPart(), resource, uri, headers, resource);
+				return update(r -> delegate.update(r.getIdElement().getIdPart(), r, uri, headers),
+						resource.getIdElement().getIdPart(), resource, uri, headers, resource);
 			}
 
 			// update resource has different id -> 400 Bad Request
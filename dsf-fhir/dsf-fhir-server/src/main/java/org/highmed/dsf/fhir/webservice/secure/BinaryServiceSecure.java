@@ -1,6 +1,9 @@
 package org.highmed.dsf.fhir.webservice.secure;
 
 import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
@@ -8,6 +11,9 @@ import javax.ws.rs.core.UriInfo;
 
 import org.highmed.dsf.fhir.authorization.AuthorizationRule;
 import org.highmed.dsf.fhir.dao.BinaryDao;
+import org.highmed.dsf.fhir.dao.BinaryWithoutData;
+import org.highmed.dsf.fhir.dao.exception.ResourceDeletedException;
+import org.highmed.dsf.fhir.help.BinaryDataStreamingOutput;
 import org.highmed.dsf.fhir.help.ExceptionHandler;
 import org.highmed.dsf.fhir.help.ParameterConverter;
 import org.highmed.dsf.fhir.help.ResponseGenerator;
@@ -42,4 +48,31 @@ public class BinaryServiceSecure extends AbstractResourceServiceSecure<BinaryDao
 	{
 		throw new UnsupportedOperationException("Implemented and delegated by jaxrs layer");
 	}
-}
\ No newline at end of file
+
+	@Override
+	public Response create(Binary resource, InputStream data, UriInfo uri, HttpHeaders headers)
+	{
+		return create(resource, uri, headers, () -> delegate.create(resource, data, uri, headers));
+	}
+
+	@Override
+	public Response update(String id, Binary resource, InputStream data, UriInfo uri, HttpHeaders headers)
+	{
+		return update(id, resource, uri, headers, () -> delegate.update(id, resource, data, uri, headers));
+	}
+
+	@Override
+	protected Optional<Binary> readForAuthorization(UUID uuid) throws SQLException, ResourceDeletedException
+	{
+		return dao.readWithoutData(uuid).map(BinaryWithoutData::getBinary);
+	}
+
+	@Override
+	protected Optional<Binary> getReadAuthorizationResource(Object entity)
+	{
+		if (entity instanceof BinaryDataStreamingOutput)
+			return Optional.of(((BinaryDataStreamingOutput) entity).getBinary());
+		else
+			return super.getReadAuthorizationResource(entity);
+	}
+}
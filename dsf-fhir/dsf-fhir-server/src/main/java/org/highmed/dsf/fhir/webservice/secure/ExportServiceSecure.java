@@ -0,0 +1,88 @@
+package org.highmed.dsf.fhir.webservice.secure;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.highmed.dsf.fhir.authentication.UserRole;
+import org.highmed.dsf.fhir.help.ResponseGenerator;
+import org.highmed.dsf.fhir.service.ReferenceResolver;
+import org.highmed.dsf.fhir.webservice.specification.ExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ExportServiceSecure extends AbstractServiceSecure<ExportService> implements ExportService
+{
+	private static final Logger logger = LoggerFactory.getLogger(ExportServiceSecure.class);
+
+	public ExportServiceSecure(ExportService delegate, String serverBase, ResponseGenerator responseGenerator,
+			ReferenceResolver referenceResolver)
+	{
+		super(delegate, serverBase, responseGenerator, referenceResolver);
+	}
+
+	private boolean exportAllowed()
+	{
+		logger.debug("Current user '{}', role '{}'", userProvider.getCurrentUser().getName(),
+				userProvider.getCurrentUser().getRole());
+
+		return UserRole.LOCAL.equals(getCurrentUser().getRole());
+	}
+
+	@Override
+	public Response export(UriInfo uri, HttpHeaders headers)
+	{
+		if (exportAllowed())
+		{
+			audit.info("Export allowed for user '{}': local user", getCurrentUser().getName());
+			return delegate.export(uri, headers);
+		}
+		else
+		{
+			audit.info("Export denied for user '{}': not a local user", getCurrentUser().getName());
+			return forbidden("export");
+		}
+	}
+
+	@Override
+	public Response status(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		if (exportAllowed())
+			return delegate.status(jobId, uri, headers);
+		else
+		{
+			audit.info("Export status denied for user '{}': not a local user", getCurrentUser().getName());
+			return forbidden("export");
+		}
+	}
+
+	@Override
+	public Response delete(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		if (exportAllowed())
+		{
+			audit.info("Export delete allowed for user '{}': local user", getCurrentUser().getName());
+			return delegate.delete(jobId, uri, headers);
+		}
+		else
+		{
+			audit.info("Export delete denied for user '{}': not a local user", getCurrentUser().getName());
+			return forbidden("export");
+		}
+	}
+
+	@Override
+	public Response file(String jobId, String fileName, UriInfo uri, HttpHeaders headers)
+	{
+		if (exportAllowed())
+		{
+			audit.info("Export file download allowed for user '{}': local user", getCurrentUser().getName());
+			return delegate.file(jobId, fileName, uri, headers);
+		}
+		else
+		{
+			audit.info("Export file download denied for user '{}': not a local user", getCurrentUser().getName());
+			return forbidden("export");
+		}
+	}
+}
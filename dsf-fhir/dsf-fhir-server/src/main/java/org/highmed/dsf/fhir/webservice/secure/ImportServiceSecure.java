@@ -0,0 +1,84 @@
+package org.highmed.dsf.fhir.webservice.secure;
+
+import java.io.InputStream;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.highmed.dsf.fhir.authentication.UserRole;
+import org.highmed.dsf.fhir.help.ResponseGenerator;
+import org.highmed.dsf.fhir.service.ReferenceResolver;
+import org.highmed.dsf.fhir.webservice.specification.ImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ImportServiceSecure extends AbstractServiceSecure<ImportService> implements ImportService
+{
+	private static final Logger logger = LoggerFactory.getLogger(ImportServiceSecure.class);
+
+	public ImportServiceSecure(ImportService delegate, String serverBase, ResponseGenerator responseGenerator,
+			ReferenceResolver referenceResolver)
+	{
+		super(delegate, serverBase, responseGenerator, referenceResolver);
+	}
+
+	/**
+	 * Imports bypass authorization rules and are only allowed for local users with permanent delete rights
+	 * (administrators).
+	 */
+	private boolean importAllowed()
+	{
+		logger.debug("Current user '{}', role '{}'", userProvider.getCurrentUser().getName(),
+				userProvider.getCurrentUser().getRole());
+
+		return UserRole.LOCAL.equals(getCurrentUser().getRole()) && getCurrentUser().isPermanentDeleteAllowed();
+	}
+
+	@Override
+	public Response importResources(InputStream ndjson, UriInfo uri, HttpHeaders headers)
+	{
+		if (importAllowed())
+		{
+			audit.info("Import allowed for user '{}': local user with permanent delete rights",
+					getCurrentUser().getName());
+			return delegate.importResources(ndjson, uri, headers);
+		}
+		else
+		{
+			audit.info("Import denied for user '{}': not a local user with permanent delete rights",
+					getCurrentUser().getName());
+			return forbidden("import");
+		}
+	}
+
+	@Override
+	public Response status(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		if (importAllowed())
+			return delegate.status(jobId, uri, headers);
+		else
+		{
+			audit.info("Import status denied for user '{}': not a local user with permanent delete rights",
+					getCurrentUser().getName());
+			return forbidden("import");
+		}
+	}
+
+	@Override
+	public Response delete(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		if (importAllowed())
+		{
+			audit.info("Import cancel allowed for user '{}': local user with permanent delete rights",
+					getCurrentUser().getName());
+			return delegate.delete(jobId, uri, headers);
+		}
+		else
+		{
+			audit.info("Import cancel denied for user '{}': not a local user with permanent delete rights",
+					getCurrentUser().getName());
+			return forbidden("import");
+		}
+	}
+}
@@ -12,5 +12,33 @@ public interface BinaryService extends BasicResourceService<Binary>
 {
 	Response create(InputStream in, UriInfo uri, HttpHeaders headers);
 
+	/**
+	 * @param resource
+	 *            not <code>null</code>, without data
+	 * @param data
+	 *            not <code>null</code>, read while the resource is inserted into the database
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @return create response
+	 */
+	Response create(Binary resource, InputStream data, UriInfo uri, HttpHeaders headers);
+
 	Response update(String id, InputStream in, UriInfo uri, HttpHeaders headers);
+
+	/**
+	 * @param id
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>, without data
+	 * @param data
+	 *            not <code>null</code>, read while the resource is updated in the database
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @return update response
+	 */
+	Response update(String id, Binary resource, InputStream data, UriInfo uri, HttpHeaders headers);
 }
@@ -0,0 +1,22 @@
+package org.highmed.dsf.fhir.webservice.specification;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.highmed.dsf.fhir.webservice.base.BasicService;
+
+public interface ExportService extends BasicService
+{
+	String PARAMETER_OUTPUT_FORMAT = "_outputFormat";
+	String PARAMETER_TYPE = "_type";
+	String PARAMETER_SINCE = "_since";
+
+	Response export(UriInfo uri, HttpHeaders headers);
+
+	Response status(String jobId, UriInfo uri, HttpHeaders headers);
+
+	Response delete(String jobId, UriInfo uri, HttpHeaders headers);
+
+	Response file(String jobId, String fileName, UriInfo uri, HttpHeaders headers);
+}
@@ -0,0 +1,18 @@
+package org.highmed.dsf.fhir.webservice.specification;
+
+import java.io.InputStream;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.highmed.dsf.fhir.webservice.base.BasicService;
+
+public interface ImportService extends BasicService
+{
+	Response importResources(InputStream ndjson, UriInfo uri, HttpHeaders headers);
+
+	Response status(String jobId, UriInfo uri, HttpHeaders headers);
+
+	Response delete(String jobId, UriInfo uri, HttpHeaders headers);
+}
@@ -0,0 +1,23 @@
+CREATE OR REPLACE FUNCTION insert_read_access_tags(new_resource_id UUID, new_resource_version BIGINT, new_resource JSONB) RETURNS VOID AS $$
+BEGIN
+	-- organization identifiers of ORGANIZATION tags
+	INSERT INTO read_access_tags (resource_id, resource_version, tag_type, organization_identifier, role_system, role_code)
+	SELECT DISTINCT new_resource_id, new_resource_version, 'ORGANIZATION', organization_identifier, NULL, NULL
+	FROM (
+		SELECT jsonb_path_query(new_resource, '$.meta.tag[*] ? (@.code == "ORGANIZATION" && @.system == "http://highmed.org/fhir/CodeSystem/read-access-tag")
+			.extension[*]?(@.url == "http://highmed.org/fhir/StructureDefinition/extension-read-access-organization")
+			.valueIdentifier[*]?(@.system == "http://highmed.org/sid/organization-identifier")')->>'value' AS organization_identifier
+	) AS o
+	WHERE organization_identifier IS NOT NULL;
+
+	-- consortium identifiers and role codings of ROLE tags
+	INSERT INTO read_access_tags (resource_id, resource_version, tag_type, organization_identifier, role_system, role_code)
+	SELECT DISTINCT new_resource_id, new_resource_version, 'ROLE', consortium->>'value', role->>'system', role->>'code'
+	FROM jsonb_path_query(new_resource, '$.meta.tag[*] ? (@.code == "ROLE" && @.system == "http://highmed.org/fhir/CodeSystem/read-access-tag")
+			.extension[*] ? (@.url == "http://highmed.org/fhir/StructureDefinition/extension-read-access-consortium-role")') AS cr(consortium_role)
+		, jsonb_path_query(consortium_role, '$.extension[*] ? (@.url == "consortium")
+			.valueIdentifier[*]?(@.system == "http://highmed.org/sid/organization-identifier")') AS c(consortium)
+		, jsonb_path_query(consortium_role, '$.extension[*] ? (@.url == "role").valueCoding') AS r(role)
+	WHERE consortium->>'value' IS NOT NULL;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
@@ -0,0 +1,19 @@
+CREATE OR REPLACE FUNCTION insert_search_values(new_resource_table TEXT, new_resource_id UUID, new_version BIGINT, new_resource JSONB, parameters TEXT[]) RETURNS VOID AS $$
+DECLARE
+	ordinal_offset INTEGER := 0;
+	inserted INTEGER;
+BEGIN
+	-- parameters: pairs of search parameter name and json path, multiple paths may be given for one search parameter
+	FOR i IN 1 .. coalesce(array_length(parameters, 1), 0) / 2 LOOP
+		INSERT INTO search_values (resource_table, resource_id, version, parameter, ordinal, system, value)
+		SELECT new_resource_table, new_resource_id, new_version, parameters[i * 2 - 1], ordinal_offset + element.ordinal
+			, CASE WHEN jsonb_typeof(element.value) = 'object' THEN element.value->>'system' END
+			, CASE WHEN jsonb_typeof(element.value) = 'object' THEN coalesce(element.value->>'value', element.value->>'code')
+				ELSE element.value #>> '{}' END
+		FROM jsonb_path_query(new_resource, parameters[i * 2]::jsonpath) WITH ORDINALITY AS element(value, ordinal);
+
+		GET DIAGNOSTICS inserted = ROW_COUNT;
+		ordinal_offset := ordinal_offset + inserted;
+	END LOOP;
+END;
+$$ LANGUAGE PLPGSQL
@@ -0,0 +1,15 @@
+CREATE OR REPLACE FUNCTION on_current_versions_delete() RETURNS TRIGGER AS $$
+DECLARE
+	old_resource_id uuid;
+BEGIN
+	-- TG_ARGV[0]: name of the id column of the resource table
+	EXECUTE format('SELECT ($1).%I', TG_ARGV[0]) INTO old_resource_id USING OLD;
+
+	DELETE FROM current_versions
+	WHERE resource_table = TG_TABLE_NAME
+	AND resource_id = old_resource_id
+	AND version = OLD.version;
+
+	RETURN OLD;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
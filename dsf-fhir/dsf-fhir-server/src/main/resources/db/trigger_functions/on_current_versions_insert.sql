@@ -0,0 +1,20 @@
+CREATE OR REPLACE FUNCTION on_current_versions_insert() RETURNS TRIGGER AS $$
+DECLARE
+	new_resource_id uuid;
+	new_last_updated timestamp;
+BEGIN
+	-- TG_ARGV[0]: name of the id column of the resource table
+	-- TG_ARGV[1]: name of the json column of the resource table
+	EXECUTE format('SELECT ($1).%I, (($1).%I->''meta''->>''lastUpdated'')::timestamp', TG_ARGV[0], TG_ARGV[1])
+	INTO new_resource_id, new_last_updated USING NEW;
+
+	IF (NEW.deleted IS NULL) THEN
+		INSERT INTO current_versions (resource_table, resource_id, version, last_updated)
+		VALUES (TG_TABLE_NAME, new_resource_id, NEW.version, new_last_updated)
+		ON CONFLICT (resource_table, resource_id) DO UPDATE SET version = EXCLUDED.version, last_updated = EXCLUDED.last_updated
+		WHERE current_versions.version < EXCLUDED.version;
+	END IF;
+
+	RETURN NEW;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
@@ -0,0 +1,17 @@
+CREATE OR REPLACE FUNCTION on_current_versions_update() RETURNS TRIGGER AS $$
+DECLARE
+	new_resource_id uuid;
+BEGIN
+	-- TG_ARGV[0]: name of the id column of the resource table
+	IF (NEW.deleted IS NOT NULL AND OLD.deleted IS NULL) THEN
+		EXECUTE format('SELECT ($1).%I', TG_ARGV[0]) INTO new_resource_id USING NEW;
+
+		DELETE FROM current_versions
+		WHERE resource_table = TG_TABLE_NAME
+		AND resource_id = new_resource_id
+		AND version = NEW.version;
+	END IF;
+
+	RETURN NEW;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
@@ -0,0 +1,15 @@
+CREATE OR REPLACE FUNCTION on_history_entries_delete() RETURNS TRIGGER AS $$
+DECLARE
+	old_resource_id uuid;
+BEGIN
+	-- TG_ARGV[0]: resource type name, TG_ARGV[1]: name of the id column, TG_ARGV[2]: name of the json column
+	EXECUTE format('SELECT ($1).%I', TG_ARGV[1]) INTO old_resource_id USING OLD;
+
+	DELETE FROM history_entries
+	WHERE type = TG_ARGV[0]
+	AND id = old_resource_id
+	AND version IN (OLD.version, OLD.version + 1);
+
+	RETURN OLD;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
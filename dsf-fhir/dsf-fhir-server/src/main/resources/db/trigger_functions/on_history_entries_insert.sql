@@ -0,0 +1,20 @@
+CREATE OR REPLACE FUNCTION on_history_entries_insert() RETURNS TRIGGER AS $$
+DECLARE
+	new_resource_id uuid;
+	new_last_updated timestamp;
+BEGIN
+	-- TG_ARGV[0]: resource type name, TG_ARGV[1]: name of the id column, TG_ARGV[2]: name of the json column
+	EXECUTE format('SELECT ($1).%I, (($1).%I->''meta''->>''lastUpdated'')::TIMESTAMP', TG_ARGV[1], TG_ARGV[2])
+		INTO new_resource_id, new_last_updated USING NEW;
+
+	INSERT INTO history_entries (id, version, type, method, last_updated)
+	VALUES (new_resource_id, NEW.version, TG_ARGV[0], CASE WHEN NEW.version = 1 THEN 'POST' ELSE 'PUT' END, new_last_updated);
+
+	IF (NEW.deleted IS NOT NULL) THEN
+		INSERT INTO history_entries (id, version, type, method, last_updated)
+		VALUES (new_resource_id, NEW.version + 1, TG_ARGV[0], 'DELETE', NEW.deleted);
+	END IF;
+
+	RETURN NEW;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
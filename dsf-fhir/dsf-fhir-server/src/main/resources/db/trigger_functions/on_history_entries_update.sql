@@ -0,0 +1,15 @@
+CREATE OR REPLACE FUNCTION on_history_entries_update() RETURNS TRIGGER AS $$
+DECLARE
+	new_resource_id uuid;
+BEGIN
+	-- TG_ARGV[0]: resource type name, TG_ARGV[1]: name of the id column, TG_ARGV[2]: name of the json column
+	IF (NEW.deleted IS NOT NULL AND OLD.deleted IS NULL) THEN
+		EXECUTE format('SELECT ($1).%I', TG_ARGV[1]) INTO new_resource_id USING NEW;
+
+		INSERT INTO history_entries (id, version, type, method, last_updated)
+		VALUES (new_resource_id, NEW.version + 1, TG_ARGV[0], 'DELETE', NEW.deleted);
+	END IF;
+
+	RETURN NEW;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
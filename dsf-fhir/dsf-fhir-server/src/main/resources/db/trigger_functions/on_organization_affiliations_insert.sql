@@ -29,7 +29,7 @@ BEGIN
 		IF (consortium_identifier IS NOT NULL AND member_organization_id IS NOT NULL) THEN
 			RAISE NOTICE 'consortium_identifier IS NOT NULL AND member_organization_id IS NOT NULL';
 			INSERT INTO read_access 			
-				SELECT DISTINCT r.id, r.version, 'ROLE', member_organization_id, NEW.organization_affiliation_id
+				SELECT DISTINCT t.resource_id, t.resource_version, 'ROLE', member_organization_id, NEW.organization_affiliation_id
 				FROM (
 					SELECT 
 						coding->>'system' AS system
@@ -38,19 +38,11 @@ BEGIN
 						SELECT jsonb_array_elements(jsonb_array_elements(NEW.organization_affiliation->'code')->'coding') AS coding
 					) AS codings
 				) AS c
-				LEFT JOIN (
-					SELECT
-						id
-						, version
-						, resource
-					FROM all_resources
-				) AS r
-				ON r.resource->'meta'->'tag' @> 
-					('[{"extension":[{"url":"http://highmed.org/fhir/StructureDefinition/extension-read-access-consortium-role","extension":[{"url":"consortium","valueIdentifier":{"system":"http://highmed.org/sid/organization-identifier","value":"'
-					|| consortium_identifier || '"}},{"url":"role","valueCoding":{"system":"'
-					|| c.system || '","code":"'
-					|| c.code || '"}}]}],"system":"http://highmed.org/fhir/CodeSystem/read-access-tag","code":"ROLE"}]')::jsonb
-				WHERE r.resource IS NOT NULL;
+				JOIN read_access_tags AS t
+				ON t.tag_type = 'ROLE'
+				AND t.organization_identifier = consortium_identifier
+				AND t.role_system = c.system
+				AND t.role_code = c.code;
 
 			GET DIAGNOSTICS insert_count = ROW_COUNT;
 			RAISE NOTICE 'Rows inserted into read_access: %', insert_count;
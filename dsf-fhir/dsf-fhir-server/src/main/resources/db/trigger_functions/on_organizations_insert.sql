@@ -1,7 +1,7 @@
 CREATE OR REPLACE FUNCTION on_organizations_insert() RETURNS TRIGGER AS $$
 DECLARE
 	reference_regex TEXT := '((http|https):\/\/([A-Za-z0-9\-\\\.\:\%\$]*\/)+)?(Account|ActivityDefinition|AdverseEvent|AllergyIntolerance|Appointment|AppointmentResponse|AuditEvent|Basic|Binary|BiologicallyDerivedProduct|BodyStructure|Bundle|CapabilityStatement|CarePlan|CareTeam|CatalogEntry|ChargeItem|ChargeItemDefinition|Claim|ClaimResponse|ClinicalImpression|CodeSystem|Communication|CommunicationRequest|CompartmentDefinition|Composition|ConceptMap|Condition|Consent|Contract|Coverage|CoverageEligibilityRequest|CoverageEligibilityResponse|DetectedIssue|Device|DeviceDefinition|DeviceMetric|DeviceRequest|DeviceUseStatement|DiagnosticReport|DocumentManifest|DocumentReference|EffectEvidenceSynthesis|Encounter|Endpoint|EnrollmentRequest|EnrollmentResponse|EpisodeOfCare|EventDefinition|Evidence|EvidenceVariable|ExampleScenario|ExplanationOfBenefit|FamilyMemberHistory|Flag|Goal|GraphDefinition|Group|GuidanceResponse|HealthcareService|ImagingStudy|Immunization|ImmunizationEvaluation|ImmunizationRecommendation|ImplementationGuide|InsurancePlan|Invoice|Library|Linkage|List|Location|Measure|MeasureReport|Media|Medication|MedicationAdministration|MedicationDispense|MedicationKnowledge|MedicationRequest|MedicationStatement|MedicinalProduct|MedicinalProductAuthorization|MedicinalProductContraindication|MedicinalProductIndication|MedicinalProductIngredient|MedicinalProductInteraction|MedicinalProductManufactured|MedicinalProductPackaged|MedicinalProductPharmaceutical|MedicinalProductUndesirableEffect|MessageDefinition|MessageHeader|MolecularSequence|NamingSystem|NutritionOrder|Observation|ObservationDefinition|OperationDefinition|OperationOutcome|Organization|OrganizationAffiliation|Patient|PaymentNotice|PaymentReconciliation|Person|PlanDefinition|Practitioner|PractitionerRole|Procedure|Provenance|Questionnaire|QuestionnaireResponse|RelatedPerson|RequestGroup|ResearchDefinition|ResearchElementDefinition|ResearchStudy|ResearchSubject|RiskAssessment|RiskEvidenceSynthesis|Schedule|SearchParameter|ServiceRequest|Slot|Specimen|SpecimenDefinition|StructureDefinition|StructureMap|Subscription|Substance|SubstanceNucleicAcid|SubstancePolymer|SubstanceProtein|SubstanceReferenceInformation|SubstanceSourceMaterial|SubstanceSpecification|SupplyDelivery|SupplyRequest|Task|TerminologyCapabilities|TestReport|TestScript|ValueSet|VerificationResult|VisionPrescription)\/([A-Za-z0-9\-\.]{1,64})(\/_history\/([A-Za-z0-9\-\.]{1,64}))?';
-	organization_identifier TEXT := jsonb_path_query(NEW.organization, '$.identifier[*]?(@.system == "http://highmed.org/sid/organization-identifier")')->>'value';
+	new_organization_identifier TEXT := jsonb_path_query(NEW.organization, '$.identifier[*]?(@.system == "http://highmed.org/sid/organization-identifier")')->>'value';
 	organization_insert_count INT;
 	role_ids UUID[];
 	binary_insert_count INT;
@@ -31,17 +31,16 @@ BEGIN
 	RAISE NOTICE 'NEW.organization->>''active'' = ''%''', NEW.organization->>'active';
 	IF (NEW.organization->>'active' = 'true') THEN
 		INSERT INTO read_access
-			SELECT id, version, 'ORGANIZATION', NEW.organization_id, NULL
-			FROM all_resources
-			WHERE jsonb_path_exists(resource,('$.meta.tag[*] ? (@.code == "ORGANIZATION" && @.system == "http://highmed.org/fhir/CodeSystem/read-access-tag")
-					.extension[*]?(@.url == "http://highmed.org/fhir/StructureDefinition/extension-read-access-organization")
-					.valueIdentifier[*]?(@.system == "http://highmed.org/sid/organization-identifier" && @.value == "' || organization_identifier || '")')::jsonpath);
+			SELECT DISTINCT t.resource_id, t.resource_version, 'ORGANIZATION', NEW.organization_id, NULL::uuid
+			FROM read_access_tags AS t
+			WHERE t.tag_type = 'ORGANIZATION'
+			AND t.organization_identifier = new_organization_identifier;
 		
 		GET DIAGNOSTICS organization_insert_count = ROW_COUNT;
 		
 		WITH temp_role_ids AS (		
 		INSERT INTO read_access 			
-			SELECT r.id, r.version, 'ROLE', member_organization_id, organization_affiliation_id FROM (
+			SELECT DISTINCT t.resource_id, t.resource_version, 'ROLE', member_organization_id, organization_affiliation_id FROM (
 				SELECT DISTINCT  
 					organization_affiliation_id
 				 	, consortium_identifier
@@ -71,15 +70,11 @@ BEGIN
 					) AS oa1
 				WHERE consortium_organization_id = NEW.organization_id OR member_organization_id = NEW.organization_id
 				) AS oa
-				LEFT JOIN (
-					SELECT id, version, resource FROM all_resources
-				) AS r
-				ON r.resource->'meta'->'tag' @> 
-					('[{"extension":[{"url":"http://highmed.org/fhir/StructureDefinition/extension-read-access-consortium-role","extension":[{"url":"consortium","valueIdentifier":{"system":"http://highmed.org/sid/organization-identifier","value":"'
-					|| consortium_identifier || '"}},{"url":"role","valueCoding":{"system":"'
-					|| coding_system || '","code":"'
-					|| coding_code || '"}}]}],"system":"http://highmed.org/fhir/CodeSystem/read-access-tag","code":"ROLE"}]')::jsonb
-				WHERE r.resource IS NOT NULL
+				JOIN read_access_tags AS t
+				ON t.tag_type = 'ROLE'
+				AND t.organization_identifier = oa.consortium_identifier
+				AND t.role_system = oa.coding_system
+				AND t.role_code = oa.coding_code
 		RETURNING resource_id
 		)
 		SELECT array_agg(resource_id) FROM temp_role_ids INTO role_ids;
@@ -0,0 +1,14 @@
+CREATE OR REPLACE FUNCTION on_read_access_tags_delete() RETURNS TRIGGER AS $$
+DECLARE
+	old_resource_id uuid;
+BEGIN
+	-- TG_ARGV[0]: name of the id column, TG_ARGV[1]: name of the json column of the resource table
+	EXECUTE format('SELECT ($1).%I', TG_ARGV[0]) INTO old_resource_id USING OLD;
+
+	DELETE FROM read_access_tags
+	WHERE resource_id = old_resource_id
+	AND resource_version = OLD.version;
+
+	RETURN OLD;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
@@ -0,0 +1,19 @@
+CREATE OR REPLACE FUNCTION on_read_access_tags_insert() RETURNS TRIGGER AS $$
+DECLARE
+	new_resource_id uuid;
+	new_resource jsonb;
+BEGIN
+	-- TG_ARGV[0]: name of the id column, TG_ARGV[1]: name of the json column of the resource table
+	EXECUTE format('SELECT ($1).%I, ($1).%I', TG_ARGV[0], TG_ARGV[1]) INTO new_resource_id, new_resource USING NEW;
+
+	DELETE FROM read_access_tags
+	WHERE resource_id = new_resource_id
+	AND resource_version < NEW.version;
+
+	IF (NEW.deleted IS NULL) THEN
+		PERFORM insert_read_access_tags(new_resource_id, NEW.version, new_resource);
+	END IF;
+
+	RETURN NEW;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
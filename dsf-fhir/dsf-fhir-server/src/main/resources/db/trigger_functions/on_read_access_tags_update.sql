@@ -0,0 +1,16 @@
+CREATE OR REPLACE FUNCTION on_read_access_tags_update() RETURNS TRIGGER AS $$
+DECLARE
+	new_resource_id uuid;
+BEGIN
+	-- TG_ARGV[0]: name of the id column, TG_ARGV[1]: name of the json column of the resource table
+	IF (NEW.deleted IS NOT NULL AND OLD.deleted IS NULL) THEN
+		EXECUTE format('SELECT ($1).%I', TG_ARGV[0]) INTO new_resource_id USING NEW;
+
+		DELETE FROM read_access_tags
+		WHERE resource_id = new_resource_id
+		AND resource_version = NEW.version;
+	END IF;
+
+	RETURN NEW;
+END;
+$$ LANGUAGE PLPGSQL
\ No newline at end of file
@@ -0,0 +1,22 @@
+CREATE OR REPLACE FUNCTION on_search_values_update() RETURNS TRIGGER AS $$
+DECLARE
+	new_resource_id uuid;
+	new_resource jsonb;
+BEGIN
+	-- TG_ARGV[0]: name of the id column of the resource table
+	-- TG_ARGV[1]: name of the json column of the resource table
+	-- TG_ARGV[2..]: pairs of search parameter name and json path
+	EXECUTE format('SELECT ($1).%I, ($1).%I', TG_ARGV[0], TG_ARGV[1]) INTO new_resource_id, new_resource USING NEW;
+
+	DELETE FROM search_values
+	WHERE resource_table = TG_TABLE_NAME
+	AND resource_id = new_resource_id
+	AND version = OLD.version;
+
+	IF (NEW.deleted IS NULL) THEN
+		PERFORM insert_search_values(TG_TABLE_NAME, new_resource_id, NEW.version, new_resource, TG_ARGV[2:]);
+	END IF;
+
+	RETURN NEW;
+END;
+$$ LANGUAGE PLPGSQL
@@ -0,0 +1,88 @@
+package org.highmed.dsf.fhir.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.highmed.dsf.fhir.event.ResourceDeletedEvent;
+import org.highmed.dsf.fhir.event.ResourceUpdatedEvent;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrganizationProviderWithCacheTest
+{
+	private OrganizationProvider delegate;
+	private X509Certificate certificate;
+	private OrganizationProviderWithCache provider;
+
+	@Before
+	public void before() throws Exception
+	{
+		delegate = mock(OrganizationProvider.class);
+		certificate = mock(X509Certificate.class);
+		when(certificate.getEncoded()).thenReturn(new byte[] { 1, 2, 3 });
+
+		provider = new OrganizationProviderWithCache(delegate, Duration.ofMinutes(5), 10);
+		provider.afterPropertiesSet();
+	}
+
+	@Test
+	public void testGetOrganizationCached() throws Exception
+	{
+		User user = User.remote(new Organization().setName("Test Organization"));
+		when(delegate.getOrganization(certificate)).thenReturn(Optional.of(user));
+
+		assertSame(user, provider.getOrganization(certificate).get());
+		assertSame(user, provider.getOrganization(certificate).get());
+
+		verify(delegate, times(1)).getOrganization(certificate);
+	}
+
+	@Test
+	public void testGetOrganizationNotFoundNotCached() throws Exception
+	{
+		when(delegate.getOrganization(certificate)).thenReturn(Optional.empty());
+
+		assertFalse(provider.getOrganization(certificate).isPresent());
+		assertFalse(provider.getOrganization(certificate).isPresent());
+
+		verify(delegate, times(2)).getOrganization(certificate);
+	}
+
+	@Test
+	public void testOrganizationEventInvalidatesCache() throws Exception
+	{
+		Organization organization = new Organization().setName("Test Organization");
+		User user = User.remote(organization);
+		when(delegate.getOrganization(certificate)).thenReturn(Optional.of(user));
+		when(delegate.getLocalOrganization()).thenReturn(Optional.of(organization));
+
+		assertTrue(provider.getOrganization(certificate).isPresent());
+		assertTrue(provider.getLocalOrganization().isPresent());
+
+		provider.handleEvent(new ResourceDeletedEvent(Task.class, "id"));
+
+		assertTrue(provider.getOrganization(certificate).isPresent());
+		assertTrue(provider.getLocalOrganization().isPresent());
+		verify(delegate, times(1)).getOrganization(certificate);
+		verify(delegate, times(1)).getLocalOrganization();
+
+		provider.handleEvent(new ResourceUpdatedEvent(Organization.class, organization.setId("id")));
+
+		assertEquals(user, provider.getOrganization(certificate).get());
+		assertTrue(provider.getLocalOrganization().isPresent());
+		verify(delegate, times(2)).getOrganization(certificate);
+		verify(delegate, times(2)).getLocalOrganization();
+	}
+}
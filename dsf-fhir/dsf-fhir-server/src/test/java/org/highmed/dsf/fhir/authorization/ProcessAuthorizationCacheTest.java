@@ -0,0 +1,174 @@
+package org.highmed.dsf.fhir.authorization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.highmed.dsf.fhir.authorization.ProcessAuthorizationCache.Authorizations;
+import org.highmed.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
+import org.highmed.dsf.fhir.authorization.process.ProcessAuthorizationHelperImpl;
+import org.highmed.dsf.fhir.authorization.process.Recipient;
+import org.highmed.dsf.fhir.authorization.process.Requester;
+import org.highmed.dsf.fhir.event.ResourceDeletedEvent;
+import org.highmed.dsf.fhir.event.ResourceUpdatedEvent;
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcessAuthorizationCacheTest
+{
+	private static final String PROCESS_URL = "http://highmed.org/bpe/Process/test";
+	private static final String PROCESS_VERSION = "0.1.0";
+	private static final String MESSAGE_NAME = "testMessage";
+	private static final String TASK_PROFILE = "http://highmed.org/fhir/StructureDefinition/task-test";
+
+	private final ProcessAuthorizationHelper helper = new ProcessAuthorizationHelperImpl();
+
+	private ProcessAuthorizationCache cache;
+	private Connection autoCommitConnection;
+	private Connection transactionConnection;
+
+	@Before
+	public void before() throws Exception
+	{
+		autoCommitConnection = mock(Connection.class);
+		when(autoCommitConnection.getAutoCommit()).thenReturn(true);
+		transactionConnection = mock(Connection.class);
+		when(transactionConnection.getAutoCommit()).thenReturn(false);
+
+		cache = new ProcessAuthorizationCache(helper, Duration.ofMinutes(1), 10);
+		cache.afterPropertiesSet();
+	}
+
+	private ActivityDefinition activityDefinition(String version)
+	{
+		ActivityDefinition activityDefinition = new ActivityDefinition().setUrl(PROCESS_URL)
+				.setVersion(PROCESS_VERSION);
+		activityDefinition.setIdElement(new IdType("ActivityDefinition", "id", version));
+		return helper.add(activityDefinition, MESSAGE_NAME, TASK_PROFILE, Requester.remoteAll(), Recipient.localAll());
+	}
+
+	@Test
+	public void testGetAuthorizations() throws Exception
+	{
+		Authorizations authorizations = cache.getAuthorizations(autoCommitConnection, activityDefinition("1"),
+				PROCESS_URL, PROCESS_VERSION, MESSAGE_NAME, List.of(TASK_PROFILE));
+
+		assertEquals(1, authorizations.getRequesters().size());
+		assertEquals(1, authorizations.getRecipients().size());
+
+		assertSame(authorizations, cache.getAuthorizations(autoCommitConnection, activityDefinition("1"), PROCESS_URL,
+				PROCESS_VERSION, MESSAGE_NAME, List.of(TASK_PROFILE)));
+
+		Authorizations other = cache.getAuthorizations(autoCommitConnection, activityDefinition("1"), PROCESS_URL,
+				PROCESS_VERSION, "otherMessage", List.of(TASK_PROFILE));
+		assertEquals(0, other.getRequesters().size());
+		assertEquals(0, other.getRecipients().size());
+
+		cache.handleEvent(new ResourceUpdatedEvent(ActivityDefinition.class, activityDefinition("2")));
+
+		Authorizations afterEvent = cache.getAuthorizations(autoCommitConnection, activityDefinition("1"), PROCESS_URL,
+				PROCESS_VERSION, MESSAGE_NAME, List.of(TASK_PROFILE));
+		assertEquals(1, afterEvent.getRequesters().size());
+		assertNotSame(authorizations, afterEvent);
+	}
+
+	@Test
+	public void testGetAffiliations() throws Exception
+	{
+		AtomicInteger reads = new AtomicInteger();
+		List<OrganizationAffiliation> affiliations = List.of(new OrganizationAffiliation());
+
+		cache.getAffiliations(autoCommitConnection, "org.test", () ->
+		{
+			reads.incrementAndGet();
+			return affiliations;
+		});
+		cache.getAffiliations(autoCommitConnection, "org.test", () ->
+		{
+			reads.incrementAndGet();
+			return affiliations;
+		});
+		assertEquals(1, reads.get());
+
+		cache.handleEvent(new ResourceDeletedEvent(Task.class, "id"));
+		cache.getAffiliations(autoCommitConnection, "org.test", () ->
+		{
+			reads.incrementAndGet();
+			return affiliations;
+		});
+		assertEquals(1, reads.get());
+
+		cache.handleEvent(new ResourceDeletedEvent(OrganizationAffiliation.class, "id"));
+		assertEquals(affiliations, cache.getAffiliations(autoCommitConnection, "org.test", () ->
+		{
+			reads.incrementAndGet();
+			return affiliations;
+		}));
+		assertEquals(2, reads.get());
+	}
+
+	@Test
+	public void testDisabled() throws Exception
+	{
+		ProcessAuthorizationCache disabled = new ProcessAuthorizationCache(helper, Duration.ZERO, 10);
+		disabled.afterPropertiesSet();
+
+		AtomicInteger reads = new AtomicInteger();
+		for (int i = 0; i < 2; i++)
+		{
+			disabled.getAffiliations(autoCommitConnection, "org.test", () ->
+			{
+				reads.incrementAndGet();
+				return List.of();
+			});
+		}
+		assertEquals(2, reads.get());
+	}
+
+	@Test
+	public void testNotCachedWithTransaction() throws Exception
+	{
+		AtomicInteger reads = new AtomicInteger();
+		List<OrganizationAffiliation> affiliations = List.of(new OrganizationAffiliation());
+
+		cache.getAffiliations(autoCommitConnection, "org.test", () ->
+		{
+			reads.incrementAndGet();
+			return affiliations;
+		});
+
+		// uncommitted changes of the transaction not read from or written to the cache
+		for (int i = 0; i < 2; i++)
+		{
+			assertEquals(List.of(), cache.getAffiliations(transactionConnection, "org.test", () ->
+			{
+				reads.incrementAndGet();
+				return List.of();
+			}));
+		}
+		assertEquals(3, reads.get());
+
+		assertEquals(affiliations, cache.getAffiliations(autoCommitConnection, "org.test", () ->
+		{
+			reads.incrementAndGet();
+			return List.of();
+		}));
+		assertEquals(3, reads.get());
+
+		Authorizations authorizations = cache.getAuthorizations(transactionConnection, activityDefinition("1"),
+				PROCESS_URL, PROCESS_VERSION, MESSAGE_NAME, List.of(TASK_PROFILE));
+		assertNotSame(authorizations, cache.getAuthorizations(transactionConnection, activityDefinition("1"),
+				PROCESS_URL, PROCESS_VERSION, MESSAGE_NAME, List.of(TASK_PROFILE)));
+	}
+}
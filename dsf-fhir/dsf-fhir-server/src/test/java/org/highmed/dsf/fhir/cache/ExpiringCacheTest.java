@@ -0,0 +1,119 @@
+package org.highmed.dsf.fhir.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ExpiringCacheTest
+{
+	private final AtomicInteger reads = new AtomicInteger();
+
+	private String read(String value)
+	{
+		reads.incrementAndGet();
+		return value;
+	}
+
+	@Test
+	public void testGetCached() throws Exception
+	{
+		ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ofMinutes(1), 10);
+
+		assertFalse(cache.get("a").isPresent());
+		assertEquals("a1", cache.get("a", () -> read("a1")));
+		assertEquals("a1", cache.get("a", () -> read("a2")));
+		assertEquals("a1", cache.get("a").get());
+		assertEquals(1, reads.get());
+	}
+
+	@Test
+	public void testGetExpired() throws Exception
+	{
+		ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ofMillis(50), 10);
+
+		assertEquals("a1", cache.get("a", () -> read("a1")));
+		Thread.sleep(100);
+
+		assertFalse(cache.get("a").isPresent());
+		assertEquals("a2", cache.get("a", () -> read("a2")));
+		assertEquals(2, reads.get());
+	}
+
+	@Test
+	public void testGetNotCacheable() throws Exception
+	{
+		ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ofMinutes(1), 10);
+
+		assertEquals("", cache.get("a", () -> read(""), v -> !v.isEmpty()));
+		assertEquals("a1", cache.get("a", () -> read("a1"), v -> !v.isEmpty()));
+		assertEquals("a1", cache.get("a", () -> read("a2"), v -> !v.isEmpty()));
+		assertEquals(2, reads.get());
+	}
+
+	@Test
+	public void testTimeToLiveZero() throws Exception
+	{
+		ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ZERO, 10);
+
+		assertEquals("a1", cache.get("a", () -> read("a1")));
+		assertEquals("a2", cache.get("a", () -> read("a2")));
+		assertFalse(cache.get("a").isPresent());
+	}
+
+	@Test
+	public void testMaxSize() throws Exception
+	{
+		ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ofMinutes(1), 2);
+
+		cache.get("a", () -> read("a"));
+		cache.get("b", () -> read("b"));
+		assertTrue(cache.get("a").isPresent());
+		assertTrue(cache.get("b").isPresent());
+
+		cache.get("c", () -> read("c"));
+		assertFalse(cache.get("a").isPresent());
+		assertFalse(cache.get("b").isPresent());
+		assertTrue(cache.get("c").isPresent());
+	}
+
+	@Test
+	public void testRemoveAndClear() throws Exception
+	{
+		ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ofMinutes(1), 10);
+
+		cache.get("a", () -> read("a"));
+		cache.get("b", () -> read("b"));
+
+		cache.remove("a");
+		assertFalse(cache.get("a").isPresent());
+		assertTrue(cache.get("b").isPresent());
+
+		cache.clear();
+		assertFalse(cache.get("b").isPresent());
+	}
+
+	@Test
+	public void testClearWhileReadingNotCached() throws Exception
+	{
+		ExpiringCache<String, String> cache = new ExpiringCache<>(Duration.ofMinutes(1), 10);
+
+		assertEquals("a1", cache.get("a", () ->
+		{
+			cache.clear();
+			return read("a1");
+		}));
+		assertFalse(cache.get("a").isPresent());
+
+		assertEquals("b1", cache.get("b", () ->
+		{
+			cache.remove("a");
+			return read("b1");
+		}));
+		assertFalse(cache.get("b").isPresent());
+	}
+}
@@ -2,21 +2,28 @@ package org.highmed.dsf.fhir.client;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.security.KeyStore;
+import java.time.Duration;
 import java.util.Optional;
 
 import org.highmed.dsf.fhir.dao.EndpointDao;
+import org.highmed.dsf.fhir.event.ResourceDeletedEvent;
 import org.highmed.dsf.fhir.function.SupplierWithSqlException;
 import org.highmed.dsf.fhir.help.ExceptionHandler;
 import org.highmed.dsf.fhir.service.ReferenceCleaner;
 import org.highmed.fhir.client.FhirWebserviceClient;
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.Task;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -27,10 +34,19 @@ public class ClientProviderTest
 	private ReferenceCleaner referenceCleaner;
 	private EndpointDao endpointDao;
 	private ExceptionHandler exceptionHandler;
-	private ClientProvider provider;
+	private ClientProviderImpl provider;
 
 	@Before
 	public void before() throws Exception
+	{
+		referenceCleaner = mock(ReferenceCleaner.class);
+		endpointDao = mock(EndpointDao.class);
+		exceptionHandler = mock(ExceptionHandler.class);
+
+		provider = createProvider(Duration.ofMinutes(1));
+	}
+
+	private ClientProviderImpl createProvider(Duration endpointCacheTimeToLive) throws Exception
 	{
 		KeyStore webserviceKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
 		webserviceKeyStore.load(null);
@@ -46,13 +62,13 @@ public class ClientProviderTest
 		String remoteProxySchemeHostPort = null;
 		boolean logRequests = false;
 		FhirContext fhirContext = mock(FhirContext.class);
-		referenceCleaner = mock(ReferenceCleaner.class);
-		endpointDao = mock(EndpointDao.class);
-		exceptionHandler = mock(ExceptionHandler.class);
 
-		provider = new ClientProviderImpl(webserviceTrustStore, webserviceKeyStore, webserviceKeyStorePassword,
-				remoteReadTimeout, remoteConnectTimeout, remoteProxySchemeHostPort, remoteProxyUsername,
-				remoteProxyPassword, logRequests, fhirContext, referenceCleaner, endpointDao, exceptionHandler);
+		ClientProviderImpl provider = new ClientProviderImpl(webserviceTrustStore, webserviceKeyStore,
+				webserviceKeyStorePassword, remoteReadTimeout, remoteConnectTimeout, remoteProxySchemeHostPort,
+				remoteProxyUsername, remoteProxyPassword, logRequests, fhirContext, referenceCleaner, endpointDao,
+				exceptionHandler, endpointCacheTimeToLive, 10);
+		provider.afterPropertiesSet();
+		return provider;
 	}
 
 	@Test
@@ -85,4 +101,74 @@ public class ClientProviderTest
 		verify(exceptionHandler).handleSqlException(any(SupplierWithSqlException.class));
 		verifyNoMoreInteractions(referenceCleaner, endpointDao, exceptionHandler);
 	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGetClientCached() throws Exception
+	{
+		final String serverBase = "http://foo/fhir/";
+
+		when(exceptionHandler.handleSqlException(any(SupplierWithSqlException.class))).thenReturn(true);
+
+		Optional<FhirWebserviceClient> client1 = provider.getClient(serverBase);
+		Optional<FhirWebserviceClient> client2 = provider.getClient(serverBase);
+		assertTrue(client1.isPresent());
+		assertSame(client1.get(), client2.get());
+
+		verify(exceptionHandler, times(1)).handleSqlException(any(SupplierWithSqlException.class));
+
+		provider.handleEvent(new ResourceDeletedEvent(Task.class, "id"));
+		assertTrue(provider.endpointExists(serverBase));
+		verify(exceptionHandler, times(1)).handleSqlException(any(SupplierWithSqlException.class));
+
+		when(exceptionHandler.handleSqlException(any(SupplierWithSqlException.class))).thenReturn(false);
+		provider.handleEvent(new ResourceDeletedEvent(Endpoint.class, "id"));
+		assertTrue(provider.getClient(serverBase).isEmpty());
+		verify(exceptionHandler, times(2)).handleSqlException(any(SupplierWithSqlException.class));
+		verifyNoMoreInteractions(referenceCleaner, endpointDao, exceptionHandler);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGetClientNotFoundExpires() throws Exception
+	{
+		final String serverBase = "http://foo/fhir/";
+		ClientProviderImpl provider = createProvider(Duration.ofMillis(200));
+
+		when(exceptionHandler.handleSqlException(any(SupplierWithSqlException.class))).thenReturn(false);
+		assertTrue(provider.getClient(serverBase).isEmpty());
+		assertTrue(provider.getClient(serverBase).isEmpty());
+		verify(exceptionHandler, times(1)).handleSqlException(any(SupplierWithSqlException.class));
+
+		Thread.sleep(300);
+
+		when(exceptionHandler.handleSqlException(any(SupplierWithSqlException.class))).thenReturn(true);
+		assertTrue(provider.getClient(serverBase).isPresent());
+		verify(exceptionHandler, times(2)).handleSqlException(any(SupplierWithSqlException.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testClientRemovedIfEndpointDeleted() throws Exception
+	{
+		final String serverBase = "http://foo/fhir/";
+
+		when(exceptionHandler.handleSqlException(any(SupplierWithSqlException.class))).thenReturn(true);
+		FhirWebserviceClient client = provider.getClient(serverBase).get();
+
+		provider.handleEvent(new ResourceDeletedEvent(Endpoint.class, "other"));
+		assertSame(client, provider.getClient(serverBase).get());
+
+		when(exceptionHandler.handleSqlException(any(SupplierWithSqlException.class))).thenReturn(false);
+		provider.handleEvent(new ResourceDeletedEvent(Endpoint.class, "id"));
+		assertTrue(provider.getClient(serverBase).isEmpty());
+
+		when(exceptionHandler.handleSqlException(any(SupplierWithSqlException.class))).thenReturn(true);
+		provider.handleEvent(new ResourceDeletedEvent(Endpoint.class, "id"));
+		FhirWebserviceClient newClient = provider.getClient(serverBase).get();
+		assertNotSame(client, newClient);
+
+		provider.destroy();
+		assertNotSame(newClient, provider.getClient(serverBase).get());
+	}
 }
@@ -6,8 +6,12 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.sql.Connection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.sql.DataSource;
@@ -478,6 +482,30 @@ public abstract class AbstractResourceDaoTest<D extends Resource, C extends Reso
 		assertEquals(String.valueOf(ResourceDao.FIRST_VERSION + 1), all.get(0).getMeta().getVersionId());
 	}
 
+	@Test
+	public void testReadAllDeletedAndUpdated() throws Exception
+	{
+		D createdResource = dao.create(createResource());
+		assertNotNull(createdResource);
+		assertEquals(1, dao.readAll().size());
+
+		boolean deleted = dao.delete(UUID.fromString(createdResource.getIdElement().getIdPart()));
+		assertTrue(deleted);
+		assertTrue(dao.readAll().isEmpty());
+
+		D updatedResource = dao.update(updateResource(createdResource), null);
+		assertNotNull(updatedResource);
+
+		List<D> all = dao.readAll();
+		assertNotNull(all);
+		assertEquals(1, all.size());
+		assertEquals(String.valueOf(ResourceDao.FIRST_VERSION + 2), all.get(0).getIdElement().getVersionIdPart());
+
+		dao.delete(UUID.fromString(createdResource.getIdElement().getIdPart()));
+		dao.deletePermanently(UUID.fromString(createdResource.getIdElement().getIdPart()));
+		assertTrue(dao.readAll().isEmpty());
+	}
+
 	@Test
 	public void testReadLatest() throws Exception
 	{
@@ -552,4 +580,53 @@ public abstract class AbstractResourceDaoTest<D extends Resource, C extends Reso
 				createdResource.getIdElement().getVersionIdPart());
 		assertFalse(existsNotDeleted2);
 	}
+
+	@Test
+	public void testGetExistingNotDeletedIds() throws Exception
+	{
+		D created1 = dao.create(createResource());
+		D created2 = dao.create(createResource());
+		dao.delete(UUID.fromString(created2.getIdElement().getIdPart()));
+		String notExisting = UUID.randomUUID().toString();
+
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			Set<String> existing = dao.getExistingNotDeletedIdsWithTransaction(connection,
+					List.of(created1.getIdElement().getIdPart(), created2.getIdElement().getIdPart(), notExisting,
+							"not-a-uuid"));
+			assertEquals(Set.of(created1.getIdElement().getIdPart()), existing);
+
+			Set<String> existingIncludingDeleted = dao.getExistingIdsWithTransaction(connection,
+					List.of(created1.getIdElement().getIdPart(), created2.getIdElement().getIdPart(), notExisting));
+			assertEquals(Set.of(created1.getIdElement().getIdPart(), created2.getIdElement().getIdPart()),
+					existingIncludingDeleted);
+		}
+	}
+
+	@Test
+	public void testCreateAll() throws Exception
+	{
+		UUID id1 = UUID.randomUUID();
+		UUID id2 = UUID.randomUUID();
+
+		Map<UUID, D> resources = new LinkedHashMap<>();
+		resources.put(id1, createResource());
+		resources.put(id2, createResource());
+
+		List<D> created;
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+			created = dao.createAllWithTransactionAndIds(connection, resources);
+		}
+
+		assertEquals(2, created.size());
+		assertEquals(id1.toString(), created.get(0).getIdElement().getIdPart());
+		assertEquals(id2.toString(), created.get(1).getIdElement().getIdPart());
+
+		Optional<D> read = dao.read(id2);
+		assertTrue(read.isPresent());
+		assertEquals("1", read.get().getIdElement().getVersionIdPart());
+		checkCreated(read.get());
+	}
 }
@@ -11,12 +11,16 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -44,6 +48,8 @@ public class BinaryDaoTest extends AbstractResourceDaoTest<Binary, BinaryDao> im
 {
 	private static final String CONTENT_TYPE = "text/plain";
 	private static final byte[] DATA1 = "1234567890".getBytes();
+	private static final String SUBSETTED_SYSTEM = "http://terminology.hl7.org/CodeSystem/v3-ObservationValue";
+	private static final String SUBSETTED_CODE = "SUBSETTED";
 	private static final byte[] DATA2 = "VBERi0xLjUNJeLjz9MNCjEwIDAgb2JqDTw8L0xpbmVhcml6ZWQgMS9MIDEzMDA2OC9PIDEyL0UgMTI1NzM1L04gMS9UIDEyOTc2NC9IIFsgNTQ2IDIwNF"
 			.getBytes();
 
@@ -105,23 +111,199 @@ public class BinaryDaoTest extends AbstractResourceDaoTest<Binary, BinaryDao> im
 		assertEquals("1", createdResource.getIdElement().getVersionIdPart());
 		assertEquals("1", createdResource.getMeta().getVersionId());
 
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			try (PreparedStatement statement = connection.prepareStatement("SELECT binary_json FROM binaries");
+					ResultSet result = statement.executeQuery())
+			{
+				assertTrue(result.next());
+
+				String json = result.getString(1);
+				Binary readResource = fhirContext.newJsonParser().parseResource(Binary.class, json);
+				assertNotNull(readResource);
+				assertNull(readResource.getData());
+
+				assertFalse(result.next());
+			}
+
+			try (PreparedStatement statement = connection.prepareStatement("SELECT data FROM binary_data_chunks");
+					ResultSet result = statement.executeQuery())
+			{
+				assertTrue(result.next());
+
+				byte[] data = result.getBytes(1);
+				assertNotNull(data);
+				assertTrue(Arrays.equals(DATA1, data));
+
+				assertFalse(result.next());
+			}
+		}
+	}
+
+	private static byte[] createLargeData()
+	{
+		// more than two 4 MiB chunks
+		byte[] data = new byte[9 * 1024 * 1024 + 17];
+		new Random(42).nextBytes(data);
+		return data;
+	}
+
+	private UUID createChunkedAndCheck(byte[] data) throws Exception
+	{
+		Binary newResource = new Binary();
+		newResource.setContentType(CONTENT_TYPE);
+
+		Binary createdResource;
+		try (Connection connection = dao.newReadWriteTransaction())
+		{
+			createdResource = dao.createWithTransactionAndId(connection, newResource, UUID.randomUUID(),
+					new ByteArrayInputStream(data));
+			connection.commit();
+		}
+
+		assertNotNull(createdResource);
+		assertNull(createdResource.getData());
+
+		UUID uuid = UUID.fromString(createdResource.getIdElement().getIdPart());
+
+		Optional<BinaryWithoutData> withoutData = dao.readWithoutData(uuid);
+		assertTrue(withoutData.isPresent());
+		assertEquals(data.length, withoutData.get().getDataLength());
+		assertNull(withoutData.get().getBinary().getData());
+
+		Optional<Binary> read = dao.read(uuid);
+		assertTrue(read.isPresent());
+		if (data.length == 0)
+			assertFalse(read.get().hasData()); // no chunks stored
+		else
+			assertTrue(Arrays.equals(data, read.get().getData()));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		dao.readData(uuid, 1, 0, data.length + 10, out);
+		assertTrue(Arrays.equals(data, out.toByteArray()));
+
+		return uuid;
+	}
+
+	@Test
+	public void testCreateWithDataStream() throws Exception
+	{
+		byte[] data = createLargeData();
+		UUID uuid = createChunkedAndCheck(data);
+
+		// range across chunk borders
+		int offset = 4 * 1024 * 1024 - 5;
+		int length = 4 * 1024 * 1024 + 10;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		dao.readData(uuid, 1, offset, length, out);
+		assertTrue(Arrays.equals(Arrays.copyOfRange(data, offset, offset + length), out.toByteArray()));
+
+		// range beyond end of data
+		out = new ByteArrayOutputStream();
+		dao.readData(uuid, 1, data.length - 3, 10, out);
+		assertTrue(Arrays.equals(Arrays.copyOfRange(data, data.length - 3, data.length), out.toByteArray()));
+
 		try (Connection connection = defaultDataSource.getConnection();
-				PreparedStatement statement = connection
-						.prepareStatement("SELECT binary_json, binary_data FROM binaries");
+				PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM binary_data_chunks");
 				ResultSet result = statement.executeQuery())
 		{
 			assertTrue(result.next());
+			assertEquals(3, result.getInt(1));
+		}
+	}
 
-			String json = result.getString(1);
-			Binary readResource = fhirContext.newJsonParser().parseResource(Binary.class, json);
-			assertNotNull(readResource);
-			assertNull(readResource.getData());
+	@Test
+	public void testCreateWithEmptyDataStream() throws Exception
+	{
+		createChunkedAndCheck(new byte[0]);
+	}
 
-			byte[] data = result.getBytes(2);
-			assertNotNull(data);
-			assertTrue(Arrays.equals(DATA1, data));
+	@Test
+	public void testUpdateWithDataStream() throws Exception
+	{
+		Binary createdResource = dao.create(createResource());
+		assertNotNull(createdResource);
+
+		byte[] data = createLargeData();
+
+		Binary updatedResource;
+		try (Connection connection = dao.newReadWriteTransaction())
+		{
+			Binary resource = createdResource.copy();
+			resource.setData(null);
+			updatedResource = dao.updateWithTransaction(connection, resource, 1L, new ByteArrayInputStream(data));
+			connection.commit();
+		}
+
+		assertNotNull(updatedResource);
+		assertEquals("2", updatedResource.getMeta().getVersionId());
+
+		UUID uuid = UUID.fromString(createdResource.getIdElement().getIdPart());
+
+		Optional<Binary> v1 = dao.readVersion(uuid, 1);
+		assertTrue(v1.isPresent());
+		assertTrue(Arrays.equals(DATA1, v1.get().getData()));
+
+		Optional<Binary> v2 = dao.read(uuid);
+		assertTrue(v2.isPresent());
+		assertTrue(Arrays.equals(data, v2.get().getData()));
+	}
+
+	@Test
+	public void testReadAndSearchDataLargerThanMaxResourceDataSize() throws Exception
+	{
+		byte[] data = new byte[BinaryDaoJdbc.MAX_RESOURCE_DATA_SIZE + 1];
+		data[data.length - 1] = 1;
 
-			assertFalse(result.next());
+		Binary newResource = new Binary();
+		newResource.setContentType(CONTENT_TYPE);
+
+		Binary createdResource;
+		try (Connection connection = dao.newReadWriteTransaction())
+		{
+			createdResource = dao.createWithTransactionAndId(connection, newResource, UUID.randomUUID(),
+					new ByteArrayInputStream(data));
+			connection.commit();
+		}
+		Binary small = dao.create(createResource());
+
+		UUID uuid = UUID.fromString(createdResource.getIdElement().getIdPart());
+		Optional<Binary> read = dao.read(uuid);
+		assertTrue(read.isPresent());
+		assertFalse(read.get().hasData());
+		assertNotNull(read.get().getMeta().getTag(SUBSETTED_SYSTEM, SUBSETTED_CODE));
+
+		SearchQuery<Binary> query = dao.createSearchQueryWithoutUserFilter(1, 10);
+		query.configureParameters(Collections.emptyMap());
+		PartialResult<Binary> result = dao.search(query);
+		assertEquals(2, result.getPartialResult().size());
+		for (Binary binary : result.getPartialResult())
+		{
+			if (binary.getIdElement().getIdPart().equals(uuid.toString()))
+			{
+				assertFalse(binary.hasData());
+				assertNotNull(binary.getMeta().getTag(SUBSETTED_SYSTEM, SUBSETTED_CODE));
+			}
+			else
+			{
+				assertEquals(small.getIdElement().getIdPart(), binary.getIdElement().getIdPart());
+				assertTrue(Arrays.equals(DATA1, binary.getData()));
+				assertNull(binary.getMeta().getTag(SUBSETTED_SYSTEM, SUBSETTED_CODE));
+			}
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		dao.readData(uuid, 1, data.length - 1, 1, out);
+		assertTrue(Arrays.equals(new byte[] { 1 }, out.toByteArray()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateWithDataStreamResourceWithData() throws Exception
+	{
+		try (Connection connection = dao.newReadWriteTransaction())
+		{
+			dao.createWithTransactionAndId(connection, createResource(), UUID.randomUUID(),
+					new ByteArrayInputStream(DATA2));
 		}
 	}
 
@@ -12,6 +12,7 @@ import org.highmed.dsf.fhir.dao.jdbc.HistroyDaoJdbc;
 import org.highmed.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
 import org.highmed.dsf.fhir.history.AtParameter;
 import org.highmed.dsf.fhir.history.History;
+import org.highmed.dsf.fhir.history.HistoryEntry;
 import org.highmed.dsf.fhir.history.SinceParameter;
 import org.highmed.dsf.fhir.history.user.HistoryUserFilterFactory;
 import org.highmed.dsf.fhir.history.user.HistoryUserFilterFactoryImpl;
@@ -113,4 +114,36 @@ public class HistoryDaoTest extends AbstractDbTest
 		assertNotNull(history.getEntries());
 		assertEquals(1, history.getEntries().size());
 	}
+
+	@Test
+	public void testReadHistoryOrganizationUpdated() throws Exception
+	{
+		Organization organization = new Organization();
+		organization.getMeta().addTag("http://highmed.org/fhir/CodeSystem/read-access-tag", "ALL", null);
+		organization.setName("Test Organization");
+		organization.addIdentifier().setSystem("http://highmed.org/sid/organization-identifier").setValue("test.org");
+		Organization createdOrganization = orgDao.create(organization);
+
+		createdOrganization.setName("Updated Test Organization");
+		Organization updatedOrganization = orgDao.update(createdOrganization, null);
+
+		History history = dao.readHistory(
+				filterFactory.getUserFilter(User.local(updatedOrganization), Organization.class),
+				new PageAndCount(1, 1000), new AtParameter(), new SinceParameter(), Organization.class);
+
+		assertNotNull(history);
+		assertEquals(2, history.getTotal());
+		assertNotNull(history.getEntries());
+		assertEquals(2, history.getEntries().size());
+
+		HistoryEntry created = history.getEntries().get(0);
+		assertEquals("1", created.getVersion());
+		assertEquals("POST", created.getMethod());
+		assertEquals("Test Organization", ((Organization) created.getResource()).getName());
+
+		HistoryEntry updated = history.getEntries().get(1);
+		assertEquals("2", updated.getVersion());
+		assertEquals("PUT", updated.getMethod());
+		assertEquals("Updated Test Organization", ((Organization) updated.getResource()).getName());
+	}
 }
@@ -6,15 +6,26 @@ import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.apache.commons.codec.binary.Hex;
+import org.highmed.dsf.fhir.authentication.User;
 import org.highmed.dsf.fhir.authorization.read.ReadAccessHelper;
 import org.highmed.dsf.fhir.authorization.read.ReadAccessHelperImpl;
 import org.highmed.dsf.fhir.dao.jdbc.BinaryDaoJdbc;
 import org.highmed.dsf.fhir.dao.jdbc.CodeSystemDaoJdbc;
 import org.highmed.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
+import org.highmed.dsf.fhir.search.SearchQuery;
+import org.highmed.dsf.fhir.search.parameters.OrganizationName;
+import org.highmed.dsf.fhir.search.parameters.OrganizationType;
+import org.highmed.dsf.fhir.search.parameters.basic.AbstractSearchParameter;
 import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.CodeSystem;
 import org.hl7.fhir.r4.model.Organization;
@@ -443,4 +454,151 @@ public class OrganizationDaoTest extends AbstractResourceDaoTest<Organization, O
 
 		dao.update(cretedOrg);
 	}
+
+	private List<String> getSearchValues(Organization organization, String parameter) throws Exception
+	{
+		try (Connection connection = defaultDataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(
+						"SELECT version, system, value FROM search_values WHERE resource_table = 'organizations'"
+								+ " AND resource_id = ? AND parameter = ? ORDER BY ordinal"))
+		{
+			PGobject resourceId = new PGobject();
+			resourceId.setType("UUID");
+			resourceId.setValue(organization.getIdElement().getIdPart());
+			statement.setObject(1, resourceId);
+			statement.setString(2, parameter);
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				List<String> values = new ArrayList<>();
+				while (result.next())
+					values.add(result.getLong(1) + ":" + result.getString(2) + "|" + result.getString(3));
+				return values;
+			}
+		}
+	}
+
+	@Test
+	public void testSearchValuesTrigger() throws Exception
+	{
+		Organization o = createResource();
+		o.addAlias("Demo Alias");
+		o.getIdentifierFirstRep().setSystem(ReadAccessHelper.ORGANIZATION_IDENTIFIER_SYSTEM).setValue("demo.org");
+		o.getTypeFirstRep().getCodingFirstRep().setSystem("http://test.org/type").setCode("A");
+
+		Organization created = dao.create(o);
+		assertEquals(Arrays.asList("1:null|" + name, "1:null|Demo Alias"), getSearchValues(created, "name"));
+		assertEquals(Arrays.asList("1:" + ReadAccessHelper.ORGANIZATION_IDENTIFIER_SYSTEM + "|demo.org"),
+				getSearchValues(created, "identifier"));
+		assertEquals(Arrays.asList("1:http://test.org/type|A"), getSearchValues(created, "type"));
+
+		created.setName("Updated Organization");
+		created.getAlias().clear();
+		Organization updated = dao.update(created);
+		assertEquals("2", updated.getIdElement().getVersionIdPart());
+		assertEquals(Arrays.asList("2:null|Updated Organization"), getSearchValues(updated, "name"));
+		assertEquals(Arrays.asList("2:" + ReadAccessHelper.ORGANIZATION_IDENTIFIER_SYSTEM + "|demo.org"),
+				getSearchValues(updated, "identifier"));
+
+		dao.delete(UUID.fromString(updated.getIdElement().getIdPart()));
+		assertTrue(getSearchValues(updated, "name").isEmpty());
+		assertTrue(getSearchValues(updated, "identifier").isEmpty());
+		assertTrue(getSearchValues(updated, "type").isEmpty());
+	}
+
+	@Test
+	public void testSearchValuesTriggerDelete() throws Exception
+	{
+		Organization created = dao.create(createResource());
+		assertEquals(Arrays.asList("1:null|" + name), getSearchValues(created, "name"));
+
+		try (Connection connection = permanentDeleteDataSource.getConnection();
+				PreparedStatement statement = connection
+						.prepareStatement("DELETE FROM organizations WHERE organization_id = ?"))
+		{
+			PGobject resourceId = new PGobject();
+			resourceId.setType("UUID");
+			resourceId.setValue(created.getIdElement().getIdPart());
+			statement.setObject(1, resourceId);
+
+			assertEquals(1, statement.executeUpdate());
+		}
+
+		assertTrue(getSearchValues(created, "name").isEmpty());
+	}
+
+	private List<Organization> search(Organization userOrganization, String parameter, String value) throws Exception
+	{
+		SearchQuery<Organization> query = dao.createSearchQuery(User.local(userOrganization), 1, 10);
+		query.configureParameters(Map.of(parameter, Collections.singletonList(value)));
+		assertTrue(query.getUnsupportedQueryParameters(Map.of(parameter, Collections.singletonList(value))).isEmpty());
+
+		return dao.search(query).getPartialResult();
+	}
+
+	private Organization createOrganization(String name, String alias, String typeCode) throws Exception
+	{
+		Organization o = new Organization();
+		new ReadAccessHelperImpl().addAll(o);
+		o.setActive(true);
+		o.setName(name);
+		if (alias != null)
+			o.addAlias(alias);
+		if (typeCode != null)
+			o.getTypeFirstRep().getCodingFirstRep().setSystem("http://test.org/type").setCode(typeCode);
+
+		return dao.create(o);
+	}
+
+	private void assertSearchResult(List<Organization> result, Organization... expected)
+	{
+		assertEquals(
+				Arrays.stream(expected).map(o -> o.getIdElement().getIdPart()).sorted().collect(Collectors.toList()),
+				result.stream().map(o -> o.getIdElement().getIdPart()).sorted().collect(Collectors.toList()));
+	}
+
+	private void assertMatches(String parameter, String value, List<Organization> all, Organization... expected)
+	{
+		AbstractSearchParameter<Organization> searchParameter = parameter.startsWith(OrganizationName.PARAMETER_NAME)
+				? new OrganizationName()
+				: new OrganizationType();
+		searchParameter.configure(Map.of(parameter, Collections.singletonList(value)));
+
+		assertSearchResult(all.stream().filter(searchParameter::matches).collect(Collectors.toList()), expected);
+	}
+
+	@Test
+	public void testSearchNameMatchesAlias() throws Exception
+	{
+		Organization alpha = createOrganization("Alpha Hospital", "AH", null);
+		Organization beta = createOrganization("Beta Clinic", "Beta Alias", null);
+		List<Organization> all = Arrays.asList(alpha, beta);
+
+		assertSearchResult(search(alpha, "name", "ah"), alpha);
+		assertMatches("name", "ah", all, alpha);
+
+		assertSearchResult(search(alpha, "name:exact", "Beta Alias"), beta);
+		assertMatches("name:exact", "Beta Alias", all, beta);
+
+		assertSearchResult(search(alpha, "name:contains", "alias"), beta);
+		assertMatches("name:contains", "alias", all, beta);
+
+		assertSearchResult(search(alpha, "name:contains", "l"), alpha, beta);
+		assertMatches("name:contains", "l", all, alpha, beta);
+	}
+
+	@Test
+	public void testSearchTypeNotMatchesResourcesWithoutValue() throws Exception
+	{
+		Organization a = createOrganization("A", null, "A");
+		Organization b = createOrganization("B", null, "B");
+		Organization none = createOrganization("None", null, null);
+		List<Organization> all = Arrays.asList(a, b, none);
+
+		assertSearchResult(search(a, "type", "http://test.org/type|A"), a);
+		assertMatches("type", "http://test.org/type|A", all, a);
+
+		assertSearchResult(search(a, "type:not", "http://test.org/type|A"), b, none);
+		assertMatches("type:not", "http://test.org/type|A", all, b, none);
+	}
 }
@@ -179,6 +179,30 @@ public interface ReadAccessDaoTest<D extends Resource>
 		assertReadAccessEntryCount(2, 1, createdD, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
 	}
 
+	@Test
+	default void testReadAccessTriggerOrganizationResourceFirstDeleted() throws Exception
+	{
+		final String orgIdentifier = "org.com";
+
+		D d = createResource();
+		new ReadAccessHelperImpl().addOrganization(d, orgIdentifier);
+
+		D createdD = getDao().create(d);
+		getDao().delete(UUID.fromString(createdD.getIdElement().getIdPart()));
+
+		assertReadAccessEntryCount(1, 1, createdD, READ_ACCESS_TAG_VALUE_LOCAL);
+		assertReadAccessEntryCount(1, 0, createdD, READ_ACCESS_TAG_VALUE_ORGANIZATION);
+
+		Organization org = new Organization();
+		org.setActive(true);
+		org.addIdentifier().setSystem(ORGANIZATION_IDENTIFIER_SYSTEM).setValue(orgIdentifier);
+		Organization createdOrg = new OrganizationDaoJdbc(getDefaultDataSource(), getPermanentDeleteDataSource(),
+				getFhirContext()).create(org);
+
+		assertReadAccessEntryCount(1, 1, createdD, READ_ACCESS_TAG_VALUE_LOCAL);
+		assertReadAccessEntryCount(1, 0, createdD, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
+	}
+
 	@Test
 	default void testReadAccessTriggerOrganization2Organizations1Matching() throws Exception
 	{
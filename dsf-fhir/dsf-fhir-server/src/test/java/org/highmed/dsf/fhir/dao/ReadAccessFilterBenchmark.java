@@ -0,0 +1,252 @@
+package org.highmed.dsf.fhir.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.highmed.dsf.fhir.authentication.User;
+import org.highmed.dsf.fhir.authentication.UserRole;
+import org.highmed.dsf.fhir.dao.jdbc.PatientDaoJdbc;
+import org.highmed.dsf.fhir.search.SearchQuery;
+import org.highmed.dsf.fhir.search.parameters.user.PatientUserFilter;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.uhn.fhir.context.FhirContext;
+import de.rwh.utils.test.LiquibaseTemplateTestClassRule;
+
+/**
+ * Compares the read access user filter before (correlated <code>count(*) &gt; 0</code> subquery with the two additional
+ * read_access indexes) and after (<code>EXISTS</code> subquery using read_access_unique) on 1,000,000 Patient resources
+ * with 1,610,000 read_access rows. Not part of the surefire includes, run with
+ * <code>mvn test -Dtest=ReadAccessFilterBenchmark</code> against the database used by the dao tests, median execution
+ * times and <code>EXPLAIN (ANALYZE, BUFFERS)</code> results of the count and first page queries are logged.
+ */
+public class ReadAccessFilterBenchmark extends AbstractDbTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(ReadAccessFilterBenchmark.class);
+
+	private static final int RESOURCES = 1_000_000;
+	private static final int OTHER_ORGANIZATIONS = 50;
+	private static final int WARMUP_RUNS = 2;
+	private static final int MEASUREMENT_RUNS = 5;
+
+	private static final String LOCAL_ORGANIZATION_ID = UUID.nameUUIDFromBytes("local".getBytes()).toString();
+	private static final String REMOTE_ORGANIZATION_ID = UUID.nameUUIDFromBytes("remote".getBytes()).toString();
+
+	private static final String OLD_INDEXES = "CREATE INDEX read_access_id_version_type_index ON read_access USING btree (resource_id, resource_version, access_type);"
+			+ "CREATE INDEX read_access_id_version_type_organization_index ON read_access USING btree (resource_id, resource_version, access_type, organization_id)";
+	private static final String DROP_OLD_INDEXES = "DROP INDEX read_access_id_version_type_index;"
+			+ "DROP INDEX read_access_id_version_type_organization_index";
+
+	private static final BasicDataSource adminDataSource = createAdminBasicDataSource();
+	private static final BasicDataSource liquibaseDataSource = createLiquibaseDataSource();
+	private static final BasicDataSource defaultDataSource = createDefaultDataSource();
+	private static final BasicDataSource permanentDeleteDataSource = createPermanentDeleteDataSource();
+
+	@ClassRule
+	public static final LiquibaseTemplateTestClassRule liquibaseRule = new LiquibaseTemplateTestClassRule(
+			adminDataSource, LiquibaseTemplateTestClassRule.DEFAULT_TEST_DB_NAME, "read_access_benchmark_template",
+			liquibaseDataSource, CHANGE_LOG_FILE, CHANGE_LOG_PARAMETERS, false);
+
+	@BeforeClass
+	public static void beforeClass() throws Exception
+	{
+		defaultDataSource.start();
+		liquibaseDataSource.start();
+		adminDataSource.start();
+		permanentDeleteDataSource.start();
+
+		insertResources();
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception
+	{
+		defaultDataSource.close();
+		liquibaseDataSource.close();
+		adminDataSource.close();
+		permanentDeleteDataSource.close();
+	}
+
+	private static void insertResources() throws SQLException
+	{
+		logger.info("Inserting {} patients and read access rows ...", RESOURCES);
+		long start = System.currentTimeMillis();
+
+		try (Connection connection = liquibaseDataSource.getConnection();
+				Statement statement = connection.createStatement())
+		{
+			// read access rows are inserted directly, not by the read access tag triggers
+			statement.execute("SET session_replication_role = replica");
+
+			statement.execute("INSERT INTO patients (patient_id, version, patient) SELECT md5('patient' || i)::uuid, 1,"
+					+ " jsonb_build_object('resourceType', 'Patient', 'id', md5('patient' || i)::uuid, 'meta',"
+					+ " jsonb_build_object('versionId', '1')) FROM generate_series(1, " + RESOURCES + ") AS i");
+			statement.execute(
+					"INSERT INTO current_versions (resource_table, resource_id, version) SELECT 'patients', patient_id, version FROM patients");
+
+			// every resource LOCAL, every 10th ALL, every 100th for the remote organization, every 2nd for one of 50
+			// other organizations
+			statement.execute("INSERT INTO read_access (resource_id, resource_version, access_type)"
+					+ " SELECT md5('patient' || i)::uuid, 1, 'LOCAL' FROM generate_series(1, " + RESOURCES + ") AS i");
+			statement.execute("INSERT INTO read_access (resource_id, resource_version, access_type)"
+					+ " SELECT md5('patient' || i)::uuid, 1, 'ALL' FROM generate_series(10, " + RESOURCES
+					+ ", 10) AS i");
+			statement.execute("INSERT INTO read_access (resource_id, resource_version, access_type, organization_id)"
+					+ " SELECT md5('patient' || i)::uuid, 1, 'ORGANIZATION', '" + REMOTE_ORGANIZATION_ID
+					+ "' FROM generate_series(1, " + RESOURCES + ", 100) AS i");
+			statement.execute("INSERT INTO read_access (resource_id, resource_version, access_type, organization_id)"
+					+ " SELECT md5('patient' || i)::uuid, 1, 'ORGANIZATION', md5('organization' || (i % "
+					+ OTHER_ORGANIZATIONS + "))::uuid FROM generate_series(2, " + RESOURCES + ", 2) AS i");
+
+			statement.execute("VACUUM ANALYZE patients");
+			statement.execute("VACUUM ANALYZE current_versions");
+			statement.execute("VACUUM ANALYZE read_access");
+
+			try (ResultSet result = statement.executeQuery("SELECT count(*) FROM read_access"))
+			{
+				result.next();
+				logger.info("Inserted {} patients and {} read access rows in {} ms", RESOURCES, result.getLong(1),
+						System.currentTimeMillis() - start);
+			}
+		}
+	}
+
+	private static User user(boolean local)
+	{
+		Organization organization = new Organization();
+		organization
+				.setIdElement(new IdType("Organization", local ? LOCAL_ORGANIZATION_ID : REMOTE_ORGANIZATION_ID, "1"));
+		return local ? User.local(organization) : User.remote(organization);
+	}
+
+	/**
+	 * Filter query of the read access user filter before the <code>EXISTS</code> change
+	 */
+	private static String oldFilterQuery(User user)
+	{
+		return "(SELECT count(*) FROM read_access WHERE read_access.resource_id = current_patients.patient_id"
+				+ " AND read_access.resource_version = current_patients.version"
+				+ " AND (read_access.organization_id = ? OR read_access.access_type = 'ALL'"
+				+ (UserRole.LOCAL.equals(user.getRole()) ? " OR read_access.access_type = 'LOCAL'" : "") + ")) > 0";
+	}
+
+	@Test
+	public void benchmark() throws Exception
+	{
+		List<String> results = new ArrayList<>();
+
+		executeUpdate(OLD_INDEXES);
+		results.addAll(measure("before: count(*) > 0, with old indexes", true));
+		executeUpdate(DROP_OLD_INDEXES);
+		results.addAll(measure("count(*) > 0, without old indexes", true));
+		results.addAll(measure("after: EXISTS, without old indexes", false));
+
+		logger.info("Results (median of {} runs):\n{}", MEASUREMENT_RUNS,
+				results.stream().collect(Collectors.joining("\n")));
+	}
+
+	private void executeUpdate(String sql) throws SQLException
+	{
+		try (Connection connection = liquibaseDataSource.getConnection();
+				Statement statement = connection.createStatement())
+		{
+			statement.execute(sql);
+			statement.execute("VACUUM ANALYZE read_access");
+		}
+	}
+
+	private List<String> measure(String variant, boolean oldFilter) throws SQLException
+	{
+		List<String> results = new ArrayList<>();
+
+		for (User user : List.of(user(true), user(false)))
+		{
+			SearchQuery<Patient> query = new PatientDaoJdbc(defaultDataSource, permanentDeleteDataSource,
+					FhirContext.forR4()).createSearchQuery(user, 1, 20);
+			query.configureParameters(Collections.emptyMap());
+
+			String newFilter = new PatientUserFilter(user).getFilterQuery();
+			String countSql = oldFilter ? query.getCountSql().replace(newFilter, oldFilterQuery(user))
+					: query.getCountSql();
+			String searchSql = oldFilter ? query.getSearchSql().replace(newFilter, oldFilterQuery(user))
+					: query.getSearchSql();
+
+			String prefix = variant + ", " + user.getRole() + " user, ";
+			results.add(prefix + "count: " + measure(prefix + "count", countSql, query, false));
+			results.add(prefix + "first page: " + measure(prefix + "first page", searchSql, query, true));
+		}
+
+		return results;
+	}
+
+	private String measure(String name, String sql, SearchQuery<Patient> query, boolean search) throws SQLException
+	{
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql))
+			{
+				modifyStatement(query, statement, connection, search);
+
+				try (ResultSet result = statement.executeQuery())
+				{
+					StringBuilder plan = new StringBuilder();
+					while (result.next())
+						plan.append('\n').append(result.getString(1));
+
+					logger.info("{}: {}{}", name, sql, plan);
+				}
+			}
+
+			long[] durations = new long[MEASUREMENT_RUNS];
+			long rows = 0;
+			for (int run = -WARMUP_RUNS; run < MEASUREMENT_RUNS; run++)
+			{
+				try (PreparedStatement statement = connection.prepareStatement(sql))
+				{
+					modifyStatement(query, statement, connection, search);
+
+					long start = System.nanoTime();
+					try (ResultSet result = statement.executeQuery())
+					{
+						rows = 0;
+						while (result.next())
+							rows = result.getObject(1) instanceof Long ? result.getLong(1) : rows + 1;
+					}
+
+					if (run >= 0)
+						durations[run] = System.nanoTime() - start;
+				}
+			}
+
+			Arrays.sort(durations);
+			return String.format("%.1f ms (%d)", durations[MEASUREMENT_RUNS / 2] / 1_000_000d, rows);
+		}
+	}
+
+	private void modifyStatement(SearchQuery<Patient> query, PreparedStatement statement, Connection connection,
+			boolean search) throws SQLException
+	{
+		if (search)
+			query.modifySearchStatement(statement, connection::createArrayOf);
+		else
+			query.modifyStatement(statement, connection::createArrayOf);
+	}
+}
@@ -1,10 +1,24 @@
 package org.highmed.dsf.fhir.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.highmed.dsf.fhir.dao.jdbc.TaskDaoJdbc;
+import org.highmed.dsf.fhir.search.PageCursor;
+import org.highmed.dsf.fhir.search.PartialResult;
+import org.highmed.dsf.fhir.search.SearchQuery;
+import org.highmed.dsf.fhir.search.SearchResultHandler;
+import org.highmed.dsf.fhir.search.SearchResultStream;
+import org.highmed.dsf.fhir.search.TotalMode;
 import org.hl7.fhir.r4.model.Task;
 import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
 
 public class TaskDaoTest extends AbstractResourceDaoTest<Task, TaskDao>
 {
@@ -42,4 +56,164 @@ public class TaskDaoTest extends AbstractResourceDaoTest<Task, TaskDao>
 	{
 		assertEquals(description, resource.getDescription());
 	}
+
+	private SearchQuery<Task> createSearchQuery(int page, int count, String total)
+	{
+		SearchQuery<Task> query = dao.createSearchQueryWithoutUserFilter(page, count);
+		query.configureParameters(total == null ? Collections.emptyMap()
+				: Map.of(SearchQuery.PARAMETER_TOTAL, Collections.singletonList(total)));
+		return query;
+	}
+
+	private void createTasks(int count) throws Exception
+	{
+		for (int i = 0; i < count; i++)
+			dao.create(createResource());
+	}
+
+	@Test
+	public void testSearchTotalAccurate() throws Exception
+	{
+		createTasks(3);
+
+		PartialResult<Task> result = dao.search(createSearchQuery(2, 2, null));
+		assertEquals(TotalMode.ACCURATE, result.getTotalMode());
+		assertEquals(3, result.getTotal());
+		assertEquals(1, result.getPartialResult().size());
+
+		PartialResult<Task> explicit = dao.search(createSearchQuery(1, 2, "accurate"));
+		assertEquals(TotalMode.ACCURATE, explicit.getTotalMode());
+		assertEquals(3, explicit.getTotal());
+		assertEquals(2, explicit.getPartialResult().size());
+	}
+
+	@Test
+	public void testSearchTotalNone() throws Exception
+	{
+		createTasks(3);
+
+		PartialResult<Task> fullPage = dao.search(createSearchQuery(1, 2, "none"));
+		assertEquals(TotalMode.NONE, fullPage.getTotalMode());
+		assertEquals(0, fullPage.getTotal());
+		assertEquals(2, fullPage.getPartialResult().size());
+
+		PartialResult<Task> partialPage = dao.search(createSearchQuery(2, 2, "none"));
+		assertEquals(TotalMode.NONE, partialPage.getTotalMode());
+		assertEquals(1, partialPage.getPartialResult().size());
+
+		PartialResult<Task> emptyPage = dao.search(createSearchQuery(3, 2, "none"));
+		assertTrue(emptyPage.getPartialResult().isEmpty());
+	}
+
+	@Test
+	public void testSearchTotalEstimate() throws Exception
+	{
+		createTasks(3);
+
+		PartialResult<Task> result = dao.search(createSearchQuery(2, 2, "estimate"));
+		assertEquals(TotalMode.ESTIMATE, result.getTotalMode());
+		assertTrue(result.getTotal() >= 0);
+		assertEquals(1, result.getPartialResult().size());
+	}
+
+	@Test
+	public void testSearchTotalNoneCountOnly() throws Exception
+	{
+		createTasks(1);
+
+		PartialResult<Task> result = dao.search(createSearchQuery(1, 0, "none"));
+		assertEquals(TotalMode.NONE, result.getTotalMode());
+		assertTrue(result.getPartialResult().isEmpty());
+	}
+
+	private List<Task> handle(SearchResultStream<Task> stream) throws Exception
+	{
+		List<Task> tasks = new ArrayList<>();
+		stream.handle(new SearchResultHandler<Task>()
+		{
+			@Override
+			public void handleTotal(int total, TotalMode totalMode)
+			{
+			}
+
+			@Override
+			public void handleResource(Task resource)
+			{
+				tasks.add(resource);
+			}
+		});
+		return tasks;
+	}
+
+	@Test
+	public void testSearchStreamPageSize() throws Exception
+	{
+		createTasks(3);
+
+		for (String total : List.of("accurate", "none", "estimate"))
+		{
+			try (SearchResultStream<Task> fullPage = dao.searchStream(createSearchQuery(1, 2, total)))
+			{
+				assertEquals(2, fullPage.getPageSize());
+				assertEquals(2, handle(fullPage).size());
+			}
+
+			try (SearchResultStream<Task> partialPage = dao.searchStream(createSearchQuery(2, 2, total)))
+			{
+				assertEquals(1, partialPage.getPageSize());
+				assertEquals(1, handle(partialPage).size());
+			}
+
+			try (SearchResultStream<Task> emptyPage = dao.searchStream(createSearchQuery(3, 2, total)))
+			{
+				assertEquals(0, emptyPage.getPageSize());
+				assertTrue(handle(emptyPage).isEmpty());
+			}
+		}
+	}
+
+	private SearchQuery<Task> createCursorSearchQuery(int count, String sort, PageCursor cursor)
+	{
+		SearchQuery<Task> query = dao.createSearchQueryWithoutUserFilter(1, count);
+		query.configureParameters(cursor == null ? Map.of(SearchQuery.PARAMETER_SORT, Collections.singletonList(sort))
+				: Map.of(SearchQuery.PARAMETER_SORT, Collections.singletonList(sort), SearchQuery.PARAMETER_CURSOR,
+						Collections.singletonList(cursor.encode())));
+		return query;
+	}
+
+	@Test
+	public void testSearchCursorPaging() throws Exception
+	{
+		createTasks(5);
+
+		for (String sort : List.of("_lastUpdated", "-_lastUpdated"))
+		{
+			List<String> expectedIds = dao.search(createCursorSearchQuery(5, sort, null)).getPartialResult().stream()
+					.map(t -> t.getIdElement().getIdPart()).collect(Collectors.toList());
+			assertEquals(5, expectedIds.size());
+
+			List<String> ids = new ArrayList<>();
+			PageCursor cursor = null;
+			do
+			{
+				SearchQuery<Task> query = createCursorSearchQuery(2, sort, cursor);
+				assertTrue(query.getPageAndCount().isCursorPaging());
+
+				List<Task> page = dao.search(query).getPartialResult();
+				page.forEach(t -> ids.add(t.getIdElement().getIdPart()));
+				cursor = page.isEmpty() ? null : PageCursor.fromResource(page.get(page.size() - 1)).get();
+			}
+			while (cursor != null);
+
+			assertEquals(expectedIds, ids);
+		}
+
+		SearchQuery<Task> afterLast = createCursorSearchQuery(2, "_lastUpdated",
+				PageCursor
+						.fromResource(
+								dao.search(createCursorSearchQuery(5, "-_lastUpdated", null)).getPartialResult().get(0))
+						.get());
+		assertTrue(afterLast.getPageAndCount().getCursor().isPresent());
+		assertTrue(dao.search(afterLast).getPartialResult().isEmpty());
+	}
 }
@@ -0,0 +1,124 @@
+package org.highmed.dsf.fhir.dao.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.highmed.dsf.fhir.event.EventHandler;
+import org.highmed.dsf.fhir.help.ExceptionHandler;
+import org.highmed.dsf.fhir.service.ReferenceExtractor;
+import org.highmed.dsf.fhir.validation.SnapshotGenerator;
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.HTTPVerb;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.After;
+import org.junit.Test;
+
+public class BatchCommandListTest
+{
+	private static final class TestCommand extends AbstractCommand
+	{
+		final List<Integer> executed;
+
+		TestCommand(int index, BundleEntryComponent entry, List<Integer> executed)
+		{
+			super(1, index, null, null, null, entry, "https://localhost/fhir", null);
+			this.executed = executed;
+		}
+
+		@Override
+		public void execute(Map<String, IdType> idTranslationTable, Connection connection,
+				ValidationHelper validationHelper, SnapshotGenerator snapshotGenerator)
+		{
+			executed.add(index);
+		}
+
+		@Override
+		public Optional<BundleEntryComponent> postExecute(Connection connection, EventHandler eventHandler)
+		{
+			BundleEntryComponent result = new BundleEntryComponent();
+			result.getResponse().setStatus(String.valueOf(index));
+			return Optional.of(result);
+		}
+	}
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void after() throws Exception
+	{
+		executor.shutdownNow();
+	}
+
+	private static BundleEntryComponent entry(HTTPVerb method, String url, Resource resource)
+	{
+		BundleEntryComponent entry = new BundleEntryComponent().setResource(resource);
+		entry.getRequest().setMethod(method).setUrl(url);
+		return entry;
+	}
+
+	@Test
+	public void testExecuteParallel() throws Exception
+	{
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenAnswer(i -> mock(Connection.class));
+		ReferenceExtractor referenceExtractor = mock(ReferenceExtractor.class);
+		when(referenceExtractor.getReferences(any(Resource.class))).thenAnswer(i -> Stream.empty());
+
+		List<BundleEntryComponent> entries = new ArrayList<>();
+		for (int i = 0; i < 50; i++)
+		{
+			if (i % 10 == 0)
+				entries.add(entry(HTTPVerb.POST, "StructureDefinition", new StructureDefinition()));
+			else if (i % 2 == 0)
+				entries.add(entry(HTTPVerb.PUT, "ActivityDefinition?url=http://foo|" + i, new ActivityDefinition()));
+			else
+				entries.add(entry(HTTPVerb.POST, "Task", new Task()));
+		}
+
+		List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+		List<Command> commands = new ArrayList<>();
+		for (int i = 0; i < entries.size(); i++)
+			commands.add(new TestCommand(i, entries.get(i), executed));
+
+		BatchCommandList commandList = new BatchCommandList(dataSource, mock(ExceptionHandler.class),
+				mock(ValidationHelper.class), mock(SnapshotGenerator.class), mock(EventHandler.class),
+				referenceExtractor, executor, commands);
+
+		Bundle result = commandList.execute();
+
+		assertEquals(entries.size(), result.getEntry().size());
+		for (int i = 0; i < entries.size(); i++)
+			assertEquals(String.valueOf(i), result.getEntry().get(i).getResponse().getStatus());
+
+		List<Integer> structureDefinitions = List.of(0, 10, 20, 30, 40);
+		assertEquals(structureDefinitions, executed.subList(0, 5));
+
+		List<Integer> activityDefinitions = executed.stream().filter(i -> i % 2 == 0 && i % 10 != 0)
+				.collect(Collectors.toList());
+		List<Integer> sortedActivityDefinitions = new ArrayList<>(activityDefinitions);
+		Collections.sort(sortedActivityDefinitions);
+		assertEquals(sortedActivityDefinitions, activityDefinitions);
+		assertTrue(executed.containsAll(List.of(1, 49)));
+	}
+}
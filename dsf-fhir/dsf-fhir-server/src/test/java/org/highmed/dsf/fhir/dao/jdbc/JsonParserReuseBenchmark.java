@@ -0,0 +1,109 @@
+package org.highmed.dsf.fhir.dao.jdbc;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+
+/**
+ * Compares reading and writing a stored resource with a new json parser per call (behavior before parsers were reused)
+ * and with the thread confined parser of a {@link PreparedStatementFactory}. Run {@link #main(String[])} with the test
+ * classpath, the {@link GCProfiler} reports the allocated bytes per operation as <code>gc.alloc.rate.norm</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonParserReuseBenchmark
+{
+	private FhirContext fhirContext;
+	private PreparedStatementFactory<Task> statementFactory;
+
+	private Task task;
+	private String json;
+
+	@Setup
+	public void setup()
+	{
+		fhirContext = FhirContext.forR4();
+		statementFactory = new PreparedStatementFactoryDefault<>(fhirContext, Task.class, "tasks", "task_id", "task");
+
+		task = new Task();
+		task.setIdElement(new IdType("Task", UUID.randomUUID().toString(), "1"));
+		task.getMeta().setVersionId("1").setLastUpdated(new Date());
+		task.getMeta().addTag().setSystem("http://highmed.org/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		task.getMeta().addProfile("http://highmed.org/fhir/StructureDefinition/task-start-ping-process|0.9.0");
+		task.setInstantiatesCanonical("http://highmed.org/bpe/Process/ping|0.9.0");
+		task.setStatus(TaskStatus.REQUESTED);
+		task.setIntent(TaskIntent.ORDER);
+		task.setAuthoredOn(new Date());
+		task.setRequester(new Reference("Organization/" + UUID.randomUUID().toString()));
+		task.getRestriction().addRecipient(new Reference("Organization/" + UUID.randomUUID().toString()));
+		task.addInput().setValue(new StringType("startPingProcessMessage")).getType().addCoding()
+				.setSystem("http://highmed.org/fhir/CodeSystem/bpmn-message").setCode("message-name");
+
+		json = newJsonParser().encodeResourceToString(task);
+	}
+
+	private IParser newJsonParser()
+	{
+		IParser p = fhirContext.newJsonParser();
+		p.setStripVersionsFromReferences(false);
+		return p;
+	}
+
+	@Benchmark
+	public Task parseWithNewParser()
+	{
+		return newJsonParser().parseResource(Task.class, json);
+	}
+
+	@Benchmark
+	public Task parseWithThreadLocalParser()
+	{
+		return statementFactory.getJsonParser().parseResource(Task.class, json);
+	}
+
+	@Benchmark
+	public String encodeWithNewParser()
+	{
+		return newJsonParser().encodeResourceToString(task);
+	}
+
+	@Benchmark
+	public String encodeWithThreadLocalParser()
+	{
+		return statementFactory.getJsonParser().encodeResourceToString(task);
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder().include(JsonParserReuseBenchmark.class.getName()).addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
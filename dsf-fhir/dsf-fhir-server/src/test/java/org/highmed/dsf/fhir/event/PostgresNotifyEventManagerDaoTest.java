@@ -0,0 +1,151 @@
+package org.highmed.dsf.fhir.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.DriverManager;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.highmed.dsf.fhir.dao.AbstractDbTest;
+import org.highmed.dsf.fhir.dao.OrganizationDao;
+import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.hl7.fhir.r4.model.Organization;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import de.rwh.utils.test.LiquibaseTemplateTestClassRule;
+import de.rwh.utils.test.LiquibaseTemplateTestRule;
+
+public class PostgresNotifyEventManagerDaoTest extends AbstractDbTest
+{
+	private static final String DAO_DB_TEMPLATE_NAME = "dao_template";
+
+	private static final BasicDataSource adminDataSource = createAdminBasicDataSource();
+	private static final BasicDataSource liquibaseDataSource = createLiquibaseDataSource();
+	private static final BasicDataSource defaultDataSource = createDefaultDataSource();
+	private static final BasicDataSource permanentDeleteDataSource = createPermanentDeleteDataSource();
+
+	@ClassRule
+	public static final LiquibaseTemplateTestClassRule liquibaseRule = new LiquibaseTemplateTestClassRule(
+			adminDataSource, LiquibaseTemplateTestClassRule.DEFAULT_TEST_DB_NAME, DAO_DB_TEMPLATE_NAME,
+			liquibaseDataSource, CHANGE_LOG_FILE, CHANGE_LOG_PARAMETERS, true);
+
+	@BeforeClass
+	public static void beforeClass() throws Exception
+	{
+		defaultDataSource.start();
+		liquibaseDataSource.start();
+		adminDataSource.start();
+		permanentDeleteDataSource.start();
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception
+	{
+		defaultDataSource.close();
+		liquibaseDataSource.close();
+		adminDataSource.close();
+		permanentDeleteDataSource.close();
+	}
+
+	@Rule
+	public final LiquibaseTemplateTestRule templateRule = new LiquibaseTemplateTestRule(adminDataSource,
+			LiquibaseTemplateTestClassRule.DEFAULT_TEST_DB_NAME, DAO_DB_TEMPLATE_NAME);
+
+	private final FhirContext fhirContext = FhirContext.forR4();
+
+	private OrganizationDao organizationDao;
+
+	private final BlockingQueue<Event> eventsA = new LinkedBlockingQueue<>();
+	private final BlockingQueue<Event> eventsB = new LinkedBlockingQueue<>();
+
+	private PostgresNotifyEventManager managerA;
+	private PostgresNotifyEventManager managerB;
+
+	@Before
+	public void before() throws Exception
+	{
+		organizationDao = new OrganizationDaoJdbc(defaultDataSource, permanentDeleteDataSource, fhirContext);
+
+		DaoProvider daoProvider = mock(DaoProvider.class);
+		when(daoProvider.getDao("Organization")).thenReturn(Optional.<ResourceDao<?>> of(organizationDao));
+
+		managerA = createManager(daoProvider, eventsA);
+		managerB = createManager(daoProvider, eventsB);
+
+		assertTrue(managerA.awaitListening(5, TimeUnit.SECONDS));
+		assertTrue(managerB.awaitListening(5, TimeUnit.SECONDS));
+	}
+
+	private PostgresNotifyEventManager createManager(DaoProvider daoProvider, BlockingQueue<Event> events)
+			throws Exception
+	{
+		EventManagerImpl local = new EventManagerImpl(Collections.singleton(events::add));
+		PostgresNotifyEventManager manager = new PostgresNotifyEventManager(local, defaultDataSource,
+				() -> DriverManager.getConnection(DATABASE_URL, DATABASE_USER, DATABASE_USER_PASSWORD), daoProvider,
+				PostgresNotifyEventManager.DEFAULT_CHANNEL);
+		manager.afterPropertiesSet();
+		return manager;
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		managerA.destroy();
+		managerB.destroy();
+	}
+
+	@Test
+	public void testCreatedEventReceivedByOtherInstance() throws Exception
+	{
+		Organization created = organizationDao.create(new Organization().setName("Test Organization"));
+
+		managerA.handleEvent(new ResourceCreatedEvent(Organization.class, created));
+
+		Event local = eventsA.poll(1, TimeUnit.SECONDS);
+		assertNotNull(local);
+		assertTrue(local instanceof ResourceCreatedEvent);
+
+		Event remote = eventsB.poll(5, TimeUnit.SECONDS);
+		assertNotNull(remote);
+		assertTrue(remote instanceof ResourceCreatedEvent);
+		assertEquals(created.getIdElement().getIdPart(), remote.getId());
+		assertEquals("Test Organization", ((Organization) remote.getResource()).getName());
+
+		// own notification ignored
+		assertNull(eventsA.poll(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testDeletedEventReceivedByOtherInstance() throws Exception
+	{
+		Organization created = organizationDao.create(new Organization().setName("Test Organization"));
+		organizationDao.delete(UUID.fromString(created.getIdElement().getIdPart()));
+
+		managerA.handleEvent(new ResourceDeletedEvent(Organization.class, created.getIdElement().getIdPart()));
+
+		Event remote = eventsB.poll(5, TimeUnit.SECONDS);
+		assertNotNull(remote);
+		assertTrue(remote instanceof ResourceDeletedEvent);
+		assertEquals(Organization.class, remote.getResourceType());
+		assertEquals(created.getIdElement().getIdPart(), remote.getId());
+	}
+}
@@ -0,0 +1,166 @@
+package org.highmed.dsf.fhir.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.highmed.dsf.fhir.authentication.User;
+import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.highmed.dsf.fhir.export.ExportJob.OutputFile;
+import org.highmed.dsf.fhir.search.SearchQuery;
+import org.highmed.dsf.fhir.search.SearchResultHandler;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import ca.uhn.fhir.context.FhirContext;
+
+public class ExportJobManagerImplTest
+{
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final User user = User.local(new Organization().setName("Test Organization"));
+
+	private ExportJobManagerImpl manager;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void before() throws Exception
+	{
+		ResourceDao<Task> taskDao = mock(ResourceDao.class);
+		SearchQuery<Task> taskQuery = mock(SearchQuery.class);
+		when(taskDao.createSearchQuery(any(User.class), anyInt(), anyInt())).thenReturn(taskQuery);
+		doAnswer(i ->
+		{
+			SearchResultHandler<Task> handler = i.getArgument(1);
+			handler.handleResource((Task) new Task().setIdElement(new IdType("Task", "1")));
+			handler.handleResource((Task) new Task().setIdElement(new IdType("Task", "2")));
+			return null;
+		}).when(taskDao).searchStreaming(any(), any());
+
+		ResourceDao<Organization> organizationDao = mock(ResourceDao.class);
+		when(organizationDao.createSearchQuery(any(User.class), anyInt(), anyInt()))
+				.thenReturn(mock(SearchQuery.class));
+
+		DaoProvider daoProvider = mock(DaoProvider.class);
+		when(daoProvider.getDao("Task")).thenReturn(Optional.of(taskDao));
+		when(daoProvider.getDao("Organization")).thenReturn(Optional.of(organizationDao));
+
+		manager = new ExportJobManagerImpl(daoProvider, FhirContext.forR4(), folder.getRoot().toPath(), 1,
+				Duration.ofHours(1));
+		manager.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		manager.destroy();
+	}
+
+	private ExportJob awaitFinished(ExportJob job) throws InterruptedException
+	{
+		for (int i = 0; i < 100 && ExportJob.Status.IN_PROGRESS.equals(job.getStatus()); i++)
+			Thread.sleep(50);
+
+		return job;
+	}
+
+	@Test
+	public void testExport() throws Exception
+	{
+		ExportJob job = awaitFinished(
+				manager.start(user, List.of("Task", "Organization"), null, "https://localhost/fhir/$export"));
+
+		assertEquals(ExportJob.Status.COMPLETED, job.getStatus());
+		assertEquals(2, job.getExportedResourceTypes());
+		assertEquals(1, job.getOutput().size());
+
+		OutputFile output = job.getOutput().get(0);
+		assertEquals("Task", output.getResourceType());
+		assertEquals(2, output.getCount());
+
+		Optional<Path> file = manager.getFile(job, output.getFileName());
+		assertTrue(file.isPresent());
+
+		List<String> lines = Files.readAllLines(file.get(), StandardCharsets.UTF_8);
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).startsWith("{\"resourceType\":\"Task\""));
+		assertFalse(manager.getFile(job, "Organization.ndjson").isPresent());
+
+		assertTrue(manager.getJob(job.getId()).isPresent());
+		assertTrue(job.isOwnedBy(User.local(new Organization().setName("Test Organization"))));
+		assertFalse(job.isOwnedBy(User.remote(new Organization().setName("Test Organization"))));
+
+		assertTrue(manager.delete(job.getId()));
+		assertFalse(manager.getJob(job.getId()).isPresent());
+		assertFalse(Files.exists(file.get()));
+		assertFalse(manager.delete(job.getId()));
+	}
+
+	@Test
+	public void testExportUnsupportedResourceType() throws Exception
+	{
+		ExportJob job = awaitFinished(manager.start(user, List.of("Patient"), null, "https://localhost/fhir/$export"));
+
+		assertEquals(ExportJob.Status.FAILED, job.getStatus());
+		assertTrue(job.getOutput().isEmpty());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testExportSince() throws Exception
+	{
+		ResourceDao<Task> taskDao = mock(ResourceDao.class);
+		SearchQuery<Task> taskQuery = mock(SearchQuery.class);
+		when(taskDao.createSearchQuery(any(User.class), anyInt(), anyInt())).thenReturn(taskQuery);
+
+		DaoProvider daoProvider = mock(DaoProvider.class);
+		when(daoProvider.getDao("Task")).thenReturn(Optional.of(taskDao));
+
+		ExportJobManagerImpl manager = new ExportJobManagerImpl(daoProvider, FhirContext.forR4(),
+				folder.getRoot().toPath(), 1, Duration.ofHours(1));
+		try
+		{
+			ExportJob job = awaitFinished(manager.start(user, List.of("Task"), new Date(0),
+					"https://localhost/fhir/Task/$export?_since=1970-01-01T00:00:00Z"));
+			assertEquals(ExportJob.Status.COMPLETED, job.getStatus());
+
+			ArgumentCaptor<Map<String, List<String>>> parameters = ArgumentCaptor.forClass(Map.class);
+			verify(taskQuery).configureParameters(parameters.capture());
+			assertEquals(List.of("none"), parameters.getValue().get("_total"));
+
+			String lastUpdated = parameters.getValue().get("_lastUpdated").get(0);
+			assertTrue(lastUpdated.startsWith("gt"));
+			assertEquals(Instant.EPOCH, ZonedDateTime.parse(lastUpdated.substring(2)).toInstant());
+		}
+		finally
+		{
+			manager.destroy();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package org.highmed.dsf.fhir.help;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class ByteRangeTest
+{
+	@Test
+	public void testParse() throws Exception
+	{
+		Optional<ByteRange> range = ByteRange.parse("bytes=0-9", 100);
+		assertTrue(range.isPresent());
+		assertTrue(range.get().isSatisfiable());
+		assertEquals(0, range.get().getFirst());
+		assertEquals(10, range.get().getLength());
+		assertEquals("bytes 0-9/100", range.get().getContentRange());
+	}
+
+	@Test
+	public void testParseOpenEnd() throws Exception
+	{
+		Optional<ByteRange> range = ByteRange.parse("bytes=90-", 100);
+		assertTrue(range.isPresent());
+		assertEquals(90, range.get().getFirst());
+		assertEquals(10, range.get().getLength());
+		assertEquals("bytes 90-99/100", range.get().getContentRange());
+	}
+
+	@Test
+	public void testParseLastAfterEnd() throws Exception
+	{
+		Optional<ByteRange> range = ByteRange.parse("bytes=90-200", 100);
+		assertTrue(range.isPresent());
+		assertEquals(10, range.get().getLength());
+		assertEquals("bytes 90-99/100", range.get().getContentRange());
+	}
+
+	@Test
+	public void testParseSuffix() throws Exception
+	{
+		Optional<ByteRange> range = ByteRange.parse("bytes=-20", 100);
+		assertTrue(range.isPresent());
+		assertEquals(80, range.get().getFirst());
+		assertEquals(20, range.get().getLength());
+		assertEquals("bytes 80-99/100", range.get().getContentRange());
+	}
+
+	@Test
+	public void testParseNotSatisfiable() throws Exception
+	{
+		Optional<ByteRange> range = ByteRange.parse("bytes=100-", 100);
+		assertTrue(range.isPresent());
+		assertFalse(range.get().isSatisfiable());
+		assertEquals(0, range.get().getLength());
+		assertEquals("bytes */100", range.get().getContentRange());
+	}
+
+	@Test
+	public void testParseIgnored() throws Exception
+	{
+		assertFalse(ByteRange.parse(null, 100).isPresent());
+		assertFalse(ByteRange.parse("bytes=-", 100).isPresent());
+		assertFalse(ByteRange.parse("bytes=10-5", 100).isPresent());
+		assertFalse(ByteRange.parse("bytes=0-9,20-29", 100).isPresent());
+		assertFalse(ByteRange.parse("items=0-9", 100).isPresent());
+	}
+}
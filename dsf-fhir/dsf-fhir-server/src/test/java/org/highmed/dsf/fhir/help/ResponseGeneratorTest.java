@@ -0,0 +1,129 @@
+package org.highmed.dsf.fhir.help;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import javax.ws.rs.core.UriBuilder;
+
+import org.highmed.dsf.fhir.search.PageAndCount;
+import org.highmed.dsf.fhir.search.PartialResult;
+import org.highmed.dsf.fhir.search.TotalMode;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+
+public class ResponseGeneratorTest
+{
+	private static final String SERVER_BASE = "https://localhost/fhir";
+
+	private final ResponseGenerator responseGenerator = new ResponseGenerator(SERVER_BASE, FhirContext.forR4());
+
+	private Bundle createSearchSet(TotalMode totalMode, int total, int page, int count, int resources)
+	{
+		List<Task> tasks = new ArrayList<>();
+		for (int i = 0; i < resources; i++)
+		{
+			Task task = new Task();
+			task.setIdElement(new IdType("Task", UUID.randomUUID().toString(), "1"));
+			tasks.add(task);
+		}
+
+		PartialResult<Task> result = new PartialResult<>(total, totalMode, new PageAndCount(page, count), tasks,
+				Collections.emptyList());
+
+		return responseGenerator.createSearchSet(result, Collections.emptyList(),
+				UriBuilder.fromPath(SERVER_BASE).path("Task"), null, null);
+	}
+
+	@Test
+	public void testAccurateFullPage() throws Exception
+	{
+		Bundle bundle = createSearchSet(TotalMode.ACCURATE, 5, 1, 2, 2);
+
+		assertEquals(5, bundle.getTotal());
+		assertNotNull(bundle.getLink("next"));
+		assertTrue(bundle.getLink("last").getUrl().contains("_page=3"));
+	}
+
+	@Test
+	public void testAccurateFullLastPage() throws Exception
+	{
+		Bundle bundle = createSearchSet(TotalMode.ACCURATE, 4, 2, 2, 2);
+
+		assertEquals(4, bundle.getTotal());
+		assertNull(bundle.getLink("next"));
+		assertTrue(bundle.getLink("last").getUrl().contains("_page=2"));
+	}
+
+	@Test
+	public void testAccuratePartialLastPage() throws Exception
+	{
+		Bundle bundle = createSearchSet(TotalMode.ACCURATE, 3, 2, 2, 1);
+
+		assertEquals(3, bundle.getTotal());
+		assertNull(bundle.getLink("next"));
+		assertNotNull(bundle.getLink("last"));
+	}
+
+	@Test
+	public void testNoneFullPage() throws Exception
+	{
+		Bundle bundle = createSearchSet(TotalMode.NONE, 0, 1, 2, 2);
+
+		assertFalse(bundle.hasTotal());
+		assertTrue(bundle.getLink("next").getUrl().contains("_page=2"));
+		assertNull(bundle.getLink("last"));
+	}
+
+	@Test
+	public void testNonePartialPage() throws Exception
+	{
+		Bundle bundle = createSearchSet(TotalMode.NONE, 0, 2, 2, 1);
+
+		assertFalse(bundle.hasTotal());
+		assertNull(bundle.getLink("next"));
+		assertNull(bundle.getLink("last"));
+	}
+
+	@Test
+	public void testNoneEmptyPage() throws Exception
+	{
+		Bundle bundle = createSearchSet(TotalMode.NONE, 0, 3, 2, 0);
+
+		assertFalse(bundle.hasTotal());
+		assertNull(bundle.getLink("first"));
+		assertNull(bundle.getLink("next"));
+		assertNull(bundle.getLink("last"));
+	}
+
+	@Test
+	public void testEstimateFullPage() throws Exception
+	{
+		Bundle bundle = createSearchSet(TotalMode.ESTIMATE, 1, 1, 2, 2);
+
+		assertEquals(1, bundle.getTotal());
+		assertNotNull(bundle.getLink("next"));
+		assertNull(bundle.getLink("last"));
+	}
+
+	@Test
+	public void testEstimatePartialPage() throws Exception
+	{
+		Bundle bundle = createSearchSet(TotalMode.ESTIMATE, 10, 1, 2, 1);
+
+		assertEquals(10, bundle.getTotal());
+		assertNull(bundle.getLink("next"));
+		assertNull(bundle.getLink("last"));
+	}
+}
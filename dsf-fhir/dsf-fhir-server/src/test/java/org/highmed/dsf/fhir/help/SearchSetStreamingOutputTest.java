@@ -0,0 +1,181 @@
+package org.highmed.dsf.fhir.help;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriBuilder;
+
+import org.highmed.dsf.fhir.function.RunnableWithSqlException;
+import org.highmed.dsf.fhir.search.PageAndCount;
+import org.highmed.dsf.fhir.search.SearchQueryParameterError;
+import org.highmed.dsf.fhir.search.SearchQueryParameterError.SearchQueryParameterErrorType;
+import org.highmed.dsf.fhir.search.SearchResultHandler;
+import org.highmed.dsf.fhir.search.SearchResultStream;
+import org.highmed.dsf.fhir.search.TotalMode;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+
+public class SearchSetStreamingOutputTest
+{
+	private static final String SERVER_BASE = "https://localhost/fhir";
+
+	private final FhirContext fhirContext = FhirContext.forR4();
+	private final ResponseGenerator responseGenerator = new ResponseGenerator(SERVER_BASE, fhirContext);
+
+	private RunnableWithSqlException closed;
+
+	private StreamingOutput createStream(TotalMode totalMode, int total, MediaType mediaType, Task... tasks)
+			throws Exception
+	{
+		return createStream(Collections.emptyList(), totalMode, total, mediaType, tasks);
+	}
+
+	@SuppressWarnings("unchecked")
+	private StreamingOutput createStream(List<SearchQueryParameterError> errors, TotalMode totalMode, int total,
+			MediaType mediaType, Task... tasks) throws Exception
+	{
+		SearchResultStream<Task> stream = mock(SearchResultStream.class);
+		when(stream.getTotal()).thenReturn(total);
+		when(stream.getTotalMode()).thenReturn(totalMode);
+		when(stream.getPageAndCount()).thenReturn(new PageAndCount(1, 2));
+		when(stream.getPageSize()).thenReturn(tasks.length);
+		doAnswer(invocation ->
+		{
+			SearchResultHandler<Task> handler = invocation.getArgument(0);
+			handler.handleTotal(total, totalMode);
+			for (Task task : tasks)
+				handler.handleResource(task);
+			return null;
+		}).when(stream).handle(any(SearchResultHandler.class));
+
+		closed = () -> verify(stream).close();
+
+		return responseGenerator.createSearchSetStream(stream, errors, UriBuilder.fromPath(SERVER_BASE).path("Task"),
+				null, null, mediaType, r ->
+				{});
+	}
+
+	private Task createTask()
+	{
+		Task task = new Task();
+		task.setIdElement(new IdType("Task", UUID.randomUUID().toString(), "1"));
+		task.getMeta().setVersionId("1");
+		task.setStatus(Task.TaskStatus.REQUESTED);
+		return task;
+	}
+
+	private Bundle write(StreamingOutput output, IParser parser) throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		output.write(out);
+		closed.run();
+		return parser.parseResource(Bundle.class, new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testJson() throws Exception
+	{
+		Bundle bundle = write(createStream(TotalMode.ACCURATE, 3, MediaType.valueOf("application/fhir+json"),
+				createTask(), createTask()), fhirContext.newJsonParser());
+
+		assertEquals(BundleType.SEARCHSET, bundle.getType());
+		assertEquals(3, bundle.getTotal());
+		assertEquals(2, bundle.getEntry().size());
+		assertTrue(bundle.getEntry().get(0).getResource() instanceof Task);
+		assertTrue(bundle.getLink("next") != null);
+		assertTrue(bundle.getLink("last") != null);
+	}
+
+	@Test
+	public void testXml() throws Exception
+	{
+		Bundle bundle = write(createStream(TotalMode.ACCURATE, 2, MediaType.valueOf("application/fhir+xml"),
+				createTask(), createTask()), fhirContext.newXmlParser());
+
+		assertEquals(BundleType.SEARCHSET, bundle.getType());
+		assertEquals(2, bundle.getTotal());
+		assertEquals(2, bundle.getEntry().size());
+		assertTrue(bundle.getEntry().get(1).getResource() instanceof Task);
+		assertTrue(bundle.getLink("next") == null);
+	}
+
+	@Test
+	public void testJsonEmptyWithoutTotal() throws Exception
+	{
+		Bundle bundle = write(createStream(TotalMode.NONE, 0, MediaType.valueOf("application/fhir+json")),
+				fhirContext.newJsonParser());
+
+		assertFalse(bundle.hasTotal());
+		assertTrue(bundle.getEntry().isEmpty());
+		assertTrue(bundle.getLink("next") == null);
+		assertTrue(bundle.getLink("last") == null);
+	}
+
+	@Test
+	public void testJsonFullPageWithoutTotal() throws Exception
+	{
+		Bundle bundle = write(
+				createStream(TotalMode.NONE, 0, MediaType.valueOf("application/fhir+json"), createTask(), createTask()),
+				fhirContext.newJsonParser());
+
+		assertFalse(bundle.hasTotal());
+		assertEquals(2, bundle.getEntry().size());
+		assertTrue(bundle.getLink("next") != null);
+		assertTrue(bundle.getLink("last") == null);
+	}
+
+	@Test
+	public void testXmlPartialPageWithEstimatedTotal() throws Exception
+	{
+		Bundle bundle = write(
+				createStream(TotalMode.ESTIMATE, 5, MediaType.valueOf("application/fhir+xml"), createTask()),
+				fhirContext.newXmlParser());
+
+		assertEquals(5, bundle.getTotal());
+		assertEquals(1, bundle.getEntry().size());
+		assertTrue(bundle.getLink("next") == null);
+		assertTrue(bundle.getLink("last") == null);
+	}
+
+	@Test
+	public void testOutcomeAfterMatches() throws Exception
+	{
+		List<SearchQueryParameterError> errors = List.of(new SearchQueryParameterError(
+				SearchQueryParameterErrorType.UNSUPPORTED_PARAMETER, "not-supported", List.of("value")));
+
+		for (boolean json : List.of(true, false))
+		{
+			Bundle bundle = write(createStream(errors, TotalMode.ACCURATE, 2,
+					MediaType.valueOf(json ? "application/fhir+json" : "application/fhir+xml"), createTask(),
+					createTask()), json ? fhirContext.newJsonParser() : fhirContext.newXmlParser());
+
+			assertEquals(3, bundle.getEntry().size());
+			assertTrue(bundle.getEntry().get(0).getResource() instanceof Task);
+			assertEquals(SearchEntryMode.MATCH, bundle.getEntry().get(1).getSearch().getMode());
+			assertTrue(bundle.getEntry().get(2).getResource() instanceof OperationOutcome);
+			assertEquals(SearchEntryMode.OUTCOME, bundle.getEntry().get(2).getSearch().getMode());
+		}
+	}
+}
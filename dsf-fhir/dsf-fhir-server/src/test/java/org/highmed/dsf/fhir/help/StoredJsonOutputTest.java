@@ -0,0 +1,104 @@
+package org.highmed.dsf.fhir.help;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+import org.highmed.dsf.fhir.dao.StoredJson;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+
+public class StoredJsonOutputTest
+{
+	private final FhirContext fhirContext = FhirContext.forR4();
+
+	@Test
+	public void testWrite() throws Exception
+	{
+		UUID id = UUID.randomUUID();
+		Date lastUpdated = new Date();
+
+		Task task = new Task();
+		task.setIdElement(task.getIdElement().setValue("Task/" + id.toString()));
+		task.getMeta().setVersionId("2").setLastUpdated(lastUpdated);
+		task.setStatus(TaskStatus.REQUESTED);
+		task.setIntent(TaskIntent.ORDER);
+		task.getRequester().setReference("Organization/" + UUID.randomUUID().toString()).getIdentifier()
+				.setSystem("http://highmed.org/sid/organization-identifier").setValue("Test_Organization");
+		task.getRestriction().addRecipient().setReference("Organization/" + UUID.randomUUID().toString());
+
+		// jsonb does not keep the order of properties
+		String encoded = fhirContext.newJsonParser().encodeResourceToString(task);
+		String json = "{" + encoded.substring("{\"resourceType\":\"Task\",".length(), encoded.length() - 1)
+				+ ",\"resourceType\":\"Task\"}";
+
+		StoredJsonOutput output = new StoredJsonOutput(new StoredJson("Task", id, 2, json));
+		assertEquals(id, output.getId());
+		assertEquals("2", output.getVersionId());
+		assertNotNull(output.getLastUpdated());
+		assertEquals(lastUpdated.getTime() / 1000, output.getLastUpdated().getTime() / 1000);
+		assertEquals("Task/" + id.toString() + "/_history/2", output.getIdValue());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		output.write(out);
+		String written = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(written.startsWith("{\"resourceType\":\"Task\","));
+
+		Task read = fhirContext.newJsonParser().parseResource(Task.class, written);
+		Reference requester = read.getRequester();
+		assertFalse(requester.hasReference());
+		assertTrue(requester.hasIdentifier());
+		assertTrue(read.getRestriction().getRecipientFirstRep().hasReference());
+		assertEquals(TaskStatus.REQUESTED, read.getStatus());
+	}
+
+	@Test
+	public void testWriteContainedNotCleaned() throws Exception
+	{
+		UUID id = UUID.randomUUID();
+		String json = "{\"resourceType\":\"Task\",\"id\":\"" + id.toString()
+				+ "\",\"meta\":{\"versionId\":\"1\"},\"contained\":[{\"resourceType\":\"Organization\",\"id\":\"org\","
+				+ "\"partOf\":{\"reference\":\"Organization/foo\",\"identifier\":{\"value\":\"bar\"}}}],"
+				+ "\"status\":\"requested\",\"intent\":\"order\"}";
+
+		StoredJsonOutput output = new StoredJsonOutput(new StoredJson("Task", id, 1, json));
+		assertNull(output.getLastUpdated());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		output.write(out);
+		String written = new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+		assertTrue(written.contains("\"partOf\":{\"reference\":\"Organization/foo\""));
+	}
+
+	@Test
+	public void testWriteValuesAsStored() throws Exception
+	{
+		UUID id = UUID.randomUUID();
+		String json = "{\"id\": \"" + id.toString() + "\", \"meta\": {\"versionId\": \"1\"}, \"input\": [{\"type\": "
+				+ "{\"text\": \"\u00e4\\\"\\n\"}, \"valueDecimal\": 1.50}, {\"type\": {\"text\": \"b\"}, \"valueBoolean\": false, "
+				+ "\"valueReference\": {\"reference\": \"Organization/foo\"}}], \"intent\": \"order\", \"status\": "
+				+ "\"requested\", \"resourceType\": \"Task\"}";
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new StoredJsonOutput(new StoredJson("Task", id, 1, json)).write(out);
+		String written = new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+		assertEquals("{\"resourceType\":\"Task\",\"id\":\"" + id.toString() + "\",\"meta\":{\"versionId\":\"1\"},"
+				+ "\"input\":[{\"type\":{\"text\":\"\u00e4\\\"\\n\"},\"valueDecimal\":1.50},{\"type\":{\"text\":\"b\"},"
+				+ "\"valueBoolean\":false,\"valueReference\":{\"reference\":\"Organization/foo\"}}],"
+				+ "\"intent\":\"order\",\"status\":\"requested\"}", written);
+	}
+}
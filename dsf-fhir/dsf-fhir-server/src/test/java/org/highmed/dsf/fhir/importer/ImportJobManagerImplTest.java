@@ -0,0 +1,222 @@
+package org.highmed.dsf.fhir.importer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.highmed.dsf.fhir.authentication.User;
+import org.highmed.dsf.fhir.dao.ResourceDao;
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.highmed.dsf.fhir.event.Event;
+import org.highmed.dsf.fhir.event.EventGenerator;
+import org.highmed.dsf.fhir.event.EventHandler;
+import org.highmed.dsf.fhir.event.ResourceCreatedEvent;
+import org.highmed.dsf.fhir.validation.ResourceValidator;
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.validation.ResultSeverityEnum;
+import ca.uhn.fhir.validation.SingleValidationMessage;
+import ca.uhn.fhir.validation.ValidationResult;
+
+public class ImportJobManagerImplTest
+{
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final FhirContext fhirContext = FhirContext.forR4();
+	private final User user = User.local(new Organization().setName("Test Organization"));
+
+	private final String existingId = UUID.randomUUID().toString();
+	private final List<Task> created = Collections.synchronizedList(new ArrayList<>());
+	private final List<UUID> createdIds = Collections.synchronizedList(new ArrayList<>());
+	private final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+
+	private ImportJobManagerImpl manager;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void before() throws Exception
+	{
+		ResourceDao<Task> taskDao = mock(ResourceDao.class);
+		when(taskDao.getResourceType()).thenReturn(Task.class);
+		when(taskDao.getExistingIdsWithTransaction(any(Connection.class), anyCollection())).thenAnswer(i ->
+		{
+			Collection<String> ids = i.getArgument(1);
+			return ids.stream().filter(id -> existingId.equals(id) || createdIds.contains(UUID.fromString(id)))
+					.collect(Collectors.toSet());
+		});
+		when(taskDao.createAllWithTransactionAndIds(any(Connection.class), anyMap())).thenAnswer(i ->
+		{
+			Map<UUID, Task> tasks = i.getArgument(1);
+			created.addAll(tasks.values());
+			createdIds.addAll(tasks.keySet());
+			return new ArrayList<>(tasks.values());
+		});
+
+		ResourceDao<Endpoint> endpointDao = mock(ResourceDao.class);
+		when(endpointDao.getResourceType()).thenReturn(Endpoint.class);
+		when(endpointDao.getExistingIdsWithTransaction(any(Connection.class), anyCollection()))
+				.thenReturn(Collections.emptySet());
+		when(endpointDao.createAllWithTransactionAndIds(any(Connection.class), anyMap()))
+				.thenAnswer(i -> new ArrayList<>(i.<Map<UUID, Endpoint>> getArgument(1).values()));
+
+		DaoProvider daoProvider = mock(DaoProvider.class);
+		when(daoProvider.newReadWriteTransaction()).thenAnswer(i -> mock(Connection.class));
+		when(daoProvider.getDao("Task")).thenReturn(Optional.of(taskDao));
+		when(daoProvider.getDao("Endpoint")).thenReturn(Optional.of(endpointDao));
+		when(daoProvider.getDao("Patient")).thenReturn(Optional.empty());
+
+		ResourceValidator validator = mock(ResourceValidator.class);
+		when(validator.validate(any(Resource.class))).thenAnswer(i ->
+		{
+			Resource resource = i.getArgument(0);
+			if (resource instanceof Task && TaskStatus.CANCELLED.equals(((Task) resource).getStatus()))
+			{
+				SingleValidationMessage message = new SingleValidationMessage();
+				message.setSeverity(ResultSeverityEnum.ERROR);
+				message.setMessage("Test error");
+				return new ValidationResult(fhirContext, List.of(message));
+			}
+			else
+				return new ValidationResult(fhirContext, List.of());
+		});
+
+		EventHandler eventHandler = events::add;
+
+		manager = new ImportJobManagerImpl(daoProvider, fhirContext, validator, eventHandler, new EventGenerator(),
+				folder.getRoot().toPath(), 2, 2);
+		manager.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		manager.destroy();
+	}
+
+	private ImportJob awaitFinished(ImportJob job) throws InterruptedException
+	{
+		for (int i = 0; i < 100 && ImportJob.Status.IN_PROGRESS.equals(job.getStatus()); i++)
+			Thread.sleep(50);
+
+		return job;
+	}
+
+	private Task task(String id, TaskStatus status)
+	{
+		Task task = new Task().setStatus(status).setIntent(TaskIntent.ORDER);
+		task.setId(id);
+		return task;
+	}
+
+	@Test
+	public void testImport() throws Exception
+	{
+		IParser parser = fhirContext.newJsonParser();
+		String newId = UUID.randomUUID().toString();
+
+		String ndjson = String.join("\n", parser.encodeResourceToString(task(existingId, TaskStatus.REQUESTED)),
+				parser.encodeResourceToString(task(newId, TaskStatus.REQUESTED)), "not json",
+				parser.encodeResourceToString(new Patient()),
+				parser.encodeResourceToString(task("not-a-uuid", TaskStatus.REQUESTED)), "",
+				parser.encodeResourceToString(task(null, TaskStatus.CANCELLED)),
+				parser.encodeResourceToString(task(null, TaskStatus.COMPLETED)));
+
+		ImportJob job = awaitFinished(manager.start(user,
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "https://localhost/fhir/$import"));
+
+		assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+		assertEquals(8, job.getProcessed());
+		assertEquals(2, job.getImported());
+		assertEquals(1, job.getSkipped());
+		assertEquals(4, job.getInvalid());
+		assertEquals(List.of(3L, 4L, 5L, 7L),
+				job.getIssues().stream().map(ImportJob.Issue::getLine).collect(Collectors.toList()));
+
+		assertEquals(2, created.size());
+		assertEquals(newId, created.get(0).getIdElement().getIdPart());
+		assertEquals(TaskStatus.COMPLETED, created.get(1).getStatus());
+
+		assertEquals(0, folder.getRoot().list().length);
+
+		assertTrue(manager.getJob(job.getId()).isPresent());
+		assertTrue(manager.delete(job.getId()));
+		assertFalse(manager.getJob(job.getId()).isPresent());
+	}
+
+	@Test
+	public void testImportAgainWithoutIds() throws Exception
+	{
+		IParser parser = fhirContext.newJsonParser();
+		String line = parser.encodeResourceToString(task(null, TaskStatus.REQUESTED));
+		String ndjson = String.join("\n", line, parser.encodeResourceToString(task(null, TaskStatus.COMPLETED)));
+
+		ImportJob first = awaitFinished(manager.start(user,
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "https://localhost/fhir/$import"));
+
+		assertEquals(ImportJob.Status.COMPLETED, first.getStatus());
+		assertEquals(2, first.getImported());
+		assertEquals(UUID.nameUUIDFromBytes(line.getBytes(StandardCharsets.UTF_8)), createdIds.get(0));
+
+		ImportJob second = awaitFinished(manager.start(user,
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "https://localhost/fhir/$import"));
+
+		assertEquals(ImportJob.Status.COMPLETED, second.getStatus());
+		assertEquals(0, second.getImported());
+		assertEquals(2, second.getSkipped());
+		assertEquals(2, created.size());
+	}
+
+	@Test
+	public void testImportCreatedEventsForCachedResourceTypes() throws Exception
+	{
+		IParser parser = fhirContext.newJsonParser();
+		String endpointId = UUID.randomUUID().toString();
+		Endpoint endpoint = new Endpoint().setAddress("https://foo/fhir");
+		endpoint.setId(endpointId);
+
+		String ndjson = String.join("\n", parser.encodeResourceToString(task(null, TaskStatus.REQUESTED)),
+				parser.encodeResourceToString(endpoint));
+
+		ImportJob job = awaitFinished(manager.start(user,
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "https://localhost/fhir/$import"));
+
+		assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+		assertEquals(2, job.getImported());
+
+		assertEquals(1, events.size());
+		assertTrue(events.get(0) instanceof ResourceCreatedEvent);
+		assertEquals(Endpoint.class, events.get(0).getResourceType());
+		assertEquals(endpointId, events.get(0).getId());
+	}
+}
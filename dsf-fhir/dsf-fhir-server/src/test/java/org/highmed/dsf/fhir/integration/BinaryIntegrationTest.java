@@ -168,6 +168,33 @@ public class BinaryIntegrationTest extends AbstractIntegrationTest
 		}
 	}
 
+	@Test
+	public void testReadAllowedLocalUserViaStreamWithRange() throws Exception
+	{
+		final String contentType = MediaType.TEXT_PLAIN;
+		final byte[] data = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+		Binary binary = new Binary();
+		binary.setContentType(contentType);
+		binary.setData(data);
+		getReadAccessHelper().addLocal(binary);
+
+		BinaryDao binDao = getSpringWebApplicationContext().getBean(BinaryDao.class);
+		Binary created = binDao.create(binary);
+
+		try (InputStream in = getWebserviceClient().readBinary(created.getIdElement().getIdPart(),
+				MediaType.TEXT_PLAIN_TYPE, 6, 5L))
+		{
+			assertTrue(Arrays.equals("World".getBytes(StandardCharsets.UTF_8), in.readAllBytes()));
+		}
+
+		try (InputStream in = getWebserviceClient().readBinary(created.getIdElement().getIdPart(),
+				created.getIdElement().getVersionIdPart(), MediaType.TEXT_PLAIN_TYPE, 6, null))
+		{
+			assertTrue(Arrays.equals("World".getBytes(StandardCharsets.UTF_8), in.readAllBytes()));
+		}
+	}
+
 	@Test
 	public void testReadAllowedLocalUserViaStreamAcceptWildcard() throws Exception
 	{
@@ -2356,6 +2383,42 @@ public class BinaryIntegrationTest extends AbstractIntegrationTest
 		assertEquals(expectedIds, actualIds);
 	}
 
+	@Test
+	public void testSearchSummary() throws Exception
+	{
+		final String contentType = MediaType.TEXT_PLAIN;
+		final byte[] data = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+		Binary b1 = new Binary();
+		b1.setContentType(contentType);
+		b1.setData(data);
+		getReadAccessHelper().addLocal(b1);
+
+		Binary b2 = new Binary();
+		b2.setContentType(contentType);
+		b2.setData(data);
+		getReadAccessHelper().addAll(b2);
+
+		BinaryDao binaryDao = getSpringWebApplicationContext().getBean(BinaryDao.class);
+		binaryDao.create(b1);
+		binaryDao.create(b2);
+
+		Bundle searchBundle = getWebserviceClient().search(Binary.class,
+				Map.of("_summary", Collections.singletonList("true")));
+		assertNotNull(searchBundle);
+		assertEquals(2, searchBundle.getTotal());
+		assertTrue(searchBundle.getEntry().stream()
+				.allMatch(c -> c.getResource() != null && c.getResource() instanceof Binary));
+		assertTrue(searchBundle.getEntry().stream().map(c -> (Binary) c.getResource())
+				.allMatch(b -> !b.hasData() && contentType.equals(b.getContentType())));
+
+		Bundle searchBundleWithData = getWebserviceClient().search(Binary.class, Collections.emptyMap());
+		assertNotNull(searchBundleWithData);
+		assertEquals(2, searchBundleWithData.getTotal());
+		assertTrue(searchBundleWithData.getEntry().stream().map(c -> (Binary) c.getResource())
+				.allMatch(b -> Arrays.equals(data, b.getData())));
+	}
+
 	@Test
 	public void testSearchAllExternalUser() throws Exception
 	{
@@ -0,0 +1,83 @@
+package org.highmed.dsf.fhir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.highmed.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
+import org.highmed.dsf.fhir.search.parameters.ResourceLastUpdated;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+
+public class SearchQueryCursorTest
+{
+	private SearchQuery<Task> createQuery(Map<String, List<String>> queryParameters)
+	{
+		return SearchQueryBuilder.create(Task.class, "tasks", "task", "task_id", 1, 10)
+				.with(new ResourceLastUpdated<Task>("task")).build().configureParameters(queryParameters);
+	}
+
+	@Test
+	public void testCursorEncodeDecode() throws Exception
+	{
+		UUID id = UUID.randomUUID();
+		PageCursor cursor = new PageCursor("2021-01-01T12:00:00.123+01:00", id);
+
+		PageCursor decoded = PageCursor.decode(cursor.encode());
+		assertEquals("2021-01-01T12:00:00.123+01:00", decoded.getLastUpdated());
+		assertEquals(id, decoded.getId());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCursorDecodeInvalid() throws Exception
+	{
+		PageCursor.decode("not-a-cursor");
+	}
+
+	@Test
+	public void testCursorPaging() throws Exception
+	{
+		PageCursor cursor = new PageCursor("2021-01-01T12:00:00.123+01:00", UUID.randomUUID());
+		SearchQuery<Task> query = createQuery(
+				Map.of(SearchQuery.PARAMETER_SORT, Collections.singletonList("-_lastUpdated"),
+						SearchQuery.PARAMETER_CURSOR, Collections.singletonList(cursor.encode())));
+
+		assertTrue(query.getUnsupportedQueryParameters(Collections.emptyMap()).isEmpty());
+		assertTrue(query.getPageAndCount().isCursorPaging());
+		assertTrue(query.getPageAndCount().getCursor().isPresent());
+
+		assertEquals(
+				"SELECT task FROM current_tasks WHERE last_updated <= ?::timestamp AND (last_updated, task_id) < (?::timestamp, ?::uuid)"
+						+ " ORDER BY last_updated DESC, task_id DESC LIMIT 10",
+				query.getSearchSql());
+		assertEquals("SELECT count(*) FROM current_tasks", query.getCountSql());
+	}
+
+	@Test
+	public void testCursorPagingFirstPage() throws Exception
+	{
+		SearchQuery<Task> query = createQuery(
+				Map.of(SearchQuery.PARAMETER_SORT, Collections.singletonList("_lastUpdated")));
+
+		assertTrue(query.getPageAndCount().isCursorPaging());
+		assertFalse(query.getPageAndCount().getCursor().isPresent());
+		assertEquals("SELECT task FROM current_tasks ORDER BY last_updated, task_id LIMIT 10", query.getSearchSql());
+	}
+
+	@Test
+	public void testCursorWithoutLastUpdatedSort() throws Exception
+	{
+		PageCursor cursor = new PageCursor("2021-01-01T12:00:00.123+01:00", UUID.randomUUID());
+		SearchQuery<Task> query = createQuery(
+				Map.of(SearchQuery.PARAMETER_CURSOR, Collections.singletonList(cursor.encode())));
+
+		assertEquals(1, query.getUnsupportedQueryParameters(Collections.emptyMap()).size());
+		assertFalse(query.getPageAndCount().isCursorPaging());
+		assertEquals("SELECT task FROM current_tasks LIMIT 10", query.getSearchSql());
+	}
+}
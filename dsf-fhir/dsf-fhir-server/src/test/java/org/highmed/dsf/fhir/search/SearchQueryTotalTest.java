@@ -0,0 +1,69 @@
+package org.highmed.dsf.fhir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.UriBuilder;
+
+import org.highmed.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
+import org.highmed.dsf.fhir.search.SearchQueryParameterError.SearchQueryParameterErrorType;
+import org.highmed.dsf.fhir.search.parameters.ResourceLastUpdated;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+
+public class SearchQueryTotalTest
+{
+	private SearchQuery<Task> createQuery(Map<String, List<String>> queryParameters)
+	{
+		return SearchQueryBuilder.create(Task.class, "tasks", "task", "task_id", 2, 10)
+				.with(new ResourceLastUpdated<Task>("task")).build().configureParameters(queryParameters);
+	}
+
+	@Test
+	public void testDefaultAccurate() throws Exception
+	{
+		SearchQuery<Task> query = createQuery(Collections.emptyMap());
+
+		assertEquals(TotalMode.ACCURATE, query.getTotalMode());
+		assertFalse(query.configureBundleUri(UriBuilder.fromPath("Task")).build().toString().contains("_total"));
+	}
+
+	@Test
+	public void testNone() throws Exception
+	{
+		SearchQuery<Task> query = createQuery(Map.of(SearchQuery.PARAMETER_TOTAL, Collections.singletonList("none")));
+
+		assertEquals(TotalMode.NONE, query.getTotalMode());
+		assertTrue(query.getUnsupportedQueryParameters(Collections.emptyMap()).isEmpty());
+		assertTrue(query.configureBundleUri(UriBuilder.fromPath("Task")).build().toString().contains("_total=none"));
+	}
+
+	@Test
+	public void testEstimate() throws Exception
+	{
+		SearchQuery<Task> query = createQuery(
+				Map.of(SearchQuery.PARAMETER_TOTAL, Collections.singletonList("estimate")));
+
+		assertEquals(TotalMode.ESTIMATE, query.getTotalMode());
+		assertEquals("EXPLAIN (FORMAT JSON) SELECT 1 FROM current_tasks", query.getEstimateSql());
+	}
+
+	@Test
+	public void testInvalid() throws Exception
+	{
+		SearchQuery<Task> query = createQuery(
+				Map.of(SearchQuery.PARAMETER_TOTAL, Collections.singletonList("sometimes")));
+
+		assertEquals(TotalMode.ACCURATE, query.getTotalMode());
+
+		List<SearchQueryParameterError> errors = query.getUnsupportedQueryParameters(Collections.emptyMap());
+		assertEquals(1, errors.size());
+		assertEquals(SearchQueryParameterErrorType.UNPARSABLE_VALUE, errors.get(0).getType());
+		assertEquals(SearchQuery.PARAMETER_TOTAL, errors.get(0).getParameterName());
+	}
+}
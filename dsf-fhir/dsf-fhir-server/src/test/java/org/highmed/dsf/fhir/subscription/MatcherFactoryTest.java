@@ -0,0 +1,81 @@
+package org.highmed.dsf.fhir.subscription;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+import java.util.Map;
+
+import org.highmed.dsf.fhir.dao.jdbc.QuestionnaireResponseDaoJdbc;
+import org.highmed.dsf.fhir.dao.jdbc.TaskDaoJdbc;
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.hl7.fhir.r4.model.QuestionnaireResponse;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+
+public class MatcherFactoryTest
+{
+	private final FhirContext fhirContext = FhirContext.forR4();
+	private final MatcherFactory matcherFactory = new MatcherFactory(
+			Map.of("Task", new TaskDaoJdbc(null, null, fhirContext), "QuestionnaireResponse",
+					new QuestionnaireResponseDaoJdbc(null, null, fhirContext)));
+
+	@Test
+	public void testMatcherIndex() throws Exception
+	{
+		List<String> criteria = List.of("Task?status=requested", "Task?status=requested&_profile=http://foo",
+				"Task?status=completed", "Task?identifier=http://foo|bar", "QuestionnaireResponse?status=completed",
+				"Foo?bar=baz");
+		MatcherIndex<String> index = matcherFactory.createMatcherIndex(criteria, c -> c);
+
+		assertTrue(index.hasMatchers(Task.class));
+		assertTrue(index.hasMatchers(QuestionnaireResponse.class));
+
+		DaoProvider daoProvider = mock(DaoProvider.class);
+
+		Task requested = new Task().setStatus(TaskStatus.REQUESTED).setIntent(TaskIntent.ORDER);
+		assertEquals(List.of("Task?status=requested"), index.getMatching(requested, daoProvider));
+
+		Task completed = new Task().setStatus(TaskStatus.COMPLETED).setIntent(TaskIntent.PLAN);
+		completed.addIdentifier().setSystem("http://foo").setValue("bar");
+		assertEquals(List.of("Task?status=completed", "Task?identifier=http://foo|bar"),
+				index.getMatching(completed, daoProvider));
+
+		verifyNoInteractions(daoProvider);
+	}
+
+	@Test
+	public void testMatcherIndexCopyOnWrite() throws Exception
+	{
+		MatcherIndex<String> index = matcherFactory.createMatcherIndex(List.of("Task?status=requested"), c -> c);
+		MatcherIndex<String> added = matcherFactory.addToMatcherIndex(index, "Task?status=completed", c -> c);
+		MatcherIndex<String> removed = added.without("Task?status=requested"::equals);
+
+		assertEquals(List.of("Task?status=requested"), index.getValues());
+		assertEquals(2, added.getValues().size());
+		assertEquals(List.of("Task?status=completed"), removed.getValues());
+		assertTrue(removed.without("Task?status=completed"::equals).getValues().isEmpty());
+		assertFalse(removed.without("Task?status=completed"::equals).hasMatchers(Task.class));
+		assertTrue(removed == removed.without("Task?status=requested"::equals));
+
+		DaoProvider daoProvider = mock(DaoProvider.class);
+		Task completed = new Task().setStatus(TaskStatus.COMPLETED).setIntent(TaskIntent.PLAN);
+		assertTrue(index.getMatching(completed, daoProvider).isEmpty());
+		assertEquals(List.of("Task?status=completed"), added.getMatching(completed, daoProvider));
+	}
+
+	@Test
+	public void testEmptyMatcherIndex() throws Exception
+	{
+		MatcherIndex<String> index = MatcherIndex.empty();
+		assertFalse(index.hasMatchers(Task.class));
+		assertTrue(index.getMatching(new Task(), mock(DaoProvider.class)).isEmpty());
+	}
+}
@@ -0,0 +1,112 @@
+package org.highmed.dsf.fhir.subscription;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint.Async;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.highmed.dsf.fhir.subscription.SessionSendQueue.OverflowPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SessionSendQueueTest
+{
+	private final List<String> sent = new ArrayList<>();
+	private final List<SendHandler> pendingHandlers = new ArrayList<>();
+
+	private Session session;
+
+	@Before
+	public void before() throws Exception
+	{
+		Async async = mock(Async.class);
+		doAnswer(invocation ->
+		{
+			sent.add(invocation.getArgument(0));
+			pendingHandlers.add(invocation.getArgument(1));
+			return null;
+		}).when(async).sendText(anyString(), any(SendHandler.class));
+
+		session = mock(Session.class);
+		when(session.getId()).thenReturn("session");
+		when(session.getAsyncRemote()).thenReturn(async);
+	}
+
+	private void completeSend()
+	{
+		pendingHandlers.remove(0).onResult(new SendResult());
+	}
+
+	@Test
+	public void testOneMessageInFlight() throws Exception
+	{
+		SessionSendQueue queue = new SessionSendQueue(session, 10, OverflowPolicy.CLOSE);
+		queue.send("s", "a");
+		queue.send("s", "b");
+		queue.send("s", "c");
+
+		assertEquals(List.of("a"), sent);
+		assertEquals(2, queue.getQueueDepth());
+
+		completeSend();
+		completeSend();
+		completeSend();
+
+		assertEquals(List.of("a", "b", "c"), sent);
+		assertEquals(0, queue.getQueueDepth());
+		assertEquals(3, queue.getSentCount());
+	}
+
+	@Test
+	public void testOverflowPing() throws Exception
+	{
+		SessionSendQueue queue = new SessionSendQueue(session, 2, OverflowPolicy.PING);
+		queue.send("s", "a");
+		queue.send("s", "b");
+		queue.send("s", "c");
+		queue.send("s", "d");
+		queue.send("s", "e");
+
+		assertEquals(1, queue.getOverflowCount());
+		assertEquals(1, queue.getQueueDepth());
+
+		completeSend();
+		completeSend();
+		assertEquals(List.of("a", "ping s"), sent);
+
+		// queue drained, ping mode left
+		queue.send("s", "f");
+		assertEquals(List.of("a", "ping s", "f"), sent);
+		verify(session, never()).close(any(CloseReason.class));
+	}
+
+	@Test
+	public void testOverflowClose() throws Exception
+	{
+		SessionSendQueue queue = new SessionSendQueue(session, 2, OverflowPolicy.CLOSE);
+		queue.send("s", "a");
+		queue.send("s", "b");
+		queue.send("s", "c");
+		queue.send("s", "d");
+
+		verify(session).close(any(CloseReason.class));
+		assertEquals(0, queue.getQueueDepth());
+
+		completeSend();
+		queue.send("s", "e");
+		assertEquals(List.of("a"), sent);
+	}
+}
@@ -0,0 +1,150 @@
+package org.highmed.dsf.fhir.subscription;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.websocket.RemoteEndpoint.Async;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.highmed.dsf.fhir.authentication.User;
+import org.highmed.dsf.fhir.authorization.AuthorizationRule;
+import org.highmed.dsf.fhir.authorization.AuthorizationRuleProvider;
+import org.highmed.dsf.fhir.dao.SubscriptionDao;
+import org.highmed.dsf.fhir.dao.jdbc.TaskDaoJdbc;
+import org.highmed.dsf.fhir.dao.provider.DaoProvider;
+import org.highmed.dsf.fhir.event.ResourceCreatedEvent;
+import org.highmed.dsf.fhir.help.ExceptionHandler;
+import org.highmed.dsf.fhir.subscription.SessionSendQueue.OverflowPolicy;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.Subscription;
+import org.hl7.fhir.r4.model.Subscription.SubscriptionChannelType;
+import org.hl7.fhir.r4.model.Subscription.SubscriptionStatus;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.api.Constants;
+
+public class WebSocketSubscriptionManagerImplTest
+{
+	private final FhirContext fhirContext = FhirContext.forR4();
+
+	private final List<String> sentTexts = Collections.synchronizedList(new ArrayList<>());
+
+	private Subscription createSubscription(String payload)
+	{
+		Subscription subscription = new Subscription();
+		subscription.setIdElement(new IdType("Subscription", UUID.randomUUID().toString(), "1"));
+		subscription.setStatus(SubscriptionStatus.ACTIVE);
+		subscription.setCriteria("Task?status=requested");
+		subscription.getChannel().setType(SubscriptionChannelType.WEBSOCKET).setPayload(payload);
+		return subscription;
+	}
+
+	private User createUser(boolean local, String organizationId)
+	{
+		Organization organization = new Organization();
+		organization.setIdElement(new IdType("Organization", organizationId, "1"));
+		return local ? User.local(organization) : User.remote(organization);
+	}
+
+	private Session createSession()
+	{
+		Async async = mock(Async.class);
+		doAnswer(invocation ->
+		{
+			sentTexts.add(invocation.getArgument(0));
+			invocation.<SendHandler> getArgument(1).onResult(new SendResult());
+			return null;
+		}).when(async).sendText(anyString(), any(SendHandler.class));
+
+		Session session = mock(Session.class);
+		when(session.getId()).thenReturn(UUID.randomUUID().toString());
+		when(session.getAsyncRemote()).thenReturn(async);
+		return session;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testPayloadEncodedAndReadAccessCheckedOncePerEvent() throws Exception
+	{
+		List<Subscription> subscriptions = List.of(createSubscription(Constants.CT_FHIR_JSON_NEW),
+				createSubscription(Constants.CT_FHIR_JSON_NEW), createSubscription(Constants.CT_FHIR_XML_NEW),
+				createSubscription(Constants.CT_FHIR_XML_NEW));
+
+		SubscriptionDao subscriptionDao = mock(SubscriptionDao.class);
+		when(subscriptionDao.readByStatus(SubscriptionStatus.ACTIVE)).thenReturn(subscriptions);
+		DaoProvider daoProvider = mock(DaoProvider.class);
+		when(daoProvider.getSubscriptionDao()).thenReturn(subscriptionDao);
+
+		AuthorizationRule<Resource> rule = mock(AuthorizationRule.class);
+		when(rule.reasonReadAllowed(any(User.class), any(Resource.class))).thenReturn(Optional.of("test"));
+		AuthorizationRuleProvider authorizationRuleProvider = mock(AuthorizationRuleProvider.class);
+		doReturn(Optional.of(rule)).when(authorizationRuleProvider).getAuthorizationRule(Task.class);
+
+		MatcherFactory matcherFactory = new MatcherFactory(Map.of("Task", new TaskDaoJdbc(null, null, fhirContext)));
+
+		WebSocketSubscriptionManagerImpl manager = new WebSocketSubscriptionManagerImpl(daoProvider,
+				mock(ExceptionHandler.class), matcherFactory, fhirContext, authorizationRuleProvider, 100,
+				OverflowPolicy.CLOSE);
+		manager.afterPropertiesSet();
+
+		// two sessions of the same local organization, one of a remote organization
+		String localOrganizationId = UUID.randomUUID().toString();
+		List<User> users = List.of(createUser(true, localOrganizationId), createUser(true, localOrganizationId),
+				createUser(false, UUID.randomUUID().toString()));
+		for (User user : users)
+		{
+			Session session = createSession();
+			subscriptions.forEach(s -> manager.bind(user, session, s.getIdElement().getIdPart()));
+		}
+
+		Task task = new Task().setStatus(TaskStatus.REQUESTED).setIntent(TaskIntent.ORDER);
+		task.setIdElement(new IdType("Task", UUID.randomUUID().toString(), "1"));
+		manager.handleEvent(new ResourceCreatedEvent(Task.class, task));
+
+		// waits for the event to be handled
+		manager.destroy();
+
+		List<String> payloads = sentTexts.stream().filter(t -> !t.startsWith("bound ")).collect(Collectors.toList());
+		List<String> json = payloads.stream().filter(t -> t.startsWith("{")).collect(Collectors.toList());
+		List<String> xml = payloads.stream().filter(t -> t.startsWith("<")).collect(Collectors.toList());
+
+		assertEquals(12, payloads.size());
+		assertEquals(6, json.size());
+		assertEquals(6, xml.size());
+
+		// same string instances, encoded once per mime type
+		assertTrue(json.stream().allMatch(t -> t == json.get(0)));
+		assertTrue(xml.stream().allMatch(t -> t == xml.get(0)));
+		assertNotSame(json.get(0), xml.get(0));
+		assertEquals(task.getIdElement().getIdPart(),
+				fhirContext.newJsonParser().parseResource(Task.class, json.get(0)).getIdElement().getIdPart());
+
+		// 3 sessions bound to 4 subscriptions, checked once per role and organization
+		verify(rule, times(2)).reasonReadAllowed(any(User.class), any(Resource.class));
+	}
+}
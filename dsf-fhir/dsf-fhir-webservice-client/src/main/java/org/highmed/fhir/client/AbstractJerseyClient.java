@@ -101,4 +101,12 @@ public class AbstractJerseyClient
 	{
 		return baseUrl;
 	}
+
+	/**
+	 * Closes the underlying client and releases pooled connections, the client can not be used afterwards.
+	 */
+	public void close()
+	{
+		client.close();
+	}
 }
@@ -88,6 +88,18 @@ class BasicFhirWebserviceCientWithRetryImpl extends AbstractFhirWebserviceClient
 		return retry(nTimes, delayMillis, () -> delegate.readBinary(id, mediaType));
 	}
 
+	@Override
+	public InputStream readBinary(String id, String version, MediaType mediaType, long offset, Long length)
+	{
+		return retry(nTimes, delayMillis, () -> delegate.readBinary(id, version, mediaType, offset, length));
+	}
+
+	@Override
+	public InputStream readBinary(String id, MediaType mediaType, long offset, Long length)
+	{
+		return retry(nTimes, delayMillis, () -> delegate.readBinary(id, mediaType, offset, length));
+	}
+
 	@Override
 	public <R extends Resource> R read(Class<R> resourceType, String id, String version)
 	{
@@ -47,6 +47,23 @@ public interface BasicFhirWebserviceClient extends PreferReturnResource
 
 	InputStream readBinary(String id, MediaType mediaType);
 
+	/**
+	 * Reads a byte range of the binary data using a HTTP Range request, can be used to resume interrupted downloads or
+	 * to download parts of large binary data in parallel.
+	 *
+	 * @param id
+	 *            not <code>null</code>
+	 * @param mediaType
+	 *            not <code>null</code>
+	 * @param offset
+	 *            &gt;= 0, index of the first byte to read
+	 * @param length
+	 *            may be <code>null</code> to read all bytes starting from the given offset, &gt; 0 if not
+	 *            <code>null</code>
+	 * @return {@link InputStream} needs to be closed
+	 */
+	InputStream readBinary(String id, MediaType mediaType, long offset, Long length);
+
 	/**
 	 * @param resourceTypeName
 	 *            not <code>null</code>
@@ -73,6 +90,25 @@ public interface BasicFhirWebserviceClient extends PreferReturnResource
 	 */
 	InputStream readBinary(String id, String version, MediaType mediaType);
 
+	/**
+	 * Reads a byte range of the binary data using a HTTP Range request, can be used to resume interrupted downloads or
+	 * to download parts of large binary data in parallel.
+	 *
+	 * @param id
+	 *            not <code>null</code>
+	 * @param version
+	 *            not <code>null</code>
+	 * @param mediaType
+	 *            not <code>null</code>
+	 * @param offset
+	 *            &gt;= 0, index of the first byte to read
+	 * @param length
+	 *            may be <code>null</code> to read all bytes starting from the given offset, &gt; 0 if not
+	 *            <code>null</code>
+	 * @return {@link InputStream} needs to be closed
+	 */
+	InputStream readBinary(String id, String version, MediaType mediaType, long offset, Long length);
+
 	boolean exists(IdType resourceTypeIdVersion);
 
 	Bundle search(Class<? extends Resource> resourceType, Map<String, List<String>> parameters);
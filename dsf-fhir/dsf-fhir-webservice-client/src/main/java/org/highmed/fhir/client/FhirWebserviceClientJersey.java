@@ -110,6 +110,7 @@ import ca.uhn.fhir.rest.api.Constants;
 public class FhirWebserviceClientJersey extends AbstractJerseyClient implements FhirWebserviceClient
 {
 	private static final String RFC_7231_FORMAT = "EEE, dd MMM yyyy HH:mm:ss z";
+	private static final String HEADER_RANGE = "Range";
 
 	private static final Logger logger = LoggerFactory.getLogger(FhirWebserviceClientJersey.class);
 
@@ -691,6 +692,52 @@ public class FhirWebserviceClientJersey extends AbstractJerseyClient implements
 			throw handleError(response);
 	}
 
+	@Override
+	public InputStream readBinary(String id, MediaType mediaType, long offset, Long length)
+	{
+		Objects.requireNonNull(id, "id");
+		Objects.requireNonNull(mediaType, "mediaType");
+
+		return readBinaryRange(getResource().path("Binary").path(id), mediaType, offset, length);
+	}
+
+	@Override
+	public InputStream readBinary(String id, String version, MediaType mediaType, long offset, Long length)
+	{
+		Objects.requireNonNull(id, "id");
+		Objects.requireNonNull(version, "version");
+		Objects.requireNonNull(mediaType, "mediaType");
+
+		return readBinaryRange(getResource().path("Binary").path(id).path("_history").path(version), mediaType, offset,
+				length);
+	}
+
+	private InputStream readBinaryRange(WebTarget target, MediaType mediaType, long offset, Long length)
+	{
+		if (offset < 0)
+			throw new IllegalArgumentException("offset < 0");
+		if (length != null && length <= 0)
+			throw new IllegalArgumentException("length <= 0");
+
+		String range = "bytes=" + offset + "-" + (length == null ? "" : String.valueOf(offset + length - 1));
+
+		Response response = target.request().accept(mediaType).header(HEADER_RANGE, range).get();
+
+		logger.debug("HTTP {}: {}", response.getStatusInfo().getStatusCode(),
+				response.getStatusInfo().getReasonPhrase());
+		if (Status.PARTIAL_CONTENT.getStatusCode() == response.getStatus())
+			return response.readEntity(InputStream.class);
+		else if (Status.OK.getStatusCode() == response.getStatus() && offset == 0 && length == null)
+			return response.readEntity(InputStream.class);
+		else if (Status.OK.getStatusCode() == response.getStatus())
+		{
+			response.close();
+			throw new ProcessingException("Range requests not supported by server, HTTP " + response.getStatus());
+		}
+		else
+			throw handleError(response);
+	}
+
 	@Override
 	public boolean exists(IdType resourceTypeIdVersion)
 	{